@@ -4,6 +4,9 @@ import com.altinntech.clicksave.core.CSBootstrap;
 import com.altinntech.clicksave.core.ClicksaveInternalRepository;
 import com.altinntech.clicksave.core.ThreadPoolManager;
 import com.altinntech.clicksave.core.dto.SimpleQueryInfo;
+import com.altinntech.clicksave.core.query.page.Page;
+import com.altinntech.clicksave.core.query.page.Pageable;
+import com.altinntech.clicksave.core.query.page.Slice;
 import com.altinntech.clicksave.core.query.executor.QueryExecutor;
 import com.altinntech.clicksave.interfaces.ClickHouseJpa;
 import com.altinntech.clicksave.interfaces.QueryInfo;
@@ -13,6 +16,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.Future;
+import java.util.stream.Stream;
 
 public abstract class AbstractClicksaveRepository<T, ID> implements ClickHouseJpa<T, ID> {
 
@@ -43,6 +47,18 @@ public abstract class AbstractClicksaveRepository<T, ID> implements ClickHouseJp
         return threadPoolManager.saveAsync(new Object[]{entity}, idType, repository);
     }
 
+    @SneakyThrows
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        return repository.saveAll(entities, idType);
+    }
+
+    @SneakyThrows
+    @Override
+    public <S extends T> long saveAll(Stream<S> entities) {
+        return repository.saveAll(entities, idType);
+    }
+
     @Override
     @SneakyThrows
     public Optional<T> findById(ID id) {
@@ -61,6 +77,24 @@ public abstract class AbstractClicksaveRepository<T, ID> implements ClickHouseJp
         return repository.findAll(entityType).stream().map(t -> (S) t).toList();
     }
 
+    @Override
+    @SneakyThrows
+    public <S extends T> Stream<S> streamAll() {
+        return repository.streamAll(entityType).map(t -> (S) t);
+    }
+
+    @Override
+    @SneakyThrows
+    public <S extends T> Page<S> findAll(Pageable pageable) {
+        return (Page<S>) queryExecutor.findPage(entityType, pageable, true);
+    }
+
+    @Override
+    @SneakyThrows
+    public <S extends T> Slice<S> findSlice(Pageable pageable) {
+        return (Slice<S>) queryExecutor.findPage(entityType, pageable, false);
+    }
+
     @Override
     @SneakyThrows
     public void delete(T entity) {
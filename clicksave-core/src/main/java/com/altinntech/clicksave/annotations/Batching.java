@@ -7,7 +7,7 @@ import java.lang.annotation.Target;
 
 /**
  * The {@code Batching} annotation is used to specify batching settings for save operations.
- * It allows configuring the batch size for efficient saving of entities.
+ * It allows configuring the batch size and the memory budget for efficient saving of entities.
  *
  * @author Fyodor Plotnikov
  */
@@ -21,4 +21,43 @@ public @interface Batching {
      * @return the batch size for saving operations.
      */
     int batchSize();
+
+    /**
+     * Specifies the estimated size in bytes of buffered rows after which the batch is flushed early.
+     * A non-positive value disables the limit.
+     *
+     * @return the maximum size of the batch in bytes.
+     */
+    long maxBytes() default -1;
+
+    /**
+     * Enables the adaptive batch size. The effective batch size starts at {@link #batchSize()} and is tuned
+     * between {@link #minBatchSize()} and {@link #maxBatchSize()} by the observed write latency and errors,
+     * the scheduled flush interval of the entity follows its arrival rate.
+     *
+     * @return {@code true} if the batch size is adaptive.
+     */
+    boolean adaptive() default false;
+
+    /**
+     * Specifies the maximum age in milliseconds of a buffered row. The batch is flushed when its oldest row reaches
+     * the age, instead of on every scheduled save. A non-positive value means the batch is flushed by the scheduled save.
+     *
+     * @return the maximum delay of a row in milliseconds.
+     */
+    long maxDelayMs() default -1;
+
+    /**
+     * Specifies the lower bound of the adaptive batch size. A non-positive value means a tenth of the batch size.
+     *
+     * @return the minimum batch size.
+     */
+    int minBatchSize() default -1;
+
+    /**
+     * Specifies the upper bound of the adaptive batch size. A non-positive value means ten batch sizes.
+     *
+     * @return the maximum batch size.
+     */
+    int maxBatchSize() default -1;
 }
@@ -1,5 +1,6 @@
 package com.altinntech.clicksave.annotations;
 
+import com.altinntech.clicksave.enums.AsyncInsertMode;
 import com.altinntech.clicksave.enums.EngineType;
 
 import java.lang.annotation.ElementType;
@@ -19,4 +20,11 @@ public @interface ClickHouseEntity {
     boolean forTest() default false;
 
     EngineType engine() default EngineType.MergeTree;
+
+    /**
+     * Specifies how the entity is inserted when it has no {@link Batching} annotation.
+     *
+     * @return the server-side async insert mode
+     */
+    AsyncInsertMode asyncInsert() default AsyncInsertMode.DEFAULT;
 }
@@ -49,4 +49,44 @@ public @interface Column {
     boolean primaryKey() default false;
 
     boolean nullable() default false;
+
+    /**
+     * Specifies the element types of composite field types: the element type of {@link FieldType#ARRAY},
+     * the key and value types of {@link FieldType#MAP} and the element types of {@link FieldType#TUPLE}.
+     * Composite element types are not supported.
+     *
+     * @return the element types.
+     */
+    FieldType[] elementTypes() default {};
+
+    /**
+     * Indicates if the column is dictionary encoded, {@code LowCardinality(T)}. Suits strings with up to
+     * a few thousands of distinct values. Not supported for composite field types.
+     *
+     * @return {@code true} if the column is {@code LowCardinality}, {@code false} otherwise.
+     */
+    boolean lowCardinality() default false;
+
+    /**
+     * Specifies the compression codecs of the column, for example {@code "Delta, ZSTD(3)"} or {@code "Gorilla"}.
+     * The server default compression is used if empty.
+     *
+     * @return the codecs.
+     */
+    String codec() default "";
+
+    /**
+     * Specifies the {@code DEFAULT} expression of the column, for example {@code "now()"}.
+     *
+     * @return the default expression.
+     */
+    String defaultExpression() default "";
+
+    /**
+     * Specifies the {@code MATERIALIZED} expression of the column. A materialized column is calculated by
+     * ClickHouse, it is never inserted or updated and is read only by queries selecting it explicitly.
+     *
+     * @return the materialized expression.
+     */
+    String materialized() default "";
 }
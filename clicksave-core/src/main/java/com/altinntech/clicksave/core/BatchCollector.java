@@ -1,32 +1,53 @@
 package com.altinntech.clicksave.core;
 
+import com.altinntech.clicksave.annotations.Batching;
+import com.altinntech.clicksave.core.batch.AdaptiveBatchController;
+import com.altinntech.clicksave.core.batch.BatchJournal;
+import com.altinntech.clicksave.core.batch.CircuitBreaker;
+import com.altinntech.clicksave.core.batch.ColumnarBatch;
+import com.altinntech.clicksave.core.batch.DeadLetterQueue;
+import com.altinntech.clicksave.core.batch.HashedTimingWheel;
+import com.altinntech.clicksave.core.batch.InsertSettings;
+import com.altinntech.clicksave.core.batch.JournalLock;
+import com.altinntech.clicksave.core.batch.JournalSegment;
+import com.altinntech.clicksave.core.batch.MemoryBudget;
+import com.altinntech.clicksave.core.batch.PendingRow;
+import com.altinntech.clicksave.core.batch.PendingRowIndex;
+import com.altinntech.clicksave.core.batch.RetryBackoff;
+import com.altinntech.clicksave.core.batch.RowBinaryInserter;
+import com.altinntech.clicksave.core.batch.RowSizeEstimator;
+import com.altinntech.clicksave.core.batch.SpillFile;
+import com.altinntech.clicksave.core.batch.TableBatch;
 import com.altinntech.clicksave.core.dto.BatchedQueryData;
 import com.altinntech.clicksave.core.dto.ClassDataCache;
 import com.altinntech.clicksave.core.utils.BatchSaveCommand;
 import com.altinntech.clicksave.core.utils.DefaultProperties;
+import com.altinntech.clicksave.enums.BatchOverflowPolicy;
 import com.altinntech.clicksave.enums.Metrics;
 import com.altinntech.clicksave.exceptions.ClassCacheNotFoundException;
 import com.altinntech.clicksave.interfaces.ClicksaveMetrics;
 import com.altinntech.clicksave.interfaces.Disposable;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.altinntech.clicksave.log.CSLogger.*;
 
@@ -39,31 +60,160 @@ import static com.altinntech.clicksave.log.CSLogger.*;
 public class BatchCollector implements Disposable {
 
     /**
-     * The map to store batches of queries.
+     * The map to store batches of queries. Every table has its own buffer and lock.
      */
-    private final ConcurrentHashMap<BatchedQueryData, List<List<Object>>> batches = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<BatchedQueryData, TableBatch> batches = new ConcurrentHashMap<>();
 
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    /**
+     * The index of the entities of the rows not written yet.
+     */
+    private final PendingRowIndex pendingRows = new PendingRowIndex();
+
+    private static final int MAX_REDRIVE_ATTEMPTS = 3;
+
+    /**
+     * The part of the memory budget a chunk of spilled rows may take when it is written.
+     */
+    private static final int SPILL_CHUNK_DIVISOR = 4;
+    private static final String DEDUPLICATION_TOKEN_SETTING = "insert_deduplication_token";
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+
+    /**
+     * The executor writing swapped buffers in async flush mode.
+     */
+    private final ExecutorService flusher;
+
+    /**
+     * The queue of batches that could not be inserted, with the count of failed background replays of every queued batch.
+     */
+    private final DeadLetterQueue deadLetterQueue;
+    private final ConcurrentHashMap<Path, Integer> failedRedrives = new ConcurrentHashMap<>();
+    private final boolean asyncFlush;
+    private final int maxPendingFlushes;
 
-    private final String failedBatchSavePath;
+    /**
+     * The budget of bytes held by all batches, including buffers waiting for a flush.
+     */
+    private final MemoryBudget memoryBudget;
+    private final BatchOverflowPolicy overflowPolicy;
+    private final long blockTimeout;
+    private final Path spillDirectory;
+
+    /**
+     * The directory of the write-ahead journal, {@code null} if the journal is disabled.
+     */
+    private final Path journalDirectory;
+    private final JournalLock journalLock;
+    private final int journalSegmentSize;
+    private final ScheduledExecutorService journalSyncer;
+
+    /**
+     * The scheduler of write retries, failed writes never block the flushing thread.
+     */
+    private final ScheduledExecutorService retryScheduler;
+    private final Set<PendingWrite> pendingRetries = ConcurrentHashMap.newKeySet();
+    private final int maxRetries;
+    private final RetryBackoff retryBackoff;
+    private final CircuitBreaker circuitBreaker;
+    private final long circuitBreakerOpenDuration;
+
+    /**
+     * Whether flushed batches are sent with an {@code insert_deduplication_token}. The token is derived from the
+     * table and the rows, so retries, dead-letter replays and journal replays of an insert the server has already
+     * committed are dropped.
+     */
+    private final boolean deduplicationTokens;
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+
+    /**
+     * The settings of adaptive batch size controllers, the scheduled save rate is the minimum flush interval.
+     */
+    private final long batchSaveRate;
+    private final long adaptiveTargetLatency;
+    private final long adaptiveMaxFlushInterval;
+
+    /**
+     * The timing wheel of row deadlines of entities with {@link Batching#maxDelayMs()}, started with the first such batch.
+     */
+    private HashedTimingWheel deadlineWheel;
+    private final long deadlineTick;
 
     private final IdsManager idsManager;
     private final ConnectionManager connectionManager;
     private final ClicksaveMetrics metrics;
+    private final RowBinaryInserter rowBinaryInserter;
 
     /**
      * Instantiates a new Batch collector.
      */
-    private BatchCollector(IdsManager idsManager, ConnectionManager connectionManager, ClicksaveMetrics metrics, DefaultProperties properties) {
+    private BatchCollector(IdsManager idsManager, ConnectionManager connectionManager, ClicksaveMetrics metrics, DefaultProperties properties, RowBinaryInserter rowBinaryInserter, ClassDataCacheService classDataCacheService) {
         this.idsManager = idsManager;
+        this.rowBinaryInserter = rowBinaryInserter;
         this.connectionManager = connectionManager;
-        this.failedBatchSavePath = properties.getFailedBatchSavePath();
+        this.deadLetterQueue = new DeadLetterQueue(Paths.get(properties.getFailedBatchSavePath()), classDataCacheService);
         this.metrics = metrics;
+        metrics.registerNumValueCheck(Metrics.DLQ_DEPTH.getMetricsName(), deadLetterQueue::getDepth);
+        this.asyncFlush = Boolean.parseBoolean(properties.getBatchAsyncFlush());
+        this.maxPendingFlushes = Math.max(1, Integer.parseInt(properties.getBatchMaxPendingFlushes()));
+        this.flusher = asyncFlush ? Executors.newFixedThreadPool(Math.max(1, Integer.parseInt(properties.getBatchFlushThreads())), runnable -> {
+            Thread thread = new Thread(runnable, "clicksave-batch-flusher");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        this.memoryBudget = new MemoryBudget(Long.parseLong(properties.getBatchMaxBytes()));
+        this.overflowPolicy = BatchOverflowPolicy.valueOf(properties.getBatchOverflowPolicy().toUpperCase());
+        this.blockTimeout = Long.parseLong(properties.getBatchBlockTimeout());
+        this.spillDirectory = properties.getBatchSpillDirectoryPath().isEmpty()
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "clicksave-spill")
+                : Paths.get(properties.getBatchSpillDirectoryPath());
+        metrics.registerNumValueCheck(Metrics.BATCH_BYTES.getMetricsName(), memoryBudget::getUsed);
+        this.journalLock = Boolean.parseBoolean(properties.getBatchJournalEnabled()) ? lockJournal(Paths.get(properties.getBatchJournalDirectoryPath())) : null;
+        this.journalDirectory = journalLock != null ? Paths.get(properties.getBatchJournalDirectoryPath()) : null;
+        this.journalSegmentSize = Integer.parseInt(properties.getBatchJournalSegmentSize());
+        this.journalSyncer = journalDirectory != null ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "clicksave-journal-syncer");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "clicksave-batch-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maxRetries = Math.max(1, Integer.parseInt(properties.getBatchRetryMaxAttempts()));
+        this.retryBackoff = new RetryBackoff(Long.parseLong(properties.getBatchRetryInitialDelay()), Long.parseLong(properties.getBatchRetryMaxDelay()));
+        this.circuitBreakerOpenDuration = Long.parseLong(properties.getBatchCircuitBreakerOpenDuration());
+        this.circuitBreaker = new CircuitBreaker(Integer.parseInt(properties.getBatchCircuitBreakerFailureThreshold()), circuitBreakerOpenDuration);
+        this.deduplicationTokens = Boolean.parseBoolean(properties.getBatchDeduplicationToken());
+        this.batchSaveRate = Long.parseLong(properties.getBatchSaveRate());
+        this.adaptiveTargetLatency = Long.parseLong(properties.getBatchAdaptiveTargetLatency());
+        this.adaptiveMaxFlushInterval = Long.parseLong(properties.getBatchAdaptiveMaxFlushInterval());
+        this.deadlineTick = Long.parseLong(properties.getBatchTimingWheelTick());
+        metrics.registerNumValueCheck(Metrics.BATCH_RETRY_PENDING.getMetricsName(), pendingRetries::size);
+        metrics.registerNumValueCheck(Metrics.BATCH_PENDING_ROWS.getMetricsName(), pendingRows::size);
+        metrics.registerNumValueCheck(Metrics.CIRCUIT_BREAKER_STATE.getMetricsName(), () -> circuitBreaker.getState().getCode());
     }
 
-    public static BatchCollector create(IdsManager idsManager, ConnectionManager connectionManager, DefaultProperties properties, ClicksaveMetrics metrics) {
-        BatchCollector batchCollector = new BatchCollector(idsManager, connectionManager, metrics, properties);
-        long batchSaveRate = Long.parseLong(properties.getBatchSaveRate());
+    /**
+     * Locks the journal directory, the journal is disabled if another instance holds the lock.
+     */
+    private static JournalLock lockJournal(Path directory) {
+        try {
+            JournalLock lock = JournalLock.tryAcquire(directory);
+            if (lock == null) {
+                error("Batch journal directory " + directory.toAbsolutePath() + " is locked by another instance, the journal is disabled", BatchCollector.class);
+            }
+            return lock;
+        } catch (IOException e) {
+            error("Failed to lock batch journal directory " + directory.toAbsolutePath() + ", the journal is disabled", e);
+            return null;
+        }
+    }
+
+    public static BatchCollector create(IdsManager idsManager, ConnectionManager connectionManager, DefaultProperties properties, ClicksaveMetrics metrics, RowBinaryInserter rowBinaryInserter, ClassDataCacheService classDataCacheService) {
+        BatchCollector batchCollector = new BatchCollector(idsManager, connectionManager, metrics, properties, rowBinaryInserter, classDataCacheService);
+        long batchSaveRate = batchCollector.batchSaveRate;
         if (batchSaveRate > 0) {
             batchCollector.scheduler.scheduleAtFixedRate(new BatchSaveCommand(batchCollector), 2000, batchSaveRate, TimeUnit.MILLISECONDS);
             info("Batch save scheduler status: active");
@@ -71,17 +221,136 @@ public class BatchCollector implements Disposable {
         } else {
             info("Batch save scheduler status: inactive");
         }
+        info("Batch async flush status: " + (batchCollector.asyncFlush ? "active" : "inactive"));
+        if (batchCollector.journalSyncer != null) {
+            long syncInterval = Long.parseLong(properties.getBatchJournalSyncInterval());
+            batchCollector.journalSyncer.scheduleWithFixedDelay(batchCollector::syncJournals, syncInterval, syncInterval, TimeUnit.MILLISECONDS);
+            info("Batch journal status: active, directory: " + batchCollector.journalDirectory.toAbsolutePath());
+        }
+        long redriveInterval = Long.parseLong(properties.getFailedBatchRedriveInterval());
+        if (redriveInterval > 0) {
+            batchCollector.scheduler.scheduleWithFixedDelay(batchCollector::redriveDeadLetters, redriveInterval, redriveInterval, TimeUnit.MILLISECONDS);
+            debug("Dead-letter queue redrive rate: every " + redriveInterval + " ms");
+        }
+        if (batchCollector.deadLetterQueue.getDepth() > 0) {
+            warn("Dead-letter queue " + batchCollector.deadLetterQueue.getDirectory().toAbsolutePath() + " holds " + batchCollector.deadLetterQueue.getDepth() + " batches");
+        }
+        if (batchCollector.memoryBudget.getLimit() > 0) {
+            debug("Batch memory budget: " + batchCollector.memoryBudget.getLimit() + " bytes, overflow policy: " + batchCollector.overflowPolicy);
+        }
         return batchCollector;
     }
 
     @Override
-    public synchronized void dispose() {
+    public void dispose() {
         scheduler.shutdown();
+        synchronized (this) {
+            if (deadlineWheel != null) {
+                deadlineWheel.dispose();
+            }
+        }
+        if (journalSyncer != null) {
+            journalSyncer.shutdown();
+        }
+        retryScheduler.shutdownNow();
+        for (PendingWrite write : pendingRetries) {
+            if (pendingRetries.remove(write)) {
+                deadLetter(write);
+                complete(write);
+            }
+        }
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                if (!flusher.awaitTermination(5, TimeUnit.SECONDS)) {
+                    warn("Batch flusher shutdown process exceeded the waiting time");
+                    flusher.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                flusher.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (journalLock != null) {
+            try {
+                journalLock.close();
+            } catch (IOException e) {
+                error("Failed to release batch journal directory lock", e);
+            }
+        }
     }
 
-    public synchronized boolean isNotEmpty() {
-        for (List<List<Object>> list : batches.values()) {
-            if (!list.isEmpty()) {
+    private void syncJournals() {
+        for (TableBatch batch : batches.values()) {
+            BatchJournal journal = batch.getJournal();
+            if (journal != null) {
+                try {
+                    journal.sync();
+                } catch (Exception e) {
+                    error("Failed to sync batch journal of " + batch.getClassDataCache().getTableName(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the rows left in the journal by a previous run. Must be called after the entity tables are created.
+     *
+     * @param classDataCacheService the class data cache service used to resolve the journaled entities
+     */
+    public void replayJournal(ClassDataCacheService classDataCacheService) {
+        if (journalDirectory == null) {
+            return;
+        }
+        try {
+            for (BatchJournal.Buffer buffer : BatchJournal.readBuffers(journalDirectory, instanceId)) {
+                replayBuffer(buffer, classDataCacheService);
+            }
+        } catch (IOException e) {
+            error("Failed to replay batch journal", e);
+        }
+    }
+
+    /**
+     * Writes the rows of the buffer like its flush did, the in-memory rows first, then the spilled rows in chunks.
+     */
+    private void replayBuffer(BatchJournal.Buffer buffer, ClassDataCacheService classDataCacheService) {
+        ClassDataCache classDataCache;
+        try {
+            classDataCache = classDataCacheService.getClassDataCache(Class.forName(buffer.className()));
+        } catch (ClassNotFoundException | ClassCacheNotFoundException e) {
+            error("Batch journal " + buffer.segments() + " belongs to an unknown entity, keeping it", e);
+            return;
+        }
+        BatchedQueryData queryMeta = new BatchedQueryData(buffer.query(), classDataCache);
+        FlushCompletion completion = new FlushCompletion(() -> {
+            for (Path path : buffer.segments()) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    error("Failed to delete replayed batch journal " + path, e);
+                }
+            }
+        });
+        try {
+            int rowsCount = buffer.rows().size() + buffer.spilledRows().size();
+            if (rowsCount > 0) {
+                info("Replaying " + rowsCount + " rows of " + classDataCache.getTableName() + " from batch journal");
+            }
+            if (!buffer.rows().isEmpty()) {
+                ColumnarBatch rows = new ColumnarBatch(buffer.rows().size());
+                rows.appendAll(buffer.rows());
+                writeRows(queryMeta, rows, 0, completion.part(), null);
+            }
+            SpillFile.chunk(buffer.spilledRows(), spillChunkBytes(), (chunk, chunkBytes) -> writeRows(queryMeta, chunk, 0, completion.part(), null));
+        } finally {
+            completion.done();
+        }
+    }
+
+    public boolean isNotEmpty() {
+        for (TableBatch batch : batches.values()) {
+            if (!batch.isEmpty()) {
                 return true;
             }
         }
@@ -94,144 +363,603 @@ public class BatchCollector implements Disposable {
      * @param batchQueryData the batch query data
      * @param fieldsData     the field data
      */
-    public synchronized void put(BatchedQueryData batchQueryData, List<Object> fieldsData) throws SQLException, ClassCacheNotFoundException, IllegalAccessException, InvocationTargetException {
+    public void put(BatchedQueryData batchQueryData, List<Object> fieldsData) throws SQLException, ClassCacheNotFoundException, IllegalAccessException, InvocationTargetException {
+        put(batchQueryData, fieldsData, null);
+    }
+
+    /**
+     * Adds query data of the entity to the batch. The pending row is indexed by its id until the row is written,
+     * see {@link #findPending(ClassDataCache, Object)}.
+     *
+     * @param batchQueryData the batch query data
+     * @param fieldsData     the field data
+     * @param pendingRow     the copy of the row to index, {@code null} if the row is not indexed
+     */
+    public void put(BatchedQueryData batchQueryData, List<Object> fieldsData, PendingRow pendingRow) throws SQLException, ClassCacheNotFoundException, IllegalAccessException, InvocationTargetException {
         ClassDataCache classDataCache = batchQueryData.getClassDataCache();
-        if (!batches.containsKey(batchQueryData)) {
-            batches.put(batchQueryData, new ArrayList<>());
+        Batching batching = classDataCache.getBatchingAnnotation();
+        TableBatch batch = batches.computeIfAbsent(batchQueryData, this::createBatch);
+        long rowBytes = RowSizeEstimator.estimate(fieldsData);
+        AdaptiveBatchController controller = batch.getController();
+        int batchSize = controller != null ? controller.getTargetSize() : batching.batchSize();
+
+        if (overflowPolicy == BatchOverflowPolicy.BLOCK && memoryBudget.isExceeded()) {
+            awaitMemoryRelease();
+        }
+
+        batch.lock();
+        try {
+            int size = append(batch, fieldsData, rowBytes);
+            if (pendingRow != null) {
+                batch.addPendingEntry(pendingRows.add(classDataCache, pendingRow));
+            }
+            if (controller != null) {
+                controller.onArrival();
+            }
+            boolean full = size >= batchSize || (batching.maxBytes() > 0 && batch.getBytes() >= batching.maxBytes());
+            if (full && !circuitBreaker.isOpen()) {
+                flush(batch);
+            } else if (size == 1) {
+                idsManager.lockIds(classDataCache, controller != null ? controller.getMaxSize() : batching.batchSize(), classDataCache.getIdField().getType());
+                if (batching.maxDelayMs() > 0) {
+                    scheduleDeadline(batch, batching.maxDelayMs());
+                }
+            }
+        } finally {
+            batch.unlock();
+        }
+
+        if (overflowPolicy != BatchOverflowPolicy.SPILL && memoryBudget.isExceeded()) {
+            flushLargest();
         }
+    }
+
+    /**
+     * Schedules the flush of the current buffer of the batch when its oldest row reaches the maximum delay.
+     * Must be called while holding the batch lock.
+     */
+    private void scheduleDeadline(TableBatch batch, long maxDelay) {
+        long generation = batch.getGeneration();
+        getDeadlineWheel().schedule(() -> flushExpired(batch, generation, maxDelay), maxDelay);
+    }
+
+    private synchronized HashedTimingWheel getDeadlineWheel() {
+        if (deadlineWheel == null) {
+            deadlineWheel = new HashedTimingWheel(deadlineTick, 512, scheduler);
+        }
+        return deadlineWheel;
+    }
+
+    private void flushExpired(TableBatch batch, long generation, long maxDelay) {
+        batch.lock();
+        try {
+            if (batch.getGeneration() != generation || batch.isEmpty()) {
+                return;
+            }
+            if (circuitBreaker.isOpen()) {
+                scheduleDeadline(batch, maxDelay);
+                return;
+            }
+            flush(batch);
+        } catch (Exception e) {
+            error("Exception when flushing expired batch of " + batch.getClassDataCache().getTableName(), e);
+        } finally {
+            batch.unlock();
+        }
+    }
 
-        List<List<Object>> batch = batches.get(batchQueryData);
-        batch.add(fieldsData);
+    private TableBatch createBatch(BatchedQueryData batchQueryData) {
+        TableBatch batch = new TableBatch(batchQueryData);
+        if (journalDirectory != null) {
+            ClassDataCache classDataCache = batchQueryData.getClassDataCache();
+            batch.setJournal(new BatchJournal(journalDirectory, classDataCache.getTableName(), instanceId, classDataCache.getEntityClass().getName(), batchQueryData.getQuery(), journalSegmentSize));
+        }
+        String tableName = batch.getClassDataCache().getTableName();
+        metrics.registerNumValueCheck(Metrics.BATCH_BYTES.getMetricsName() + "." + tableName, batch::getBytes);
+        Batching batching = batch.getClassDataCache().getBatchingAnnotation();
+        if (batching.adaptive()) {
+            AdaptiveBatchController controller = new AdaptiveBatchController(
+                    batching.batchSize(),
+                    batching.minBatchSize() > 0 ? batching.minBatchSize() : batching.batchSize() / 10,
+                    batching.maxBatchSize() > 0 ? batching.maxBatchSize() : batching.batchSize() * 10,
+                    adaptiveTargetLatency, batchSaveRate, adaptiveMaxFlushInterval);
+            batch.setController(controller);
+            metrics.registerNumValueCheck(Metrics.BATCH_TARGET_SIZE.getMetricsName() + "." + tableName, controller::getTargetSize);
+            metrics.registerNumValueCheck(Metrics.BATCH_FLUSH_INTERVAL.getMetricsName() + "." + tableName, controller::getFlushInterval);
+        }
+        return batch;
+    }
+
+    /**
+     * Appends the row to the batch. While the memory budget is exceeded and the spill policy is used, the row is written to the spill file.
+     * Must be called while holding the batch lock.
+     */
+    private int append(TableBatch batch, List<Object> fieldsData, long rowBytes) {
+        if (overflowPolicy == BatchOverflowPolicy.SPILL && memoryBudget.isExceeded()) {
+            try {
+                int size = batch.spill(fieldsData, spillDirectory);
+                metrics.incrementCounter(Metrics.BATCH_SPILLED_ROWS.getMetricsName());
+                journal(batch, fieldsData, true);
+                return size;
+            } catch (IOException e) {
+                error("Failed to spill batch row, keeping it in memory", e);
+            }
+        }
+        memoryBudget.reserve(rowBytes);
+        int size = batch.add(fieldsData, rowBytes);
+        journal(batch, fieldsData, false);
+        return size;
+    }
+
+    private void journal(TableBatch batch, List<Object> fieldsData, boolean spilled) {
+        try {
+            batch.journal(fieldsData, spilled);
+        } catch (IOException e) {
+            error("Failed to append row to the batch journal of " + batch.getClassDataCache().getTableName(), e);
+        }
+    }
+
+    private void awaitMemoryRelease() {
+        try {
+            if (!memoryBudget.awaitRelease(blockTimeout)) {
+                debug("<BatchCollector>", "Batch memory budget is still exceeded after " + blockTimeout + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-        if (batch.size() >= classDataCache.getBatchingAnnotation().batchSize()) {
-            saveAndFlush(batchQueryData, batch);
-        } else if (batch.size() == 1) {
-            idsManager.lockIds(classDataCache, classDataCache.getBatchingAnnotation().batchSize(), classDataCache.getIdField().getType());
+    /**
+     * Flushes the batch holding the most bytes in memory.
+     */
+    private void flushLargest() throws SQLException, ClassCacheNotFoundException, IllegalAccessException, InvocationTargetException {
+        TableBatch largest = null;
+        for (TableBatch batch : batches.values()) {
+            if (largest == null || batch.getBytes() > largest.getBytes()) {
+                largest = batch;
+            }
+        }
+        if (largest != null && largest.getBytes() > 0) {
+            debug("<BatchCollector>", "Batch memory budget exceeded, flushing " + largest.getClassDataCache().getTableName());
+            saveAndFlush(largest);
         }
     }
 
     /**
      * Saves and flushes the batch for a specific class data cache.
+     * In async flush mode waits until the rows are written.
      *
      * @param classDataCache the class data cache
      */
-    public synchronized void saveAndFlush(ClassDataCache classDataCache) throws SQLException, ClassCacheNotFoundException, IllegalAccessException, InvocationTargetException {
-        for (Map.Entry<BatchedQueryData, List<List<Object>>> entry : batches.entrySet()) {
-            BatchedQueryData batchedQueryData = entry.getKey();
-            ClassDataCache cacheInMap = batchedQueryData.getClassDataCache();
-            if (classDataCache.equals(cacheInMap)) {
-                List<List<Object>> batch = entry.getValue();
-                if (batch.isEmpty())
-                    return;
-                saveAndFlush(batchedQueryData, batch);
+    public void saveAndFlush(ClassDataCache classDataCache) throws SQLException, ClassCacheNotFoundException, IllegalAccessException, InvocationTargetException {
+        for (TableBatch batch : batches.values()) {
+            if (classDataCache.equals(batch.getClassDataCache())) {
+                saveAndFlush(batch);
+                if (asyncFlush) {
+                    batch.awaitFlushes();
+                }
                 return;
             }
         }
     }
 
+    private void saveAndFlush(TableBatch batch) throws SQLException, ClassCacheNotFoundException, IllegalAccessException, InvocationTargetException {
+        batch.lock();
+        try {
+            if (!batch.isEmpty()) {
+                flush(batch);
+            }
+        } finally {
+            batch.unlock();
+        }
+    }
+
     /**
-     * Saves and flushes the batch.
+     * Swaps the filled buffer of the batch and writes it, either in place or on the background flusher.
+     * Must be called while holding the batch lock.
      *
-     * @param queryMeta the query
      * @param batch the batch
      */
-    public synchronized void saveAndFlush(BatchedQueryData queryMeta, List<List<Object>> batch) throws SQLException, ClassCacheNotFoundException, IllegalAccessException, InvocationTargetException {
-        String query = queryMeta.getQuery();
-        int size = batch.size();
-        int maxRetries = 3;
-        int attempt = 0;
-        boolean success = false;
+    private void flush(TableBatch batch) throws SQLException, ClassCacheNotFoundException, IllegalAccessException, InvocationTargetException {
+        long bytes = batch.getBytes();
+        ColumnarBatch rows = batch.swap();
+        List<Map.Entry<String, PendingRow>> pendingEntries = batch.drainPendingEntries();
+        List<JournalSegment> journalSegments = batch.sealJournal();
+        SpillFile spilled = null;
+        try {
+            spilled = batch.detachSpilled();
+        } catch (IOException e) {
+            error("Failed to seal spilled rows of " + batch.getClassDataCache().getTableName(), e);
+        }
+        BatchedQueryData queryMeta = batch.getQueryData();
+        FlushCompletion completion = new FlushCompletion(() -> {
+            pendingRows.removeAll(queryMeta.getClassDataCache(), pendingEntries);
+            try {
+                BatchJournal.delete(journalSegments);
+            } catch (IOException e) {
+                error("Failed to delete journal segments of " + queryMeta.getClassDataCache().getTableName(), e);
+            }
+        });
+        if (!asyncFlush) {
+            writeFlushed(queryMeta, rows, bytes, spilled, completion, batch.getController());
+            return;
+        }
 
-        while (attempt < maxRetries && !success) {
-            attempt++;
-            try (Connection connection = connectionManager.getConnection()) {
+        if (batch.getPendingFlushes() >= maxPendingFlushes) {
+            debug("<BatchCollector>", "Too many pending flushes for " + batch.getClassDataCache().getTableName() + ", waiting...");
+            batch.awaitFlushes();
+        }
+        SpillFile spilledRows = spilled;
+        batch.scheduleFlush(() -> {
+            try {
+                writeFlushed(queryMeta, rows, bytes, spilledRows, completion, batch.getController());
+            } catch (Exception e) {
+                error("Exception when flushing batch", e);
+            }
+        }, flusher);
+    }
 
-                try (PreparedStatement statement = connection.prepareStatement(query)) {
-                    for (List<Object> queryData : batch) {
-                        for (int i = 0; i < queryData.size(); i++) {
-                            statement.setObject(i + 1, queryData.get(i));
-                        }
-                        statement.addBatch();
+    /**
+     * Writes the swapped buffer, then the spilled rows of the buffer in chunks. Every chunk reserves its bytes
+     * in the memory budget and waits for the budget first, so the spilled rows never come back into memory at once.
+     *
+     * @param queryMeta  the query data of the table
+     * @param rows       the rows of the in-memory buffer
+     * @param bytes      the estimated bytes of the in-memory buffer
+     * @param spilled    the sealed spill file of the buffer, {@code null} if no rows were spilled
+     * @param completion the completion of the flush, run once all rows are written or dead-lettered
+     * @param controller the adaptive batch size controller of the table, {@code null} if the batch size is fixed
+     */
+    private void writeFlushed(BatchedQueryData queryMeta, ColumnarBatch rows, long bytes, SpillFile spilled, FlushCompletion completion, AdaptiveBatchController controller) {
+        try {
+            if (rows.size() > 0) {
+                writeRows(queryMeta, rows, bytes, completion.part(), controller);
+            } else {
+                memoryBudget.release(bytes);
+            }
+            if (spilled != null) {
+                spilled.readChunks(spillChunkBytes(), (chunk, chunkBytes) -> {
+                    if (memoryBudget.isExceeded()) {
+                        awaitMemoryRelease();
                     }
+                    memoryBudget.reserve(chunkBytes);
+                    writeRows(queryMeta, chunk, chunkBytes, completion.part(), controller);
+                });
+            }
+        } catch (IOException e) {
+            error("Failed to read spilled rows of " + queryMeta.getClassDataCache().getTableName(), e);
+        } finally {
+            completion.done();
+        }
+    }
 
-                    statement.executeBatch();
-                    success = true;
-                    metrics.incrementCounter(Metrics.BATCH_SUCCESS.getMetricsName());
-                } catch (SQLException e) {
-                    if (attempt == maxRetries) {
-                        saveFailedBatchToCsv(queryMeta.getClassDataCache(), batch, failedBatchSavePath);
-                        error("Failed to execute batch with error '" + e.getMessage() + "'", e);
-                        error("Failed to execute batch after " + maxRetries + " attempts", this.getClass());
-                        metrics.incrementCounter(Metrics.BATCH_FAIL.getMetricsName());
-                    } else {
-                        debug("<BatchCollector>", "Save attempt " + attempt + " failed, retrying...");
-                        Thread.sleep(1000);
-                    }
+    /**
+     * Writes the rows to the table. Failed writes are retried on the retry scheduler,
+     * rows that could not be written are put to the dead-letter queue.
+     *
+     * @param queryMeta  the query data of the table
+     * @param rows       the rows
+     * @param bytes      the estimated bytes of the rows to release from the memory budget
+     * @param onWritten  run once the rows are written or dead-lettered
+     * @param controller the adaptive batch size controller of the table, {@code null} if the batch size is fixed
+     */
+    private void writeRows(BatchedQueryData queryMeta, ColumnarBatch rows, long bytes, Runnable onWritten, AdaptiveBatchController controller) {
+        write(new PendingWrite(queryMeta, rows, deduplicationToken(queryMeta, rows), controller, () -> {
+            memoryBudget.release(bytes);
+            onWritten.run();
+        }));
+    }
+
+    private long spillChunkBytes() {
+        return memoryBudget.getLimit() > 0 ? Math.max(1, memoryBudget.getLimit() / SPILL_CHUNK_DIVISOR) : Long.MAX_VALUE;
+    }
+
+    /**
+     * Derives the token from the table and the content of the rows only, so the replay of a journaled buffer
+     * sends its inserts with the tokens of the flush, even from another instance.
+     */
+    private String deduplicationToken(BatchedQueryData queryMeta, ColumnarBatch rows) {
+        if (!deduplicationTokens) {
+            return null;
+        }
+        return queryMeta.getClassDataCache().getTableName() + "-" + Long.toHexString(rows.contentHash());
+    }
+
+    private static InsertSettings deduplicationSettings(String deduplicationToken) {
+        return deduplicationToken == null ? InsertSettings.NONE : InsertSettings.NONE.with(DEDUPLICATION_TOKEN_SETTING, deduplicationToken);
+    }
+
+    private void write(PendingWrite write) {
+        if (!circuitBreaker.tryAcquire()) {
+            if (memoryBudget.isExceeded()) {
+                debug("<BatchCollector>", "Circuit breaker is open and batch memory budget is exceeded, dead-lettering " + write.rows.size() + " rows");
+                deadLetter(write);
+                complete(write);
+            } else {
+                scheduleRetry(write, Math.max(circuitBreaker.getRemainingOpenTime(), retryBackoff.getInitialDelay()));
+            }
+            return;
+        }
+
+        write.attempts++;
+        try {
+            long start = System.nanoTime();
+            try (Connection connection = connectionManager.getConnection()) {
+                try {
+                    insertRows(connection, write.queryMeta, write.rows, write.settings());
                 } finally {
                     connectionManager.releaseConnection(connection);
                 }
-            } catch (SQLException | InterruptedException e) {
-                if (attempt == maxRetries) {
-                    error("Failed to get connection after " + maxRetries + " attempts", this.getClass());
+            }
+            circuitBreaker.onSuccess();
+            if (write.controller != null) {
+                write.controller.onWriteSuccess(write.rows.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+            metrics.incrementCounter(Metrics.BATCH_SUCCESS.getMetricsName());
+            debug("Batch", write.queryMeta.getQuery() + " saved " + write.rows.size());
+            complete(write);
+        } catch (SQLException e) {
+            onWriteFailure(write);
+            if (write.attempts >= maxRetries) {
+                deadLetter(write);
+                error("Failed to execute batch with error '" + e.getMessage() + "'", e);
+                error("Failed to execute batch after " + maxRetries + " attempts", this.getClass());
+                metrics.incrementCounter(Metrics.BATCH_FAIL.getMetricsName());
+                complete(write);
+            } else {
+                long delay = retryBackoff.delay(write.attempts);
+                debug("<BatchCollector>", "Save attempt " + write.attempts + " failed, retrying in " + delay + " ms...");
+                metrics.incrementCounter(Metrics.BATCH_RETRY.getMetricsName());
+                scheduleRetry(write, delay);
+            }
+        } catch (RuntimeException e) {
+            // the rows can't be encoded, a retry would fail the same way
+            onWriteFailure(write);
+            deadLetter(write);
+            error("Failed to encode batch of " + write.queryMeta.getClassDataCache().getTableName() + " with error '" + e.getMessage() + "'", e);
+            metrics.incrementCounter(Metrics.BATCH_FAIL.getMetricsName());
+            complete(write);
+        }
+    }
+
+    private void onWriteFailure(PendingWrite write) {
+        if (write.controller != null) {
+            write.controller.onWriteFailure();
+        }
+        if (circuitBreaker.onFailure()) {
+            warn("Circuit breaker opened, batch writes are paused for " + circuitBreakerOpenDuration + " ms");
+            metrics.incrementCounter(Metrics.CIRCUIT_BREAKER_OPENED.getMetricsName());
+        }
+    }
+
+    private void scheduleRetry(PendingWrite write, long delay) {
+        pendingRetries.add(write);
+        try {
+            retryScheduler.schedule(() -> {
+                if (pendingRetries.remove(write)) {
+                    write(write);
                 }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            if (pendingRetries.remove(write)) {
+                deadLetter(write);
+                complete(write);
             }
         }
+    }
 
-        batch.clear();
+    /**
+     * Finishes the write once the rows are written or dead-lettered.
+     */
+    private void complete(PendingWrite write) {
+        try {
+            idsManager.adaptiveSync(write.queryMeta.getClassDataCache());
+        } catch (Exception e) {
+            error("Failed to sync ids of " + write.queryMeta.getClassDataCache().getTableName(), e);
+        } finally {
+            write.onComplete.run();
+        }
+    }
 
-        idsManager.adaptiveSync(queryMeta.getClassDataCache());
-        debug("Batch", query + " saved " + size);
+    /**
+     * Finds a row that is buffered or being written, without flushing the batch.
+     *
+     * @param classDataCache the class data of the entity
+     * @param id             the id of the entity
+     * @return the row as it was saved, {@code null} if no pending row has the id
+     */
+    public PendingRow findPending(ClassDataCache classDataCache, Object id) {
+        return pendingRows.get(classDataCache, id);
+    }
+
+    /**
+     * Checks if batch writes are paused by the open circuit breaker.
+     *
+     * @return {@code true} if the circuit breaker is open
+     */
+    public boolean isCircuitOpen() {
+        return circuitBreaker.isOpen();
+    }
+
+    private void insertRows(Connection connection, BatchedQueryData queryMeta, ColumnarBatch rows, InsertSettings settings) throws SQLException {
+        if (!rowBinaryInserter.insert(connection, queryMeta, rows, settings)) {
+            executeJdbcBatch(connection, settings.apply(queryMeta.getQuery()), rows);
+        }
+    }
+
+    private void executeJdbcBatch(Connection connection, String query, ColumnarBatch rows) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            for (int row = 0; row < rows.size(); row++) {
+                rows.bind(statement, row);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Flushes the batches whose scheduled flush is due, called by the batch save scheduler.
+     * In async flush mode waits until the rows are written.
+     */
+    public void saveAndFlushDue() throws SQLException, ClassCacheNotFoundException, IllegalAccessException, InvocationTargetException {
+        List<TableBatch> flushed = new ArrayList<>();
+        for (TableBatch batch : batches.values()) {
+            if (batch.isFlushDue()) {
+                saveAndFlush(batch);
+                flushed.add(batch);
+            }
+        }
+        if (asyncFlush) {
+            for (TableBatch batch : flushed) {
+                batch.awaitFlushes();
+            }
+        }
     }
 
     /**
      * Saves and flushes all batches.
+     * In async flush mode waits until the rows are written.
      */
-    public synchronized void saveAndFlushAll() throws SQLException, ClassCacheNotFoundException, IllegalAccessException, InvocationTargetException {
-        for (Map.Entry<BatchedQueryData, List<List<Object>>> entry : batches.entrySet()) {
-            BatchedQueryData batchedQueryData = entry.getKey();
-            List<List<Object>> batch = entry.getValue();
-            if (batch.isEmpty())
-                continue;
-            saveAndFlush(batchedQueryData, batch);
+    public void saveAndFlushAll() throws SQLException, ClassCacheNotFoundException, IllegalAccessException, InvocationTargetException {
+        for (TableBatch batch : batches.values()) {
+            saveAndFlush(batch);
+        }
+        if (asyncFlush) {
+            for (TableBatch batch : batches.values()) {
+                batch.awaitFlushes();
+            }
         }
         debug("All batches saved");
     }
 
-    public void saveFailedBatchToCsv(ClassDataCache classDataCache, List<List<Object>> failedBatch, String filePath) {
-        String tableName = classDataCache.getTableName();
-        String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
-        String fileName = tableName + "_" + timestamp + ".csv";
+    private void deadLetter(PendingWrite write) {
+        BatchedQueryData queryMeta = write.queryMeta;
+        ColumnarBatch rows = write.rows;
+        try {
+            Path path = deadLetterQueue.write(queryMeta, rows, write.deduplicationToken);
+            warn("Failed batch of " + rows.size() + " rows saved to the dead-letter queue: " + path);
+        } catch (IOException | RuntimeException e) {
+            error("Failed to save batch of " + queryMeta.getClassDataCache().getTableName() + " to the dead-letter queue, " + rows.size() + " rows are lost", e);
+        }
+    }
 
-        File file = Paths.get(filePath, fileName).toFile();
-        file.getParentFile().mkdirs();
+    /**
+     * Replays all batches of the dead-letter queue. Every batch is inserted once, replayed batches are removed from the queue,
+     * the failed ones are kept.
+     *
+     * @return the number of replayed batches
+     */
+    public int replayDeadLetters() {
+        return replayDeadLetters(false);
+    }
 
-        try (FileWriter csvWriter = new FileWriter(file)) {
-            for (List<Object> rowData : failedBatch) {
-                List<String> row = rowData.stream()
-                        .map(this::convertToCsvSafeString)
-                        .collect(Collectors.toList());
-                csvWriter.append(String.join(",", row));
-                csvWriter.append("\n");
+    private void redriveDeadLetters() {
+        try {
+            if (deadLetterQueue.getDepth() > 0 && !circuitBreaker.isOpen() && connectionManager.isHealthy()) {
+                replayDeadLetters(true);
             }
+        } catch (Exception e) {
+            error("Exception when replaying dead-letter queue", e);
+        }
+    }
 
-            csvWriter.flush();
+    private synchronized int replayDeadLetters(boolean redrive) {
+        List<Path> paths;
+        try {
+            paths = deadLetterQueue.list();
         } catch (IOException e) {
-            error(e.getMessage());
+            error("Failed to list dead-letter queue", e);
+            return 0;
+        }
+        int replayed = 0;
+        for (Path path : paths) {
+            if (redrive && failedRedrives.getOrDefault(path, 0) >= MAX_REDRIVE_ATTEMPTS) {
+                continue;
+            }
+            if (replayDeadLetter(path)) {
+                failedRedrives.remove(path);
+                replayed++;
+            } else if (redrive) {
+                failedRedrives.merge(path, 1, Integer::sum);
+            }
+        }
+        if (replayed > 0) {
+            info("Replayed " + replayed + " batches from the dead-letter queue");
+        }
+        return replayed;
+    }
+
+    private boolean replayDeadLetter(Path path) {
+        try {
+            DeadLetterQueue.DeadLetterBatch batch = DeadLetterQueue.read(path);
+            BatchedQueryData queryMeta = deadLetterQueue.toQueryData(batch);
+            ColumnarBatch rows = new ColumnarBatch(batch.rows().size());
+            rows.appendAll(batch.rows());
+            try (Connection connection = connectionManager.getConnection()) {
+                try {
+                    insertRows(connection, queryMeta, rows, deduplicationSettings(batch.deduplicationToken()));
+                } finally {
+                    connectionManager.releaseConnection(connection);
+                }
+            }
+            deadLetterQueue.remove(path);
+            metrics.incrementCounter(Metrics.DLQ_REPLAYED_BATCHES.getMetricsName());
+            metrics.incrementCounter(Metrics.DLQ_REPLAYED_ROWS.getMetricsName(), rows.size());
+            idsManager.adaptiveSync(queryMeta.getClassDataCache());
+            return true;
+        } catch (ClassNotFoundException | ClassCacheNotFoundException e) {
+            error("Dead-letter batch " + path + " belongs to an unknown entity, keeping it", e);
+        } catch (Exception e) {
+            error("Failed to replay dead-letter batch " + path + ": " + e.getMessage(), this.getClass());
         }
+        return false;
     }
 
-    private String convertToCsvSafeString(Object value) {
-        if (value == null) {
-            return "";
+    /**
+     * The rows handed to the writer, held until they are written or dead-lettered.
+     */
+    private static final class PendingWrite {
+        private final BatchedQueryData queryMeta;
+        private final ColumnarBatch rows;
+        private final String deduplicationToken;
+        private final AdaptiveBatchController controller;
+        private final Runnable onComplete;
+        private int attempts = 0;
+
+        private PendingWrite(BatchedQueryData queryMeta, ColumnarBatch rows, String deduplicationToken, AdaptiveBatchController controller, Runnable onComplete) {
+            this.queryMeta = queryMeta;
+            this.rows = rows;
+            this.deduplicationToken = deduplicationToken;
+            this.controller = controller;
+            this.onComplete = onComplete;
         }
 
-        String stringValue = value.toString();
+        private InsertSettings settings() {
+            return deduplicationSettings(deduplicationToken);
+        }
+    }
 
-        if (stringValue.contains(",") || stringValue.contains("\"") || stringValue.contains("\n")) {
-            stringValue = stringValue.replace("\"", "\"\"");
-            return "\"" + stringValue + "\"";
+    /**
+     * Counts the writes of one flushed buffer, its journal segments and pending row entries are released
+     * when the last write is completed. The flush itself holds one part until all writes are handed over.
+     */
+    private static final class FlushCompletion {
+        private final AtomicInteger remaining = new AtomicInteger(1);
+        private final Runnable onComplete;
+
+        private FlushCompletion(Runnable onComplete) {
+            this.onComplete = onComplete;
         }
 
-        return stringValue;
+        private Runnable part() {
+            remaining.incrementAndGet();
+            return this::done;
+        }
+
+        private void done() {
+            if (remaining.decrementAndGet() == 0) {
+                onComplete.run();
+            }
+        }
     }
 }
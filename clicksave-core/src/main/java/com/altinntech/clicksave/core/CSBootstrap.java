@@ -1,15 +1,21 @@
 package com.altinntech.clicksave.core;
 
 import com.altinntech.clicksave.annotations.*;
+import cc.blynk.clickhouse.ClickHouseConnection;
+import com.altinntech.clicksave.core.batch.RowBinaryInserter;
+import com.altinntech.clicksave.core.converter.TemporalValues;
 import com.altinntech.clicksave.core.dto.ClassDataCache;
 import com.altinntech.clicksave.core.dto.ColumnData;
 import com.altinntech.clicksave.core.dto.EmbeddableClassData;
 import com.altinntech.clicksave.core.dto.PreparedFieldsData;
+import com.altinntech.clicksave.core.pipelines.insert.InsertPlan;
 import com.altinntech.clicksave.core.query.executor.QueryExecutor;
 import com.altinntech.clicksave.core.utils.ClicksaveSequence;
 import com.altinntech.clicksave.core.utils.DefaultProperties;
 import com.altinntech.clicksave.core.utils.migration.MigrationWriter;
 import com.altinntech.clicksave.core.utils.tb.TableBuilder;
+import com.altinntech.clicksave.enums.AsyncInsertMode;
+import com.altinntech.clicksave.enums.ReadConsistency;
 import com.altinntech.clicksave.exceptions.ClassCacheNotFoundException;
 import com.altinntech.clicksave.exceptions.EntityInitializationException;
 import com.altinntech.clicksave.exceptions.FieldInitializationException;
@@ -22,9 +28,11 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.TimeZone;
 
 import static com.altinntech.clicksave.core.CSUtils.*;
 import static com.altinntech.clicksave.log.CSLogger.*;
@@ -32,11 +40,11 @@ import static com.altinntech.clicksave.log.CSLogger.*;
 /**
  * The {@code CSBootstrap} class initializes the application and manages the configuration setup.
  * It sets up connections, initializes entities, and handles shutdown procedures.
- *
+ * The resources are released by the JVM shutdown hook or by {@link #close()}.
  *
  * @author Fyodor Plotnikov
  */
-public class CSBootstrap {
+public class CSBootstrap implements AutoCloseable {
 
     private Set<Class<?>> entityClasses;
     private final ConnectionManager connectionManager;
@@ -71,16 +79,21 @@ public class CSBootstrap {
         this.defaultProperties = defaultProperties;
         this.connectionManager = new ConnectionManager(defaultProperties, metrics);
         this.idsManager = new IdsManager(connectionManager);
-        this.batchCollector = BatchCollector.create(idsManager, connectionManager, defaultProperties, metrics);
-        this.threadPoolManager = new ThreadPoolManager(defaultProperties);
+        RowBinaryInserter rowBinaryInserter = new RowBinaryInserter(classDataCacheService, Boolean.parseBoolean(defaultProperties.getRowBinaryInsert()));
+        this.batchCollector = BatchCollector.create(idsManager, connectionManager, defaultProperties, metrics, rowBinaryInserter, classDataCacheService);
+        this.threadPoolManager = new ThreadPoolManager(defaultProperties, metrics);
         this.syncManager = SyncManager.create(defaultProperties, batchCollector);
-        this.repository = new ClicksaveInternalRepository(connectionManager, classDataCacheService, batchCollector, idsManager, threadPoolManager, syncManager, metrics);
-        this.queryExecutor = new QueryExecutor(connectionManager, classDataCacheService, batchCollector, syncManager, threadPoolManager);
+        ReadBarrier readBarrier = new ReadBarrier(threadPoolManager, syncManager, batchCollector, ReadConsistency.valueOf(defaultProperties.getReadConsistency().toUpperCase()));
+        this.repository = new ClicksaveInternalRepository(connectionManager, classDataCacheService, batchCollector, idsManager, threadPoolManager, readBarrier, metrics, rowBinaryInserter, AsyncInsertMode.valueOf(defaultProperties.getAsyncInsert().toUpperCase()),
+                Integer.parseInt(defaultProperties.getSaveAllChunkSize()), Integer.parseInt(defaultProperties.getQueryFetchSize()));
+        this.queryExecutor = new QueryExecutor(connectionManager, classDataCacheService, readBarrier,
+                Integer.parseInt(defaultProperties.getQueryFetchSize()));
         idsManager.setRepository(repository);
 
         MigrationWriter.setDirectoryPath(defaultProperties.getMigrationsDirectoryPath());
 
         if (defaultProperties.validate()) {
+            resolveServerTimeZone();
             initialize();
             info("Initializing completed");
         } else {
@@ -93,7 +106,9 @@ public class CSBootstrap {
         this.batchCollector.dispose();
         this.classDataCacheService.dispose();
         this.syncManager.dispose();
-        this.entityClasses.clear();
+        if (entityClasses != null) {
+            this.entityClasses.clear();
+        }
         info("CSBootstrap", "Used resources disposed");
     }
 
@@ -142,7 +157,13 @@ public class CSBootstrap {
             debug("Find embeddable class: " + clazz);
         }
 
+        for (Class<?> clazz : entityClasses) {
+            ClassDataCache classDataCache = classDataCacheService.getClassDataCache(clazz);
+            classDataCache.setInsertPlan(InsertPlan.compile(classDataCache, classDataCacheService));
+        }
+
         createTablesFromAnnotatedClasses();
+        batchCollector.replayJournal(classDataCacheService);
         shutdownThread.setName("CS_shutdownHook");
         Runtime.getRuntime().addShutdownHook(shutdownThread);
     }
@@ -153,6 +174,19 @@ public class CSBootstrap {
     Thread shutdownThread = new Thread(this::shutdownProcess);
 
 
+    /**
+     * Saves the batches and releases the resources like the shutdown hook does, then removes the hook.
+     */
+    @Override
+    public void close() {
+        shutdownProcess();
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownThread);
+        } catch (IllegalStateException e) {
+            // the JVM is shutting down, the hook finds the resources disposed
+        }
+    }
+
     private synchronized void shutdownProcess() {
         if (isDisposed) {
             return;
@@ -188,6 +222,28 @@ public class CSBootstrap {
         }
     }
 
+    /**
+     * Resolves the server time zone the date time fields are bound in, the system time zone is kept
+     * if the connection fails.
+     */
+    private void resolveServerTimeZone() {
+        try (Connection connection = connectionManager.getConnection()) {
+            TimeZone timeZone = connection.unwrap(ClickHouseConnection.class).getTimeZone();
+            connectionManager.releaseConnection(connection);
+            if (timeZone != null) {
+                ZoneId serverZone = timeZone.toZoneId();
+                ZoneId zone = TemporalValues.resolveZone(serverZone);
+                if (zone.normalized().equals(serverZone.normalized())) {
+                    debug("Date time fields are bound in time zone " + zone.getId());
+                } else {
+                    warn("Server time zone " + serverZone.getId() + " differs from time zone " + zone.getId() + " resolved by another instance, date time fields are bound in " + zone.getId());
+                }
+            }
+        } catch (SQLException e) {
+            warn("Can't resolve server time zone, system time zone is used: " + e.getMessage());
+        }
+    }
+
     private boolean isTableExists(String tableName) {
         try (Connection connection = connectionManager.getConnection();
              PreparedStatement preparedStatement = connection.prepareStatement("SHOW TABLES LIKE ?")) {
@@ -217,7 +273,7 @@ public class CSBootstrap {
         List<ColumnData> columns = new ArrayList<>();
 
         try (Connection connection = connectionManager.getConnection();
-             PreparedStatement preparedStatement = connection.prepareStatement("SELECT name, type FROM system.columns WHERE table = ?")) {
+             PreparedStatement preparedStatement = connection.prepareStatement("SELECT name, type, default_kind, default_expression, compression_codec FROM system.columns WHERE table = ?")) {
 
             preparedStatement.setString(1, tableName);
             try (ResultSet resultSet = preparedStatement.executeQuery())
@@ -225,7 +281,8 @@ public class CSBootstrap {
                 while (resultSet.next()) {
                     String name = resultSet.getString("name");
                     String type = resultSet.getString("type");
-                    columns.add(new ColumnData(name, type));
+                    columns.add(new ColumnData(name, type, resultSet.getString("default_kind"),
+                            resultSet.getString("default_expression"), resultSet.getString("compression_codec")));
                 }
                 connectionManager.releaseConnection(connection);
             }
@@ -237,6 +294,15 @@ public class CSBootstrap {
         return columns;
     }
 
+    /**
+     * Replays the batches of the dead-letter queue.
+     *
+     * @return the number of replayed batches
+     */
+    public int replayDeadLetters() {
+        return batchCollector.replayDeadLetters();
+    }
+
     public DefaultProperties getDefaultProperties() {
         return defaultProperties;
     }
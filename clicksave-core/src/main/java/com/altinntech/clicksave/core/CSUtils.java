@@ -4,16 +4,14 @@ import com.altinntech.clicksave.annotations.*;
 import com.altinntech.clicksave.annotations.method.PostLoad;
 import com.altinntech.clicksave.annotations.method.PrePersist;
 import com.altinntech.clicksave.annotations.method.PreUpdate;
-import com.altinntech.clicksave.core.caches.ProjectionClassDataCache;
+import com.altinntech.clicksave.core.accessor.FieldAccessor;
+import com.altinntech.clicksave.core.converter.EnumIndex;
 import com.altinntech.clicksave.core.dto.*;
-import com.altinntech.clicksave.core.utils.gson.GsonProvider;
 import com.altinntech.clicksave.enums.EnumType;
 import com.altinntech.clicksave.enums.FieldType;
 import com.altinntech.clicksave.exceptions.ClassCacheNotFoundException;
 import com.altinntech.clicksave.exceptions.FieldInitializationException;
 import com.altinntech.clicksave.interfaces.EnumId;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import lombok.SneakyThrows;
 
 import java.lang.annotation.Annotation;
@@ -27,9 +25,7 @@ import java.sql.Date;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.IntStream;
 
 import static com.altinntech.clicksave.log.CSLogger.*;
 
@@ -48,9 +44,6 @@ public class CSUtils {
         // Private constructor to prevent instantiation
     }
 
-    static DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSSSSS");
-    static DateTimeFormatter formatter6 = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSS");
-
     /**
      * Builds a snake-case table name from the given class name.
      *
@@ -123,6 +116,7 @@ public class CSUtils {
                         fieldData.setNullable(true);
                     }
                     fieldData.setFieldType(column.value());
+                    checkColumnStorage(field, column);
                 } else if (annotation instanceof EnumColumn enumerated) {
                     if (enumerated.value() == EnumType.BY_ID && !EnumId.class.isAssignableFrom(fieldType)) {
                         throw new FieldInitializationException("Enum " + fieldType.getSimpleName() + " must implements " + EnumId.class.getSimpleName() + " interface");
@@ -159,6 +153,10 @@ public class CSUtils {
                 fieldData.setFieldName(fieldName);
                 fieldData.setFieldInTableName(fieldTableName);
                 fieldData.setType(fieldType);
+                if (fieldData.getFieldType() != null && fieldData.getFieldType().isComposite()) {
+                    initCompositeField(fieldData);
+                }
+                fieldData.bindConverters();
                 result.add(fieldData);
                 if (isId) {
                     idField = fieldData;
@@ -172,6 +170,60 @@ public class CSUtils {
         return preparedFieldsData;
     }
 
+    private static void checkColumnStorage(Field field, Column column) throws FieldInitializationException {
+        if (column.lowCardinality() && column.value().isComposite()) {
+            throw new FieldInitializationException("Field '" + field.getName() + "' of type " + column.value() + " can't be LowCardinality");
+        }
+        if (!column.defaultExpression().isEmpty() && !column.materialized().isEmpty()) {
+            throw new FieldInitializationException("Field '" + field.getName() + "' can't have both default and materialized expressions");
+        }
+        if (!column.materialized().isEmpty() && (column.id() || column.primaryKey())) {
+            throw new FieldInitializationException("Id or primary key field '" + field.getName() + "' can't be materialized");
+        }
+    }
+
+    /**
+     * Checks the element types of an array, map, tuple or nested field and resolves the nested columns.
+     * ClickHouse has no nullable composite types, the field is never nullable.
+     *
+     * @param fieldData the field data
+     * @throws FieldInitializationException if the element types don't match the field type
+     */
+    private static void initCompositeField(FieldDataCache fieldData) throws FieldInitializationException {
+        FieldType fieldType = fieldData.getFieldType();
+        FieldType[] elementTypes = fieldData.getColumnAnnotation().map(Column::elementTypes).orElse(new FieldType[0]);
+        fieldData.setNullable(false);
+        if (fieldType == FieldType.NESTED) {
+            Type genericType = fieldData.getField().getGenericType();
+            if (!List.class.isAssignableFrom(fieldData.getType()) || !(genericType instanceof ParameterizedType parameterized)
+                    || !(parameterized.getActualTypeArguments()[0] instanceof Class<?> elementType)) {
+                throw new FieldInitializationException("Nested field '" + fieldData.getFieldName() + "' must be a list of a class with columns");
+            }
+            List<FieldDataCache> elementFields = getFieldsData(elementType).getFields();
+            for (FieldDataCache elementField : elementFields) {
+                if (elementField.isEmbedded() || elementField.getFieldType() == null || elementField.getFieldType().isComposite()) {
+                    throw new FieldInitializationException("Nested field '" + fieldData.getFieldName() + "' has a not supported column: " + elementField.getFieldName());
+                }
+            }
+            fieldData.setElementType(elementType);
+            fieldData.setElementFields(elementFields);
+            return;
+        }
+        int expected = switch (fieldType) {
+            case ARRAY -> 1;
+            case MAP -> 2;
+            default -> Math.max(elementTypes.length, 1);
+        };
+        if (elementTypes.length != expected) {
+            throw new FieldInitializationException("Field '" + fieldData.getFieldName() + "' of type " + fieldType + " must have " + expected + " element types");
+        }
+        for (FieldType elementType : elementTypes) {
+            if (elementType.isComposite() || elementType == FieldType.NONE) {
+                throw new FieldInitializationException("Field '" + fieldData.getFieldName() + "' has a not supported element type: " + elementType);
+            }
+        }
+    }
+
     public static MethodDataCache getMethodData(Class<?> clazz) {
         MethodDataCache methodDataCache = new MethodDataCache();
         for (Method method : clazz.getMethods()) {
@@ -192,178 +244,17 @@ public class CSUtils {
      * Sets the value of the given field on the entity object.
      *
      * @param entity    the entity object
-     * @param field     the field to set the value for
      * @param value     the value to set
-     * @param fieldData the field data cache
-     * @throws IllegalAccessException if there is an issue accessing the field
+     * @param fieldData the field data cache of the field to set the value for
      */
-    static void setFieldValue(Object entity, Field field, Object value, FieldDataCache fieldData) throws IllegalAccessException {
-        Class<?> fieldType = fieldData.getType();
-
-        if (isLob(fieldData, value)) {
-            setLobValue(entity, field, (String) value, fieldData);
-        } else if (isBoolean(fieldData, value)) {
-            setBoolean(entity, field, value, fieldData);
-        } else if (isDateTime(fieldData, value)) {
-            setDateTimeValue(entity, field, value, fieldData);
-        } else if (isDate(fieldData, value)) {
-            setDateValue(entity, field, value, fieldData);
-        } else if (isEnumAndString(fieldType, value)) {
-            setEnumFieldValue(entity, field, (String) value, fieldData);
-        } else if (isEnumIdAndLong(fieldType, value, fieldData)) {
-            setEnumIdFieldValue(entity, field, (Long) value, fieldData);
-        } else if (isEnumAndInteger(fieldType, value)) {
-            setEnumOrdinalFieldValue(entity, field, (Integer) value, fieldData);
-        } else if (isValidFieldValue(fieldType, value)) {
-            setField(entity, field, value);
-        } else if (!tryConvertAndSetField(entity, field, value)) {
-            warn("Field " + fieldData.getFieldName() + "(" + fieldData.getType() + ")" + " is not valid for type " + value.getClass());
-        }
-    }
-
-    private static void setLobValue(Object entity, Field field, String value, FieldDataCache fieldData) {
-        Gson gson = GsonProvider.gson();
-
-        Type genericType = field.getGenericType();
-
-        if (genericType instanceof ParameterizedType) {
-            ParameterizedType parameterizedType = (ParameterizedType) genericType;
-            Type[] typeArguments = parameterizedType.getActualTypeArguments();
-            /// TODO: Varying number of parameters
-            if (typeArguments.length == 1) { /// List, Set
-                Type entityType = TypeToken.getParameterized((Class<?>) parameterizedType.getRawType(), typeArguments[0]).getType();
-                Object deserializedValue = gson.fromJson(value, entityType);
-                setField(entity, field, deserializedValue);
-            } else if (typeArguments.length == 2) { /// Map
-                Type entityType = TypeToken.getParameterized((Class<?>) parameterizedType.getRawType(), typeArguments[0], typeArguments[1]).getType();
-                Object deserializedValue = gson.fromJson(value, entityType);
-                setField(entity, field, deserializedValue);
-            }
-        } else {
-            Object deserializedValue = gson.fromJson(value, fieldData.getType());
-            setField(entity, field, deserializedValue);
-        }
-    }
-
-    private static void setDateTimeValue(Object entity, Field field, Object value, FieldDataCache fieldData) {
-        LocalDateTime localDateTime;
-        if (value instanceof Date) {
-            localDateTime = ((Date) value).toLocalDate().atStartOfDay();
-        } else if (value instanceof Timestamp) {
-            localDateTime = ((Timestamp) value).toLocalDateTime();
-        } else if (value instanceof String) {
-            try {
-                localDateTime = LocalDateTime.parse((String) value, formatter);
-            } catch (Exception ignored) {
-                localDateTime = LocalDateTime.parse((String) value, formatter6);
-            }
-        } else {
-            localDateTime = (LocalDateTime) value;
-        }
-        setField(entity, field, localDateTime);
-    }
-
-    private static void setDateValue(Object entity, Field field, Object value, FieldDataCache fieldData) {
-        LocalDate localDate;
-        if (value instanceof Date) {
-            localDate = ((Date) value).toLocalDate();
-        } else if (value instanceof Timestamp) {
-            localDate = ((Timestamp) value).toLocalDateTime().toLocalDate();
-        } else if (value instanceof String) {
-            try {
-                localDate = LocalDate.parse((String) value, formatter);
-            } catch (Exception ignored) {
-                localDate = LocalDate.parse((String) value, formatter6);
-            }
-        } else {
-            localDate = (LocalDate) value;
-        }
-        setField(entity, field, localDate);
-    }
-
-    private static void setBoolean(Object entity, Field field, Object value, FieldDataCache fieldData) {
-        Boolean booleanValue;
-        if (value instanceof String) {
-            booleanValue = Boolean.parseBoolean((String) value);
-        }
-        else if (value instanceof Number) {
-            booleanValue = (Integer) value == 1;
-        }
-        else {
-            booleanValue = (Boolean) value;
-        }
-        setField(entity, field, booleanValue);
+    static void setFieldValue(Object entity, Object value, FieldDataCache fieldData) {
+        fieldData.getAccessor().set(entity, fieldData.getReadConverter().read(value));
     }
 
-    private static boolean isLob(FieldDataCache fieldData, Object value) {
-        Optional<Lob> lobOptional = fieldData.getLobAnnotation();
-        return lobOptional.isPresent();
-    }
-
-    private static boolean isBoolean(FieldDataCache fieldData, Object value) {
-        return fieldData.getFieldType() == FieldType.BOOL || fieldData.getFieldType() == FieldType.BOOL8;
-    }
-
-    private static boolean isDateTime(FieldDataCache fieldData, Object value) {
-        return fieldData.getFieldType() == FieldType.DATE_TIME || fieldData.getFieldType() == FieldType.DATE_TIME6;
-    }
-
-    private static boolean isDate(FieldDataCache fieldData, Object value) {
-        return fieldData.getFieldType() == FieldType.DATE;
-    }
-
-    private static boolean isEnumAndString(Class<?> fieldType, Object value) {
-        return fieldType.isEnum() && value instanceof String;
-    }
-
-    private static void setEnumFieldValue(Object entity, Field field, String enumValueName, FieldDataCache fieldData) {
-        try {
-            Enum<?> enumValue = Enum.valueOf((Class<Enum>) fieldData.getType(), enumValueName);
-            setField(entity, field, enumValue);
-        } catch (Exception ignored) {
-            setEnumIdFieldValue(entity, field, Long.parseLong(enumValueName), fieldData);
-        }
-    }
-
-    private static boolean isEnumIdAndLong(Class<?> fieldType, Object value, FieldDataCache fieldData) {
-        return EnumId.class.isAssignableFrom(fieldType) && value instanceof Long &&
-                fieldData.getEnumColumnAnnotation().get().value() == EnumType.BY_ID;
-    }
-
-    private static void setEnumIdFieldValue(Object entity, Field field, Long id, FieldDataCache fieldData) {
-        Class<? extends EnumId> enumClass = (Class<? extends EnumId>) fieldData.getType();
-        EnumId enumValue = getEnumById(enumClass, id);
-        setField(entity, field, enumValue);
-    }
-
-    private static boolean isEnumAndInteger(Class<?> fieldType, Object value) {
-        return fieldType.isEnum() && value instanceof Integer;
-    }
-
-    private static void setEnumOrdinalFieldValue(Object entity, Field field, Integer enumOrdinal, FieldDataCache fieldData) {
-        Enum<?>[] enumConstants = (Enum<?>[]) fieldData.getType().getEnumConstants();
-        if (isValidEnumOrdinal(enumOrdinal, enumConstants.length)) {
-            setField(entity, field, enumConstants[enumOrdinal]);
-        } else {
-            throw new IllegalArgumentException("Invalid ordinal value for enum: " + enumOrdinal);
-        }
-    }
-
-    private static boolean isValidEnumOrdinal(Integer enumOrdinal, int enumConstantsLength) {
-        return enumOrdinal >= 0 && enumOrdinal < enumConstantsLength;
-    }
-
-    private static boolean isValidFieldValue(Class<?> fieldType, Object value) {
-        return value != null && fieldType.isAssignableFrom(value.getClass());
-    }
-
-    private static void setField(Object entity, Field field, Object value) {
-        try {
-            field.setAccessible(true);
-            field.set(entity, value);
-        } catch (IllegalAccessException e) {
-            error(e.getMessage(), CSUtils.class);
-        }
+    public static boolean tryConvertAndSetField(Object entity, FieldAccessor field, Object value) {
+        Object convertedValue = convertValueToType(value, field.getField().getType());
+        field.set(entity, convertedValue);
+        return true;
     }
 
     public static boolean tryConvertAndSetField(Object entity, Field field, Object value) {
@@ -379,7 +270,7 @@ public class CSUtils {
         }
     }
 
-    private static Object convertValueToType(Object value, Class<?> targetType) {
+    public static Object convertValueToType(Object value, Class<?> targetType) {
         if (value == null) {
             return null;
         }
@@ -436,14 +327,12 @@ public class CSUtils {
      * @return the enum constant with the specified ID
      * @throws IllegalArgumentException if no enum constant with the specified ID is found
      */
-    static <T extends EnumId> T getEnumById(Class<T> enumClass, Long id) throws IllegalArgumentException {
-        T[] enumConstants = enumClass.getEnumConstants();
-        for (T enumValue : enumConstants) {
-            if (enumValue.getId().equals(id)) {
-                return enumValue;
-            }
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <T extends EnumId> T getEnumById(Class<T> enumClass, Long id) throws IllegalArgumentException {
+        if (!enumClass.isEnum()) {
+            throw new IllegalArgumentException("No enum constant with id: " + id);
         }
-        throw new IllegalArgumentException("No enum constant with id: " + id);
+        return (T) EnumIndex.of((Class) enumClass).byId(id);
     }
 
     /**
@@ -477,61 +366,8 @@ public class CSUtils {
     }
 
     /**
-     * Creates a DTO entity object from a ResultSet.
-     *
-     * @param <T>            the type parameter
-     * @param returnType     the return type of the DTO entity
-     * @param resultSet      the ResultSet containing data
-     * @return the DTO entity object created from the ResultSet
-     * @throws SQLException the SQL exception
-     */
-    public static <T> T createDtoEntityFromResultSet(Class<T> returnType, ResultSet resultSet) throws SQLException {
-        T entity = null;
-        ProjectionClassDataCache projectionClassDataCache = ProjectionClassDataCache.getInstance();
-        ProjectionClassData projectionClassData = projectionClassDataCache.get(returnType);
-
-        try {
-            entity = returnType.getDeclaredConstructor().newInstance();
-            List<FieldDataCache> fieldDataList = projectionClassData.getFields();
-            for (FieldDataCache fieldData : fieldDataList) {
-                Field field = fieldData.getField();
-                field.setAccessible(true);
-                Optional<Reference> referenceAnnotationOptional = fieldData.getReferenceAnnotationOptional();
-
-                String fieldNameInResultSet;
-                if (referenceAnnotationOptional.isPresent()) {
-                    fieldNameInResultSet = referenceAnnotationOptional.get().value();
-                } else {
-                    fieldNameInResultSet = fieldData.getFieldInTableName();
-                }
-                setValueFromResultSet(resultSet, fieldData, entity, field, fieldNameInResultSet);
-
-            }
-        } catch (InstantiationException | IllegalAccessException | NoSuchMethodException | IllegalArgumentException |
-                 InvocationTargetException | ClassCacheNotFoundException e) {
-            e.printStackTrace();
-        }
-        return entity;
-    }
-
-    private static <T> void setValueFromResultSet(ResultSet resultSet, FieldDataCache fieldDataCache, T entity, Field field, String fieldNameInEntity) throws SQLException, IllegalAccessException, ClassCacheNotFoundException {
-        String columnName;
-        if (fieldNameInEntity != null) {
-            columnName = fieldNameInEntity;
-        } else {
-            columnName = fieldDataCache.getFieldInTableName();
-        }
-        boolean columnFound = isColumnFound(resultSet, columnName);
-        if(columnFound) {
-            Object value = resultSet.getObject(columnName);
-            setFieldValue(entity, field, value, fieldDataCache);
-        } else {
-            warn("Column '" + columnName + "' not found in resultSet");
-        }
-    }
-
-    /**
-     * Creates an entity object from a ResultSet.
+     * Creates an entity object from the current row of a ResultSet.
+     * Queries reading many rows resolve the {@link RowMapping} once and read every row with it.
      *
      * @param <T>            the type parameter
      * @param entityClass    the entity class
@@ -542,41 +378,7 @@ public class CSUtils {
      * @throws IllegalArgumentException the illegal argument exception
      */
     public static <T> T createEntityFromResultSet(Class<T> entityClass, ResultSet resultSet, ClassData classDataCache, ClassDataCacheService classDataCacheService) throws ClassCacheNotFoundException, SQLException, IllegalArgumentException {
-        T entity = null;
-        try {
-            entity = entityClass.getDeclaredConstructor().newInstance();
-            List<FieldDataCache> fields = classDataCache.getFields();
-            for (FieldDataCache fieldDataCache : fields) {
-                Optional<Embedded> embeddedOptional = fieldDataCache.getEmbeddedAnnotation();
-                if (embeddedOptional.isPresent()) {
-                    EmbeddableClassData embeddableClassData = classDataCacheService.getEmbeddableClassDataCache(fieldDataCache.getType());
-                    Object value = createEntityFromResultSet(fieldDataCache.getType(), resultSet, embeddableClassData, classDataCacheService);
-                    Field field = fieldDataCache.getField();
-                    setField(entity, field, value);
-                } else {
-                    setValueFromResultSet(resultSet, fieldDataCache, entity, fieldDataCache.getField(), null);
-                }
-            }
-        } catch (InstantiationException | IllegalArgumentException | IllegalAccessException | NoSuchMethodException |
-                 InvocationTargetException e) {
-            error("Error while create instance of entity: " + e.getMessage());
-        }
-        return entity;
-    }
-
-    private static boolean isColumnFound(ResultSet resultSet, String columnName) throws SQLException {
-        ResultSetMetaData metaData = resultSet.getMetaData();
-        int columnCount = metaData.getColumnCount();
-
-        return IntStream.range(1, columnCount + 1)
-                .mapToObj(i -> {
-                    try {
-                        return metaData.getColumnName(i);
-                    } catch (SQLException e) {
-                        throw new RuntimeException("Failed to get column name", e);
-                    }
-                })
-                .anyMatch(columnName::equals);
+        return RowMapping.of(entityClass, resultSet, classDataCache, classDataCacheService).read(resultSet);
     }
 
     /**
@@ -2,6 +2,7 @@ package com.altinntech.clicksave.core;
 
 import com.altinntech.clicksave.core.dto.ClassDataCache;
 import com.altinntech.clicksave.core.dto.EmbeddableClassData;
+import com.altinntech.clicksave.core.mapper.EntityMappers;
 import com.altinntech.clicksave.exceptions.ClassCacheNotFoundException;
 import com.altinntech.clicksave.interfaces.Disposable;
 
@@ -14,7 +15,15 @@ public class ClassDataCacheService implements Disposable {
     private final Map<Class<?>, ClassDataCache> classDataCacheMap = new HashMap<>();
     private final Map<Class<?>, EmbeddableClassData> embeddableClassDataCacheMap = new HashMap<>();
 
+    /**
+     * Puts the class data of the entity class. The mapper generated for the class at compile time
+     * is attached to the class data when it is present.
+     *
+     * @param clazz     the entity class
+     * @param classData the class data
+     */
     public void putClassDataCache(Class<?> clazz, ClassDataCache classData) {
+        classData.setMapper(EntityMappers.find(clazz));
         classDataCacheMap.put(clazz, classData);
     }
 
@@ -1,11 +1,20 @@
 package com.altinntech.clicksave.core;
 
 import com.altinntech.clicksave.annotations.Batching;
+import com.altinntech.clicksave.annotations.ClickHouseEntity;
 import com.altinntech.clicksave.annotations.EnumColumn;
+import com.altinntech.clicksave.core.accessor.FieldAccessor;
+import com.altinntech.clicksave.core.accessor.LifecycleCallback;
+import com.altinntech.clicksave.core.batch.ColumnarBatch;
+import com.altinntech.clicksave.core.batch.InsertSettings;
+import com.altinntech.clicksave.core.batch.PendingRow;
+import com.altinntech.clicksave.core.batch.RowBinaryInserter;
+import com.altinntech.clicksave.core.converter.CompositeValues;
 import com.altinntech.clicksave.core.dto.*;
-import com.altinntech.clicksave.core.pipelines.insert.InsertQueryBuilder;
-import com.altinntech.clicksave.core.pipelines.insert.InsertQueryBuilderFactory;
+import com.altinntech.clicksave.core.pipelines.insert.InsertPlan;
 import com.altinntech.clicksave.core.utils.gson.GsonProvider;
+import com.altinntech.clicksave.core.utils.tb.ColumnTypes;
+import com.altinntech.clicksave.enums.AsyncInsertMode;
 import com.altinntech.clicksave.enums.EnumType;
 import com.altinntech.clicksave.enums.FieldType;
 import com.altinntech.clicksave.enums.Metrics;
@@ -16,12 +25,12 @@ import com.altinntech.clicksave.interfaces.EnumId;
 import com.altinntech.clicksave.log.CSLogger;
 import com.google.gson.Gson;
 
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.math.BigDecimal;
 import java.sql.*;
-import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static com.altinntech.clicksave.core.CSUtils.*;
 import static com.altinntech.clicksave.log.CSLogger.error;
@@ -33,26 +42,55 @@ import static com.altinntech.clicksave.log.CSLogger.error;
  * @author Fyodor Plotnikov
  */
 public class ClicksaveInternalRepository {
+
+    private static final InsertSettings ASYNC_INSERT_WAIT = InsertSettings.NONE.with("async_insert", 1).with("wait_for_async_insert", 1);
+    private static final InsertSettings ASYNC_INSERT_NO_WAIT = InsertSettings.NONE.with("async_insert", 1).with("wait_for_async_insert", 0);
     
     private final ConnectionManager connectionManager;
     private final ClassDataCacheService classDataCacheService;
     private final BatchCollector batchCollector;
     private final IdsManager idsManager;
     private final ThreadPoolManager threadPoolManager;
-    private final SyncManager syncManager;
+    private final ReadBarrier readBarrier;
     private final ClicksaveMetrics metrics;
+    private final RowBinaryInserter rowBinaryInserter;
+
+    /**
+     * The async insert mode of entities without batching that don't set their own mode.
+     */
+    private final AsyncInsertMode defaultAsyncInsertMode;
+
+    /**
+     * The number of entities inserted by one statement of {@link #saveAll(Iterable, Object)}.
+     */
+    private final int saveAllChunkSize;
+
+    /**
+     * The fetch size hint of the statements read by {@link #streamAll(Class)}.
+     */
+    private final int queryFetchSize;
+
+    /**
+     * The reusable row of the batched save path. The batch collector copies the values into its columnar buffer,
+     * so the row is not retained after {@link BatchCollector#put}.
+     */
+    private final ThreadLocal<List<Object>> batchedRow = ThreadLocal.withInitial(ArrayList::new);
 
     /**
      * Instantiates a new ClickHouse repository.
      */
-    ClicksaveInternalRepository(ConnectionManager connectionManager, ClassDataCacheService classDataCacheService, BatchCollector batchCollector, IdsManager idsManager, ThreadPoolManager threadPoolManager, SyncManager syncManager, ClicksaveMetrics metrics) {
+    ClicksaveInternalRepository(ConnectionManager connectionManager, ClassDataCacheService classDataCacheService, BatchCollector batchCollector, IdsManager idsManager, ThreadPoolManager threadPoolManager, ReadBarrier readBarrier, ClicksaveMetrics metrics, RowBinaryInserter rowBinaryInserter, AsyncInsertMode defaultAsyncInsertMode, int saveAllChunkSize, int queryFetchSize) {
         this.connectionManager = connectionManager;
         this.classDataCacheService = classDataCacheService;
         this.idsManager = idsManager;
         this.batchCollector = batchCollector;
         this.threadPoolManager = threadPoolManager;
-        this.syncManager = syncManager;
+        this.readBarrier = readBarrier;
         this.metrics = metrics;
+        this.rowBinaryInserter = rowBinaryInserter;
+        this.defaultAsyncInsertMode = defaultAsyncInsertMode;
+        this.saveAllChunkSize = Math.max(1, saveAllChunkSize);
+        this.queryFetchSize = Math.max(0, queryFetchSize);
     }
 
     /**
@@ -70,43 +108,44 @@ public class ClicksaveInternalRepository {
         Class<?> entityClass = entity.getClass();
         ClassDataCache classDataCache = classDataCacheService.getClassDataCache(entityClass);
         FieldDataCache idFieldData = classDataCache.getIdField();
-        Field idField = idFieldData.getField();
 
         // check for update
-        idField.setAccessible(true);
-        ID id = (ID) idFieldData.getField().get(entity);
+        ID id = (ID) idFieldData.getAccessor().get(entity);
         if (id != null && entityExists(entityClass, id)) {
             return update(entity, classDataCache, idFieldData, id);
         }
 
-        String tableName = classDataCache.getTableName();
-        StringBuilder insertQuery = new StringBuilder("INSERT INTO ").append(tableName).append(" (");
-        StringBuilder valuesPlaceholder = new StringBuilder(" VALUES (");
-
         executePrePersistedMethods(entity, classDataCache);
+        assignId(entity, classDataCache, idFieldData, idType);
 
-        List<FieldDataCache> fields = classDataCache.getFields();
-        List<Object> fieldValues = new ArrayList<>();
-
-        extractFieldValuesForCreate(entity, idType, classDataCache, insertQuery, valuesPlaceholder, fields, fieldValues);
-        String query = buildInsertQuery(insertQuery, valuesPlaceholder, classDataCache, fieldValues);
-        CSLogger.debug("Built query ```\r\n" + query + "\r\n```");
-
+        InsertPlan insertPlan = classDataCache.getInsertPlan();
         Optional<Batching> batchSizeAnnotation = classDataCache.getBatchingAnnotationOptional();
+        List<Object> fieldValues;
         if (batchSizeAnnotation.isPresent()) {
-            BatchedQueryData batchedQuery = new BatchedQueryData(query, classDataCache);
-            batchCollector.put(batchedQuery, fieldValues);
-            return entity;
+            fieldValues = batchedRow.get();
+            fieldValues.clear();
+        } else {
+            fieldValues = new ArrayList<>();
         }
 
-        try(Connection connection = connectionManager.getConnection();
-            PreparedStatement statement = connection.prepareStatement(query)) {
+        long missing = insertPlan.extract(entity, fieldValues);
+        if (batchSizeAnnotation.isPresent()) {
+            batchCollector.put(insertPlan.getQueryData(missing), fieldValues, pendingRowOf(entity, idFieldData, missing, fieldValues));
+            return entity;
+        }
 
-            for (int i = 0; i < fieldValues.size(); i++) {
-                statement.setObject(i + 1, fieldValues.get(i));
+        BatchedQueryData queryData = insertPlan.getQueryData(missing);
+        InsertSettings settings = asyncInsertSettings(classDataCache);
+        try(Connection connection = connectionManager.getConnection()) {
+            if (!insertRowBinary(connection, queryData, fieldValues, settings)) {
+                try (PreparedStatement statement = connection.prepareStatement(settings.apply(queryData.getQuery()))) {
+                    for (int i = 0; i < fieldValues.size(); i++) {
+                        statement.setObject(i + 1, fieldValues.get(i));
+                    }
+                    statement.addBatch();
+                    statement.executeBatch();
+                }
             }
-            statement.addBatch();
-            statement.executeBatch();
             connectionManager.releaseConnection(connection);
             metrics.incrementCounter(Metrics.REPO_SAVE_COUNTER.getMetricsName());
         } catch (SQLException e) {
@@ -116,17 +155,178 @@ public class ClicksaveInternalRepository {
         return entity;
     }
 
+    /**
+     * Saves the entities. Entities are processed in chunks: existing entities of the chunk are found by one query
+     * and updated, ids of the new ones are allocated in one block and their rows are inserted by one statement,
+     * or put to the batch if the entity has batching.
+     *
+     * @param <T>      the type parameter
+     * @param entities the entities to save
+     * @param idType   the id type
+     * @return the saved entities
+     */
+    public <T, ID> List<T> saveAll(Iterable<T> entities, ID idType) throws ClassCacheNotFoundException, IllegalAccessException, SQLException, InvocationTargetException {
+        List<T> saved = new ArrayList<>();
+        saveAll(entities.iterator(), idType, saved::add);
+        return saved;
+    }
+
+    /**
+     * Saves the entities of the stream like {@link #saveAll(Iterable, Object)}. Only one chunk of entities is held
+     * in memory at a time. The stream is closed afterwards.
+     *
+     * @param <T>      the type parameter
+     * @param entities the entities to save
+     * @param idType   the id type
+     * @return the number of saved entities
+     */
+    public <T, ID> long saveAll(Stream<T> entities, ID idType) throws ClassCacheNotFoundException, IllegalAccessException, SQLException, InvocationTargetException {
+        try (entities) {
+            return saveAll(entities.iterator(), idType, entity -> {});
+        }
+    }
+
+    private <T, ID> long saveAll(Iterator<T> entities, ID idType, Consumer<T> savedConsumer) throws ClassCacheNotFoundException, IllegalAccessException, SQLException, InvocationTargetException {
+        long count = 0;
+        List<T> chunk = new ArrayList<>();
+        while (entities.hasNext()) {
+            T entity = entities.next();
+            if (!chunk.isEmpty() && (chunk.size() == saveAllChunkSize || chunk.get(0).getClass() != entity.getClass())) {
+                saveChunk(chunk, idType);
+                chunk.forEach(savedConsumer);
+                count += chunk.size();
+                chunk.clear();
+            }
+            chunk.add(entity);
+        }
+        if (!chunk.isEmpty()) {
+            saveChunk(chunk, idType);
+            chunk.forEach(savedConsumer);
+            count += chunk.size();
+        }
+        return count;
+    }
+
+    private <T, ID> void saveChunk(List<T> chunk, ID idType) throws ClassCacheNotFoundException, IllegalAccessException, SQLException, InvocationTargetException {
+        ClassDataCache classDataCache = classDataCacheService.getClassDataCache(chunk.get(0).getClass());
+        FieldDataCache idFieldData = classDataCache.getIdField();
+        FieldAccessor idField = idFieldData.getAccessor();
+
+        List<T> inserts = new ArrayList<>(chunk.size());
+        List<Object> ids = new ArrayList<>();
+        for (T entity : chunk) {
+            Object id = idField.get(entity);
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        Set<String> existingIds = ids.isEmpty() ? Collections.emptySet() : findExistingIds(classDataCache, ids);
+        for (T entity : chunk) {
+            Object id = idField.get(entity);
+            if (id != null && existingIds.contains(id.toString())) {
+                update(entity, classDataCache, idFieldData, id);
+            } else {
+                inserts.add(entity);
+            }
+        }
+        if (inserts.isEmpty()) {
+            return;
+        }
+
+        // like save(), the pre-persist callbacks run before the ids are assigned and may set the ids themselves
+        List<T> withoutId = new ArrayList<>();
+        for (T entity : inserts) {
+            executePrePersistedMethods(entity, classDataCache);
+            if (idField.get(entity) == null) {
+                withoutId.add(entity);
+            }
+        }
+        if (!withoutId.isEmpty()) {
+            List<ID> newIds = idsManager.getNextIds(classDataCache, idFieldData, idType, withoutId.size());
+            for (int i = 0; i < withoutId.size(); i++) {
+                setFieldValue(withoutId.get(i), newIds.get(i), idFieldData);
+            }
+        }
+
+        boolean batched = classDataCache.getBatchingAnnotationOptional().isPresent();
+        InsertPlan insertPlan = classDataCache.getInsertPlan();
+        Map<Long, ColumnarBatch> rowsByQuery = new LinkedHashMap<>();
+        List<Object> fieldValues = batched ? batchedRow.get() : new ArrayList<>();
+        for (T entity : inserts) {
+            fieldValues.clear();
+            long missing = insertPlan.extract(entity, fieldValues);
+            if (batched) {
+                batchCollector.put(insertPlan.getQueryData(missing), fieldValues, pendingRowOf(entity, idFieldData, missing, fieldValues));
+            } else {
+                rowsByQuery.computeIfAbsent(missing, q -> new ColumnarBatch(inserts.size())).append(fieldValues);
+            }
+        }
+
+        for (Map.Entry<Long, ColumnarBatch> rows : rowsByQuery.entrySet()) {
+            insertRows(insertPlan.getQueryData(rows.getKey()), rows.getValue());
+        }
+        if (!batched) {
+            metrics.incrementCounter(Metrics.REPO_SAVE_COUNTER.getMetricsName(), inserts.size());
+        }
+        CSLogger.debug("Saved chunk of " + inserts.size() + " entities to " + classDataCache.getTableName());
+    }
+
+    private void insertRows(BatchedQueryData queryData, ColumnarBatch rows) throws SQLException {
+        InsertSettings settings = asyncInsertSettings(queryData.getClassDataCache());
+        try (Connection connection = connectionManager.getConnection()) {
+            try {
+                if (!rowBinaryInserter.isEnabled() || !rowBinaryInserter.insert(connection, queryData, rows, settings)) {
+                    try (PreparedStatement statement = connection.prepareStatement(settings.apply(queryData.getQuery()))) {
+                        for (int row = 0; row < rows.size(); row++) {
+                            rows.bind(statement, row);
+                            statement.addBatch();
+                        }
+                        statement.executeBatch();
+                    }
+                }
+            } finally {
+                connectionManager.releaseConnection(connection);
+            }
+        }
+    }
+
+    private Set<String> findExistingIds(ClassDataCache classDataCache, List<Object> ids) throws SQLException, ClassCacheNotFoundException, IllegalAccessException, InvocationTargetException {
+        readBarrier.flush(classDataCache);
+        String idFieldName = classDataCache.getIdField().getFieldInTableName();
+        StringBuilder selectQuery = new StringBuilder("SELECT ").append(idFieldName).append(" FROM ").append(classDataCache.getTableName())
+                .append(" WHERE ").append(idFieldName).append(" IN (");
+        for (int i = 0; i < ids.size(); i++) {
+            selectQuery.append(i == 0 ? "?" : ", ?");
+        }
+        selectQuery.append(")");
+
+        Set<String> existingIds = new HashSet<>();
+        try (Connection connection = connectionManager.getConnection();
+             PreparedStatement statement = connection.prepareStatement(selectQuery.toString())) {
+            for (int i = 0; i < ids.size(); i++) {
+                statement.setObject(i + 1, ids.get(i));
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    existingIds.add(resultSet.getObject(1).toString());
+                }
+            }
+            connectionManager.releaseConnection(connection);
+        }
+        return existingIds;
+    }
+
     private static <T> void executePrePersistedMethods(T entity, ClassDataCache classDataCache) throws IllegalAccessException, InvocationTargetException {
         MethodDataCache methodDataCache = classDataCache.getMethodData();
-        for (Method method : methodDataCache.getPrePersistedMethods()) {
-            method.invoke(entity);
+        for (LifecycleCallback callback : methodDataCache.getPrePersistedCallbacks()) {
+            callback.invoke(entity);
         }
     }
 
     private static <T> void executePreUpdatedMethods(T entity, ClassDataCache classDataCache) throws IllegalAccessException, InvocationTargetException {
         MethodDataCache methodDataCache = classDataCache.getMethodData();
-        for (Method method : methodDataCache.getPreUpdatedMethods()) {
-            method.invoke(entity);
+        for (LifecycleCallback callback : methodDataCache.getPreUpdatedCallbacks()) {
+            callback.invoke(entity);
         }
     }
 
@@ -135,77 +335,46 @@ public class ClicksaveInternalRepository {
             return;
         }
         MethodDataCache methodDataCache = classDataCache.getMethodData();
-        for (Method method : methodDataCache.getPostLoadedMethods()) {
-            method.invoke(entity);
+        for (LifecycleCallback callback : methodDataCache.getPostLoadedCallbacks()) {
+            callback.invoke(entity);
         }
     }
 
-    private String buildInsertQuery(StringBuilder insertQuery, StringBuilder valuesPlaceholder, ClassDataCache classDataCache, List<Object> fieldValues) {
-        InsertQueryBuilder queryBuilder = InsertQueryBuilderFactory.getQueryBuilder(classDataCache.getEngineType());
-        return queryBuilder.buildInsertQuery(insertQuery, valuesPlaceholder, classDataCache, fieldValues);
+    /**
+     * Copies the row of the batched entity for the pending row index, unless lookups by id always read the table.
+     */
+    private PendingRow pendingRowOf(Object entity, FieldDataCache idFieldData, long missing, List<Object> fieldValues) {
+        if (!readBarrier.readsPendingRows()) {
+            return null;
+        }
+        return new PendingRow(idFieldData.getAccessor().get(entity), missing, new ArrayList<>(fieldValues));
     }
 
-    private <T, ID> void extractFieldValuesForCreate(T entity, ID idType, ClassDataCache classDataCache, StringBuilder insertQuery, StringBuilder valuesPlaceholder, List<FieldDataCache> fields, List<Object> fieldValues) throws SQLException, ClassCacheNotFoundException, IllegalAccessException, InvocationTargetException {
-        if (entity == null) {
-            return;
+    private <T, ID> void assignId(T entity, ClassDataCache classDataCache, FieldDataCache idFieldData, ID idType) throws SQLException, ClassCacheNotFoundException, IllegalAccessException, InvocationTargetException {
+        if (idFieldData.getAccessor().get(entity) == null) {
+            setFieldValue(entity, idsManager.getNextId(classDataCache, idFieldData, idType), idFieldData);
         }
-        for (FieldDataCache fieldData : fields) {
-            String columnName = fieldData.getFieldInTableName();
-            Field field = fieldData.getField();
-            Optional<EnumColumn> enumeratedOptional = fieldData.getEnumColumnAnnotation();
-
-            if (fieldData.getFieldType() == null && !fieldData.isEmbedded()) {
-                throw new FieldInitializationException("Exception while saving: Not valid field - " + fieldData);
-            }
+    }
 
-            if (fieldData.isEmbedded()) {
-                EmbeddableClassData embeddableClassData = classDataCacheService.getEmbeddableClassDataCache(fieldData.getType());
-                field.setAccessible(true);
-                Object value = field.get(entity);
-                extractFieldValuesForCreate(value, null, classDataCache, insertQuery, valuesPlaceholder, embeddableClassData.getFields(), fieldValues);
-            } else if (fieldData.isLob()) {
-                field.setAccessible(true);
-                Object value;
-                try {
-                    value = field.get(entity);
-                    Gson gson = GsonProvider.gson();;
-                    String json = gson.toJson(value);
-                    fieldValues.add(json);
-                    insertQuery.append(columnName).append(", ");
-                    valuesPlaceholder.append("?, ");
-                } catch (IllegalAccessException e) {
-                    error(e.getMessage(), this.getClass());
-                }
-            } else {
-                field.setAccessible(true);
-                Object value = null;
-                try {
-                    value = field.get(entity);
-                    if (value == null && fieldData.isId()) {
-                        value = idsManager.getNextId(classDataCache, fieldData, idType);
-                        setFieldValue(entity, field, value, fieldData);
-                    } else if (fieldData.getFieldType().equals(FieldType.DATE_TIME)) {
-                        LocalDateTime timeField = (LocalDateTime) value;
-                        value = timeField != null ? timeField.format(formatter) : null;
-                    } else if (fieldData.getFieldType().equals(FieldType.DATE_TIME6)) {
-                        LocalDateTime timeField = (LocalDateTime) value;
-                        value = timeField != null ? timeField.format(formatter6) : null;
-                    } else if (fieldData.isEnum()) {
-                        if (enumeratedOptional.isPresent()) {
-                            EnumColumn enumeratedAnnotation = enumeratedOptional.get();
-                            value = getValueFromEnum(enumeratedAnnotation, value);
-                        } else {
-                            value = value.toString();
-                        }
-                    }
-                } catch (IllegalAccessException e) {
-                    error(e.getMessage(), this.getClass());
-                }
-                insertQuery.append(columnName).append(", ");
-                valuesPlaceholder.append("?, ");
-                fieldValues.add(value);
-            }
+    private boolean insertRowBinary(Connection connection, BatchedQueryData queryData, List<Object> fieldValues, InsertSettings settings) throws SQLException {
+        if (!rowBinaryInserter.isEnabled()) {
+            return false;
         }
+        ColumnarBatch row = new ColumnarBatch(1);
+        row.append(fieldValues);
+        return rowBinaryInserter.insert(connection, queryData, row, settings);
+    }
+
+    private InsertSettings asyncInsertSettings(ClassDataCache classDataCache) {
+        AsyncInsertMode mode = classDataCache.getCHEAnnotationOptional()
+                .map(ClickHouseEntity::asyncInsert)
+                .filter(entityMode -> entityMode != AsyncInsertMode.DEFAULT)
+                .orElse(defaultAsyncInsertMode);
+        return switch (mode) {
+            case WAIT -> ASYNC_INSERT_WAIT;
+            case NO_WAIT -> ASYNC_INSERT_NO_WAIT;
+            default -> InsertSettings.NONE;
+        };
     }
 
     private Object getValueFromEnum(EnumColumn enumeratedAnnotation, Object value) {
@@ -238,7 +407,7 @@ public class ClicksaveInternalRepository {
     private <T, ID> T update(T entity, ClassDataCache classDataCache, FieldDataCache idFieldData, ID id) throws IllegalAccessException, SQLException, ClassCacheNotFoundException, InvocationTargetException {
         String tableName = classDataCache.getTableName();
         StringBuilder updateQuery = new StringBuilder("ALTER TABLE ").append(tableName).append(" UPDATE ");
-        threadPoolManager.waitForCompletion();
+        threadPoolManager.waitForCompletion(classDataCache.getEntityClass());
         batchCollector.saveAndFlush(classDataCache);
 
         executePreUpdatedMethods(entity, classDataCache);
@@ -270,37 +439,43 @@ public class ClicksaveInternalRepository {
             return;
         }
         for (FieldDataCache fieldData : fields) {
+            if (fieldData.isMaterialized()) {
+                continue;
+            }
             String columnName = fieldData.getFieldInTableName();
-            Field field = fieldData.getField();
+            FieldAccessor field = fieldData.getAccessor();
             Optional<EnumColumn> enumeratedOptional = fieldData.getEnumColumnAnnotation();
 
             if (fieldData.isEmbedded()) {
                 EmbeddableClassData embeddableClassData = classDataCacheService.getEmbeddableClassDataCache(fieldData.getType());
-                field.setAccessible(true);
                 Object value = field.get(entity);
                 extractFieldValuesForUpdate(value, updateQuery, embeddableClassData.getFields());
             } else if (fieldData.isLob()) {
-                field.setAccessible(true);
-                Object value;
-                try {
-                    value = field.get(entity);
-                    Gson gson = GsonProvider.gson();
-                    String json = gson.toJson(value);
-                    updateQuery.append(columnName).append(" = ").append("'" + json + "'").append(", ");
-                } catch (IllegalAccessException e) {
-                    error(e.getMessage(), this.getClass());
+                Object value = field.get(entity);
+                Gson gson = GsonProvider.gson();
+                String json = gson.toJson(value);
+                updateQuery.append(columnName).append(" = ").append("'" + json + "'").append(", ");
+            } else if (fieldData.getFieldType() == FieldType.NESTED) {
+                Object value = field.get(entity);
+                for (FieldDataCache elementField : fieldData.getElementFields()) {
+                    Object array = CompositeValues.nestedWriterOf(elementField).write(value);
+                    updateQuery.append(columnName).append(".").append(elementField.getFieldInTableName()).append(" = ").append(array).append(", ");
                 }
+            } else if (fieldData.getFieldType() != null && fieldData.getFieldType().isComposite()) {
+                // composite values are written as literals, null as the default value of the column type
+                Object value = fieldData.getWriteConverter().write(field.get(entity));
+                updateQuery.append(columnName).append(" = ")
+                        .append(value != null ? value : "defaultValueOfTypeName('" + ColumnTypes.typeOf(fieldData) + "')").append(", ");
             } else if (!fieldData.isId() && !fieldData.isPk()) {
-                field.setAccessible(true);
                 Object value = field.get(entity);
 
-                if (fieldData.getFieldType().equals(FieldType.DATE_TIME)) {
-                    LocalDateTime timeField = (LocalDateTime) value;
-                    value = timeField != null ? timeField.format(formatter) : "";
-                } else if (fieldData.getFieldType().equals(FieldType.DATE_TIME6)) {
-                    LocalDateTime timeField = (LocalDateTime) value;
-                    value = timeField != null ? timeField.format(formatter6) : "";
-                } else if (fieldData.getFieldType().equals(FieldType.BOOL8)) {
+                if (fieldData.getFieldType() == FieldType.DATE_TIME || fieldData.getFieldType() == FieldType.DATE_TIME6) {
+                    // the epoch seconds bound by the inserts, quoted so the fraction isn't read as a float
+                    BigDecimal epoch = (BigDecimal) fieldData.getWriteConverter().write(value);
+                    updateQuery.append(columnName).append(" = ").append(epoch != null ? "'" + epoch.toPlainString() + "'" : "NULL").append(", ");
+                    continue;
+                }
+                if (fieldData.getFieldType().equals(FieldType.BOOL8)) {
                     value = (Boolean) value ? 1 : 0;
                 }
                 else if (fieldData.isEnum()) {
@@ -330,9 +505,18 @@ public class ClicksaveInternalRepository {
         ClassDataCache classDataCache = classDataCacheService.getClassDataCache(entityClass);
         String tableName = classDataCache.getTableName();
         StringBuilder selectQuery = new StringBuilder("SELECT * FROM ").append(tableName).append(" WHERE ");
-        threadPoolManager.waitForCompletion();
-        syncManager.saveBatchRequest();
-        batchCollector.saveAndFlush(classDataCache);
+        PendingRow pending = readBarrier.lookupPending(classDataCache, id);
+        if (pending != null) {
+            T entity;
+            try {
+                entity = entityClass.cast(classDataCache.getInsertPlan().read(pending.missing(), pending.values()));
+            } catch (NoSuchMethodException e) {
+                throw new RuntimeException(e);
+            }
+            executePostLoadedMethods(entity, classDataCache);
+            metrics.incrementCounter(Metrics.PENDING_ROW_READS.getMetricsName());
+            return entity;
+        }
 
         FieldDataCache idFieldCache = classDataCache.getIdField();
         String idFieldName = idFieldCache.getFieldInTableName();
@@ -374,16 +558,15 @@ public class ClicksaveInternalRepository {
         ClassDataCache classDataCache = classDataCacheService.getClassDataCache(entityClass);
         String tableName = classDataCache.getTableName();
         String selectQuery = "SELECT * FROM " + tableName;
-        threadPoolManager.waitForCompletion();
-        syncManager.saveBatchRequest();
-        batchCollector.saveAndFlush(classDataCache);
+        readBarrier.beforeRead(classDataCache);
 
         try(Connection connection = connectionManager.getConnection();
             Statement statement = connection.createStatement();
             ResultSet resultSet = statement.executeQuery(selectQuery)) {
             List<T> entities = new ArrayList<>();
+            RowMapping<T> rowMapping = RowMapping.of(entityClass, resultSet, classDataCache, classDataCacheService);
             while (resultSet.next()) {
-                T entity = createEntityFromResultSet(entityClass, resultSet, classDataCache, classDataCacheService);
+                T entity = rowMapping.read(resultSet);
                 executePostLoadedMethods(entity, classDataCache);
                 entities.add(entity);
             }
@@ -393,14 +576,45 @@ public class ClicksaveInternalRepository {
         }
     }
 
+    /**
+     * Streams all entities of the class. The rows are read from the open result set while the stream is consumed,
+     * the connection is released when the stream is closed or fully read.
+     *
+     * @param <T>         the type parameter
+     * @param entityClass the entity class
+     * @return the stream of the entities, it must be closed if it is not fully read
+     * @throws ClassCacheNotFoundException if the class data is not found
+     * @throws SQLException                if the query fails
+     */
+    public <T> Stream<T> streamAll(Class<T> entityClass) throws ClassCacheNotFoundException, SQLException, IllegalAccessException, InvocationTargetException {
+        ClassDataCache classDataCache = classDataCacheService.getClassDataCache(entityClass);
+        String selectQuery = "SELECT * FROM " + classDataCache.getTableName();
+        readBarrier.beforeRead(classDataCache);
+
+        Connection connection = connectionManager.getConnection();
+        Statement statement = null;
+        try {
+            statement = connection.createStatement();
+            statement.setFetchSize(queryFetchSize);
+            ResultSet resultSet = statement.executeQuery(selectQuery);
+            RowCursor<T> cursor = RowCursor.of(connectionManager, connection, statement, resultSet,
+                    RowMapping.of(entityClass, resultSet, classDataCache, classDataCacheService), classDataCache);
+            return cursor.stream().onClose(() -> metrics.incrementCounter(Metrics.REPO_FETCH_COUNTER.getMetricsName(), (int) Math.min(Integer.MAX_VALUE, cursor.getRowCount())));
+        } catch (SQLException | ClassCacheNotFoundException | RuntimeException e) {
+            if (statement != null) {
+                statement.close();
+            }
+            connectionManager.releaseConnection(connection);
+            throw e;
+        }
+    }
+
     public <T> long count(Class<T> entityClass) throws ClassCacheNotFoundException, SQLException, InvocationTargetException, IllegalAccessException {
         ClassDataCache classDataCache = classDataCacheService.getClassDataCache(entityClass);
         String tableName = classDataCache.getTableName();
         String idField = classDataCache.getIdField().getFieldInTableName();
         String selectQuery = "SELECT count(" + idField + ") AS cnt FROM " + tableName;
-        threadPoolManager.waitForCompletion();
-        syncManager.saveBatchRequest();
-        batchCollector.saveAndFlush(classDataCache);
+        readBarrier.beforeRead(classDataCache);
 
         try(Connection connection = connectionManager.getConnection();
             Statement statement = connection.createStatement();
@@ -423,9 +637,7 @@ public class ClicksaveInternalRepository {
         StringBuilder selectIdQuery = new StringBuilder("SELECT *")
                 .append(" FROM ").append(tableName).append(" WHERE ").append(condition).append(" ORDER BY ")
                 .append(idFieldData.getFieldInTableName()).append(" DESC LIMIT 1");
-        threadPoolManager.waitForCompletion();
-        syncManager.saveBatchRequest();
-        batchCollector.saveAndFlush(classDataCache);
+        readBarrier.flush(classDataCache);
 
         try(Connection connection = connectionManager.getConnection();
             PreparedStatement statement = connection.prepareStatement(selectIdQuery.toString())) {
@@ -453,9 +665,7 @@ public class ClicksaveInternalRepository {
         ClassDataCache classDataCache = classDataCacheService.getClassDataCache(entityClass);
         String tableName = classDataCache.getTableName();
         StringBuilder deleteQuery = new StringBuilder("TRUNCATE TABLE IF EXISTS ").append(tableName);
-        threadPoolManager.waitForCompletion();
-        syncManager.saveBatchRequest();
-        batchCollector.saveAndFlush(classDataCache);
+        readBarrier.flush(classDataCache);
 
         try(Connection connection = connectionManager.getConnection();
             Statement statement = connection.createStatement()) {
@@ -479,9 +689,8 @@ public class ClicksaveInternalRepository {
         Class<?> entityClass = entity.getClass();
         ClassDataCache classDataCache = classDataCacheService.getClassDataCache(entityClass);
         FieldDataCache idFieldData = classDataCache.getIdField();
-        Field idField = idFieldData.getField();
-        idField.setAccessible(true);
-        threadPoolManager.waitForCompletion();
+        FieldAccessor idField = idFieldData.getAccessor();
+        threadPoolManager.waitForCompletion(classDataCache.getEntityClass());
         batchCollector.saveAndFlush(classDataCache);
 
         StringBuilder deleteQuery = new StringBuilder("DELETE FROM ").append(classDataCache.getTableName()).append(" WHERE ");
@@ -511,9 +720,10 @@ public class ClicksaveInternalRepository {
      */
     public <T, ID> boolean entityExists(Class<T> entityClass, ID id) throws ClassCacheNotFoundException, SQLException, IllegalAccessException, InvocationTargetException {
         ClassDataCache classDataCache = classDataCacheService.getClassDataCache(entityClass);
-        threadPoolManager.waitForCompletion();
-        syncManager.saveBatchRequest();
-        batchCollector.saveAndFlush(classDataCache);
+        if (readBarrier.lookupPending(classDataCache, id) != null) {
+            metrics.incrementCounter(Metrics.PENDING_ROW_READS.getMetricsName());
+            return true;
+        }
         String tableName = classDataCache.getTableName();
         FieldDataCache idFieldCache = classDataCache.getIdField();
         StringBuilder selectQuery = new StringBuilder("SELECT " + idFieldCache.getFieldInTableName() + " FROM ").append(tableName).append(" WHERE ");
@@ -538,7 +748,7 @@ public class ClicksaveInternalRepository {
 
     public <T> void saveBatch(Class<T> entityClass) throws ClassCacheNotFoundException, SQLException, InvocationTargetException, IllegalAccessException {
         ClassDataCache classDataCache = classDataCacheService.getClassDataCache(entityClass);
-        threadPoolManager.waitForCompletion();
+        threadPoolManager.waitForCompletion(classDataCache.getEntityClass());
         batchCollector.saveAndFlush(classDataCache);
     }
 }
@@ -197,6 +197,15 @@ public class ConnectionManager implements Observer {
         }
     }
 
+    /**
+     * Checks if the ClickHouse server responds to the health check.
+     *
+     * @return {@code true} if the server is healthy
+     */
+    public boolean isHealthy() {
+        return healthCheck(HTTP_URL);
+    }
+
     @SneakyThrows
     private void healthCheck() {
         while (!healthCheck(HTTP_URL)) {
@@ -117,6 +117,20 @@ public class IdsManager {
         return nextId;
     }
 
+    /**
+     * Allocates the next ids in one block.
+     *
+     * @param count the number of ids
+     * @return the ids
+     */
+    public synchronized <ID> List<ID> getNextIds(ClassDataCache classDataCache, FieldDataCache idFieldData, ID idType, int count) throws SQLException, ClassCacheNotFoundException, IllegalAccessException, InvocationTargetException {
+        List<ID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(getNextId(classDataCache, idFieldData, idType));
+        }
+        return ids;
+    }
+
     public synchronized  <ID> void lockIds(ClassDataCache classDataCache, int range, ID idType) throws SQLException, ClassCacheNotFoundException, IllegalAccessException, InvocationTargetException {
         while (!isInitialized) {
             Thread.yield();
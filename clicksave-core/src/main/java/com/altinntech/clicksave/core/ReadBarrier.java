@@ -0,0 +1,103 @@
+package com.altinntech.clicksave.core;
+
+import com.altinntech.clicksave.core.batch.PendingRow;
+import com.altinntech.clicksave.core.dto.ClassDataCache;
+import com.altinntech.clicksave.enums.ReadConsistency;
+import com.altinntech.clicksave.exceptions.ClassCacheNotFoundException;
+import lombok.Getter;
+
+import java.lang.reflect.InvocationTargetException;
+import java.sql.SQLException;
+
+/**
+ * The {@code ReadBarrier} class makes the saved entities, still buffered in batches, visible to reads
+ * according to the configured {@link ReadConsistency}.
+ *
+ * @author Fyodor Plotnikov
+ */
+public class ReadBarrier {
+
+    private final ThreadPoolManager threadPoolManager;
+    private final SyncManager syncManager;
+    private final BatchCollector batchCollector;
+
+    /**
+     * The consistency of the reads.
+     */
+    @Getter
+    private final ReadConsistency consistency;
+
+    /**
+     * Constructs a new ReadBarrier instance.
+     *
+     * @param threadPoolManager the thread pool manager running async saves
+     * @param syncManager       the sync manager of the instances
+     * @param batchCollector    the batch collector
+     * @param consistency       the consistency of the reads
+     */
+    public ReadBarrier(ThreadPoolManager threadPoolManager, SyncManager syncManager, BatchCollector batchCollector, ReadConsistency consistency) {
+        this.threadPoolManager = threadPoolManager;
+        this.syncManager = syncManager;
+        this.batchCollector = batchCollector;
+        this.consistency = consistency;
+    }
+
+    /**
+     * Checks if lookups by id are answered from the pending rows, so the saved entities have to be indexed.
+     *
+     * @return {@code true} unless the reads are strongly consistent
+     */
+    public boolean readsPendingRows() {
+        return consistency != ReadConsistency.STRONG;
+    }
+
+    /**
+     * Prepares a read of the table, flushing its batch unless the reads are eventually consistent.
+     *
+     * @param classDataCache the class data of the entity
+     */
+    public void beforeRead(ClassDataCache classDataCache) throws SQLException, ClassCacheNotFoundException, IllegalAccessException, InvocationTargetException {
+        switch (consistency) {
+            case STRONG -> flush(classDataCache);
+            case SESSION -> {
+                threadPoolManager.waitForCompletion(classDataCache.getEntityClass());
+                batchCollector.saveAndFlush(classDataCache);
+            }
+            case EVENTUAL -> {
+            }
+        }
+    }
+
+    /**
+     * Prepares a read of the table that must see all saved entities regardless of the consistency,
+     * like the reads allocating ids or checking existing rows before an insert.
+     *
+     * @param classDataCache the class data of the entity
+     */
+    public void flush(ClassDataCache classDataCache) throws SQLException, ClassCacheNotFoundException, IllegalAccessException, InvocationTargetException {
+        threadPoolManager.waitForCompletion(classDataCache.getEntityClass());
+        syncManager.saveBatchRequest();
+        batchCollector.saveAndFlush(classDataCache);
+    }
+
+    /**
+     * Looks the entity up among the pending rows of the batch. With the strong consistency the batch is flushed
+     * instead and the entity is always read from the table.
+     *
+     * @param classDataCache the class data of the entity
+     * @param id             the id of the entity
+     * @return the pending row of the entity, {@code null} if it has to be read from the table
+     */
+    public PendingRow lookupPending(ClassDataCache classDataCache, Object id) throws SQLException, ClassCacheNotFoundException, IllegalAccessException, InvocationTargetException {
+        switch (consistency) {
+            case STRONG -> {
+                flush(classDataCache);
+                return null;
+            }
+            case SESSION -> threadPoolManager.waitForCompletion(classDataCache.getEntityClass());
+            case EVENTUAL -> {
+            }
+        }
+        return batchCollector.findPending(classDataCache, id);
+    }
+}
@@ -0,0 +1,162 @@
+package com.altinntech.clicksave.core;
+
+import com.altinntech.clicksave.core.dto.ClassDataCache;
+import com.altinntech.clicksave.exceptions.ClicksaveSQLException;
+import com.altinntech.clicksave.exceptions.ReflectiveException;
+import com.altinntech.clicksave.interfaces.CloseableIterator;
+
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.altinntech.clicksave.core.ClicksaveInternalRepository.executePostLoadedMethods;
+import static com.altinntech.clicksave.log.CSLogger.error;
+
+/**
+ * The {@code RowCursor} class reads the rows of an open result set one by one, so a query result is never
+ * held in memory as a whole. Every row is mapped when the stream consumer asks for it.
+ *
+ * <p>The cursor owns the connection, the statement and the result set of the query. They are closed when
+ * the stream or the iterator is closed or when the last row is read, whichever happens first.</p>
+ *
+ * @param <T> the entity or projection type
+ * @author Fyodor Plotnikov
+ */
+public final class RowCursor<T> extends Spliterators.AbstractSpliterator<T> implements AutoCloseable {
+
+    private final ConnectionManager connectionManager;
+    private final Connection connection;
+    private final Statement statement;
+    private final ResultSet resultSet;
+    private final RowMapping<T> rowMapping;
+    private final ClassDataCache classDataCache;
+
+    private long rowCount;
+    private boolean closed;
+
+    private RowCursor(ConnectionManager connectionManager, Connection connection, Statement statement, ResultSet resultSet, RowMapping<T> rowMapping, ClassDataCache classDataCache) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED);
+        this.connectionManager = connectionManager;
+        this.connection = connection;
+        this.statement = statement;
+        this.resultSet = resultSet;
+        this.rowMapping = rowMapping;
+        this.classDataCache = classDataCache;
+    }
+
+    /**
+     * Creates the cursor over the result set. The post loaded callbacks of the entity are invoked for every row
+     * read, rows of projections are returned as read.
+     *
+     * @param <T>               the type parameter
+     * @param connectionManager the connection manager to release the connection to
+     * @param connection        the connection of the query
+     * @param statement         the statement of the query
+     * @param resultSet         the result set of the query
+     * @param rowMapping        the mapping of the rows
+     * @param classDataCache    the class data of the queried entity
+     * @return the cursor
+     */
+    public static <T> RowCursor<T> of(ConnectionManager connectionManager, Connection connection, Statement statement, ResultSet resultSet, RowMapping<T> rowMapping, ClassDataCache classDataCache) {
+        return new RowCursor<>(connectionManager, connection, statement, resultSet, rowMapping, classDataCache);
+    }
+
+    /**
+     * Returns the sequential stream of the rows, closing the stream closes the cursor.
+     *
+     * @return the stream
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(this, false).onClose(this::close);
+    }
+
+    /**
+     * Returns the iterator of the rows, closing the iterator closes the cursor.
+     *
+     * @return the iterator
+     */
+    public CloseableIterator<T> iterator() {
+        Iterator<T> rows = Spliterators.iterator(this);
+        return new CloseableIterator<>() {
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return rows.next();
+            }
+
+            @Override
+            public void close() {
+                RowCursor.this.close();
+            }
+        };
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (closed) {
+            return false;
+        }
+        T entity;
+        try {
+            if (!resultSet.next()) {
+                close();
+                return false;
+            }
+            entity = rowMapping.read(resultSet);
+            executePostLoadedMethods(entity, classDataCache);
+        } catch (SQLException e) {
+            close();
+            throw new ClicksaveSQLException(e);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            close();
+            throw new ReflectiveException(e);
+        }
+        rowCount++;
+        action.accept(entity);
+        return true;
+    }
+
+    /**
+     * Returns the number of rows read so far.
+     *
+     * @return the row count
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Closes the result set and the statement and releases the connection. Closing a closed cursor has no effect.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            resultSet.close();
+            statement.close();
+        } catch (SQLException e) {
+            error("Error while closing the query cursor: " + e.getMessage(), this.getClass());
+        } finally {
+            try {
+                connectionManager.releaseConnection(connection);
+            } catch (SQLException e) {
+                error("Error while releasing the connection: " + e.getMessage(), this.getClass());
+            }
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.altinntech.clicksave.core;
+
+import com.altinntech.clicksave.annotations.Reference;
+import com.altinntech.clicksave.core.accessor.EntityInstantiator;
+import com.altinntech.clicksave.core.converter.CompositeValues;
+import com.altinntech.clicksave.core.dto.ClassData;
+import com.altinntech.clicksave.core.dto.ClassDataCache;
+import com.altinntech.clicksave.core.dto.FieldDataCache;
+import com.altinntech.clicksave.core.dto.ProjectionClassData;
+import com.altinntech.clicksave.core.mapper.ColumnIndex;
+import com.altinntech.clicksave.core.mapper.EntityMapper;
+import com.altinntech.clicksave.enums.FieldType;
+import com.altinntech.clicksave.exceptions.ClassCacheNotFoundException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.altinntech.clicksave.log.CSLogger.error;
+import static com.altinntech.clicksave.log.CSLogger.warn;
+
+/**
+ * The {@code RowMapping} class is the plan of reading the rows of a query result to entities or projections.
+ * The columns of the fields are resolved to their indexes once, from the result set metadata, and every row
+ * is read by index with a getter chosen for the column type.
+ *
+ * <p>Plans are cached per class and column layout, so queries returning the same columns share the plan.
+ * Fields without a column in the result set are reported once, when the plan is built.</p>
+ *
+ * <p>If a mapper was generated for the entity at compile time, the rows are read by the mapper
+ * with the resolved column indexes.</p>
+ *
+ * @param <T> the entity or projection type
+ * @author Fyodor Plotnikov
+ */
+public final class RowMapping<T> {
+
+    private static final ClassValue<Map<List<String>, RowMapping<?>>> MAPPINGS = new ClassValue<>() {
+        @Override
+        protected Map<List<String>, RowMapping<?>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final Class<T> type;
+    private final EntityMapper<T> mapper;
+    private final ColumnIndex index;
+    private final Slot[] slots;
+
+    private RowMapping(Class<T> type, EntityMapper<T> mapper, ColumnIndex index, Slot[] slots) {
+        this.type = type;
+        this.mapper = mapper;
+        this.index = index;
+        this.slots = slots;
+    }
+
+    /**
+     * Returns the mapping of the rows of the result set to the class.
+     *
+     * @param <T>                   the type parameter
+     * @param type                  the entity or projection class
+     * @param resultSet             the result set
+     * @param classData             the class data of the class
+     * @param classDataCacheService the class data cache service used to resolve embedded fields
+     * @return the row mapping
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> RowMapping<T> of(Class<T> type, ResultSet resultSet, ClassData classData, ClassDataCacheService classDataCacheService) throws SQLException, ClassCacheNotFoundException {
+        EntityMapper<T> mapper = null;
+        if (classData instanceof ClassDataCache entityClassData && entityClassData.getEntityClass() == type) {
+            mapper = (EntityMapper<T>) entityClassData.getMapper();
+        }
+        return of(type, resultSet, classData.getFields(), mapper, classDataCacheService);
+    }
+
+    /**
+     * Returns the mapping of the rows of the result set to the projection class.
+     *
+     * @param <T>                   the type parameter
+     * @param type                  the projection class
+     * @param resultSet             the result set
+     * @param projectionClassData   the class data of the projection
+     * @param classDataCacheService the class data cache service used to resolve embedded fields
+     * @return the row mapping
+     */
+    public static <T> RowMapping<T> of(Class<T> type, ResultSet resultSet, ProjectionClassData projectionClassData, ClassDataCacheService classDataCacheService) throws SQLException, ClassCacheNotFoundException {
+        return of(type, resultSet, projectionClassData.getFields(), null, classDataCacheService);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> RowMapping<T> of(Class<T> type, ResultSet resultSet, List<FieldDataCache> fields, EntityMapper<T> mapper, ClassDataCacheService classDataCacheService) throws SQLException, ClassCacheNotFoundException {
+        ColumnIndex index = ColumnIndex.of(resultSet);
+        Map<List<String>, RowMapping<?>> mappings = MAPPINGS.get(type);
+        RowMapping<?> mapping = mappings.get(index.getColumnNames());
+        if (mapping == null) {
+            mapping = mapper != null
+                    ? new RowMapping<>(type, mapper, index, null)
+                    : new RowMapping<>(type, null, index, compileSlots(fields, index, classDataCacheService));
+            mappings.put(index.getColumnNames(), mapping);
+        }
+        return (RowMapping<T>) mapping;
+    }
+
+    private static Slot[] compileSlots(List<FieldDataCache> fields, ColumnIndex index, ClassDataCacheService classDataCacheService) throws ClassCacheNotFoundException {
+        List<Slot> slots = new ArrayList<>(fields.size());
+        for (FieldDataCache fieldData : fields) {
+            if (fieldData.isEmbedded()) {
+                Class<?> embeddedType = fieldData.getType();
+                Slot[] children = compileSlots(classDataCacheService.getEmbeddableClassDataCache(embeddedType).getFields(), index, classDataCacheService);
+                slots.add(new Slot(fieldData, 0, null, new RowMapping<>(embeddedType, null, index, children), null));
+            } else if (fieldData.getFieldType() == FieldType.NESTED) {
+                List<FieldDataCache> elementFields = fieldData.getElementFields();
+                int[] columns = new int[elementFields.size()];
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i] = column(index, columnName(fieldData) + "." + columnName(elementFields.get(i)), fieldData);
+                }
+                slots.add(new Slot(fieldData, 0, null, null, columns));
+            } else {
+                int column = column(index, columnName(fieldData), fieldData);
+                if (column > 0) {
+                    slots.add(new Slot(fieldData, column, getterOf(fieldData), null, null));
+                }
+            }
+        }
+        return slots.toArray(new Slot[0]);
+    }
+
+    /**
+     * Returns the column of the field in the result set. A projection field annotated with {@link Reference}
+     * is read from the column of the entity it refers to.
+     */
+    private static String columnName(FieldDataCache fieldData) {
+        return fieldData.getReferenceAnnotationOptional()
+                .map(Reference::value)
+                .orElseGet(fieldData::getFieldInTableName);
+    }
+
+    private static int column(ColumnIndex index, String columnName, FieldDataCache fieldData) {
+        int column = index.of(columnName);
+        if (column == 0 && !fieldData.isMaterialized()) {
+            // materialized columns are not selected by SELECT *
+            warn("Column '" + columnName + "' not found in resultSet");
+        }
+        return column;
+    }
+
+    /**
+     * Chooses the getter of the column value. Numbers and strings of plain columns are read by the typed getters,
+     * so the driver doesn't resolve the Java type of every value.
+     */
+    private static ColumnGetter getterOf(FieldDataCache fieldData) {
+        FieldType fieldType = fieldData.getFieldType();
+        Class<?> type = fieldData.getType();
+        if (fieldType == null) {
+            return ResultSet::getObject;
+        }
+        if (fieldType.isComposite()) {
+            // composite values are parsed from their text, the driver doesn't read maps and tuples
+            return ResultSet::getString;
+        }
+        if (fieldData.isEnum() || fieldData.isLob()) {
+            return ResultSet::getObject;
+        }
+        if ((type == Long.class || type == Long.TYPE) && (fieldType == FieldType.LONG || fieldType == FieldType.INT
+                || fieldType == FieldType.UINT || fieldType == FieldType.UINT16)) {
+            return (resultSet, column) -> {
+                long value = resultSet.getLong(column);
+                return value == 0L && resultSet.wasNull() ? null : (Object) value;
+            };
+        }
+        if ((type == Integer.class || type == Integer.TYPE) && (fieldType == FieldType.INT || fieldType == FieldType.UINT16)) {
+            return (resultSet, column) -> {
+                int value = resultSet.getInt(column);
+                return value == 0 && resultSet.wasNull() ? null : (Object) value;
+            };
+        }
+        if ((type == Double.class || type == Double.TYPE) && fieldType == FieldType.DOUBLE) {
+            return (resultSet, column) -> {
+                double value = resultSet.getDouble(column);
+                return value == 0D && resultSet.wasNull() ? null : (Object) value;
+            };
+        }
+        if (type == String.class && fieldType == FieldType.STRING) {
+            return ResultSet::getString;
+        }
+        return ResultSet::getObject;
+    }
+
+    /**
+     * Reads the current row of the result set.
+     *
+     * @param resultSet the result set the mapping was resolved from or one with the same columns
+     * @return the entity, {@code null} if it can't be instantiated
+     * @throws SQLException if a value can't be read
+     */
+    public T read(ResultSet resultSet) throws SQLException {
+        if (mapper != null) {
+            return mapper.read(resultSet, index);
+        }
+        try {
+            T entity = EntityInstantiator.of(type).newInstance();
+            readSlots(resultSet, entity);
+            return entity;
+        } catch (IllegalArgumentException | NoSuchMethodException | InvocationTargetException e) {
+            error("Error while create instance of entity: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void readSlots(ResultSet resultSet, Object entity) throws SQLException {
+        for (Slot slot : slots) {
+            if (slot.embedded != null) {
+                slot.fieldData.getAccessor().set(entity, slot.embedded.read(resultSet));
+            } else if (slot.nestedColumns != null) {
+                slot.fieldData.getAccessor().set(entity, readNested(resultSet, slot));
+            } else {
+                CSUtils.setFieldValue(entity, slot.getter.get(resultSet, slot.column), slot.fieldData);
+            }
+        }
+    }
+
+    /**
+     * Reads the arrays of the nested columns and builds the list of elements from them, the n-th element
+     * is built from the n-th value of every array.
+     */
+    private static List<Object> readNested(ResultSet resultSet, Slot slot) throws SQLException {
+        List<Object> elements = new ArrayList<>();
+        List<FieldDataCache> elementFields = slot.fieldData.getElementFields();
+        try {
+            EntityInstantiator instantiator = EntityInstantiator.of(slot.fieldData.getElementType());
+            for (int i = 0; i < slot.nestedColumns.length; i++) {
+                if (slot.nestedColumns[i] == 0) {
+                    continue;
+                }
+                List<Object> values = CompositeValues.nestedElements(resultSet.getString(slot.nestedColumns[i]));
+                for (int element = 0; element < values.size(); element++) {
+                    if (elements.size() == element) {
+                        elements.add(instantiator.newInstance());
+                    }
+                    CSUtils.setFieldValue(elements.get(element), values.get(element), elementFields.get(i));
+                }
+            }
+        } catch (NoSuchMethodException | InvocationTargetException e) {
+            error("Error while create instance of nested element: " + e.getMessage());
+        }
+        return elements;
+    }
+
+    /**
+     * Reads the value of a column by its index.
+     */
+    @FunctionalInterface
+    private interface ColumnGetter {
+        Object get(ResultSet resultSet, int column) throws SQLException;
+    }
+
+    private record Slot(FieldDataCache fieldData, int column, ColumnGetter getter, RowMapping<?> embedded, int[] nestedColumns) {
+    }
+}
@@ -1,29 +1,57 @@
 package com.altinntech.clicksave.core;
 
 import com.altinntech.clicksave.core.utils.DefaultProperties;
+import com.altinntech.clicksave.enums.Metrics;
 import com.altinntech.clicksave.exceptions.ClassCacheNotFoundException;
+import com.altinntech.clicksave.interfaces.ClicksaveMetrics;
 
 import java.lang.reflect.InvocationTargetException;
 import java.sql.SQLException;
+import java.util.TreeSet;
 import java.util.concurrent.*;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static com.altinntech.clicksave.log.CSLogger.*;
 
 public class ThreadPoolManager {
 
+    private static final long DEFAULT_WAIT_TIMEOUT = 30000;
+
     private final ThreadPoolExecutor executor;
+    private final ClicksaveMetrics metrics;
+
+    /**
+     * The async saves in flight per entity class.
+     */
+    private final ConcurrentHashMap<Class<?>, InFlightSaves> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Marks the threads running an async save, they never wait for the async saves in flight.
+     */
+    private final ThreadLocal<Boolean> runningSave = ThreadLocal.withInitial(() -> false);
+
+    /**
+     * The maximum time in milliseconds a read waits for the async saves of its entity.
+     */
+    private final long waitTimeout;
 
     public ThreadPoolManager() {
         int processors = Runtime.getRuntime().availableProcessors();
         executor = initThreadPool(processors, 1000);
+        metrics = ClicksaveMetrics.noop();
+        waitTimeout = DEFAULT_WAIT_TIMEOUT;
     }
 
-    public ThreadPoolManager(DefaultProperties properties) {
+    public ThreadPoolManager(DefaultProperties properties, ClicksaveMetrics metrics) {
         int processors = Integer.parseInt(properties.getThreadManagerMaxProcessors());
         if (processors <= 0) {
             processors = Runtime.getRuntime().availableProcessors();
         }
         executor = initThreadPool(processors, Integer.parseInt(properties.getThreadManagerMaxQueueSize()));
+        this.metrics = metrics;
+        waitTimeout = Long.parseLong(properties.getThreadManagerWaitTimeout());
+        metrics.registerNumValueCheck(Metrics.ASYNC_SAVE_IN_FLIGHT.getMetricsName(), this::inFlightCount);
     }
 
     private ThreadPoolExecutor initThreadPool(int processors, int capacity) {
@@ -40,15 +68,42 @@ public class ThreadPoolManager {
     }
 
     public <T, ID> Future<T> saveAsync(Object[] arguments, Class<ID> entityIdType, ClicksaveInternalRepository repository) throws InterruptedException {
-        return (Future<T>) executor.submit(() -> {
+        return submit(arguments[0].getClass(), () -> {
             try {
-                return repository.save(arguments[0], entityIdType);
+                return (T) repository.save(arguments[0], entityIdType);
             } catch (SQLException | ClassCacheNotFoundException | IllegalAccessException | InvocationTargetException e) {
                 throw new RuntimeException("Error saving entity", e);
             }
         });
     }
 
+    /**
+     * Submits an async save of the entity class, the reads of the class wait for it until it completes.
+     *
+     * @param entityClass the entity class
+     * @param save        the save
+     * @return the future of the save
+     */
+    <T> Future<T> submit(Class<?> entityClass, Callable<T> save) {
+        InFlightSaves saves = inFlight.computeIfAbsent(entityClass, c -> new InFlightSaves());
+        long ticket = saves.submit();
+        try {
+            return executor.submit(() -> {
+                boolean nested = runningSave.get();
+                runningSave.set(true);
+                try {
+                    return save.call();
+                } finally {
+                    runningSave.set(nested);
+                    saves.complete(ticket);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            saves.complete(ticket);
+            throw e;
+        }
+    }
+
     public void shutdown() {
         info("ThreadPoolManager shutdown process initiated...");
         executor.shutdown();
@@ -65,9 +120,120 @@ public class ThreadPoolManager {
         }
     }
 
-    public void waitForCompletion() {
-        while (executor.getActiveCount() > 0) {
-            Thread.yield();
+    /**
+     * Waits for the async saves of the entity class submitted before the call. The thread is parked
+     * until these saves complete or the wait timeout expires. Saves submitted while waiting and saves
+     * of other entities are not waited for.
+     *
+     * @param entityClass the entity class
+     */
+    public void waitForCompletion(Class<?> entityClass) {
+        InFlightSaves saves = inFlight.get(entityClass);
+        if (saves == null || runningSave.get()) {
+            return;
+        }
+        long ticket = saves.lastSubmitted();
+        long start = System.nanoTime();
+        boolean completed;
+        try {
+            completed = saves.awaitCompleted(ticket, TimeUnit.MILLISECONDS.toNanos(waitTimeout));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (waited > 0) {
+            metrics.incrementCounter(Metrics.ASYNC_SAVE_WAIT_MILLIS.getMetricsName(), (int) Math.min(Integer.MAX_VALUE, waited));
+        }
+        if (!completed) {
+            metrics.incrementCounter(Metrics.ASYNC_SAVE_WAIT_TIMEOUT.getMetricsName());
+            warn("Async saves of " + entityClass.getSimpleName() + " didn't complete in " + waitTimeout + " ms, reading without them");
+        }
+    }
+
+    private int inFlightCount() {
+        int count = 0;
+        for (InFlightSaves saves : inFlight.values()) {
+            count += saves.count;
+        }
+        return count;
+    }
+
+    /**
+     * The async saves in flight of one entity class. Every save gets the next ticket of the class when it is
+     * submitted, the readers wait until all tickets up to the last one submitted before the read are completed.
+     */
+    private static final class InFlightSaves {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition completed = lock.newCondition();
+        private final TreeSet<Long> pending = new TreeSet<>();
+        private long submitted;
+        private volatile int count;
+
+        /**
+         * Registers a submitted save.
+         *
+         * @return the ticket of the save
+         */
+        long submit() {
+            lock.lock();
+            try {
+                pending.add(++submitted);
+                count = pending.size();
+                return submitted;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void complete(long ticket) {
+            lock.lock();
+            try {
+                boolean oldest = pending.first() == ticket;
+                pending.remove(ticket);
+                count = pending.size();
+                if (oldest) {
+                    completed.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long lastSubmitted() {
+            lock.lock();
+            try {
+                return submitted;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Parks the thread until the saves with tickets up to the given one are completed.
+         *
+         * @param ticket       the last ticket to wait for
+         * @param timeoutNanos the maximum time to wait
+         * @return {@code false} if the timeout expired first
+         */
+        boolean awaitCompleted(long ticket, long timeoutNanos) throws InterruptedException {
+            if (count == 0) {
+                return true;
+            }
+            lock.lock();
+            try {
+                long remaining = timeoutNanos;
+                while (!pending.isEmpty() && pending.first() <= ticket) {
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    remaining = completed.awaitNanos(remaining);
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
         }
     }
 }
@@ -0,0 +1,67 @@
+package com.altinntech.clicksave.core.accessor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * The {@code EntityInstantiator} class creates instances of an entity, embeddable or projection class
+ * through a method handle of its no-args constructor. The instantiators are bound on the first use
+ * and cached per class.
+ *
+ * @author Fyodor Plotnikov
+ */
+public final class EntityInstantiator {
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    private static final ClassValue<EntityInstantiator> INSTANTIATORS = new ClassValue<>() {
+        @Override
+        protected EntityInstantiator computeValue(Class<?> type) {
+            return new EntityInstantiator(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final MethodHandle constructor;
+    private final ReflectiveOperationException bindException;
+
+    private EntityInstantiator(Class<?> type) {
+        this.type = type;
+        MethodHandle handle = null;
+        ReflectiveOperationException exception = null;
+        try {
+            handle = Lookups.privateLookupIn(type).findConstructor(type, MethodType.methodType(void.class)).asType(CONSTRUCTOR_TYPE);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            exception = e;
+        }
+        this.constructor = handle;
+        this.bindException = exception;
+    }
+
+    public static EntityInstantiator of(Class<?> type) {
+        return INSTANTIATORS.get(type);
+    }
+
+    /**
+     * Creates a new instance of the class.
+     *
+     * @param <T> the type parameter
+     * @return the new instance
+     * @throws NoSuchMethodException     if the class has no accessible no-args constructor
+     * @throws InvocationTargetException if the constructor throws an exception
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T newInstance() throws NoSuchMethodException, InvocationTargetException {
+        if (constructor == null) {
+            NoSuchMethodException exception = new NoSuchMethodException(type.getName() + ".<init>()");
+            exception.initCause(bindException);
+            throw exception;
+        }
+        try {
+            return (T) (Object) constructor.invokeExact();
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+}
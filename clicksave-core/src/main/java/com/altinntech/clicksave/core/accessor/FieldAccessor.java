@@ -0,0 +1,86 @@
+package com.altinntech.clicksave.core.accessor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * The {@code FieldAccessor} class reads and writes an entity field through method handles bound once,
+ * when the field metadata is prepared. Unlike {@link Field#get} and {@link Field#set} the handles skip the access
+ * checks on every call and can be inlined by the JIT.
+ *
+ * <p>The setter keeps the contract of {@link Field#set}: a value of a wrong type or {@code null}
+ * for a primitive field fails with {@link IllegalArgumentException}.</p>
+ *
+ * @author Fyodor Plotnikov
+ */
+public final class FieldAccessor {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Field field;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+
+    private FieldAccessor(Field field, MethodHandle getter, MethodHandle setter) {
+        this.field = field;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    /**
+     * Binds the accessor of the field.
+     *
+     * @param field the field
+     * @return the accessor
+     */
+    public static FieldAccessor of(Field field) {
+        try {
+            MethodHandles.Lookup lookup = Lookups.privateLookupIn(field.getDeclaringClass());
+            MethodHandle getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+            MethodHandle setter;
+            if (Modifier.isFinal(field.getModifiers())) {
+                // a lookup never grants write access to a final field, an accessible field does
+                field.setAccessible(true);
+                setter = MethodHandles.lookup().unreflectSetter(field);
+            } else {
+                setter = lookup.unreflectSetter(field);
+            }
+            return new FieldAccessor(field, getter, setter.asType(SETTER_TYPE));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Can't bind accessor of field " + field, e);
+        }
+    }
+
+    public Object get(Object target) {
+        try {
+            return (Object) getter.invokeExact(target);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void set(Object target, Object value) {
+        try {
+            setter.invokeExact(target, value);
+        } catch (ClassCastException | NullPointerException e) {
+            if (target == null) {
+                throw e;
+            }
+            throw new IllegalArgumentException("Can not set " + field.getType().getName() + " field " + field.getName() + " to " + (value == null ? "null value" : value.getClass().getName()), e);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Field getField() {
+        return field;
+    }
+}
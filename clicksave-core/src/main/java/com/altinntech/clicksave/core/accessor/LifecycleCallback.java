@@ -0,0 +1,54 @@
+package com.altinntech.clicksave.core.accessor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * The {@code LifecycleCallback} class invokes a {@code @PrePersist}, {@code @PreUpdate} or {@code @PostLoad}
+ * method of an entity through a method handle bound once at bootstrap.
+ *
+ * <p>Exceptions thrown by the callback are wrapped in {@link InvocationTargetException}, as by {@link Method#invoke}.</p>
+ *
+ * @author Fyodor Plotnikov
+ */
+public final class LifecycleCallback {
+
+    private static final MethodType CALLBACK_TYPE = MethodType.methodType(void.class, Object.class);
+
+    private final Method method;
+    private final MethodHandle handle;
+
+    private LifecycleCallback(Method method, MethodHandle handle) {
+        this.method = method;
+        this.handle = handle;
+    }
+
+    /**
+     * Binds the callback of the method. The method must not have parameters.
+     *
+     * @param method the method
+     * @return the callback
+     */
+    public static LifecycleCallback of(Method method) {
+        try {
+            MethodHandle handle = Lookups.privateLookupIn(method.getDeclaringClass()).unreflect(method);
+            return new LifecycleCallback(method, handle.asType(CALLBACK_TYPE));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Can't bind lifecycle method " + method, e);
+        }
+    }
+
+    public void invoke(Object entity) throws InvocationTargetException {
+        try {
+            handle.invokeExact(entity);
+        } catch (Throwable e) {
+            throw new InvocationTargetException(e);
+        }
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+}
@@ -0,0 +1,22 @@
+package com.altinntech.clicksave.core.accessor;
+
+import java.lang.invoke.MethodHandles;
+
+/**
+ * The {@code Lookups} class creates the lookups used to bind accessors of entity members.
+ *
+ * @author Fyodor Plotnikov
+ */
+final class Lookups {
+
+    private Lookups() {
+    }
+
+    /**
+     * Returns a lookup with private access to the class, so non-public fields, methods and constructors
+     * of entities can be bound without {@code setAccessible} on every call.
+     */
+    static MethodHandles.Lookup privateLookupIn(Class<?> clazz) throws IllegalAccessException {
+        return MethodHandles.privateLookupIn(clazz, MethodHandles.lookup());
+    }
+}
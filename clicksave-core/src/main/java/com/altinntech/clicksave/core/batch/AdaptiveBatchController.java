@@ -0,0 +1,113 @@
+package com.altinntech.clicksave.core.batch;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@code AdaptiveBatchController} class tunes the effective batch size and flush interval of one table.
+ *
+ * <p>The batch size follows the AIMD rule: it grows by a fixed step after every full batch written faster than
+ * the target latency, and is halved when a write is slower than the target latency or fails. The flush interval
+ * is the time the table needs to fill the batch at the observed arrival rate.</p>
+ *
+ * @author Fyodor Plotnikov
+ */
+public class AdaptiveBatchController {
+
+    private static final double RATE_SMOOTHING = 0.3;
+
+    private final int minSize;
+    private final int maxSize;
+    private final int increaseStep;
+    private final long targetLatency;
+    private final long minFlushInterval;
+    private final long maxFlushInterval;
+
+    private final LongAdder arrivals = new LongAdder();
+
+    private volatile int targetSize;
+    private volatile long flushInterval;
+
+    private long rateWindowStart = System.currentTimeMillis();
+    private double arrivalRate = 0;
+
+    /**
+     * Instantiates a new controller.
+     *
+     * @param initialSize      the initial batch size
+     * @param minSize          the lower bound of the batch size
+     * @param maxSize          the upper bound of the batch size
+     * @param targetLatency    the write latency in milliseconds above which the batch size is decreased
+     * @param minFlushInterval the lower bound of the flush interval in milliseconds
+     * @param maxFlushInterval the upper bound of the flush interval in milliseconds
+     */
+    public AdaptiveBatchController(int initialSize, int minSize, int maxSize, long targetLatency, long minFlushInterval, long maxFlushInterval) {
+        this.minSize = Math.max(1, minSize);
+        this.maxSize = Math.max(this.minSize, maxSize);
+        this.increaseStep = Math.max(1, initialSize / 10);
+        this.targetLatency = targetLatency;
+        this.minFlushInterval = Math.max(0, minFlushInterval);
+        this.maxFlushInterval = Math.max(this.minFlushInterval, maxFlushInterval);
+        this.targetSize = Math.min(this.maxSize, Math.max(this.minSize, initialSize));
+        this.flushInterval = this.minFlushInterval;
+    }
+
+    public void onArrival() {
+        arrivals.increment();
+    }
+
+    /**
+     * Updates the arrival rate and the flush interval, called when the batch is swapped for a flush.
+     */
+    public synchronized void onFlush() {
+        long now = System.currentTimeMillis();
+        long elapsed = now - rateWindowStart;
+        if (elapsed <= 0) {
+            return;
+        }
+        double rate = (double) arrivals.sumThenReset() / elapsed;
+        arrivalRate = arrivalRate == 0 ? rate : RATE_SMOOTHING * rate + (1 - RATE_SMOOTHING) * arrivalRate;
+        rateWindowStart = now;
+        updateFlushInterval();
+    }
+
+    /**
+     * Records the successful write.
+     *
+     * @param rows    the number of written rows
+     * @param latency the write latency in milliseconds
+     */
+    public synchronized void onWriteSuccess(int rows, long latency) {
+        if (latency > targetLatency) {
+            decrease();
+        } else if (rows >= targetSize) {
+            targetSize = Math.min(maxSize, targetSize + increaseStep);
+            updateFlushInterval();
+        }
+    }
+
+    public synchronized void onWriteFailure() {
+        decrease();
+    }
+
+    private void decrease() {
+        targetSize = Math.max(minSize, targetSize / 2);
+        updateFlushInterval();
+    }
+
+    private void updateFlushInterval() {
+        long interval = arrivalRate > 0 ? Math.round(targetSize / arrivalRate) : maxFlushInterval;
+        flushInterval = Math.min(maxFlushInterval, Math.max(minFlushInterval, interval));
+    }
+
+    public int getTargetSize() {
+        return targetSize;
+    }
+
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+}
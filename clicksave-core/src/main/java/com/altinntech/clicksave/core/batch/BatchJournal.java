@@ -0,0 +1,194 @@
+package com.altinntech.clicksave.core.batch;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.altinntech.clicksave.log.CSLogger.warn;
+
+/**
+ * The {@code BatchJournal} class is an append-only write-ahead journal of the rows buffered for one table.
+ *
+ * <p>Rows are appended to memory-mapped segments on {@code put}, so they survive a crash of the JVM as soon as they are appended.
+ * Forcing the segments to the storage is batched: {@link #sync()} is called periodically by the collector instead of on every append.
+ * When the buffer of the table is swapped, the segments holding its rows are sealed, they are still forced by {@link #sync()}
+ * until they are deleted after the flush.</p>
+ *
+ * <p>Segment files are named {@code <table>_<instance id>_<sequence>.journal}, so segments of a restarted instance never
+ * overwrite the segments left by the previous run. The directory itself is guarded by a {@link JournalLock}.</p>
+ *
+ * <p>All segments of one swapped buffer carry the same buffer id and every record is flagged if the row was spilled,
+ * so the replay sends the rows in the same inserts as the flush of the buffer and with the same deduplication tokens.</p>
+ *
+ * <p>Appends and sealing must be called while holding the lock of the owning {@link TableBatch}.</p>
+ *
+ * @author Fyodor Plotnikov
+ */
+public class BatchJournal {
+
+    private static final AtomicLong SEGMENT_SEQUENCE = new AtomicLong(System.currentTimeMillis());
+
+    private final Path directory;
+    private final String tableName;
+    private final String instanceId;
+    private final String className;
+    private final String query;
+    private final int segmentSize;
+
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+    private final DataOutputStream recordOut = new DataOutputStream(recordBytes);
+
+    private volatile List<JournalSegment> segments = new ArrayList<>();
+
+    /**
+     * The id of the buffer the appended rows belong to, assigned with its first segment.
+     */
+    private String bufferId;
+
+    /**
+     * The sealed segments waiting for the flush of their rows.
+     */
+    private final Set<JournalSegment> sealedSegments = ConcurrentHashMap.newKeySet();
+
+    public BatchJournal(Path directory, String tableName, String instanceId, String className, String query, int segmentSize) {
+        this.directory = directory;
+        this.tableName = tableName;
+        this.instanceId = instanceId;
+        this.className = className;
+        this.query = query;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Appends the row to the journal.
+     *
+     * @param row     the row values
+     * @param spilled whether the row was written to the spill file instead of the in-memory buffer
+     */
+    public void append(List<Object> row, boolean spilled) throws IOException {
+        recordBytes.reset();
+        recordOut.writeBoolean(spilled);
+        RowCodec.write(recordOut, row);
+        byte[] payload = recordBytes.toByteArray();
+
+        List<JournalSegment> current = segments;
+        if (current.isEmpty() || !current.get(current.size() - 1).tryAppend(payload, payload.length)) {
+            JournalSegment segment = newSegment(payload.length);
+            List<JournalSegment> extended = new ArrayList<>(current);
+            extended.add(segment);
+            segments = extended;
+            segment.tryAppend(payload, payload.length);
+        }
+    }
+
+    /**
+     * Seals the segments holding the rows of the swapped buffer. The next append starts a new segment.
+     *
+     * @return the sealed segments
+     */
+    public List<JournalSegment> seal() {
+        List<JournalSegment> sealed = segments;
+        segments = new ArrayList<>();
+        bufferId = null;
+        sealedSegments.addAll(sealed);
+        return sealed;
+    }
+
+    /**
+     * Forces the written records of the active and sealed segments to the storage.
+     */
+    public void sync() {
+        for (JournalSegment segment : segments) {
+            segment.sync();
+        }
+        for (JournalSegment segment : sealedSegments) {
+            if (segment.isDeleted()) {
+                sealedSegments.remove(segment);
+            } else {
+                segment.sync();
+            }
+        }
+    }
+
+    /**
+     * Deletes the sealed segments after their rows were flushed and releases their mapped memory.
+     *
+     * @param sealed the sealed segments
+     */
+    public static void delete(List<JournalSegment> sealed) throws IOException {
+        for (JournalSegment segment : sealed) {
+            segment.delete();
+        }
+    }
+
+    private JournalSegment newSegment(int recordLength) throws IOException {
+        Files.createDirectories(directory);
+        long sequence = SEGMENT_SEQUENCE.incrementAndGet();
+        if (bufferId == null) {
+            bufferId = instanceId + "_" + sequence;
+        }
+        Path path = directory.resolve(tableName + "_" + instanceId + "_" + sequence + JournalSegment.EXTENSION);
+        return JournalSegment.create(path, Math.max(segmentSize, recordLength + 1024), className, query, bufferId);
+    }
+
+    /**
+     * Lists the segments left in the journal directory by previous runs.
+     *
+     * @param directory  the journal directory
+     * @param instanceId the id of the running instance, its own segments are skipped
+     * @return the segment files
+     */
+    public static List<Path> findSegments(Path directory, String instanceId) throws IOException {
+        List<Path> result = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return result;
+        }
+        String ownSegment = "_" + instanceId + "_";
+        try (var paths = Files.list(directory)) {
+            paths.filter(JournalSegment::isSegment)
+                    .filter(path -> !path.getFileName().toString().contains(ownSegment))
+                    .sorted()
+                    .forEach(result::add);
+        }
+        return result;
+    }
+
+    /**
+     * The rows of one swapped buffer read back from its segments.
+     */
+    public record Buffer(String className, String query, List<Path> segments, List<List<Object>> rows, List<List<Object>> spilledRows) {
+    }
+
+    /**
+     * Reads the segments left in the journal directory by previous runs and joins them by the buffer they belong to.
+     *
+     * @param directory  the journal directory
+     * @param instanceId the id of the running instance, its own segments are skipped
+     * @return the buffers in the order they were written
+     */
+    public static List<Buffer> readBuffers(Path directory, String instanceId) throws IOException {
+        Map<String, Buffer> buffers = new LinkedHashMap<>();
+        for (Path path : findSegments(directory, instanceId)) {
+            JournalSegment.Content content = JournalSegment.read(path);
+            if (content == null) {
+                warn("Skipping unrecognized batch journal file " + path);
+                continue;
+            }
+            Buffer buffer = buffers.computeIfAbsent(content.bufferId(),
+                    id -> new Buffer(content.className(), content.query(), new ArrayList<>(), new ArrayList<>(), new ArrayList<>()));
+            buffer.segments().add(path);
+            buffer.rows().addAll(content.rows());
+            buffer.spilledRows().addAll(content.spilledRows());
+        }
+        return new ArrayList<>(buffers.values());
+    }
+}
@@ -0,0 +1,108 @@
+package com.altinntech.clicksave.core.batch;
+
+/**
+ * The {@code CircuitBreaker} class stops batch writes to the cluster after consecutive failures.
+ *
+ * <p>After {@code failureThreshold} consecutive failures the breaker opens and rejects writes for
+ * {@code openDuration} milliseconds. Then it lets a single probe write through: a successful probe closes
+ * the breaker, a failed one opens it again.</p>
+ *
+ * @author Fyodor Plotnikov
+ */
+public class CircuitBreaker {
+
+    /**
+     * The state of the breaker, the code is exported as a gauge.
+     */
+    public enum State {
+        CLOSED(0), OPEN(1), HALF_OPEN(2);
+
+        private final int code;
+
+        State(int code) {
+            this.code = code;
+        }
+
+        public int getCode() {
+            return code;
+        }
+    }
+
+    private final int failureThreshold;
+    private final long openDuration;
+
+    private State state = State.CLOSED;
+    private int failures = 0;
+    private long openedAt = 0;
+    private boolean probing = false;
+
+    public CircuitBreaker(int failureThreshold, long openDuration) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDuration = openDuration;
+    }
+
+    /**
+     * Checks if a write may be attempted now. In the half-open state only one probe write is permitted at a time.
+     *
+     * @return {@code true} if the write may be attempted
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openDuration) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probing) {
+                return false;
+            }
+            probing = true;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        failures = 0;
+        probing = false;
+    }
+
+    /**
+     * Records the failed write.
+     *
+     * @return {@code true} if the breaker has been opened by this failure
+     */
+    public synchronized boolean onFailure() {
+        probing = false;
+        failures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && failures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the breaker rejects writes. Producers keep buffering while it is open.
+     *
+     * @return {@code true} if the breaker is open and the open duration has not passed yet
+     */
+    public synchronized boolean isOpen() {
+        return state == State.OPEN && System.currentTimeMillis() - openedAt < openDuration;
+    }
+
+    /**
+     * Returns the time left until the breaker lets a probe write through.
+     *
+     * @return the time in milliseconds, 0 if the breaker is not open
+     */
+    public synchronized long getRemainingOpenTime() {
+        return state == State.OPEN ? Math.max(0, openDuration - (System.currentTimeMillis() - openedAt)) : 0;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
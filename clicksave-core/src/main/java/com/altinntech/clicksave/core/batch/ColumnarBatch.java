@@ -0,0 +1,534 @@
+package com.altinntech.clicksave.core.batch;
+
+import com.altinntech.clicksave.core.converter.ClickHouseLiteral;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The {@code ColumnarBatch} class is a growable column-oriented buffer of insert rows.
+ * Every column keeps its values in a primitive-specialized array ({@code long[]}, {@code int[]}, {@code double[]}
+ * or byte-packed strings) with a separate null bitmap, so appended rows are copied into the columns
+ * and no per-row list or boxed value is retained while the batch waits for its flush.
+ *
+ * <p>The buffer saves memory held by the batch, not the boxing on the save path: rows still arrive as
+ * a reused list of boxed values extracted by the insert plan, and {@link #bind} decodes a new {@code String}
+ * for every string value bound to a JDBC statement. The RowBinary insert reads the columns through
+ * {@link #getLong}, {@link #getDouble} and {@link #getUtf8} without boxing or decoding.</p>
+ *
+ * <p>The column kind is chosen by the first non-null value of the column. If a later value does not fit,
+ * the column is inflated to an object column.</p>
+ *
+ * <p>The class is not thread safe, it is guarded by the lock of the owning {@link TableBatch}.</p>
+ *
+ * @author Fyodor Plotnikov
+ */
+public class ColumnarBatch {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final long HASH_SEED = 0xcbf29ce484222325L;
+    private static final long HASH_MULTIPLIER = 0x9e3779b97f4a7c15L;
+    private static final long NULL_HASH = 0x7f4a7c159e3779b9L;
+
+    private Column[] columns;
+    private long[][] nulls;
+    private int capacity;
+    private int size = 0;
+
+    public ColumnarBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ColumnarBatch(int capacity) {
+        this.capacity = Math.max(capacity, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Copies the row values into the columns. The row can be reused by the caller afterwards.
+     *
+     * @param row the row values
+     */
+    public void append(List<Object> row) {
+        if (columns == null) {
+            columns = new Column[row.size()];
+            nulls = new long[row.size()][bitmapLength(capacity)];
+        } else if (row.size() != columns.length) {
+            throw new IllegalArgumentException("Row has " + row.size() + " values, batch has " + columns.length + " columns");
+        }
+        if (size == capacity) {
+            grow();
+        }
+        for (int i = 0; i < columns.length; i++) {
+            Object value = row.get(i);
+            Column column = columns[i];
+            if (value == null) {
+                nulls[i][size >>> 6] |= 1L << size;
+                if (column != null) {
+                    column.setNull(size);
+                }
+                continue;
+            }
+            if (column == null) {
+                column = Column.of(value, capacity);
+                columns[i] = column;
+            } else if (!column.accepts(value)) {
+                column = column.inflate(size, capacity, nulls[i]);
+                columns[i] = column;
+            }
+            column.set(size, value);
+        }
+        size++;
+    }
+
+    public void appendAll(List<List<Object>> rows) {
+        for (List<Object> row : rows) {
+            append(row);
+        }
+    }
+
+    /**
+     * Binds the row to the statement parameters using the typed setters of the columns.
+     *
+     * @param statement the statement
+     * @param row       the row index
+     */
+    public void bind(PreparedStatement statement, int row) throws SQLException {
+        for (int i = 0; i < columns.length; i++) {
+            if (isNull(i, row)) {
+                statement.setObject(i + 1, null);
+            } else {
+                columns[i].bind(statement, i + 1, row);
+            }
+        }
+    }
+
+    public Object get(int column, int row) {
+        return isNull(column, row) ? null : columns[column].get(row);
+    }
+
+    /**
+     * Returns the value as {@code long} without boxing for primitive columns. The value must not be null.
+     */
+    public long getLong(int column, int row) {
+        return columns[column].getLong(row);
+    }
+
+    /**
+     * Returns the value as {@code double} without boxing for primitive columns. The value must not be null.
+     */
+    public double getDouble(int column, int row) {
+        return columns[column].getDouble(row);
+    }
+
+    /**
+     * Returns the UTF-8 bytes of the value string representation. The value must not be null.
+     */
+    public byte[] getUtf8(int column, int row) {
+        return columns[column].getUtf8(row);
+    }
+
+    public boolean isNull(int column, int row) {
+        return (nulls[column][row >>> 6] & (1L << row)) != 0;
+    }
+
+    /**
+     * Materializes the rows, used when the batch has to be dumped.
+     *
+     * @return the rows
+     */
+    public List<List<Object>> toRows() {
+        List<List<Object>> rows = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            List<Object> values = new ArrayList<>(columns.length);
+            for (int column = 0; column < columns.length; column++) {
+                values.add(get(column, row));
+            }
+            rows.add(values);
+        }
+        return rows;
+    }
+
+    /**
+     * Computes a 64-bit hash of the batch content. The hash depends only on the values,
+     * so equal batches have equal hashes in every JVM, also after a round trip through the journal.
+     *
+     * @return the content hash
+     */
+    public long contentHash() {
+        long hash = HASH_SEED ^ size;
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < columns.length; column++) {
+                long value = isNull(column, row) ? NULL_HASH : columns[column].hash(row);
+                hash = (hash ^ value) * HASH_MULTIPLIER;
+                hash ^= hash >>> 32;
+            }
+        }
+        return hash;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int columnsCount() {
+        return columns == null ? 0 : columns.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void grow() {
+        capacity = capacity + (capacity >> 1);
+        for (int i = 0; i < columns.length; i++) {
+            nulls[i] = Arrays.copyOf(nulls[i], bitmapLength(capacity));
+            if (columns[i] != null) {
+                columns[i].grow(capacity);
+            }
+        }
+    }
+
+    private static int bitmapLength(int capacity) {
+        return (capacity + 63) >>> 6;
+    }
+
+    private static long textHash(byte[] data, int from, int to) {
+        long hash = HASH_SEED;
+        for (int i = from; i < to; i++) {
+            hash = (hash ^ data[i]) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private abstract static class Column {
+
+        static Column of(Object value, int capacity) {
+            if (value instanceof Long) {
+                return new LongColumn(capacity);
+            } else if (value instanceof Integer) {
+                return new IntColumn(capacity);
+            } else if (value instanceof Double) {
+                return new DoubleColumn(capacity);
+            } else if (value instanceof String) {
+                return new StringColumn(capacity);
+            }
+            return new ObjectColumn(capacity);
+        }
+
+        abstract boolean accepts(Object value);
+
+        abstract void set(int row, Object value);
+
+        void setNull(int row) {
+        }
+
+        abstract Object get(int row);
+
+        long getLong(int row) {
+            return ((Number) get(row)).longValue();
+        }
+
+        double getDouble(int row) {
+            return ((Number) get(row)).doubleValue();
+        }
+
+        byte[] getUtf8(int row) {
+            return get(row).toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        long hash(int row) {
+            return get(row).hashCode();
+        }
+
+        abstract void bind(PreparedStatement statement, int index, int row) throws SQLException;
+
+        abstract void grow(int capacity);
+
+        Column inflate(int size, int capacity, long[] nulls) {
+            ObjectColumn column = new ObjectColumn(capacity);
+            for (int row = 0; row < size; row++) {
+                if ((nulls[row >>> 6] & (1L << row)) == 0) {
+                    column.values[row] = get(row);
+                }
+            }
+            return column;
+        }
+    }
+
+    private static class LongColumn extends Column {
+        private long[] values;
+
+        LongColumn(int capacity) {
+            values = new long[capacity];
+        }
+
+        @Override
+        boolean accepts(Object value) {
+            return value instanceof Long;
+        }
+
+        @Override
+        void set(int row, Object value) {
+            values[row] = (Long) value;
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        long getLong(int row) {
+            return values[row];
+        }
+
+        @Override
+        double getDouble(int row) {
+            return values[row];
+        }
+
+        @Override
+        long hash(int row) {
+            return values[row];
+        }
+
+        @Override
+        void bind(PreparedStatement statement, int index, int row) throws SQLException {
+            statement.setLong(index, values[row]);
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private static class IntColumn extends Column {
+        private int[] values;
+
+        IntColumn(int capacity) {
+            values = new int[capacity];
+        }
+
+        @Override
+        boolean accepts(Object value) {
+            return value instanceof Integer;
+        }
+
+        @Override
+        void set(int row, Object value) {
+            values[row] = (Integer) value;
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        long getLong(int row) {
+            return values[row];
+        }
+
+        @Override
+        double getDouble(int row) {
+            return values[row];
+        }
+
+        @Override
+        long hash(int row) {
+            return values[row];
+        }
+
+        @Override
+        void bind(PreparedStatement statement, int index, int row) throws SQLException {
+            statement.setInt(index, values[row]);
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private static class DoubleColumn extends Column {
+        private double[] values;
+
+        DoubleColumn(int capacity) {
+            values = new double[capacity];
+        }
+
+        @Override
+        boolean accepts(Object value) {
+            return value instanceof Double;
+        }
+
+        @Override
+        void set(int row, Object value) {
+            values[row] = (Double) value;
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        long getLong(int row) {
+            return (long) values[row];
+        }
+
+        @Override
+        double getDouble(int row) {
+            return values[row];
+        }
+
+        @Override
+        long hash(int row) {
+            return Double.doubleToLongBits(values[row]);
+        }
+
+        @Override
+        void bind(PreparedStatement statement, int index, int row) throws SQLException {
+            statement.setDouble(index, values[row]);
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    /**
+     * Keeps the strings UTF-8 encoded in one shared byte array, {@code ends[row]} is the end offset of the row value.
+     */
+    private static class StringColumn extends Column {
+        private byte[] data;
+        private int[] ends;
+        private int position = 0;
+
+        StringColumn(int capacity) {
+            data = new byte[capacity * 16];
+            ends = new int[capacity];
+        }
+
+        @Override
+        boolean accepts(Object value) {
+            return value instanceof String;
+        }
+
+        @Override
+        void set(int row, Object value) {
+            String string = (String) value;
+            int length = string.length();
+            ensureData(position + length);
+            int start = position;
+            for (int i = 0; i < length; i++) {
+                char c = string.charAt(i);
+                if (c >= 0x80) {
+                    position = start;
+                    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                    ensureData(position + bytes.length);
+                    System.arraycopy(bytes, 0, data, position, bytes.length);
+                    position += bytes.length;
+                    ends[row] = position;
+                    return;
+                }
+                data[position++] = (byte) c;
+            }
+            ends[row] = position;
+        }
+
+        @Override
+        void setNull(int row) {
+            ends[row] = position;
+        }
+
+        @Override
+        Object get(int row) {
+            int start = row == 0 ? 0 : ends[row - 1];
+            return new String(data, start, ends[row] - start, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        byte[] getUtf8(int row) {
+            return Arrays.copyOfRange(data, row == 0 ? 0 : ends[row - 1], ends[row]);
+        }
+
+        @Override
+        long hash(int row) {
+            return textHash(data, row == 0 ? 0 : ends[row - 1], ends[row]);
+        }
+
+        @Override
+        void bind(PreparedStatement statement, int index, int row) throws SQLException {
+            statement.setString(index, (String) get(row));
+        }
+
+        @Override
+        void grow(int capacity) {
+            ends = Arrays.copyOf(ends, capacity);
+        }
+
+        private void ensureData(int required) {
+            if (required > data.length) {
+                data = Arrays.copyOf(data, Math.max(required, data.length + (data.length >> 1)));
+            }
+        }
+    }
+
+    private static class ObjectColumn extends Column {
+        private Object[] values;
+
+        ObjectColumn(int capacity) {
+            values = new Object[capacity];
+        }
+
+        @Override
+        boolean accepts(Object value) {
+            return true;
+        }
+
+        @Override
+        void set(int row, Object value) {
+            values[row] = value;
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        /**
+         * Values without a stable hash code are journaled as strings, they are hashed by their text
+         * like a string column, so the hash of the batch replayed from the journal is the same.
+         */
+        @Override
+        long hash(int row) {
+            Object value = values[row];
+            if (value instanceof Number || value instanceof Boolean || value instanceof UUID
+                    || value instanceof LocalDate || value instanceof LocalDateTime || value instanceof ClickHouseLiteral) {
+                return value.hashCode();
+            }
+            byte[] text = value.toString().getBytes(StandardCharsets.UTF_8);
+            return textHash(text, 0, text.length);
+        }
+
+        @Override
+        void bind(PreparedStatement statement, int index, int row) throws SQLException {
+            statement.setObject(index, values[row]);
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+}
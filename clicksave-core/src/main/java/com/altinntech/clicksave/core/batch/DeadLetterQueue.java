@@ -0,0 +1,207 @@
+package com.altinntech.clicksave.core.batch;
+
+import com.altinntech.clicksave.core.ClassDataCacheService;
+import com.altinntech.clicksave.core.dto.BatchedQueryData;
+import com.altinntech.clicksave.core.dto.ClassDataCache;
+import com.altinntech.clicksave.enums.FieldType;
+import com.altinntech.clicksave.exceptions.ClassCacheNotFoundException;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code DeadLetterQueue} class stores batches that could not be inserted, so they can be replayed later.
+ *
+ * <p>Every batch is one self-describing binary file: a header with the entity class, the table, the insert query
+ * and the column layout with the {@link FieldType} of every column, followed by the rows written with {@link RowCodec}.
+ * Values keep their Java types, so a replayed batch is inserted exactly as it was buffered.
+ * The header also keeps the deduplication token of the batch, so a replay of rows the server has already
+ * committed is dropped by ClickHouse.</p>
+ *
+ * <p>A batch is replayed only if its column layout still matches the entity, batches written before a change
+ * of the columns are kept in the queue for a manual replay.</p>
+ *
+ * @author Fyodor Plotnikov
+ */
+public class DeadLetterQueue {
+
+    public static final String EXTENSION = ".dlq";
+    private static final int MAGIC = 0x4353444C;
+    private static final short VERSION = 1;
+
+    private static final AtomicLong FILE_SEQUENCE = new AtomicLong();
+
+    private final Path directory;
+    private final ClassDataCacheService classDataCacheService;
+    private final AtomicInteger depth = new AtomicInteger();
+
+    public DeadLetterQueue(Path directory, ClassDataCacheService classDataCacheService) {
+        this.directory = directory;
+        this.classDataCacheService = classDataCacheService;
+        try {
+            depth.set(list().size());
+        } catch (IOException ignored) {
+            // the directory is created with the first dead-lettered batch
+        }
+    }
+
+    /**
+     * The batch read from the dead-letter queue.
+     */
+    public record DeadLetterBatch(String className, String tableName, String query, String deduplicationToken, List<InsertColumn> columns, List<List<Object>> rows) {
+    }
+
+    /**
+     * Writes the batch to the queue. The file appears in the queue only when it is completely written.
+     *
+     * @param queryData          the query data of the batch
+     * @param rows               the rows
+     * @param deduplicationToken the deduplication token the batch was sent with, {@code null} if none
+     * @return the file of the batch
+     */
+    public Path write(BatchedQueryData queryData, ColumnarBatch rows, String deduplicationToken) throws IOException {
+        ClassDataCache classDataCache = queryData.getClassDataCache();
+        List<InsertColumn> columns;
+        try {
+            columns = InsertColumn.resolve(queryData.getQuery(), classDataCache, classDataCacheService);
+        } catch (ClassCacheNotFoundException e) {
+            columns = null;
+        }
+        if (columns == null) {
+            columns = Collections.emptyList();
+        }
+
+        Files.createDirectories(directory);
+        String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+        String fileName = classDataCache.getTableName() + "_" + timestamp + "_" + FILE_SEQUENCE.incrementAndGet();
+        Path temp = directory.resolve(fileName + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            RowCodec.writeValue(out, classDataCache.getEntityClass().getName());
+            RowCodec.writeValue(out, classDataCache.getTableName());
+            RowCodec.writeValue(out, queryData.getQuery());
+            RowCodec.writeValue(out, deduplicationToken);
+            out.writeInt(columns.size());
+            for (InsertColumn column : columns) {
+                RowCodec.writeValue(out, column.name());
+                RowCodec.writeValue(out, column.type());
+                RowCodec.writeValue(out, column.fieldType() == null ? null : column.fieldType().name());
+                out.writeBoolean(column.nullable());
+            }
+            out.writeInt(rows.size());
+            List<Object> row = new ArrayList<>(rows.columnsCount());
+            for (int i = 0; i < rows.size(); i++) {
+                row.clear();
+                for (int column = 0; column < rows.columnsCount(); column++) {
+                    row.add(rows.get(column, i));
+                }
+                RowCodec.write(out, row);
+            }
+        }
+        Path path = Files.move(temp, directory.resolve(fileName + EXTENSION), StandardCopyOption.ATOMIC_MOVE);
+        depth.incrementAndGet();
+        return path;
+    }
+
+    /**
+     * Reads the batch from the queue file.
+     *
+     * @param path the queue file
+     * @return the batch
+     */
+    public static DeadLetterBatch read(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a dead-letter batch: " + path);
+            }
+            short version = in.readShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported dead-letter batch version " + version + ": " + path);
+            }
+            String className = (String) RowCodec.readValue(in);
+            String tableName = (String) RowCodec.readValue(in);
+            String query = (String) RowCodec.readValue(in);
+            String deduplicationToken = (String) RowCodec.readValue(in);
+            int columnsCount = in.readInt();
+            List<InsertColumn> columns = new ArrayList<>(columnsCount);
+            for (int i = 0; i < columnsCount; i++) {
+                String name = (String) RowCodec.readValue(in);
+                String type = (String) RowCodec.readValue(in);
+                String fieldType = (String) RowCodec.readValue(in);
+                columns.add(new InsertColumn(name, type, fieldType == null ? null : FieldType.valueOf(fieldType), in.readBoolean()));
+            }
+            int rowsCount = in.readInt();
+            List<List<Object>> rows = new ArrayList<>(rowsCount);
+            for (int i = 0; i < rowsCount; i++) {
+                rows.add(RowCodec.read(in));
+            }
+            return new DeadLetterBatch(className, tableName, query, deduplicationToken, columns, rows);
+        }
+    }
+
+    /**
+     * Resolves the query data to replay the batch with. The column layout of the batch must match the layout
+     * the current entity resolves for the same query, otherwise the rows would be bound to columns of another type.
+     *
+     * @param batch the dead-lettered batch
+     * @return the query data
+     * @throws IOException if the column layout of the batch differs from the current table
+     */
+    public BatchedQueryData toQueryData(DeadLetterBatch batch) throws ClassNotFoundException, ClassCacheNotFoundException, IOException {
+        ClassDataCache classDataCache = classDataCacheService.getClassDataCache(Class.forName(batch.className()));
+        List<InsertColumn> columns = InsertColumn.resolve(batch.query(), classDataCache, classDataCacheService);
+        if (columns == null) {
+            columns = Collections.emptyList();
+        }
+        if (!columns.equals(batch.columns())) {
+            throw new IOException("Column layout of the dead-letter batch " + batch.columns() + " differs from the current table " + columns);
+        }
+        return new BatchedQueryData(batch.query(), classDataCache);
+    }
+
+    /**
+     * Lists the queue files, oldest first.
+     *
+     * @return the queue files
+     */
+    public List<Path> list() throws IOException {
+        List<Path> result = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return result;
+        }
+        try (var paths = Files.list(directory)) {
+            paths.filter(path -> path.getFileName().toString().endsWith(EXTENSION)).forEach(result::add);
+        }
+        result.sort((first, second) -> Long.compare(first.toFile().lastModified(), second.toFile().lastModified()));
+        return result;
+    }
+
+    /**
+     * Removes the replayed batch from the queue.
+     *
+     * @param path the queue file
+     */
+    public void remove(Path path) throws IOException {
+        if (Files.deleteIfExists(path)) {
+            depth.decrementAndGet();
+        }
+    }
+
+    public int getDepth() {
+        return depth.get();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+}
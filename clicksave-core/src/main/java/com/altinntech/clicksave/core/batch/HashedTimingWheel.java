@@ -0,0 +1,131 @@
+package com.altinntech.clicksave.core.batch;
+
+import com.altinntech.clicksave.interfaces.Disposable;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static com.altinntech.clicksave.log.CSLogger.error;
+
+/**
+ * The {@code HashedTimingWheel} class schedules many short timeouts with O(1) insertion.
+ *
+ * <p>Timeouts are hashed into the buckets of a wheel by their deadline tick. A single worker thread advances
+ * the wheel every tick and expires the timeouts of the current bucket whose round has come. The precision
+ * is one tick. Expired tasks are handed to the executor, so a slow task does not delay the wheel.</p>
+ *
+ * @author Fyodor Plotnikov
+ */
+public class HashedTimingWheel implements Disposable {
+
+    private final long tickNanos;
+    private final Queue<Timeout>[] wheel;
+    private final int mask;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final Executor executor;
+    private final Thread worker;
+    private final long startTime;
+
+    private volatile boolean running = true;
+    private long tick = 0;
+
+    /**
+     * Instantiates a new timing wheel and starts its worker.
+     *
+     * @param tickMillis the tick duration in milliseconds
+     * @param wheelSize  the number of buckets, rounded up to a power of two
+     * @param executor   the executor running expired tasks
+     */
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(long tickMillis, int wheelSize, Executor executor) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMillis));
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.wheel = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new ArrayDeque<>();
+        }
+        this.mask = size - 1;
+        this.executor = executor;
+        this.startTime = System.nanoTime();
+        this.worker = new Thread(this::run, "clicksave-timing-wheel");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Schedules the task.
+     *
+     * @param task       the task
+     * @param delayMillis the delay in milliseconds
+     */
+    public void schedule(Runnable task, long delayMillis) {
+        long deadline = System.nanoTime() - startTime + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        pending.add(new Timeout(task, deadline));
+    }
+
+    @Override
+    public void dispose() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            long tickDeadline = tickNanos * (tick + 1);
+            long sleepNanos = tickDeadline - (System.nanoTime() - startTime);
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    if (!running) {
+                        return;
+                    }
+                }
+            }
+            transferPending();
+            expire(wheel[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void transferPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            long deadlineTick = Math.max(timeout.deadline / tickNanos, tick);
+            timeout.rounds = (deadlineTick - tick) / wheel.length;
+            wheel[(int) (deadlineTick & mask)].add(timeout);
+        }
+    }
+
+    private void expire(Queue<Timeout> bucket) {
+        Iterator<Timeout> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+            if (timeout.rounds > 0) {
+                timeout.rounds--;
+                continue;
+            }
+            iterator.remove();
+            try {
+                executor.execute(timeout.task);
+            } catch (Exception e) {
+                error("Failed to run expired timeout", e);
+            }
+        }
+    }
+
+    private static final class Timeout {
+        private final Runnable task;
+        private final long deadline;
+        private long rounds;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.altinntech.clicksave.core.batch;
+
+import com.altinntech.clicksave.core.ClassDataCacheService;
+import com.altinntech.clicksave.core.dto.ClassDataCache;
+import com.altinntech.clicksave.core.dto.FieldDataCache;
+import com.altinntech.clicksave.core.utils.tb.ColumnTypes;
+import com.altinntech.clicksave.enums.FieldType;
+import com.altinntech.clicksave.enums.SystemField;
+import com.altinntech.clicksave.exceptions.ClassCacheNotFoundException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code InsertColumn} record describes a column of an insert query: its name, ClickHouse type and the {@link FieldType}
+ * of the entity field. System columns added by the table engine have no field type.
+ *
+ * @param name      the column name
+ * @param type      the ClickHouse type of the column
+ * @param fieldType the field type, {@code null} for system columns
+ * @param nullable  whether the column is nullable
+ * @author Fyodor Plotnikov
+ */
+public record InsertColumn(String name, String type, FieldType fieldType, boolean nullable) {
+
+    /**
+     * Resolves the columns of the insert query in the order of the value placeholders.
+     *
+     * @param query                 the insert query
+     * @param classDataCache        the class data of the entity
+     * @param classDataCacheService the class data cache service used to resolve embedded fields
+     * @return the columns or {@code null} if the query has a column unknown to the entity
+     */
+    public static List<InsertColumn> resolve(String query, ClassDataCache classDataCache, ClassDataCacheService classDataCacheService) throws ClassCacheNotFoundException {
+        int valuesIndex = query.indexOf(" VALUES");
+        int columnsStart = query.indexOf('(');
+        if (valuesIndex < 0 || columnsStart < 0 || columnsStart > valuesIndex) {
+            return null;
+        }
+        String[] names = query.substring(columnsStart + 1, query.lastIndexOf(')', valuesIndex)).split(",");
+
+        Map<String, FieldDataCache> fields = new HashMap<>();
+        collectFields(classDataCache.getFields(), classDataCacheService, fields);
+
+        List<InsertColumn> columns = new ArrayList<>(names.length);
+        for (String rawName : names) {
+            String name = rawName.trim();
+            FieldDataCache fieldData = fields.get(name);
+            if (fieldData != null && fieldData.getFieldType() != null) {
+                columns.add(new InsertColumn(name, ColumnTypes.typeOf(fieldData), fieldData.getFieldType(), fieldData.isNullable()));
+                continue;
+            }
+            SystemField systemField = systemField(name);
+            if (systemField == null) {
+                return null;
+            }
+            columns.add(new InsertColumn(name, systemField.getType(), null, false));
+        }
+        return columns;
+    }
+
+    private static SystemField systemField(String name) {
+        for (SystemField systemField : SystemField.values()) {
+            if (systemField.getName().equals(name)) {
+                return systemField;
+            }
+        }
+        return null;
+    }
+
+    private static void collectFields(List<FieldDataCache> fields, ClassDataCacheService classDataCacheService, Map<String, FieldDataCache> result) throws ClassCacheNotFoundException {
+        for (FieldDataCache fieldData : fields) {
+            if (fieldData.isEmbedded()) {
+                collectFields(classDataCacheService.getEmbeddableClassDataCache(fieldData.getType()).getFields(), classDataCacheService, result);
+            } else {
+                result.put(fieldData.getFieldInTableName(), fieldData);
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.altinntech.clicksave.core.batch;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The {@code InsertSettings} class holds the query-level settings sent with an insert as a {@code SETTINGS} clause.
+ * The clause is put in front of the {@code VALUES} clause, so the driver keeps it when it replaces the values
+ * with the {@code FORMAT} clause of the batch.
+ *
+ * <p>Instances are immutable.</p>
+ *
+ * @author Fyodor Plotnikov
+ */
+public final class InsertSettings {
+
+    public static final InsertSettings NONE = new InsertSettings(Collections.emptyMap());
+
+    private static final String VALUES = " VALUES";
+
+    private final Map<String, String> settings;
+
+    private InsertSettings(Map<String, String> settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Returns the settings with the numeric setting added.
+     *
+     * @param name  the setting name
+     * @param value the setting value
+     * @return the new settings
+     */
+    public InsertSettings with(String name, long value) {
+        return put(name, Long.toString(value));
+    }
+
+    /**
+     * Returns the settings with the string setting added, the value is quoted.
+     *
+     * @param name  the setting name
+     * @param value the setting value
+     * @return the new settings
+     */
+    public InsertSettings with(String name, String value) {
+        return put(name, "'" + value.replace("\\", "\\\\").replace("'", "\\'") + "'");
+    }
+
+    private InsertSettings put(String name, String literal) {
+        Map<String, String> copy = new LinkedHashMap<>(settings);
+        copy.put(name, literal);
+        return new InsertSettings(copy);
+    }
+
+    public boolean isEmpty() {
+        return settings.isEmpty();
+    }
+
+    /**
+     * Adds the {@code SETTINGS} clause to the insert query.
+     *
+     * @param insertQuery the insert query, with or without the values clause
+     * @return the query with the settings
+     */
+    public String apply(String insertQuery) {
+        if (settings.isEmpty()) {
+            return insertQuery;
+        }
+        StringBuilder clause = new StringBuilder(" SETTINGS ");
+        boolean first = true;
+        for (Map.Entry<String, String> setting : settings.entrySet()) {
+            if (!first) {
+                clause.append(", ");
+            }
+            clause.append(setting.getKey()).append(" = ").append(setting.getValue());
+            first = false;
+        }
+        int valuesIndex = insertQuery.indexOf(VALUES);
+        if (valuesIndex < 0) {
+            return insertQuery + clause;
+        }
+        return insertQuery.substring(0, valuesIndex) + clause + insertQuery.substring(valuesIndex);
+    }
+
+    @Override
+    public String toString() {
+        return apply("").trim();
+    }
+}
@@ -0,0 +1,60 @@
+package com.altinntech.clicksave.core.batch;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The {@code JournalLock} class is the exclusive lock of a journal directory held by one application instance.
+ * Only the holder appends segments to the directory and replays the segments left by a previous run,
+ * so two instances never write or replay the same segments. The lock is released by the operating system
+ * if the process dies.
+ *
+ * @author Fyodor Plotnikov
+ */
+public class JournalLock implements AutoCloseable {
+
+    private static final String LOCK_FILE = ".lock";
+
+    private final FileChannel channel;
+    private final FileLock lock;
+
+    private JournalLock(FileChannel channel, FileLock lock) {
+        this.channel = channel;
+        this.lock = lock;
+    }
+
+    /**
+     * Tries to lock the journal directory.
+     *
+     * @param directory the journal directory
+     * @return the lock or {@code null} if the directory is locked by another instance
+     */
+    public static JournalLock tryAcquire(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            FileLock lock = channel.tryLock();
+            if (lock != null) {
+                return new JournalLock(channel, lock);
+            }
+        } catch (OverlappingFileLockException e) {
+            // locked by another collector of this JVM
+        }
+        channel.close();
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            lock.release();
+        } finally {
+            channel.close();
+        }
+    }
+}
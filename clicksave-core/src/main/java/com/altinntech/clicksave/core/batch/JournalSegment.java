@@ -0,0 +1,192 @@
+package com.altinntech.clicksave.core.batch;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * The {@code JournalSegment} class is a fixed-size memory-mapped file of the batch journal.
+ *
+ * <p>The segment starts with a header holding the entity class name, the insert query and the id of the buffer
+ * the rows belong to, followed by records of the form {@code [length][crc32][spilled][row]}. A zero length marks
+ * the end of the written records, a record with a wrong checksum is treated as a torn write and ends the replay
+ * of the segment.</p>
+ *
+ * @author Fyodor Plotnikov
+ */
+public class JournalSegment {
+
+    static final String EXTENSION = ".journal";
+    private static final int MAGIC = 0x43534A32;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final CRC32 crc = new CRC32();
+
+    private volatile boolean dirty = false;
+    private boolean deleted = false;
+
+    private JournalSegment(Path path, MappedByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Creates a new segment with the given header.
+     *
+     * @param path      the segment file
+     * @param size      the segment size in bytes
+     * @param className the entity class name
+     * @param query     the insert query
+     * @param bufferId  the id of the buffer, shared by all segments holding its rows
+     * @return the segment
+     */
+    public static JournalSegment create(Path path, int size, String className, String query, String bufferId) throws IOException {
+        byte[] classNameBytes = className.getBytes(StandardCharsets.UTF_8);
+        byte[] queryBytes = query.getBytes(StandardCharsets.UTF_8);
+        byte[] bufferIdBytes = bufferId.getBytes(StandardCharsets.UTF_8);
+        int headerSize = 16 + classNameBytes.length + queryBytes.length + bufferIdBytes.length;
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, headerSize + RECORD_HEADER_SIZE));
+            buffer.putInt(MAGIC);
+            buffer.putInt(classNameBytes.length).put(classNameBytes);
+            buffer.putInt(queryBytes.length).put(queryBytes);
+            buffer.putInt(bufferIdBytes.length).put(bufferIdBytes);
+            JournalSegment segment = new JournalSegment(path, buffer);
+            segment.dirty = true;
+            return segment;
+        }
+    }
+
+    /**
+     * Appends the record to the segment.
+     *
+     * @param payload the record bytes
+     * @param length  the record length
+     * @return {@code false} if the segment has no room for the record
+     */
+    public boolean tryAppend(byte[] payload, int length) {
+        if (buffer.remaining() < RECORD_HEADER_SIZE + length + 4) {
+            return false;
+        }
+        crc.reset();
+        crc.update(payload, 0, length);
+        int position = buffer.position();
+        buffer.position(position + 4);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(payload, 0, length);
+        // the length is written last, so a record is visible only when it is complete
+        buffer.putInt(position, length);
+        dirty = true;
+        return true;
+    }
+
+    /**
+     * Forces the written records to the storage if there are any since the last call.
+     */
+    public synchronized void sync() {
+        if (dirty && !deleted) {
+            dirty = false;
+            buffer.force();
+        }
+    }
+
+    /**
+     * Deletes the segment file and unmaps its buffer, the segment must not be appended to afterwards.
+     */
+    public synchronized void delete() throws IOException {
+        if (!deleted) {
+            deleted = true;
+            unmap(buffer);
+        }
+        Files.deleteIfExists(path);
+    }
+
+    public synchronized boolean isDeleted() {
+        return deleted;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    static boolean isSegment(Path path) {
+        return path.getFileName().toString().endsWith(EXTENSION);
+    }
+
+    /**
+     * The content of a segment read during the replay. The rows kept in memory and the spilled rows
+     * are in the order they were appended.
+     */
+    public record Content(String className, String query, String bufferId, List<List<Object>> rows, List<List<Object>> spilledRows) {
+    }
+
+    /**
+     * Reads the segment written by a previous run.
+     *
+     * @param path the segment file
+     * @return the segment content or {@code null} if the file is not a journal segment
+     */
+    public static Content read(Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.remaining() < 16 || buffer.getInt() != MAGIC) {
+            return null;
+        }
+        String className = readString(buffer);
+        String query = readString(buffer);
+        String bufferId = readString(buffer);
+        List<List<Object>> rows = new ArrayList<>();
+        List<List<Object>> spilledRows = new ArrayList<>();
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                break;
+            }
+            crc.reset();
+            crc.update(bytes, buffer.position(), length);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, buffer.position(), length));
+            (in.readBoolean() ? spilledRows : rows).add(RowCodec.read(in));
+            buffer.position(buffer.position() + length);
+        }
+        return new Content(className, query, bufferId, rows, spilledRows);
+    }
+
+    /**
+     * Releases the mapped memory right away instead of waiting for the buffer to be garbage collected.
+     * Falls back to the garbage collector if the JDK doesn't expose the cleaner.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(theUnsafe.get(null), buffer);
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+            // released when the buffer is collected
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
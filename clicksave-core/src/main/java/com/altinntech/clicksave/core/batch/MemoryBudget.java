@@ -0,0 +1,76 @@
+package com.altinntech.clicksave.core.batch;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The {@code MemoryBudget} class tracks the bytes held by all batches, including buffers waiting for a flush.
+ * A non-positive limit means the budget is unlimited and only the accounting is done.
+ *
+ * @author Fyodor Plotnikov
+ */
+public class MemoryBudget {
+
+    private final long limit;
+    private final AtomicLong used = new AtomicLong();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    public MemoryBudget(long limit) {
+        this.limit = limit;
+    }
+
+    public void reserve(long bytes) {
+        used.addAndGet(bytes);
+    }
+
+    public void release(long bytes) {
+        if (bytes <= 0) {
+            return;
+        }
+        used.addAndGet(-bytes);
+        lock.lock();
+        try {
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isExceeded() {
+        return limit > 0 && used.get() >= limit;
+    }
+
+    /**
+     * Waits until the used bytes drop below the limit.
+     *
+     * @param timeoutMillis the maximum time to wait
+     * @return {@code true} if the budget is no longer exceeded
+     */
+    public boolean awaitRelease(long timeoutMillis) throws InterruptedException {
+        long nanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        lock.lock();
+        try {
+            while (isExceeded()) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = released.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getUsed() {
+        return used.get();
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,15 @@
+package com.altinntech.clicksave.core.batch;
+
+import java.util.List;
+
+/**
+ * The {@code PendingRow} record is a row put to a batch and indexed by id until it is written. It keeps a copy
+ * of the row values, so the entity read back from them doesn't share state with the instance that was saved.
+ *
+ * @param id      the id of the entity
+ * @param missing the mask of the embedded fields that are {@code null}, as returned by {@code InsertPlan.extract}
+ * @param values  the row values in the column order of the insert plan
+ * @author Fyodor Plotnikov
+ */
+public record PendingRow(Object id, long missing, List<Object> values) {
+}
@@ -0,0 +1,75 @@
+package com.altinntech.clicksave.core.batch;
+
+import com.altinntech.clicksave.core.dto.ClassDataCache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@code PendingRowIndex} class indexes batched rows by id, from the moment the row is put to
+ * the batch until it is written or dead-lettered, so lookups by id can be answered without flushing the batch.
+ *
+ * <p>Ids are indexed by their string form, like the ids compared by {@code saveAll}. An entry is removed only
+ * if it still maps to the written row, a newer row with the same id stays indexed.</p>
+ *
+ * @author Fyodor Plotnikov
+ */
+public class PendingRowIndex {
+
+    private final ConcurrentHashMap<ClassDataCache, ConcurrentHashMap<String, PendingRow>> rows = new ConcurrentHashMap<>();
+
+    /**
+     * Indexes a row put to the batch.
+     *
+     * @param classDataCache the class data of the entity
+     * @param row            the pending row
+     * @return the index entry, to be removed once the row is written
+     */
+    public Map.Entry<String, PendingRow> add(ClassDataCache classDataCache, PendingRow row) {
+        String key = String.valueOf(row.id());
+        rows.computeIfAbsent(classDataCache, c -> new ConcurrentHashMap<>()).put(key, row);
+        return Map.entry(key, row);
+    }
+
+    /**
+     * Removes the entries of written rows.
+     *
+     * @param classDataCache the class data of the entity
+     * @param entries        the entries returned by {@link #add}
+     */
+    public void removeAll(ClassDataCache classDataCache, List<Map.Entry<String, PendingRow>> entries) {
+        ConcurrentHashMap<String, PendingRow> tableRows = rows.get(classDataCache);
+        if (tableRows == null) {
+            return;
+        }
+        for (Map.Entry<String, PendingRow> entry : entries) {
+            tableRows.remove(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Finds a pending row.
+     *
+     * @param classDataCache the class data of the entity
+     * @param id             the id
+     * @return the row or {@code null} if no pending row has the id
+     */
+    public PendingRow get(ClassDataCache classDataCache, Object id) {
+        ConcurrentHashMap<String, PendingRow> tableRows = rows.get(classDataCache);
+        return tableRows == null ? null : tableRows.get(String.valueOf(id));
+    }
+
+    /**
+     * Returns the number of indexed rows of all tables.
+     *
+     * @return the number of rows
+     */
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, PendingRow> tableRows : rows.values()) {
+            size += tableRows.size();
+        }
+        return size;
+    }
+}
@@ -0,0 +1,41 @@
+package com.altinntech.clicksave.core.batch;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The {@code RetryBackoff} class computes the delays between write attempts: exponential backoff with jitter.
+ * The delay of the attempt is picked at random between the half and the full exponential delay,
+ * so the retries of different tables don't hit the server at the same moment.
+ *
+ * @author Fyodor Plotnikov
+ */
+public class RetryBackoff {
+
+    private final long initialDelay;
+    private final long maxDelay;
+
+    public RetryBackoff(long initialDelay, long maxDelay) {
+        this.initialDelay = Math.max(1, initialDelay);
+        this.maxDelay = Math.max(this.initialDelay, maxDelay);
+    }
+
+    /**
+     * Computes the delay before the retry.
+     *
+     * @param failedAttempts the number of failed attempts so far, starting from 1
+     * @return the delay in milliseconds
+     */
+    public long delay(int failedAttempts) {
+        int shift = Math.min(Math.max(failedAttempts - 1, 0), 30);
+        long delay = initialDelay << shift;
+        if (delay <= 0 || delay > maxDelay) {
+            delay = maxDelay;
+        }
+        long half = delay >> 1;
+        return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
+    }
+
+    public long getInitialDelay() {
+        return initialDelay;
+    }
+}
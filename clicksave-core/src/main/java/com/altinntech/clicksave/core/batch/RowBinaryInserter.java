@@ -0,0 +1,94 @@
+package com.altinntech.clicksave.core.batch;
+
+import cc.blynk.clickhouse.ClickHouseConnection;
+import cc.blynk.clickhouse.ClickHouseStatement;
+import com.altinntech.clicksave.core.ClassDataCacheService;
+import com.altinntech.clicksave.core.converter.TemporalValues;
+import com.altinntech.clicksave.core.dto.BatchedQueryData;
+import com.altinntech.clicksave.exceptions.ClassCacheNotFoundException;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.altinntech.clicksave.log.CSLogger.debug;
+import static com.altinntech.clicksave.log.CSLogger.warn;
+
+/**
+ * The {@code RowBinaryInserter} class streams rows to ClickHouse as one {@code INSERT ... FORMAT RowBinary} request.
+ * Writers are compiled once per insert query. Tables with columns that have no RowBinary encoding are reported
+ * as unsupported, so the caller can fall back to the JDBC batch.
+ *
+ * @author Fyodor Plotnikov
+ */
+public class RowBinaryInserter {
+
+    private final ClassDataCacheService classDataCacheService;
+    private final boolean enabled;
+    private final ConcurrentHashMap<String, Optional<RowBinaryWriter>> writers = new ConcurrentHashMap<>();
+
+    public RowBinaryInserter(ClassDataCacheService classDataCacheService, boolean enabled) {
+        this.classDataCacheService = classDataCacheService;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Inserts the rows using the RowBinary format.
+     *
+     * @param connection the connection
+     * @param queryData  the insert query data
+     * @param rows       the rows
+     * @return {@code false} if the RowBinary insert is disabled or not supported for the query and nothing was sent
+     */
+    public boolean insert(Connection connection, BatchedQueryData queryData, ColumnarBatch rows) throws SQLException {
+        return insert(connection, queryData, rows, InsertSettings.NONE);
+    }
+
+    /**
+     * Inserts the rows using the RowBinary format.
+     *
+     * @param connection the connection
+     * @param queryData  the insert query data
+     * @param rows       the rows
+     * @param settings   the settings sent with the insert
+     * @return {@code false} if the RowBinary insert is disabled or not supported for the query and nothing was sent
+     */
+    public boolean insert(Connection connection, BatchedQueryData queryData, ColumnarBatch rows, InsertSettings settings) throws SQLException {
+        if (!enabled) {
+            return false;
+        }
+        Optional<RowBinaryWriter> writerOptional = writers.computeIfAbsent(queryData.getQuery(), query -> compile(queryData));
+        if (writerOptional.isEmpty()) {
+            return false;
+        }
+        RowBinaryWriter writer = writerOptional.get();
+        ClickHouseConnection clickHouseConnection = connection.unwrap(ClickHouseConnection.class);
+        // the zone the converters bind in, so date times read as text are written like the converted ones
+        ZoneId zoneId = TemporalValues.getZone();
+        try (ClickHouseStatement statement = clickHouseConnection.createStatement()) {
+            statement.sendRowBinaryStream(settings.apply(writer.getInsertQuery()), stream -> writer.write(stream, rows, zoneId));
+        }
+        return true;
+    }
+
+    private Optional<RowBinaryWriter> compile(BatchedQueryData queryData) {
+        try {
+            RowBinaryWriter writer = RowBinaryWriter.compile(queryData.getQuery(), queryData.getClassDataCache(), classDataCacheService);
+            if (writer == null) {
+                warn("RowBinary insert is not supported for table " + queryData.getClassDataCache().getTableName() + ", JDBC batch is used");
+            } else {
+                debug("RowBinaryInserter", "Compiled RowBinary writer for " + queryData.getClassDataCache().getTableName());
+            }
+            return Optional.ofNullable(writer);
+        } catch (ClassCacheNotFoundException e) {
+            warn("RowBinary insert is not supported for table " + queryData.getClassDataCache().getTableName() + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.altinntech.clicksave.core.batch;
+
+import cc.blynk.clickhouse.util.ClickHouseRowBinaryStream;
+import com.altinntech.clicksave.core.ClassDataCacheService;
+import com.altinntech.clicksave.core.converter.TemporalValues;
+import com.altinntech.clicksave.core.dto.ClassDataCache;
+import com.altinntech.clicksave.enums.FieldType;
+import com.altinntech.clicksave.enums.SystemField;
+import com.altinntech.clicksave.exceptions.ClassCacheNotFoundException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The {@code RowBinaryWriter} class encodes rows of one insert query in the ClickHouse {@code RowBinary} format.
+ * The encoding of every column is resolved once from the {@link FieldType} of the entity field, so the rows
+ * are written without the per-cell text serialization of the JDBC batch.
+ *
+ * @author Fyodor Plotnikov
+ */
+public class RowBinaryWriter {
+
+    private static final BigInteger DECIMAL_128_LIMIT = BigInteger.TEN.pow(20);
+    private static final BigInteger DECIMAL_256_LIMIT = BigInteger.TEN.pow(44);
+
+    /**
+     * The encodings of the supported ClickHouse column types.
+     */
+    enum Encoding {
+        INT8, UINT8, UINT16, INT32, UINT32, INT64, UINT64, INT128, FLOAT32, FLOAT64, STRING, UUID,
+        DECIMAL_128, DECIMAL_256, DATE_TIME, DATE_TIME64_6, DATE_TIME64_9
+    }
+
+    private final String insertQuery;
+    private final Encoding[] encodings;
+    private final boolean[] nullable;
+
+    private RowBinaryWriter(String insertQuery, Encoding[] encodings, boolean[] nullable) {
+        this.insertQuery = insertQuery;
+        this.encodings = encodings;
+        this.nullable = nullable;
+    }
+
+    /**
+     * Compiles the writer for the insert query.
+     *
+     * @param query                 the insert query with value placeholders
+     * @param classDataCache        the class data of the entity
+     * @param classDataCacheService the class data cache service used to resolve embedded fields
+     * @return the writer or {@code null} if any column of the query can't be written as RowBinary
+     */
+    public static RowBinaryWriter compile(String query, ClassDataCache classDataCache, ClassDataCacheService classDataCacheService) throws ClassCacheNotFoundException {
+        List<InsertColumn> columns = InsertColumn.resolve(query, classDataCache, classDataCacheService);
+        if (columns == null) {
+            return null;
+        }
+
+        Encoding[] encodings = new Encoding[columns.size()];
+        boolean[] nullable = new boolean[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            InsertColumn column = columns.get(i);
+            if (column.fieldType() != null) {
+                encodings[i] = encodingOf(column.fieldType());
+                nullable[i] = column.nullable();
+            } else if (SystemField.Sign.getName().equals(column.name())) {
+                encodings[i] = Encoding.INT8;
+            } else if (SystemField.Version.getName().equals(column.name())) {
+                encodings[i] = Encoding.UINT32;
+            } else if (SystemField.Timestamp.getName().equals(column.name())) {
+                encodings[i] = Encoding.DATE_TIME64_9;
+            }
+            if (encodings[i] == null) {
+                return null;
+            }
+        }
+        return new RowBinaryWriter(query.substring(0, query.indexOf(" VALUES")), encodings, nullable);
+    }
+
+    private static Encoding encodingOf(FieldType fieldType) {
+        return switch (fieldType) {
+            case INT -> Encoding.INT32;
+            case UINT -> Encoding.UINT32;
+            case BIG_INT -> Encoding.INT128;
+            case LONG -> Encoding.INT64;
+            case ULONG -> Encoding.UINT64;
+            case FLOAT -> Encoding.FLOAT32;
+            case DOUBLE -> Encoding.FLOAT64;
+            case STRING -> Encoding.STRING;
+            case UINT16 -> Encoding.UINT16;
+            case BIG_DECIMAL -> Encoding.DECIMAL_128;
+            case LONG_BIG_DECIMAL -> Encoding.DECIMAL_256;
+            case UUID -> Encoding.UUID;
+            case DATE_TIME -> Encoding.DATE_TIME64_9;
+            case DATE_TIME6 -> Encoding.DATE_TIME64_6;
+            case DATE -> Encoding.DATE_TIME;
+            case BOOL, BOOL8 -> Encoding.UINT8;
+            default -> null;
+        };
+    }
+
+    /**
+     * Gets the insert query without the values clause, the driver appends {@code FORMAT RowBinary} to it.
+     *
+     * @return the insert query
+     */
+    public String getInsertQuery() {
+        return insertQuery;
+    }
+
+    /**
+     * Writes the rows to the stream.
+     *
+     * @param stream the RowBinary stream
+     * @param rows   the rows
+     * @param zoneId the time zone used for date time values
+     */
+    public void write(ClickHouseRowBinaryStream stream, ColumnarBatch rows, ZoneId zoneId) throws IOException {
+        if (rows.columnsCount() != encodings.length) {
+            throw new IOException("Batch has " + rows.columnsCount() + " columns, insert query has " + encodings.length);
+        }
+        for (int row = 0; row < rows.size(); row++) {
+            for (int column = 0; column < encodings.length; column++) {
+                boolean isNull = rows.isNull(column, row);
+                if (nullable[column]) {
+                    stream.writeByte((byte) (isNull ? 1 : 0));
+                    if (isNull) {
+                        continue;
+                    }
+                }
+                if (isNull) {
+                    writeDefault(stream, encodings[column]);
+                } else {
+                    writeValue(stream, encodings[column], rows, column, row, zoneId);
+                }
+            }
+        }
+    }
+
+    private static void writeValue(ClickHouseRowBinaryStream stream, Encoding encoding, ColumnarBatch rows, int column, int row, ZoneId zoneId) throws IOException {
+        switch (encoding) {
+            case INT8 -> stream.writeInt8((int) rows.getLong(column, row));
+            case UINT8 -> stream.writeUInt8(toBoolean(rows.get(column, row)));
+            case UINT16 -> stream.writeUInt16((int) rows.getLong(column, row));
+            case INT32 -> stream.writeInt32((int) rows.getLong(column, row));
+            case UINT32 -> stream.writeUInt32(rows.getLong(column, row));
+            case INT64 -> stream.writeInt64(rows.getLong(column, row));
+            case UINT64 -> {
+                Object value = rows.get(column, row);
+                if (value instanceof BigInteger) {
+                    stream.writeUInt64((BigInteger) value);
+                } else {
+                    stream.writeUInt64(rows.getLong(column, row));
+                }
+            }
+            case INT128 -> writeLittleEndian(stream, toBigInteger(rows.get(column, row)), 16);
+            case FLOAT32 -> stream.writeFloat32((float) rows.getDouble(column, row));
+            case FLOAT64 -> stream.writeFloat64(rows.getDouble(column, row));
+            case STRING -> {
+                byte[] bytes = rows.getUtf8(column, row);
+                stream.writeUnsignedLeb128(bytes.length);
+                stream.writeBytes(bytes);
+            }
+            case UUID -> {
+                Object value = rows.get(column, row);
+                stream.writeUUID(value instanceof UUID ? (UUID) value : UUID.fromString(value.toString()));
+            }
+            case DECIMAL_128 -> writeDecimal(stream, rows.get(column, row), 9, DECIMAL_128_LIMIT, 16);
+            case DECIMAL_256 -> writeDecimal(stream, rows.get(column, row), 21, DECIMAL_256_LIMIT, 32);
+            case DATE_TIME -> stream.writeUInt32(toEpochTicks(rows.get(column, row), zoneId, 0));
+            case DATE_TIME64_6 -> stream.writeInt64(toEpochTicks(rows.get(column, row), zoneId, 6));
+            case DATE_TIME64_9 -> stream.writeInt64(toEpochTicks(rows.get(column, row), zoneId, 9));
+        }
+    }
+
+    private static void writeDefault(ClickHouseRowBinaryStream stream, Encoding encoding) throws IOException {
+        switch (encoding) {
+            case INT8, UINT8 -> stream.writeByte((byte) 0);
+            case UINT16 -> stream.writeUInt16(0);
+            case INT32 -> stream.writeInt32(0);
+            case UINT32, DATE_TIME -> stream.writeUInt32(0);
+            case INT64, UINT64, DATE_TIME64_6, DATE_TIME64_9 -> stream.writeInt64(0);
+            case INT128, DECIMAL_128, UUID -> stream.writeBytes(new byte[16]);
+            case DECIMAL_256 -> stream.writeBytes(new byte[32]);
+            case FLOAT32 -> stream.writeFloat32(0);
+            case FLOAT64 -> stream.writeFloat64(0);
+            case STRING -> stream.writeUnsignedLeb128(0);
+        }
+    }
+
+    private static boolean toBoolean(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).intValue() != 0;
+        }
+        return Boolean.parseBoolean(value.toString());
+    }
+
+    private static BigInteger toBigInteger(Object value) {
+        if (value instanceof BigInteger) {
+            return (BigInteger) value;
+        }
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toBigInteger();
+        }
+        if (value instanceof Number) {
+            return BigInteger.valueOf(((Number) value).longValue());
+        }
+        return new BigInteger(value.toString());
+    }
+
+    /**
+     * Converts the date time value to the ticks of the column precision. Date time fields arrive as epoch seconds
+     * already, local dates and times bound by custom queries are resolved in the server time zone.
+     */
+    private static long toEpochTicks(Object value, ZoneId zoneId, int precision) {
+        if (value instanceof Number) {
+            return TemporalValues.toEpochTicks((Number) value, precision);
+        }
+        LocalDateTime dateTime;
+        if (value instanceof LocalDateTime) {
+            dateTime = (LocalDateTime) value;
+        } else if (value instanceof LocalDate) {
+            dateTime = ((LocalDate) value).atStartOfDay();
+        } else {
+            dateTime = TemporalValues.parse(value.toString());
+        }
+        return TemporalValues.toEpochTicks(dateTime, zoneId, precision);
+    }
+
+    private static void writeDecimal(ClickHouseRowBinaryStream stream, Object value, int scale, BigInteger limit, int length) throws IOException {
+        BigDecimal decimal = value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+        BigInteger unscaled = decimal.setScale(scale, RoundingMode.HALF_UP).unscaledValue();
+        if (unscaled.abs().compareTo(limit) >= 0) {
+            throw new IOException("Decimal value " + decimal + " is out of range of Decimal(" + (length == 16 ? 20 : 44) + ", " + scale + ")");
+        }
+        writeLittleEndian(stream, unscaled, length);
+    }
+
+    private static void writeLittleEndian(ClickHouseRowBinaryStream stream, BigInteger value, int length) throws IOException {
+        byte[] bigEndian = value.toByteArray();
+        if (bigEndian.length > length) {
+            throw new IOException("Value " + value + " does not fit in " + length + " bytes");
+        }
+        byte[] littleEndian = new byte[length];
+        byte sign = (byte) (value.signum() < 0 ? -1 : 0);
+        for (int i = 0; i < length; i++) {
+            littleEndian[i] = i < bigEndian.length ? bigEndian[bigEndian.length - 1 - i] : sign;
+        }
+        stream.writeBytes(littleEndian);
+    }
+}
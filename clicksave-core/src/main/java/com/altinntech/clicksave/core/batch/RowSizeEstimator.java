@@ -0,0 +1,63 @@
+package com.altinntech.clicksave.core.batch;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The {@code RowSizeEstimator} class estimates the size of a row held by a {@link ColumnarBatch}.
+ * The estimate is deliberately cheap and approximate, it only has to keep the batch memory budget predictable.
+ *
+ * @author Fyodor Plotnikov
+ */
+public final class RowSizeEstimator {
+
+    private static final int REFERENCE_SIZE = 8;
+    private static final int OBJECT_SIZE = 48;
+
+    private RowSizeEstimator() {
+    }
+
+    /**
+     * Estimates the size of the row in bytes.
+     *
+     * @param row the row values
+     * @return the estimated size in bytes
+     */
+    public static long estimate(List<Object> row) {
+        long size = 0;
+        for (Object value : row) {
+            size += estimate(value);
+        }
+        return size;
+    }
+
+    private static long estimate(Object value) {
+        if (value == null) {
+            return REFERENCE_SIZE;
+        }
+        if (value instanceof String) {
+            return 4 + ((String) value).length();
+        }
+        if (value instanceof Long || value instanceof Double) {
+            return 8;
+        }
+        if (value instanceof Integer) {
+            return 4;
+        }
+        if (value instanceof Boolean) {
+            return REFERENCE_SIZE;
+        }
+        if (value instanceof BigDecimal) {
+            return REFERENCE_SIZE + 40 + ((BigDecimal) value).unscaledValue().bitLength() / 8;
+        }
+        if (value instanceof BigInteger) {
+            return REFERENCE_SIZE + 40 + ((BigInteger) value).bitLength() / 8;
+        }
+        if (value instanceof UUID) {
+            return REFERENCE_SIZE + 32;
+        }
+        return REFERENCE_SIZE + OBJECT_SIZE;
+    }
+}
@@ -0,0 +1,137 @@
+package com.altinntech.clicksave.core.batch;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The {@code SpillFile} class stores rows of a table on disk while the batch memory budget is exceeded.
+ * On the next flush of the table the file is sealed and its rows are written in chunks bounded by the budget,
+ * then the file is removed.
+ *
+ * @author Fyodor Plotnikov
+ */
+public class SpillFile {
+
+    private final Path directory;
+    private final String tableName;
+
+    private Path path;
+    private DataOutputStream out;
+    private int rowsCount = 0;
+
+    public SpillFile(Path directory, String tableName) {
+        this.directory = directory;
+        this.tableName = tableName;
+    }
+
+    public void append(List<Object> row) throws IOException {
+        if (out == null) {
+            Files.createDirectories(directory);
+            path = Files.createTempFile(directory, tableName + "_", ".spill");
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+        }
+        RowCodec.write(out, row);
+        rowsCount++;
+    }
+
+    /**
+     * Closes the file for appends, the batch starts a new spill file for the rows spilled after the swap.
+     */
+    public void seal() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    /**
+     * Reads the sealed file back in chunks and removes it. Only one chunk is held in memory at a time,
+     * the consumer writes it before the next one is read.
+     *
+     * @param maxChunkBytes the maximum estimated bytes of a chunk
+     * @param consumer      the consumer of the chunks
+     */
+    public void readChunks(long maxChunkBytes, ChunkConsumer consumer) throws IOException {
+        if (path == null) {
+            return;
+        }
+        seal();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            Chunker chunker = new Chunker(maxChunkBytes, consumer);
+            for (int i = 0; i < rowsCount; i++) {
+                chunker.add(RowCodec.read(in));
+            }
+            chunker.finish();
+        } finally {
+            Files.deleteIfExists(path);
+            path = null;
+            rowsCount = 0;
+        }
+    }
+
+    /**
+     * Cuts the rows into chunks the same way {@link #readChunks} does, used to replay spilled rows from the journal
+     * in the same inserts they were flushed with.
+     *
+     * @param rows          the spilled rows in the order they were appended
+     * @param maxChunkBytes the maximum estimated bytes of a chunk
+     * @param consumer      the consumer of the chunks
+     */
+    public static void chunk(List<List<Object>> rows, long maxChunkBytes, ChunkConsumer consumer) {
+        Chunker chunker = new Chunker(maxChunkBytes, consumer);
+        for (List<Object> row : rows) {
+            chunker.add(row);
+        }
+        chunker.finish();
+    }
+
+    public boolean isEmpty() {
+        return rowsCount == 0;
+    }
+
+    private static class Chunker {
+        private final long maxChunkBytes;
+        private final ChunkConsumer consumer;
+
+        private ColumnarBatch chunk = new ColumnarBatch();
+        private long chunkBytes = 0;
+
+        Chunker(long maxChunkBytes, ChunkConsumer consumer) {
+            this.maxChunkBytes = maxChunkBytes;
+            this.consumer = consumer;
+        }
+
+        void add(List<Object> row) {
+            chunk.append(row);
+            chunkBytes += RowSizeEstimator.estimate(row);
+            if (chunkBytes >= maxChunkBytes) {
+                consumer.accept(chunk, chunkBytes);
+                chunk = new ColumnarBatch();
+                chunkBytes = 0;
+            }
+        }
+
+        void finish() {
+            if (chunk.size() > 0) {
+                consumer.accept(chunk, chunkBytes);
+            }
+        }
+    }
+
+    /**
+     * The consumer of the chunks read back from a spill file.
+     */
+    @FunctionalInterface
+    public interface ChunkConsumer {
+
+        /**
+         * Accepts a chunk of the spilled rows.
+         *
+         * @param rows  the rows of the chunk
+         * @param bytes the estimated bytes of the rows
+         */
+        void accept(ColumnarBatch rows, long bytes);
+    }
+}
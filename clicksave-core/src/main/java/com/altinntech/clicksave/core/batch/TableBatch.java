@@ -0,0 +1,287 @@
+package com.altinntech.clicksave.core.batch;
+
+import com.altinntech.clicksave.core.dto.BatchedQueryData;
+import com.altinntech.clicksave.core.dto.ClassDataCache;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The {@code TableBatch} class holds the rows buffered for a single table.
+ * Every table owns its own lock, so appends and flushes of different tables never contend with each other.
+ *
+ * <p>The batch is double-buffered: when a flush is due the filled buffer is swapped for an empty one
+ * and may be handed to a background flusher, so producers only pay for the append. Flushes of the
+ * same table are chained and therefore never overlap and keep their order.</p>
+ *
+ * <p>The batch keeps an estimate of the bytes held by its in-memory buffer. Rows spilled to disk
+ * are not counted, they are written in chunks after the in-memory buffer when it is swapped.</p>
+ *
+ * <p>All mutating methods must be called while holding the batch lock.</p>
+ *
+ * @author Fyodor Plotnikov
+ */
+public class TableBatch {
+
+    private final BatchedQueryData queryData;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicInteger pendingFlushes = new AtomicInteger();
+
+    private ColumnarBatch rows = new ColumnarBatch();
+    private List<Map.Entry<String, PendingRow>> pendingEntries = new ArrayList<>();
+    private CompletableFuture<Void> lastFlush = CompletableFuture.completedFuture(null);
+
+    private SpillFile spillFile;
+    private BatchJournal journal;
+    private AdaptiveBatchController controller;
+
+    private volatile int size = 0;
+    private volatile long bytes = 0;
+    private volatile long lastSwapTime = System.currentTimeMillis();
+    private volatile long generation = 0;
+
+    /**
+     * Instantiates a new table batch.
+     *
+     * @param queryData the query data of the table
+     */
+    public TableBatch(BatchedQueryData queryData) {
+        this.queryData = queryData;
+    }
+
+    public void lock() {
+        lock.lock();
+    }
+
+    public void unlock() {
+        lock.unlock();
+    }
+
+    /**
+     * Appends the row to the batch.
+     *
+     * @param row      the row values, copied into the columnar buffer
+     * @param rowBytes the estimated size of the row
+     * @return the batch size after the append
+     */
+    public int add(List<Object> row, long rowBytes) {
+        rows.append(row);
+        bytes += rowBytes;
+        return ++size;
+    }
+
+    /**
+     * Remembers the pending row index entry of the last appended row, it is removed once the buffer is written.
+     *
+     * @param entry the index entry
+     */
+    public void addPendingEntry(Map.Entry<String, PendingRow> entry) {
+        pendingEntries.add(entry);
+    }
+
+    /**
+     * Takes the pending row index entries of the buffer being swapped.
+     *
+     * @return the entries of the rows buffered so far
+     */
+    public List<Map.Entry<String, PendingRow>> drainPendingEntries() {
+        if (pendingEntries.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Map.Entry<String, PendingRow>> entries = pendingEntries;
+        pendingEntries = new ArrayList<>();
+        return entries;
+    }
+
+    /**
+     * Appends the row to the spill file of the batch.
+     *
+     * @param row            the row values
+     * @param spillDirectory the directory of spill files
+     * @return the batch size after the append
+     */
+    public int spill(List<Object> row, Path spillDirectory) throws IOException {
+        if (spillFile == null) {
+            spillFile = new SpillFile(spillDirectory, getClassDataCache().getTableName());
+        }
+        spillFile.append(row);
+        return ++size;
+    }
+
+    /**
+     * Appends the row to the write-ahead journal of the batch, if the journal is enabled.
+     *
+     * @param row     the row values
+     * @param spilled whether the row was written to the spill file
+     */
+    public void journal(List<Object> row, boolean spilled) throws IOException {
+        if (journal != null) {
+            journal.append(row, spilled);
+        }
+    }
+
+    /**
+     * Seals the journal segments holding the rows of the buffer being swapped.
+     *
+     * @return the sealed segments
+     */
+    public List<JournalSegment> sealJournal() {
+        return journal == null ? Collections.emptyList() : journal.seal();
+    }
+
+    /**
+     * Returns the adaptive batch size controller of the table.
+     *
+     * @return the controller or {@code null} if the batch size is fixed
+     */
+    public AdaptiveBatchController getController() {
+        return controller;
+    }
+
+    public void setController(AdaptiveBatchController controller) {
+        this.controller = controller;
+    }
+
+    /**
+     * Checks if the scheduled flush of the batch is due. Batches with a fixed size are flushed on every scheduled save,
+     * adaptive ones when their flush interval has passed since the last flush. Batches with a maximum row delay
+     * are flushed by their deadline only.
+     *
+     * @return {@code true} if the batch should be flushed by the scheduled save
+     */
+    public boolean isFlushDue() {
+        if (getClassDataCache().getBatchingAnnotation().maxDelayMs() > 0) {
+            return false;
+        }
+        return controller == null || System.currentTimeMillis() - lastSwapTime >= controller.getFlushInterval();
+    }
+
+    /**
+     * Returns the generation of the buffer, incremented on every swap. A deadline set for the oldest row
+     * of a generation is stale once the generation has changed.
+     *
+     * @return the buffer generation
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    public BatchJournal getJournal() {
+        return journal;
+    }
+
+    public void setJournal(BatchJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Swaps the filled buffer for an empty one.
+     *
+     * @return the rows buffered so far
+     */
+    public ColumnarBatch swap() {
+        ColumnarBatch filled = rows;
+        rows = new ColumnarBatch(filled.size());
+        size = 0;
+        bytes = 0;
+        lastSwapTime = System.currentTimeMillis();
+        generation++;
+        if (controller != null) {
+            controller.onFlush();
+        }
+        return filled;
+    }
+
+    /**
+     * Seals the spill file of the buffer being swapped, the rows spilled after the swap go to a new file.
+     *
+     * @return the sealed spill file, {@code null} if no rows were spilled
+     */
+    public SpillFile detachSpilled() throws IOException {
+        if (spillFile == null || spillFile.isEmpty()) {
+            return null;
+        }
+        SpillFile spilled = spillFile;
+        spillFile = null;
+        spilled.seal();
+        return spilled;
+    }
+
+    /**
+     * Schedules the flush task after all previously scheduled flushes of this table.
+     *
+     * @param flushTask the flush task
+     * @param executor  the executor running the flush
+     */
+    public void scheduleFlush(Runnable flushTask, Executor executor) {
+        pendingFlushes.incrementAndGet();
+        lastFlush = lastFlush.exceptionally(e -> null).thenRunAsync(() -> {
+            try {
+                flushTask.run();
+            } finally {
+                pendingFlushes.decrementAndGet();
+            }
+        }, executor);
+    }
+
+    /**
+     * Waits until all scheduled flushes of this table are completed.
+     */
+    public void awaitFlushes() {
+        CompletableFuture<Void> flush;
+        lock.lock();
+        try {
+            flush = lastFlush;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flush.join();
+        } catch (CompletionException ignored) {
+            // the flush task reports its own failures
+        }
+    }
+
+    public int getPendingFlushes() {
+        return pendingFlushes.get();
+    }
+
+    /**
+     * Checks if the batch is empty. Can be called without holding the lock.
+     *
+     * @return {@code true} if there are no buffered rows
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the estimated bytes held by the in-memory buffer. Can be called without holding the lock.
+     *
+     * @return the estimated size in bytes
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    public BatchedQueryData getQueryData() {
+        return queryData;
+    }
+
+    public ClassDataCache getClassDataCache() {
+        return queryData.getClassDataCache();
+    }
+}
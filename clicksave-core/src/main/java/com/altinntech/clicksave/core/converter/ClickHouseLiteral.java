@@ -0,0 +1,16 @@
+package com.altinntech.clicksave.core.converter;
+
+/**
+ * The {@code ClickHouseLiteral} record is an insert value already written in the ClickHouse text form,
+ * for example {@code ['a','b']}. The driver binds it by its string representation, without quoting.
+ *
+ * @param text the literal text
+ * @author Fyodor Plotnikov
+ */
+public record ClickHouseLiteral(String text) {
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
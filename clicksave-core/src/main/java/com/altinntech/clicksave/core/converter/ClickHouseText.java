@@ -0,0 +1,184 @@
+package com.altinntech.clicksave.core.converter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code ClickHouseText} class parses composite values in the ClickHouse text form: arrays {@code [a,b]},
+ * tuples {@code (a,b)} and maps {@code {k:v}}. Arrays and tuples are parsed to lists, maps to linked hash maps,
+ * quoted strings to strings and unquoted integers to longs, other unquoted values are kept as strings.
+ *
+ * @author Fyodor Plotnikov
+ */
+final class ClickHouseText {
+
+    private final String text;
+    private int position;
+
+    private ClickHouseText(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Parses the text.
+     *
+     * @param text the text
+     * @return the parsed value
+     * @throws IllegalArgumentException if the text is not a valid value
+     */
+    static Object parse(String text) {
+        ClickHouseText parser = new ClickHouseText(text);
+        Object value = parser.value();
+        parser.skipSpaces();
+        if (parser.position != text.length()) {
+            throw parser.error("unexpected character");
+        }
+        return value;
+    }
+
+    private Object value() {
+        skipSpaces();
+        if (position == text.length()) {
+            throw error("unexpected end");
+        }
+        return switch (text.charAt(position)) {
+            case '[' -> sequence(']');
+            case '(' -> sequence(')');
+            case '{' -> map();
+            case '\'' -> quoted();
+            default -> bare();
+        };
+    }
+
+    private List<Object> sequence(char close) {
+        position++;
+        List<Object> values = new ArrayList<>();
+        skipSpaces();
+        if (peek() == close) {
+            position++;
+            return values;
+        }
+        while (true) {
+            values.add(value());
+            if (separator(close)) {
+                return values;
+            }
+        }
+    }
+
+    private Map<Object, Object> map() {
+        position++;
+        Map<Object, Object> values = new LinkedHashMap<>();
+        skipSpaces();
+        if (peek() == '}') {
+            position++;
+            return values;
+        }
+        while (true) {
+            Object key = value();
+            skipSpaces();
+            if (peek() != ':') {
+                throw error("':' expected");
+            }
+            position++;
+            values.put(key, value());
+            if (separator('}')) {
+                return values;
+            }
+        }
+    }
+
+    /**
+     * Consumes the separator of the next element or the closing character.
+     *
+     * @return {@code true} if the sequence is closed
+     */
+    private boolean separator(char close) {
+        skipSpaces();
+        char next = peek();
+        position++;
+        if (next == close) {
+            return true;
+        }
+        if (next != ',') {
+            throw error("',' or '" + close + "' expected");
+        }
+        return false;
+    }
+
+    private String quoted() {
+        position++;
+        StringBuilder value = new StringBuilder();
+        while (position < text.length()) {
+            char next = text.charAt(position++);
+            if (next == '\'') {
+                if (peek() != '\'') {
+                    return value.toString();
+                }
+                position++;
+            } else if (next == '\\' && position < text.length()) {
+                next = switch (text.charAt(position++)) {
+                    case 'n' -> '\n';
+                    case 't' -> '\t';
+                    case 'r' -> '\r';
+                    case 'b' -> '\b';
+                    case 'f' -> '\f';
+                    case '0' -> '\0';
+                    default -> text.charAt(position - 1);
+                };
+            }
+            value.append(next);
+        }
+        throw error("unclosed string");
+    }
+
+    private Object bare() {
+        int start = position;
+        while (position < text.length() && !isDelimiter(text.charAt(position))) {
+            position++;
+        }
+        if (start == position) {
+            throw error("value expected");
+        }
+        String token = text.substring(start, position);
+        if (token.equals("NULL") || token.equals("null")) {
+            return null;
+        }
+        return isLong(token) ? (Object) Long.parseLong(token) : token;
+    }
+
+    private static boolean isDelimiter(char value) {
+        return value == ',' || value == ':' || value == ']' || value == ')' || value == '}' || Character.isWhitespace(value);
+    }
+
+    private static boolean isLong(String token) {
+        int start = token.charAt(0) == '-' ? 1 : 0;
+        int length = token.length() - start;
+        // 18 digits always fit, longer integers are kept as text
+        if (length == 0 || length > 18) {
+            return false;
+        }
+        for (int i = start; i < token.length(); i++) {
+            if (token.charAt(i) < '0' || token.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private char peek() {
+        return position < text.length() ? text.charAt(position) : '\0';
+    }
+
+    private void skipSpaces() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Invalid ClickHouse value '" + text + "' at " + position + ": " + message);
+    }
+}
@@ -0,0 +1,395 @@
+package com.altinntech.clicksave.core.converter;
+
+import com.altinntech.clicksave.core.accessor.FieldAccessor;
+import com.altinntech.clicksave.core.dto.FieldDataCache;
+import com.altinntech.clicksave.core.mapper.MapperSupport;
+import com.altinntech.clicksave.enums.FieldType;
+import com.altinntech.clicksave.interfaces.EnumId;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * The {@code CompositeValues} class converts the values of {@link FieldType#ARRAY}, {@link FieldType#MAP},
+ * {@link FieldType#TUPLE} and {@link FieldType#NESTED} fields.
+ *
+ * <p>The values are written as {@link ClickHouseLiteral} in the ClickHouse text form, the elements are converted
+ * by their column type the same way as scalar fields: date times to epoch seconds, booleans of {@code UInt8}
+ * columns to {@code 1} and {@code 0}. They are read from the text of the column, the elements are converted to
+ * the Java types of the field generics or to the default Java type of the column type.</p>
+ *
+ * @author Fyodor Plotnikov
+ */
+public final class CompositeValues {
+
+    private CompositeValues() {
+    }
+
+    /**
+     * Resolves the converter of the field value to the insert column value.
+     *
+     * @param fieldData the array, map or tuple field data
+     * @return the write converter
+     */
+    public static WriteConverter writerOf(FieldDataCache fieldData) {
+        FieldType[] elementTypes = fieldData.getColumnAnnotation().orElseThrow().elementTypes();
+        return switch (fieldData.getFieldType()) {
+            case ARRAY -> value -> value == null ? null : literal(out -> writeArray(elements(value), elementTypes[0], out));
+            case MAP -> value -> value == null ? null : literal(out -> writeMap((Map<?, ?>) value, elementTypes[0], elementTypes[1], out));
+            case TUPLE -> value -> value == null ? null : literal(out -> writeTuple(elements(value), elementTypes, out));
+            default -> throw new IllegalArgumentException("Not a composite field: " + fieldData.getFieldName());
+        };
+    }
+
+    /**
+     * Resolves the converter of values read from a result set to the field.
+     *
+     * @param fieldData the array, map or tuple field data
+     * @return the read converter
+     */
+    public static ReadConverter readerOf(FieldDataCache fieldData) {
+        FieldType[] elementTypes = fieldData.getColumnAnnotation().orElseThrow().elementTypes();
+        Class<?> type = fieldData.getType();
+        Type genericType = fieldData.getField() != null ? fieldData.getField().getGenericType() : type;
+        switch (fieldData.getFieldType()) {
+            case ARRAY -> {
+                if (type.isArray()) {
+                    Class<?> componentType = type.getComponentType();
+                    ReadConverter element = elementReader(elementTypes[0], componentType);
+                    return value -> value == null ? null : toArray(elements(parsed(value)), element, componentType);
+                }
+                ReadConverter element = elementReader(elementTypes[0], typeArgument(genericType, 0, elementTypes[0]));
+                boolean set = Set.class.isAssignableFrom(type);
+                return value -> value == null ? null : toCollection(elements(parsed(value)), element,
+                        set ? new LinkedHashSet<>() : new ArrayList<>());
+            }
+            case MAP -> {
+                ReadConverter key = elementReader(elementTypes[0], typeArgument(genericType, 0, elementTypes[0]));
+                ReadConverter element = elementReader(elementTypes[1], typeArgument(genericType, 1, elementTypes[1]));
+                return value -> value == null ? null : toMap((Map<?, ?>) parsed(value), key, element);
+            }
+            case TUPLE -> {
+                ReadConverter[] elements = new ReadConverter[elementTypes.length];
+                for (int i = 0; i < elementTypes.length; i++) {
+                    elements[i] = elementReader(elementTypes[i], defaultType(elementTypes[i]));
+                }
+                boolean array = type.isArray();
+                return value -> {
+                    if (value == null) {
+                        return null;
+                    }
+                    List<Object> tuple = toCollection(elements(parsed(value)), elements);
+                    return array ? tuple.toArray() : tuple;
+                };
+            }
+            default -> throw new IllegalArgumentException("Not a composite field: " + fieldData.getFieldName());
+        }
+    }
+
+    /**
+     * Resolves the converter of a nested field value to the array of one of its columns.
+     *
+     * @param column the field data of the nested column, a field of the element class
+     * @return the write converter of the list of elements
+     */
+    public static WriteConverter nestedWriterOf(FieldDataCache column) {
+        FieldAccessor accessor = column.getAccessor();
+        WriteConverter converter = column.getWriteConverter();
+        FieldType fieldType = column.getFieldType();
+        boolean nullable = column.isNullable();
+        return value -> literal(out -> {
+            out.append('[');
+            if (value != null) {
+                boolean first = true;
+                for (Object element : (Collection<?>) value) {
+                    if (!first) {
+                        out.append(',');
+                    }
+                    first = false;
+                    Object columnValue = element == null ? null : converter.write(accessor.get(element));
+                    if (columnValue == null && nullable) {
+                        out.append("NULL");
+                    } else {
+                        writeElement(columnValue, fieldType, out);
+                    }
+                }
+            }
+            out.append(']');
+        });
+    }
+
+    /**
+     * Parses the array of a nested column read from a result set. The elements are left for the read converter
+     * of the nested column.
+     *
+     * @param value the column value
+     * @return the elements
+     */
+    public static List<Object> nestedElements(Object value) {
+        return value == null ? List.of() : new ArrayList<>(elements(parsed(value)));
+    }
+
+    /**
+     * Returns the Java type an element of the column type is read to when the field declares none.
+     *
+     * @param fieldType the element column type
+     * @return the Java type
+     */
+    public static Class<?> defaultType(FieldType fieldType) {
+        return switch (fieldType) {
+            case INT, UINT16 -> Integer.class;
+            case UINT, LONG -> Long.class;
+            case BIG_INT, ULONG -> BigInteger.class;
+            case FLOAT -> Float.class;
+            case DOUBLE -> Double.class;
+            case BIG_DECIMAL, LONG_BIG_DECIMAL -> BigDecimal.class;
+            case UUID -> UUID.class;
+            case DATE_TIME, DATE_TIME6, DATE -> LocalDateTime.class;
+            case BOOL, BOOL8 -> Boolean.class;
+            default -> String.class;
+        };
+    }
+
+    private static ClickHouseLiteral literal(Consumer<StringBuilder> writer) {
+        StringBuilder out = new StringBuilder();
+        writer.accept(out);
+        return new ClickHouseLiteral(out.toString());
+    }
+
+    private static void writeArray(Collection<?> values, FieldType elementType, StringBuilder out) {
+        out.append('[');
+        boolean first = true;
+        for (Object value : values) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            writeElement(value, elementType, out);
+        }
+        out.append(']');
+    }
+
+    private static void writeMap(Map<?, ?> values, FieldType keyType, FieldType valueType, StringBuilder out) {
+        out.append('{');
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : values.entrySet()) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            writeElement(entry.getKey(), keyType, out);
+            out.append(':');
+            writeElement(entry.getValue(), valueType, out);
+        }
+        out.append('}');
+    }
+
+    private static void writeTuple(Collection<?> values, FieldType[] elementTypes, StringBuilder out) {
+        if (values.size() != elementTypes.length) {
+            throw new IllegalArgumentException("Tuple of " + elementTypes.length + " elements expected, got " + values.size());
+        }
+        out.append('(');
+        int i = 0;
+        for (Object value : values) {
+            if (i > 0) {
+                out.append(',');
+            }
+            writeElement(value, elementTypes[i++], out);
+        }
+        out.append(')');
+    }
+
+    private static void writeElement(Object value, FieldType fieldType, StringBuilder out) {
+        if (value == null) {
+            // elements are not nullable, null is written as the default value of the type
+            out.append(switch (fieldType) {
+                case BOOL -> "false";
+                case UUID -> "'00000000-0000-0000-0000-000000000000'";
+                case STRING, JSON -> "''";
+                default -> "0";
+            });
+            return;
+        }
+        if (value instanceof Enum<?> constant) {
+            if (!isNumeric(fieldType)) {
+                quote(constant.name(), out);
+            } else if (constant instanceof EnumId enumId && (fieldType == FieldType.LONG || fieldType == FieldType.ULONG)) {
+                out.append(enumId.getId());
+            } else {
+                out.append(constant.ordinal());
+            }
+            return;
+        }
+        switch (fieldType) {
+            case DATE_TIME, DATE_TIME6 -> {
+                if (value instanceof LocalDateTime dateTime) {
+                    out.append(TemporalValues.toEpoch(dateTime, TemporalValues.precisionOf(fieldType)).toPlainString());
+                    return;
+                }
+            }
+            case DATE -> {
+                if (value instanceof LocalDateTime dateTime) {
+                    out.append(TemporalValues.toEpochTicks(dateTime, TemporalValues.getZone(), 0));
+                    return;
+                }
+                if (value instanceof LocalDate date) {
+                    out.append(TemporalValues.toEpochTicks(date.atStartOfDay(), TemporalValues.getZone(), 0));
+                    return;
+                }
+            }
+            case BOOL8 -> {
+                if (value instanceof Boolean flag) {
+                    out.append(flag ? '1' : '0');
+                    return;
+                }
+            }
+            default -> {
+            }
+        }
+        if (value instanceof BigDecimal decimal) {
+            out.append(decimal.toPlainString());
+        } else if (value instanceof Number || value instanceof Boolean) {
+            out.append(value);
+        } else {
+            quote(value.toString(), out);
+        }
+    }
+
+    private static void quote(String value, StringBuilder out) {
+        out.append('\'');
+        for (int i = 0; i < value.length(); i++) {
+            char next = value.charAt(i);
+            switch (next) {
+                case '\\' -> out.append("\\\\");
+                case '\'' -> out.append("\\'");
+                case '\n' -> out.append("\\n");
+                case '\t' -> out.append("\\t");
+                case '\r' -> out.append("\\r");
+                case '\0' -> out.append("\\0");
+                default -> out.append(next);
+            }
+        }
+        out.append('\'');
+    }
+
+    private static boolean isNumeric(FieldType fieldType) {
+        return switch (fieldType) {
+            case INT, UINT, BIG_INT, LONG, ULONG, FLOAT, DOUBLE, UINT16, BIG_DECIMAL, LONG_BIG_DECIMAL, BOOL8 -> true;
+            default -> false;
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ReadConverter elementReader(FieldType fieldType, Class<?> type) {
+        if (type.isEnum()) {
+            EnumIndex<?> index = EnumIndex.of((Class) type);
+            boolean byId = EnumId.class.isAssignableFrom(type) && (fieldType == FieldType.LONG || fieldType == FieldType.ULONG);
+            return value -> {
+                if (value == null || value instanceof String) {
+                    return value == null ? null : index.byNameOrId((String) value);
+                }
+                long number = ((Number) value).longValue();
+                return byId ? index.byId(number) : index.byOrdinal((int) number);
+            };
+        }
+        if (fieldType == FieldType.BOOL || fieldType == FieldType.BOOL8) {
+            return MapperSupport::asBoolean;
+        }
+        if (type == LocalDateTime.class) {
+            return MapperSupport::asLocalDateTime;
+        }
+        if (type == LocalDate.class) {
+            return MapperSupport::asLocalDate;
+        }
+        if (type == UUID.class) {
+            return value -> value == null || value instanceof UUID ? value : UUID.fromString(value.toString());
+        }
+        return FieldConverters.readerOf(type);
+    }
+
+    private static Class<?> typeArgument(Type genericType, int index, FieldType fieldType) {
+        if (genericType instanceof ParameterizedType parameterized && parameterized.getActualTypeArguments().length > index) {
+            Type argument = parameterized.getActualTypeArguments()[index];
+            if (argument instanceof ParameterizedType parameterizedArgument) {
+                argument = parameterizedArgument.getRawType();
+            }
+            if (argument instanceof Class<?> type && type != Object.class) {
+                return type;
+            }
+        }
+        return defaultType(fieldType);
+    }
+
+    private static Object parsed(Object value) {
+        if (value instanceof String || value instanceof ClickHouseLiteral) {
+            return ClickHouseText.parse(value.toString());
+        }
+        if (value instanceof java.sql.Array array) {
+            try {
+                return array.getArray();
+            } catch (SQLException e) {
+                throw new IllegalArgumentException("Failed to read array value", e);
+            }
+        }
+        return value;
+    }
+
+    private static Collection<?> elements(Object value) {
+        if (value instanceof Collection<?> collection) {
+            return collection;
+        }
+        if (value != null && value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            List<Object> elements = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                elements.add(Array.get(value, i));
+            }
+            return elements;
+        }
+        throw new IllegalArgumentException("Array, collection or tuple expected, got: " + value);
+    }
+
+    private static <C extends Collection<Object>> C toCollection(Collection<?> values, ReadConverter element, C result) {
+        for (Object value : values) {
+            result.add(element.read(value));
+        }
+        return result;
+    }
+
+    private static List<Object> toCollection(Collection<?> values, ReadConverter[] elements) {
+        if (values.size() != elements.length) {
+            throw new IllegalArgumentException("Tuple of " + elements.length + " elements expected, got " + values.size());
+        }
+        List<Object> result = new ArrayList<>(elements.length);
+        int i = 0;
+        for (Object value : values) {
+            result.add(elements[i++].read(value));
+        }
+        return result;
+    }
+
+    private static Object toArray(Collection<?> values, ReadConverter element, Class<?> componentType) {
+        Object result = Array.newInstance(componentType, values.size());
+        int i = 0;
+        for (Object value : values) {
+            Array.set(result, i++, element.read(value));
+        }
+        return result;
+    }
+
+    private static Map<Object, Object> toMap(Map<?, ?> values, ReadConverter key, ReadConverter element) {
+        Map<Object, Object> result = new LinkedHashMap<>(values.size() * 2);
+        for (Map.Entry<?, ?> entry : values.entrySet()) {
+            result.put(key.read(entry.getKey()), element.read(entry.getValue()));
+        }
+        return result;
+    }
+}
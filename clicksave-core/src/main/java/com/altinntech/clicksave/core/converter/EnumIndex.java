@@ -0,0 +1,118 @@
+package com.altinntech.clicksave.core.converter;
+
+import com.altinntech.clicksave.interfaces.EnumId;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@code EnumIndex} class resolves the constants of an enum by name, ordinal or {@link EnumId} id in constant time.
+ * The index of an enum class is built on the first use and shared.
+ *
+ * @param <E> the enum type
+ * @author Fyodor Plotnikov
+ */
+public final class EnumIndex<E extends Enum<E>> {
+
+    private static final ClassValue<EnumIndex<?>> INDEXES = new ClassValue<>() {
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        protected EnumIndex<?> computeValue(Class<?> type) {
+            return new EnumIndex(type);
+        }
+    };
+
+    private final Class<E> enumType;
+    private final E[] constants;
+    private final Map<String, E> byName;
+    private final Map<Long, E> byId;
+
+    private EnumIndex(Class<E> enumType) {
+        this.enumType = enumType;
+        this.constants = enumType.getEnumConstants();
+        this.byName = new HashMap<>(constants.length * 2);
+        this.byId = EnumId.class.isAssignableFrom(enumType) ? new HashMap<>(constants.length * 2) : null;
+        for (E constant : constants) {
+            byName.put(constant.name(), constant);
+            if (byId != null) {
+                // the first constant wins, as with the linear lookup
+                byId.putIfAbsent(((EnumId) constant).getId(), constant);
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the enum class.
+     *
+     * @param <E>      the enum type
+     * @param enumType the enum class
+     * @return the index
+     */
+    @SuppressWarnings("unchecked")
+    public static <E extends Enum<E>> EnumIndex<E> of(Class<E> enumType) {
+        return (EnumIndex<E>) INDEXES.get(enumType);
+    }
+
+    public Class<E> getEnumType() {
+        return enumType;
+    }
+
+    /**
+     * Returns the constant with the name.
+     *
+     * @param name the constant name
+     * @return the constant
+     * @throws IllegalArgumentException if the enum has no constant with the name
+     */
+    public E byName(String name) {
+        E constant = byName.get(name);
+        if (constant == null) {
+            throw new IllegalArgumentException("No enum constant " + enumType.getCanonicalName() + "." + name);
+        }
+        return constant;
+    }
+
+    /**
+     * Returns the constant with the ordinal.
+     *
+     * @param ordinal the ordinal
+     * @return the constant
+     * @throws IllegalArgumentException if the ordinal is out of range
+     */
+    public E byOrdinal(int ordinal) {
+        if (ordinal < 0 || ordinal >= constants.length) {
+            throw new IllegalArgumentException("Invalid ordinal value for enum: " + ordinal);
+        }
+        return constants[ordinal];
+    }
+
+    /**
+     * Returns the constant with the id.
+     *
+     * @param id the id
+     * @return the constant
+     * @throws IllegalArgumentException if the enum has no constant with the id or doesn't implement {@link EnumId}
+     */
+    public E byId(Long id) {
+        E constant = byId != null ? byId.get(id) : null;
+        if (constant == null) {
+            throw new IllegalArgumentException("No enum constant with id: " + id);
+        }
+        return constant;
+    }
+
+    /**
+     * Returns the constant with the name, or with the id if the value is not a constant name.
+     *
+     * @param value the constant name or id
+     * @return the constant
+     * @throws IllegalArgumentException if no constant matches the value
+     */
+    public E byNameOrId(String value) {
+        E constant = byName.get(value);
+        if (constant != null) {
+            return constant;
+        }
+        return byId(Long.parseLong(value));
+    }
+}
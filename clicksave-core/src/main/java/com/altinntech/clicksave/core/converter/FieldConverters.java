@@ -0,0 +1,159 @@
+package com.altinntech.clicksave.core.converter;
+
+import com.altinntech.clicksave.annotations.EnumColumn;
+import com.altinntech.clicksave.core.CSUtils;
+import com.altinntech.clicksave.core.dto.FieldDataCache;
+import com.altinntech.clicksave.core.mapper.MapperSupport;
+import com.altinntech.clicksave.enums.EnumType;
+import com.altinntech.clicksave.enums.FieldType;
+import com.altinntech.clicksave.interfaces.EnumId;
+
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+
+/**
+ * The {@code FieldConverters} class resolves the read and write converters of a field once, from its column type,
+ * Java type and enum mode, so that converting a cell is a single call instead of a chain of type checks.
+ *
+ * <p>The read converters keep the conversions of the former per-cell checks, in the same precedence:
+ * lob, boolean, date time, date, enum and finally the Java type of the field. Array, map and tuple fields
+ * are converted by {@link CompositeValues}.</p>
+ *
+ * @author Fyodor Plotnikov
+ */
+public final class FieldConverters {
+
+    private static final ReadConverter IDENTITY_READER = value -> value;
+    private static final WriteConverter IDENTITY_WRITER = value -> value;
+
+    private FieldConverters() {
+    }
+
+    /**
+     * Resolves the converter of values read from a result set to the field.
+     *
+     * @param fieldData the field data
+     * @return the read converter
+     */
+    public static ReadConverter readerOf(FieldDataCache fieldData) {
+        Class<?> type = fieldData.getType();
+        FieldType fieldType = fieldData.getFieldType();
+        if (fieldType != null && fieldType.isComposite() && fieldType != FieldType.NESTED) {
+            return CompositeValues.readerOf(fieldData);
+        }
+        if (fieldData.getLobAnnotation().isPresent()) {
+            Type genericType = fieldData.getField() != null ? fieldData.getField().getGenericType() : type;
+            return value -> MapperSupport.fromJson(value, genericType);
+        }
+        if (fieldType == FieldType.BOOL || fieldType == FieldType.BOOL8) {
+            return MapperSupport::asBoolean;
+        }
+        if (fieldType == FieldType.DATE_TIME || fieldType == FieldType.DATE_TIME6) {
+            return MapperSupport::asLocalDateTime;
+        }
+        if (fieldType == FieldType.DATE) {
+            return MapperSupport::asLocalDate;
+        }
+        if (type.isEnum()) {
+            return enumReader(fieldData, type);
+        }
+        return readerOf(type);
+    }
+
+    /**
+     * Resolves the converter of values read from a result set to a field of the Java type.
+     *
+     * @param type the field type
+     * @return the read converter
+     */
+    public static ReadConverter readerOf(Class<?> type) {
+        if (type == Object.class) {
+            return IDENTITY_READER;
+        }
+        if (type == Integer.class || type == Integer.TYPE) {
+            return value -> value instanceof Integer || value == null ? value
+                    : isIntegral(value) && isInt(((Number) value).longValue()) ? (Object) ((Number) value).intValue() : CSUtils.convertValueToType(value, type);
+        }
+        if (type == Long.class || type == Long.TYPE) {
+            return value -> value instanceof Long || value == null ? value
+                    : isIntegral(value) ? (Object) ((Number) value).longValue() : CSUtils.convertValueToType(value, type);
+        }
+        if (type == Double.class || type == Double.TYPE) {
+            return value -> value instanceof Double || value == null ? value
+                    : isIntegral(value) ? (Object) ((Number) value).doubleValue() : CSUtils.convertValueToType(value, type);
+        }
+        Class<?> boxed = boxed(type);
+        return value -> value == null || boxed.isInstance(value) ? value : CSUtils.convertValueToType(value, type);
+    }
+
+    /**
+     * Resolves the converter of the field value to the insert column value.
+     *
+     * @param fieldData the field data
+     * @return the write converter
+     */
+    public static WriteConverter writerOf(FieldDataCache fieldData) {
+        FieldType fieldType = fieldData.getFieldType();
+        if (fieldType != null && fieldType.isComposite() && fieldType != FieldType.NESTED) {
+            return CompositeValues.writerOf(fieldData);
+        }
+        if (fieldData.isLob()) {
+            return MapperSupport::toJson;
+        }
+        if (fieldType == FieldType.DATE_TIME || fieldType == FieldType.DATE_TIME6) {
+            int precision = TemporalValues.precisionOf(fieldType);
+            return value -> TemporalValues.toEpoch((LocalDateTime) value, precision);
+        }
+        if (fieldData.isEnum()) {
+            return switch (enumMode(fieldData)) {
+                case ORDINAL -> value -> value != null ? ((Enum<?>) value).ordinal() : null;
+                case BY_ID -> value -> value != null ? ((EnumId) value).getId() : null;
+                default -> value -> value != null ? value.toString() : null;
+            };
+        }
+        return IDENTITY_WRITER;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ReadConverter enumReader(FieldDataCache fieldData, Class<?> type) {
+        EnumIndex<?> index = EnumIndex.of((Class) type);
+        boolean byId = EnumId.class.isAssignableFrom(type) && enumMode(fieldData) == EnumType.BY_ID;
+        ReadConverter fallback = readerOf(type);
+        return value -> {
+            if (value instanceof String) {
+                return index.byNameOrId((String) value);
+            }
+            if (byId && value instanceof Long) {
+                return index.byId((Long) value);
+            }
+            if (value instanceof Integer || value instanceof Long || value instanceof Short) {
+                return index.byOrdinal(((Number) value).intValue());
+            }
+            return fallback.read(value);
+        };
+    }
+
+    private static EnumType enumMode(FieldDataCache fieldData) {
+        return fieldData.getEnumColumnAnnotation().map(EnumColumn::value).orElse(EnumType.STRING);
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+    }
+
+    private static boolean isInt(long value) {
+        return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+    }
+
+    private static Class<?> boxed(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        if (type == Boolean.TYPE) return Boolean.class;
+        if (type == Character.TYPE) return Character.class;
+        if (type == Byte.TYPE) return Byte.class;
+        if (type == Short.TYPE) return Short.class;
+        if (type == Float.TYPE) return Float.class;
+        return type;
+    }
+}
@@ -0,0 +1,18 @@
+package com.altinntech.clicksave.core.converter;
+
+/**
+ * Converts a value read from a result set to the value of an entity field.
+ *
+ * @author Fyodor Plotnikov
+ */
+@FunctionalInterface
+public interface ReadConverter {
+
+    /**
+     * Converts the value.
+     *
+     * @param value the value returned by the driver, may be {@code null}
+     * @return the field value
+     */
+    Object read(Object value);
+}
@@ -0,0 +1,205 @@
+package com.altinntech.clicksave.core.converter;
+
+import com.altinntech.clicksave.enums.FieldType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.time.zone.ZoneRules;
+
+/**
+ * The {@code TemporalValues} class converts date time fields to and from epoch based values.
+ *
+ * <p>{@code DateTime64} columns are bound as the decimal number of seconds since the epoch with the precision
+ * of the column, for example {@code 1700000000.123456789} for {@link FieldType#DATE_TIME}. ClickHouse reads such
+ * a value as a unix timestamp both from the text of a JDBC insert and as a literal, and the RowBinary insert writes
+ * its unscaled value as is. The local date time of the field is resolved in the server time zone, the same zone
+ * ClickHouse used to read the formatted strings bound before.</p>
+ *
+ * <p>Values read as text are parsed field by field, without a formatter and without exceptions
+ * for the optional fraction.</p>
+ *
+ * @author Fyodor Plotnikov
+ */
+public final class TemporalValues {
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    private static volatile ZoneId zone = ZoneId.systemDefault();
+    private static ZoneId resolvedZone;
+
+    private TemporalValues() {
+    }
+
+    /**
+     * Sets the server time zone of the connection as the zone the local date times are resolved in.
+     * The zone is shared by all bootstraps, so only the first resolved zone is set, a later one is ignored.
+     *
+     * @param zoneId the server time zone
+     * @return the zone the local date times are resolved in, differs from the argument if another zone was resolved before
+     */
+    public static synchronized ZoneId resolveZone(ZoneId zoneId) {
+        if (resolvedZone == null) {
+            resolvedZone = zoneId;
+            zone = zoneId;
+        }
+        return resolvedZone;
+    }
+
+    /**
+     * Replaces the time zone the local date times are resolved in, regardless of the resolved server time zone.
+     *
+     * @param zoneId the time zone
+     */
+    public static void setZone(ZoneId zoneId) {
+        zone = zoneId;
+    }
+
+    public static ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * Returns the number of fraction digits of the date time column type.
+     *
+     * @param fieldType the column type
+     * @return the precision, {@code 0} for {@code DateTime}
+     */
+    public static int precisionOf(FieldType fieldType) {
+        return switch (fieldType) {
+            case DATE_TIME -> 9;
+            case DATE_TIME6 -> 6;
+            default -> 0;
+        };
+    }
+
+    /**
+     * Converts the local date time to the epoch seconds with the precision.
+     *
+     * @param value     the local date time
+     * @param precision the number of fraction digits
+     * @return the epoch seconds or {@code null} for {@code null}
+     */
+    public static BigDecimal toEpoch(LocalDateTime value, int precision) {
+        if (value == null) {
+            return null;
+        }
+        return BigDecimal.valueOf(toEpochTicks(value, zone, precision), precision);
+    }
+
+    /**
+     * Returns the current time as the epoch seconds with the precision.
+     *
+     * @param precision the number of fraction digits
+     * @return the epoch seconds
+     */
+    public static BigDecimal now(int precision) {
+        Instant now = Instant.now();
+        return BigDecimal.valueOf(now.getEpochSecond() * POWERS_OF_TEN[precision]
+                + now.getNano() / POWERS_OF_TEN[9 - precision], precision);
+    }
+
+    /**
+     * Converts the local date time to the number of {@code 10^-precision} second ticks since the epoch.
+     *
+     * @param value     the local date time
+     * @param zoneId    the time zone the local date time is resolved in
+     * @param precision the number of fraction digits
+     * @return the ticks
+     */
+    public static long toEpochTicks(LocalDateTime value, ZoneId zoneId, int precision) {
+        ZoneRules rules = zoneId.getRules();
+        ZoneOffset offset = rules.isFixedOffset() ? rules.getOffset(Instant.EPOCH) : rules.getOffset(value);
+        return value.toEpochSecond(offset) * POWERS_OF_TEN[precision] + value.getNano() / POWERS_OF_TEN[9 - precision];
+    }
+
+    /**
+     * Converts the epoch based value to the ticks with the precision. Epoch seconds are expected from decimals,
+     * the ticks themselves from integers.
+     *
+     * @param value     the epoch value
+     * @param precision the number of fraction digits
+     * @return the ticks
+     */
+    public static long toEpochTicks(Number value, int precision) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal.scale() == precision
+                    ? decimal.unscaledValue().longValueExact()
+                    : decimal.movePointRight(precision).longValue();
+        }
+        return value.longValue();
+    }
+
+    /**
+     * Converts the epoch seconds to the local date time in the server time zone.
+     *
+     * @param value the epoch seconds
+     * @return the local date time
+     */
+    public static LocalDateTime fromEpoch(BigDecimal value) {
+        long seconds = value.longValue();
+        int nanos = value.subtract(BigDecimal.valueOf(seconds)).movePointRight(9).intValue();
+        if (nanos < 0) {
+            seconds--;
+            nanos += 1_000_000_000;
+        }
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(seconds, nanos), zone);
+    }
+
+    /**
+     * Parses the text of a date time column, {@code yyyy-MM-dd HH:mm:ss} with an optional fraction of up to nine
+     * digits, or a date {@code yyyy-MM-dd}.
+     *
+     * @param text the text
+     * @return the local date time
+     * @throws DateTimeParseException if the text is not a date time
+     */
+    public static LocalDateTime parse(CharSequence text) {
+        int length = text.length();
+        if (length != 10 && length < 19) {
+            throw new DateTimeParseException("Text '" + text + "' is not a date time", text, 0);
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        if (text.charAt(4) != '-' || text.charAt(7) != '-') {
+            throw new DateTimeParseException("Text '" + text + "' is not a date time", text, 4);
+        }
+        if (length == 10) {
+            return LocalDateTime.of(year, month, day, 0, 0);
+        }
+        char separator = text.charAt(10);
+        if ((separator != ' ' && separator != 'T') || text.charAt(13) != ':' || text.charAt(16) != ':') {
+            throw new DateTimeParseException("Text '" + text + "' is not a date time", text, 10);
+        }
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = digits(text, 17, 2);
+        int nanos = 0;
+        if (length > 19) {
+            int fractionDigits = length - 20;
+            if (text.charAt(19) != '.' || fractionDigits < 1 || fractionDigits > 9) {
+                throw new DateTimeParseException("Text '" + text + "' is not a date time", text, 19);
+            }
+            nanos = digits(text, 20, fractionDigits) * (int) POWERS_OF_TEN[9 - fractionDigits];
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second, nanos);
+    }
+
+    private static int digits(CharSequence text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new DateTimeParseException("Text '" + text + "' is not a date time", text, i);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
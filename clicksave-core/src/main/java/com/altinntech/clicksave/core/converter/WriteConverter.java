@@ -0,0 +1,18 @@
+package com.altinntech.clicksave.core.converter;
+
+/**
+ * Converts the value of an entity field to the value bound to an insert column.
+ *
+ * @author Fyodor Plotnikov
+ */
+@FunctionalInterface
+public interface WriteConverter {
+
+    /**
+     * Converts the value.
+     *
+     * @param value the field value, may be {@code null}
+     * @return the column value
+     */
+    Object write(Object value);
+}
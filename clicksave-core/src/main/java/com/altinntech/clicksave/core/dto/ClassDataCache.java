@@ -1,9 +1,13 @@
 package com.altinntech.clicksave.core.dto;
 
 import com.altinntech.clicksave.annotations.*;
+import com.altinntech.clicksave.core.mapper.EntityMapper;
+import com.altinntech.clicksave.core.pipelines.insert.InsertPlan;
 import com.altinntech.clicksave.enums.EngineType;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.io.Serial;
 import java.io.Serializable;
@@ -39,6 +43,20 @@ public class ClassDataCache implements ClassData, Serializable {
     private SystemTable systemTableAnnotation;
     private RestrictedForUpdate restrictedForUpdateAnnotation;
 
+    /**
+     * The insert statement of the entity, compiled once at bootstrap.
+     */
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient InsertPlan insertPlan;
+
+    /**
+     * The mapper generated for the entity at compile time or {@code null} if the reflective mapping is used.
+     */
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient EntityMapper<?> mapper;
+
     /**
      * Retrieves the optional batching annotation associated with the class.
      *
@@ -11,4 +11,11 @@ public class ColumnData {
 
     String columnName;
     String columnType;
+    String defaultKind;
+    String defaultExpression;
+    String compressionCodec;
+
+    public ColumnData(String columnName, String columnType) {
+        this(columnName, columnType, "", "", "");
+    }
 }
@@ -2,13 +2,20 @@ package com.altinntech.clicksave.core.dto;
 
 import com.altinntech.clicksave.annotations.*;
 import com.altinntech.clicksave.core.CSUtils;
+import com.altinntech.clicksave.core.accessor.FieldAccessor;
+import com.altinntech.clicksave.core.converter.FieldConverters;
+import com.altinntech.clicksave.core.converter.ReadConverter;
+import com.altinntech.clicksave.core.converter.WriteConverter;
 import com.altinntech.clicksave.enums.FieldType;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.io.Serial;
 import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -24,6 +31,9 @@ import java.util.Optional;
  *
  * <p>The {@code fieldInTableName} field represents the field name in the table format.</p>
  *
+ * <p>{@code elementType} and {@code elementFields} describe the element class of a {@code NESTED} field
+ * and its fields, the nested columns.</p>
+ *
  * <p>This class provides methods to retrieve optional annotations for the field.</p>
  *
  * <p>The constructor initializes the FieldDataCache instance with field-related information.</p>
@@ -54,6 +64,20 @@ public class FieldDataCache implements FieldData, Serializable {
     private Lob lobAnnotation;
     private Reference referenceAnnotation;
     private RestrictedForUpdate restrictedForUpdateAnnotation;
+    private Class<?> elementType;
+    private List<FieldDataCache> elementFields;
+
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient FieldAccessor accessor;
+
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient ReadConverter readConverter;
+
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient WriteConverter writeConverter;
 
     /**
      * Retrieves the optional Column annotation associated with the field.
@@ -104,6 +128,74 @@ public class FieldDataCache implements FieldData, Serializable {
         return Optional.ofNullable(restrictedForUpdateAnnotation);
     }
 
+    /**
+     * Retrieves the accessor of the field. It is bound when the field is set, field data created
+     * without a field binds it on the first call.
+     *
+     * @return the field accessor
+     */
+    public FieldAccessor getAccessor() {
+        FieldAccessor fieldAccessor = accessor;
+        if (fieldAccessor == null) {
+            fieldAccessor = FieldAccessor.of(field);
+            accessor = fieldAccessor;
+        }
+        return fieldAccessor;
+    }
+
+    /**
+     * Retrieves the converter of values read from a result set to the field.
+     * It is resolved by {@link #bindConverters()}, field data not bound resolves it on the first call.
+     *
+     * @return the read converter
+     */
+    public ReadConverter getReadConverter() {
+        ReadConverter converter = readConverter;
+        if (converter == null) {
+            converter = FieldConverters.readerOf(this);
+            readConverter = converter;
+        }
+        return converter;
+    }
+
+    /**
+     * Retrieves the converter of the field value to the insert column value.
+     *
+     * @return the write converter
+     */
+    public WriteConverter getWriteConverter() {
+        WriteConverter converter = writeConverter;
+        if (converter == null) {
+            converter = FieldConverters.writerOf(this);
+            writeConverter = converter;
+        }
+        return converter;
+    }
+
+    /**
+     * Resolves the read and write converters from the column type, Java type and annotations of the field.
+     * Must be called after they are set.
+     */
+    public void bindConverters() {
+        readConverter = FieldConverters.readerOf(this);
+        writeConverter = FieldConverters.writerOf(this);
+    }
+
+    /**
+     * Checks if the column is calculated by ClickHouse from its {@code MATERIALIZED} expression.
+     * Such a column is never inserted or updated.
+     *
+     * @return {@code true} if the column is materialized
+     */
+    public boolean isMaterialized() {
+        return columnAnnotation != null && !columnAnnotation.materialized().isEmpty();
+    }
+
+    public void setField(Field field) {
+        this.field = field;
+        this.accessor = field != null ? FieldAccessor.of(field) : null;
+    }
+
     public String getFieldInTableName() {
         if (referenceAnnotation != null) {
             return referenceAnnotation.value();
@@ -118,7 +210,7 @@ public class FieldDataCache implements FieldData, Serializable {
      * @param field the field
      */
     public FieldDataCache(Field field) {
-        this.field = field;
+        setField(field);
         this.fieldName = field.getName();
         this.type = field.getType();
         this.columnAnnotation = field.getAnnotation(Column.class);
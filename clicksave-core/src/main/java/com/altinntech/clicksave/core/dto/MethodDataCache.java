@@ -1,13 +1,22 @@
 package com.altinntech.clicksave.core.dto;
 
+import com.altinntech.clicksave.core.accessor.LifecycleCallback;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
+/**
+ * The {@code MethodDataCache} class holds the lifecycle methods of an entity class
+ * together with their callbacks bound at bootstrap.
+ *
+ * @author Fyodor Plotnikov
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,16 +25,25 @@ public class MethodDataCache {
     Set<Method> prePersistedMethods = new HashSet<>();
     Set<Method> preUpdatedMethods = new HashSet<>();
     Set<Method> postLoadedMethods = new HashSet<>();
+    List<LifecycleCallback> prePersistedCallbacks = new ArrayList<>();
+    List<LifecycleCallback> preUpdatedCallbacks = new ArrayList<>();
+    List<LifecycleCallback> postLoadedCallbacks = new ArrayList<>();
 
     public void addPrePersistedMethod(Method method) {
-        this.prePersistedMethods.add(method);
+        if (this.prePersistedMethods.add(method)) {
+            this.prePersistedCallbacks.add(LifecycleCallback.of(method));
+        }
     }
 
     public void addPreUpdatedMethod(Method method) {
-        this.preUpdatedMethods.add(method);
+        if (this.preUpdatedMethods.add(method)) {
+            this.preUpdatedCallbacks.add(LifecycleCallback.of(method));
+        }
     }
 
     public void addPostLoadedMethod(Method method) {
-        this.postLoadedMethods.add(method);
+        if (this.postLoadedMethods.add(method)) {
+            this.postLoadedCallbacks.add(LifecycleCallback.of(method));
+        }
     }
 }
@@ -0,0 +1,56 @@
+package com.altinntech.clicksave.core.mapper;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code ColumnIndex} class maps the column names of a result set to their indexes.
+ *
+ * @author Fyodor Plotnikov
+ */
+public final class ColumnIndex {
+
+    private final List<String> columnNames;
+    private final Map<String, Integer> indexes;
+
+    private ColumnIndex(List<String> columnNames, Map<String, Integer> indexes) {
+        this.columnNames = columnNames;
+        this.indexes = indexes;
+    }
+
+    public static ColumnIndex of(ResultSet resultSet) throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        String[] columnNames = new String[columnCount];
+        Map<String, Integer> indexes = new HashMap<>(columnCount * 2);
+        for (int i = 1; i <= columnCount; i++) {
+            columnNames[i - 1] = metaData.getColumnName(i);
+            indexes.putIfAbsent(columnNames[i - 1], i);
+        }
+        return new ColumnIndex(List.of(columnNames), indexes);
+    }
+
+    /**
+     * Returns the column names of the result set in their order, the column layout of the query.
+     *
+     * @return the column names
+     */
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    /**
+     * Returns the index of the column.
+     *
+     * @param columnName the column name
+     * @return the 1-based index or {@code 0} if the result set has no such column
+     */
+    public int of(String columnName) {
+        Integer index = indexes.get(columnName);
+        return index == null ? 0 : index;
+    }
+}
@@ -0,0 +1,65 @@
+package com.altinntech.clicksave.core.mapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * The {@code EntityMapper} interface is implemented by the mappers the {@code clicksave-processor} annotation processor
+ * generates for entities at compile time. A mapper reads and writes the entity fields directly,
+ * with the embedded entities flattened inline, so no reflection is involved.
+ *
+ * <p>The mapper of an entity class {@code com.example.Person} is named {@code com.example.Person_ClicksaveMapper}
+ * and is picked up by {@link com.altinntech.clicksave.core.ClassDataCacheService} when it is on the classpath.</p>
+ *
+ * @param <T> the entity type
+ *
+ * @author Fyodor Plotnikov
+ */
+public interface EntityMapper<T> {
+
+    /**
+     * The suffix of the generated mapper class name.
+     */
+    String MAPPER_SUFFIX = "_ClicksaveMapper";
+
+    /**
+     * Returns the insert columns of the entity, in the order of {@link #bind}, when all embedded fields are present.
+     *
+     * @return the column names
+     */
+    List<String> columns();
+
+    /**
+     * Adds the insert values of the entity to the columns. Every embedded field has a bit in the returned mask,
+     * numbered in the order the embedded fields are declared, nested ones right after their parent.
+     * A {@code null} embedded entity sets its bit and adds no values.
+     *
+     * @param entity  the entity
+     * @param columns the list the values are added to
+     * @return the mask of embedded fields that are {@code null}
+     */
+    long bind(T entity, List<Object> columns);
+
+    /**
+     * Creates the entity from the current row of the result set. Columns missing in the result set are skipped.
+     *
+     * @param resultSet the result set
+     * @return the entity
+     * @throws SQLException if a value can't be read
+     */
+    default T read(ResultSet resultSet) throws SQLException {
+        return read(resultSet, ColumnIndex.of(resultSet));
+    }
+
+    /**
+     * Creates the entity from the current row of the result set with the column indexes resolved once per query.
+     * Columns missing in the result set are skipped.
+     *
+     * @param resultSet the result set
+     * @param index     the column indexes of the result set
+     * @return the entity
+     * @throws SQLException if a value can't be read
+     */
+    T read(ResultSet resultSet, ColumnIndex index) throws SQLException;
+}
@@ -0,0 +1,45 @@
+package com.altinntech.clicksave.core.mapper;
+
+import com.altinntech.clicksave.core.accessor.EntityInstantiator;
+
+import java.lang.reflect.InvocationTargetException;
+
+import static com.altinntech.clicksave.log.CSLogger.debug;
+import static com.altinntech.clicksave.log.CSLogger.warn;
+
+/**
+ * The {@code EntityMappers} class looks up the mappers generated for entity classes.
+ *
+ * @author Fyodor Plotnikov
+ */
+public final class EntityMappers {
+
+    private EntityMappers() {
+    }
+
+    /**
+     * Finds the generated mapper of the entity class.
+     *
+     * @param entityClass the entity class
+     * @return the mapper or {@code null} if no mapper was generated for the class
+     */
+    public static EntityMapper<?> find(Class<?> entityClass) {
+        Class<?> mapperClass;
+        try {
+            mapperClass = Class.forName(entityClass.getName() + EntityMapper.MAPPER_SUFFIX, true, entityClass.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+        if (!EntityMapper.class.isAssignableFrom(mapperClass)) {
+            return null;
+        }
+        try {
+            EntityMapper<?> mapper = EntityInstantiator.of(mapperClass).newInstance();
+            debug("Found generated mapper of entity: " + entityClass);
+            return mapper;
+        } catch (NoSuchMethodException | InvocationTargetException e) {
+            warn("Generated mapper " + mapperClass.getName() + " can't be instantiated, reflection is used: " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.altinntech.clicksave.core.mapper;
+
+import com.altinntech.clicksave.core.CSUtils;
+import com.altinntech.clicksave.core.converter.EnumIndex;
+import com.altinntech.clicksave.core.converter.FieldConverters;
+import com.altinntech.clicksave.core.converter.ReadConverter;
+import com.altinntech.clicksave.core.converter.TemporalValues;
+import com.altinntech.clicksave.core.converter.WriteConverter;
+import com.altinntech.clicksave.core.dto.FieldDataCache;
+import com.altinntech.clicksave.core.utils.gson.GsonProvider;
+import com.altinntech.clicksave.interfaces.EnumId;
+
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * The {@code MapperSupport} class holds the value conversions used by generated entity mappers.
+ * They follow the conversions of the reflective mapping in {@link FieldConverters}.
+ *
+ * @author Fyodor Plotnikov
+ */
+public final class MapperSupport {
+
+    private MapperSupport() {
+    }
+
+    public static BigDecimal epochDateTime(LocalDateTime value) {
+        return TemporalValues.toEpoch(value, 9);
+    }
+
+    public static BigDecimal epochDateTime6(LocalDateTime value) {
+        return TemporalValues.toEpoch(value, 6);
+    }
+
+    public static String toJson(Object value) {
+        return GsonProvider.gson().toJson(value);
+    }
+
+    public static <T> T fromJson(Object value, Type type) {
+        return GsonProvider.gson().fromJson((String) value, type);
+    }
+
+    /**
+     * Resolves the generic type of a field once, when the mapper class is initialized.
+     *
+     * @param owner     the class declaring the field
+     * @param fieldName the field name
+     * @return the generic type of the field
+     */
+    public static Type genericType(Class<?> owner, String fieldName) {
+        try {
+            return owner.getDeclaredField(fieldName).getGenericType();
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException("Generated mapper is out of date, field not found: " + owner.getName() + "." + fieldName, e);
+        }
+    }
+
+    /**
+     * Resolves the write converter of an array, map or tuple field once, when the mapper class is initialized.
+     *
+     * @param owner     the class declaring the field
+     * @param fieldName the field name
+     * @return the write converter of the field
+     */
+    public static WriteConverter writer(Class<?> owner, String fieldName) {
+        return fieldData(owner, fieldName).getWriteConverter();
+    }
+
+    /**
+     * Resolves the read converter of an array, map or tuple field once, when the mapper class is initialized.
+     *
+     * @param owner     the class declaring the field
+     * @param fieldName the field name
+     * @return the read converter of the field
+     */
+    public static ReadConverter reader(Class<?> owner, String fieldName) {
+        return fieldData(owner, fieldName).getReadConverter();
+    }
+
+    private static FieldDataCache fieldData(Class<?> owner, String fieldName) {
+        for (FieldDataCache fieldData : CSUtils.getFieldsData(owner).getFields()) {
+            if (fieldData.getFieldName().equals(fieldName)) {
+                return fieldData;
+            }
+        }
+        throw new IllegalStateException("Generated mapper is out of date, field not found: " + owner.getName() + "." + fieldName);
+    }
+
+    /**
+     * Converts the value to the type of the field.
+     *
+     * @param <T>   the type parameter
+     * @param value the value read from the result set
+     * @param type  the field type, boxed for primitive fields
+     * @return the converted value
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T convert(Object value, Class<T> type) {
+        if (value == null || type.isInstance(value)) {
+            return (T) value;
+        }
+        return (T) CSUtils.convertValueToType(value, type);
+    }
+
+    public static Boolean asBoolean(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof String) {
+            return Boolean.parseBoolean((String) value);
+        }
+        if (value instanceof Number) {
+            return ((Number) value).intValue() == 1;
+        }
+        return (Boolean) value;
+    }
+
+    public static LocalDateTime asLocalDateTime(Object value) {
+        if (value instanceof Date) {
+            return ((Date) value).toLocalDate().atStartOfDay();
+        }
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime();
+        }
+        if (value instanceof String) {
+            String text = (String) value;
+            return isEpoch(text) ? TemporalValues.fromEpoch(new BigDecimal(text)) : TemporalValues.parse(text);
+        }
+        if (value instanceof BigDecimal) {
+            return TemporalValues.fromEpoch((BigDecimal) value);
+        }
+        if (value instanceof Long) {
+            return TemporalValues.fromEpoch(BigDecimal.valueOf((Long) value));
+        }
+        return (LocalDateTime) value;
+    }
+
+    public static LocalDate asLocalDate(Object value) {
+        if (value instanceof Date) {
+            return ((Date) value).toLocalDate();
+        }
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime().toLocalDate();
+        }
+        if (value instanceof String || value instanceof Long) {
+            return asLocalDateTime(value).toLocalDate();
+        }
+        return (LocalDate) value;
+    }
+
+    /**
+     * Checks if the text is an epoch number. The date times are written so into composite literals
+     * and are read back like that from the rows of pending batches.
+     */
+    private static boolean isEpoch(String text) {
+        if (text.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char next = text.charAt(i);
+            if ((next < '0' || next > '9') && next != '.' && (next != '-' || i > 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Converts the value to the enum constant. Strings are resolved by name or id, integers by ordinal,
+     * longs by the id of {@link EnumId} enums.
+     *
+     * @param <E>      the enum type
+     * @param value    the value read from the result set
+     * @param enumType the enum class
+     * @return the enum constant
+     */
+    @SuppressWarnings("unchecked")
+    public static <E extends Enum<E>> E asEnum(Object value, Class<E> enumType) {
+        if (value == null || enumType.isInstance(value)) {
+            return (E) value;
+        }
+        EnumIndex<E> index = EnumIndex.of(enumType);
+        if (value instanceof String) {
+            return index.byNameOrId((String) value);
+        }
+        if (value instanceof Long && EnumId.class.isAssignableFrom(enumType)) {
+            return index.byId((Long) value);
+        }
+        if (value instanceof Integer) {
+            return index.byOrdinal((Integer) value);
+        }
+        return convert(value, enumType);
+    }
+}
@@ -0,0 +1,294 @@
+package com.altinntech.clicksave.core.pipelines.insert;
+
+import com.altinntech.clicksave.core.ClassDataCacheService;
+import com.altinntech.clicksave.core.accessor.EntityInstantiator;
+import com.altinntech.clicksave.core.accessor.FieldAccessor;
+import com.altinntech.clicksave.core.converter.CompositeValues;
+import com.altinntech.clicksave.core.converter.WriteConverter;
+import com.altinntech.clicksave.core.dto.BatchedQueryData;
+import com.altinntech.clicksave.core.dto.ClassDataCache;
+import com.altinntech.clicksave.core.dto.FieldDataCache;
+import com.altinntech.clicksave.core.mapper.EntityMapper;
+import com.altinntech.clicksave.enums.FieldType;
+import com.altinntech.clicksave.exceptions.ClassCacheNotFoundException;
+import com.altinntech.clicksave.exceptions.FieldInitializationException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.altinntech.clicksave.log.CSLogger.warn;
+
+/**
+ * The {@code InsertPlan} class is the insert statement of an entity compiled once at bootstrap.
+ * It holds the column list, the SQL text, the system field appenders of the table engine
+ * and an ordered array of value extractors, so a save only extracts the values of the entity.
+ *
+ * <p>A {@code null} embedded entity contributes no columns, as before. Every embedded field has a bit in the
+ * missing mask returned by {@link #extract}, the query of the mask is built on the first use and cached.
+ * The query data of every query is cached too, so the batch collector gets the same key for every row.</p>
+ *
+ * <p>Materialized columns are calculated by ClickHouse and are not inserted. A nested field contributes a column for every field of its element class, bound with the array
+ * of the field values of the elements.</p>
+ *
+ * <p>If a mapper was generated for the entity at compile time, the values are extracted by the mapper.
+ * The rows of pending batches are read back to entities by the plan, see {@link #read(long, List)}.</p>
+ *
+ * @author Fyodor Plotnikov
+ */
+public class InsertPlan {
+
+    private static final int MAX_EMBEDDED_FIELDS = Long.SIZE;
+
+    private final ClassDataCache classDataCache;
+    private final EntityMapper<Object> mapper;
+    private final Node[] nodes;
+    private final SystemFieldAppender[] systemFields;
+    private final Variant complete;
+    private final ConcurrentHashMap<Long, Variant> variants = new ConcurrentHashMap<>();
+
+    private InsertPlan(ClassDataCache classDataCache, EntityMapper<Object> mapper, Node[] nodes, List<SystemFieldAppender> systemFields) {
+        this.classDataCache = classDataCache;
+        this.mapper = mapper;
+        this.nodes = nodes;
+        this.systemFields = systemFields.toArray(new SystemFieldAppender[0]);
+        this.complete = buildVariant(0L);
+    }
+
+    /**
+     * Compiles the insert plan of the entity.
+     *
+     * @param classDataCache        the class data of the entity
+     * @param classDataCacheService the class data cache service used to resolve embedded fields
+     * @return the insert plan
+     */
+    public static InsertPlan compile(ClassDataCache classDataCache, ClassDataCacheService classDataCacheService) throws ClassCacheNotFoundException {
+        InsertQueryBuilder queryBuilder = InsertQueryBuilderFactory.getQueryBuilder(classDataCache.getEngineType());
+        int[] embeddedCount = new int[1];
+        Node[] nodes = compileNodes(classDataCache.getFields(), classDataCacheService, embeddedCount);
+        return new InsertPlan(classDataCache, verifyMapper(classDataCache, nodes), nodes, queryBuilder.getSystemFields());
+    }
+
+    /**
+     * Checks that the generated mapper of the entity binds the same columns as the plan. A mapper generated
+     * from an outdated source is dropped and the entity is mapped by reflection.
+     */
+    @SuppressWarnings("unchecked")
+    private static EntityMapper<Object> verifyMapper(ClassDataCache classDataCache, Node[] nodes) {
+        EntityMapper<?> mapper = classDataCache.getMapper();
+        if (mapper == null) {
+            return null;
+        }
+        List<String> columns = new ArrayList<>();
+        collectColumns(nodes, 0L, columns);
+        if (!columns.equals(mapper.columns())) {
+            warn("Generated mapper of " + classDataCache.getEntityClass().getName() + " doesn't match the entity fields, reflection is used. Rebuild the entity classes");
+            classDataCache.setMapper(null);
+            return null;
+        }
+        return (EntityMapper<Object>) mapper;
+    }
+
+    private static Node[] compileNodes(List<FieldDataCache> fields, ClassDataCacheService classDataCacheService, int[] embeddedCount) throws ClassCacheNotFoundException {
+        List<Node> nodes = new ArrayList<>(fields.size());
+        for (FieldDataCache fieldData : fields) {
+            if (fieldData.isMaterialized()) {
+                continue;
+            }
+            if (fieldData.isEmbedded()) {
+                if (embeddedCount[0] == MAX_EMBEDDED_FIELDS) {
+                    throw new FieldInitializationException("Entity has more than " + MAX_EMBEDDED_FIELDS + " embedded fields: " + fieldData);
+                }
+                long bit = 1L << embeddedCount[0]++;
+                Node[] children = compileNodes(classDataCacheService.getEmbeddableClassDataCache(fieldData.getType()).getFields(), classDataCacheService, embeddedCount);
+                nodes.add(new Node(fieldData, fieldData.getFieldInTableName(), null, bit, children));
+            } else if (fieldData.getFieldType() == FieldType.NESTED) {
+                // a nested field is inserted as the arrays of its columns
+                FieldAccessor field = fieldData.getAccessor();
+                for (FieldDataCache elementField : fieldData.getElementFields()) {
+                    WriteConverter converter = CompositeValues.nestedWriterOf(elementField);
+                    String column = fieldData.getFieldInTableName() + "." + elementField.getFieldInTableName();
+                    nodes.add(new Node(fieldData, column, target -> converter.write(field.get(target)), 0L, null));
+                }
+            } else {
+                nodes.add(new Node(fieldData, fieldData.getFieldInTableName(), extractorOf(fieldData), 0L, null));
+            }
+        }
+        return nodes.toArray(new Node[0]);
+    }
+
+    private static ValueExtractor extractorOf(FieldDataCache fieldData) {
+        FieldAccessor field = fieldData.getAccessor();
+        if (fieldData.getFieldType() == null) {
+            return target -> {
+                throw new FieldInitializationException("Exception while saving: Not valid field - " + fieldData);
+            };
+        }
+        WriteConverter converter = fieldData.getWriteConverter();
+        return target -> converter.write(field.get(target));
+    }
+
+    /**
+     * Extracts the row values of the entity in the column order of the plan, the system field values included.
+     *
+     * @param entity the entity
+     * @param values the list the values are added to
+     * @return the mask of embedded fields that are {@code null}, passed to {@link #getQuery(long)}
+     */
+    public long extract(Object entity, List<Object> values) {
+        long missing = mapper != null ? mapper.bind(entity, values) : extract(nodes, entity, values, 0L);
+        for (SystemFieldAppender systemField : systemFields) {
+            values.add(systemField.nextValue());
+        }
+        return missing;
+    }
+
+    private static long extract(Node[] nodes, Object target, List<Object> values, long missing) {
+        for (Node node : nodes) {
+            if (node.children == null) {
+                values.add(node.extractor.extract(target));
+                continue;
+            }
+            Object embedded = node.fieldData.getAccessor().get(target);
+            if (embedded == null) {
+                missing |= node.bit;
+            } else {
+                missing = extract(node.children, embedded, values, missing);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Reads a new entity back from the row values extracted by {@link #extract}, converting every value
+     * like the value of the column read from the table. The system field values are ignored.
+     *
+     * @param missing the missing mask returned by {@link #extract}
+     * @param values  the row values
+     * @return the entity
+     * @throws NoSuchMethodException     if the entity or an embedded class has no accessible no-args constructor
+     * @throws InvocationTargetException if a constructor throws an exception
+     */
+    public Object read(long missing, List<Object> values) throws NoSuchMethodException, InvocationTargetException {
+        Object entity = EntityInstantiator.of(classDataCache.getEntityClass()).newInstance();
+        read(nodes, entity, values, 0, missing);
+        return entity;
+    }
+
+    private static int read(Node[] nodes, Object target, List<Object> values, int column, long missing) throws NoSuchMethodException, InvocationTargetException {
+        for (int i = 0; i < nodes.length; i++) {
+            Node node = nodes[i];
+            FieldDataCache fieldData = node.fieldData;
+            if (node.children != null) {
+                if ((missing & node.bit) == 0) {
+                    Object embedded = EntityInstantiator.of(fieldData.getType()).newInstance();
+                    column = read(node.children, embedded, values, column, missing);
+                    fieldData.getAccessor().set(target, embedded);
+                }
+            } else if (fieldData.getFieldType() == FieldType.NESTED) {
+                // the columns of a nested field are consecutive, one for every field of the element class
+                List<FieldDataCache> elementFields = fieldData.getElementFields();
+                fieldData.getAccessor().set(target, readNested(fieldData, values.subList(column, column + elementFields.size())));
+                column += elementFields.size();
+                i += elementFields.size() - 1;
+            } else {
+                fieldData.getAccessor().set(target, fieldData.getReadConverter().read(values.get(column++)));
+            }
+        }
+        return column;
+    }
+
+    private static List<Object> readNested(FieldDataCache fieldData, List<Object> columns) throws NoSuchMethodException, InvocationTargetException {
+        List<Object> elements = new ArrayList<>();
+        List<FieldDataCache> elementFields = fieldData.getElementFields();
+        EntityInstantiator instantiator = EntityInstantiator.of(fieldData.getElementType());
+        for (int i = 0; i < columns.size(); i++) {
+            List<Object> values = CompositeValues.nestedElements(columns.get(i));
+            for (int element = 0; element < values.size(); element++) {
+                if (elements.size() == element) {
+                    elements.add(instantiator.newInstance());
+                }
+                FieldDataCache elementField = elementFields.get(i);
+                elementField.getAccessor().set(elements.get(element), elementField.getReadConverter().read(values.get(element)));
+            }
+        }
+        return elements;
+    }
+
+    /**
+     * Returns the columns of the insert query when all embedded fields are present.
+     *
+     * @return the column names, the system fields included
+     */
+    public List<String> getColumns() {
+        return complete.columns;
+    }
+
+    public String getQuery(long missing) {
+        return variant(missing).queryData.getQuery();
+    }
+
+    /**
+     * Returns the query data of the rows extracted with the missing mask. The same instance is returned
+     * for every call with the same mask.
+     *
+     * @param missing the missing mask returned by {@link #extract}
+     * @return the query data
+     */
+    public BatchedQueryData getQueryData(long missing) {
+        return variant(missing).queryData;
+    }
+
+    private Variant variant(long missing) {
+        if (missing == 0L) {
+            return complete;
+        }
+        return variants.computeIfAbsent(missing, this::buildVariant);
+    }
+
+    private Variant buildVariant(long missing) {
+        List<String> columns = new ArrayList<>();
+        collectColumns(nodes, missing, columns);
+        for (SystemFieldAppender systemField : systemFields) {
+            columns.add(systemField.getColumnName());
+        }
+        StringBuilder query = new StringBuilder("INSERT INTO ").append(classDataCache.getTableName()).append(" (");
+        StringBuilder valuesPlaceholder = new StringBuilder(" VALUES (");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                query.append(", ");
+                valuesPlaceholder.append(", ");
+            }
+            query.append(columns.get(i));
+            valuesPlaceholder.append("?");
+        }
+        query.append(")").append(valuesPlaceholder).append(")");
+        return new Variant(Collections.unmodifiableList(columns), new BatchedQueryData(query.toString(), classDataCache));
+    }
+
+    private static void collectColumns(Node[] nodes, long missing, List<String> columns) {
+        for (Node node : nodes) {
+            if (node.children == null) {
+                columns.add(node.column);
+            } else if ((missing & node.bit) == 0) {
+                collectColumns(node.children, missing, columns);
+            }
+        }
+    }
+
+    /**
+     * Extracts the column value of a field from the entity or embedded entity holding it.
+     */
+    @FunctionalInterface
+    interface ValueExtractor {
+        Object extract(Object target);
+    }
+
+    private record Node(FieldDataCache fieldData, String column, ValueExtractor extractor, long bit, Node[] children) {
+    }
+
+    private record Variant(List<String> columns, BatchedQueryData queryData) {
+    }
+}
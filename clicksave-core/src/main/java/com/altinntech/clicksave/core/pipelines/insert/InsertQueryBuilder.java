@@ -1,9 +1,19 @@
 package com.altinntech.clicksave.core.pipelines.insert;
 
-import com.altinntech.clicksave.core.dto.ClassDataCache;
-
 import java.util.List;
 
+/**
+ * The {@code InsertQueryBuilder} interface describes the engine specific part of the insert query.
+ * It is called once, when the {@link InsertPlan} of the entity is compiled.
+ *
+ * @author Fyodor Plotnikov
+ */
 public interface InsertQueryBuilder {
-    String buildInsertQuery(StringBuilder insertQuery, StringBuilder valuesPlaceholder, ClassDataCache classDataCache, List<Object> fieldValues);
+
+    /**
+     * Returns the system fields appended to every row after the entity columns.
+     *
+     * @return the system field appenders in the column order
+     */
+    List<SystemFieldAppender> getSystemFields();
 }
@@ -0,0 +1,24 @@
+package com.altinntech.clicksave.core.pipelines.insert;
+
+import com.altinntech.clicksave.enums.SystemField;
+
+import java.util.function.Supplier;
+
+/**
+ * The {@code SystemFieldAppender} record describes a system column the table engine requires in every inserted row.
+ *
+ * @param systemField the system field
+ * @param value       the supplier of the value of the next row
+ *
+ * @author Fyodor Plotnikov
+ */
+public record SystemFieldAppender(SystemField systemField, Supplier<Object> value) {
+
+    public String getColumnName() {
+        return systemField.getName();
+    }
+
+    public Object nextValue() {
+        return value.get();
+    }
+}
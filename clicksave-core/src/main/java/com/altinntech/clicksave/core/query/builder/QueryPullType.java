@@ -1,10 +1,16 @@
 package com.altinntech.clicksave.core.query.builder;
 
+import com.altinntech.clicksave.core.query.page.Page;
+import com.altinntech.clicksave.core.query.page.Slice;
+import com.altinntech.clicksave.interfaces.CloseableIterator;
+
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * The {@code QueryPullType} enum is used to define the entity retrieval mode.
@@ -24,6 +30,23 @@ public enum QueryPullType {
      */
     MULTIPLE,
 
+    /**
+     * Indicates a lazy multiple entities retrieval mode, the entities are read from the open result set
+     * while the returned {@code Stream} or {@code CloseableIterator} is consumed. Either must be closed
+     * if it is not read to the end.
+     */
+    STREAM,
+
+    /**
+     * Indicates a page retrieval mode, the query reads one page and counts the rows of the whole result.
+     */
+    PAGE,
+
+    /**
+     * Indicates a page retrieval mode without counting the rows of the whole result.
+     */
+    SLICE,
+
     /**
      * Indicates a auto entities retrieval mode.
      */
@@ -43,6 +66,12 @@ public enum QueryPullType {
             return MULTIPLE;
         } else if (type.isAssignableFrom(Optional.class)) {
             return SINGLE;
+        } else if (type == Stream.class || type == Iterator.class || type == CloseableIterator.class) {
+            return STREAM;
+        } else if (type == Page.class) {
+            return PAGE;
+        } else if (type == Slice.class) {
+            return SLICE;
         }
         return NONE;
     }
@@ -9,11 +9,17 @@ import com.altinntech.clicksave.core.caches.QueryMetadataCache;
 import com.altinntech.clicksave.core.dto.*;
 import com.altinntech.clicksave.core.query.builder.QueryBuilder;
 import com.altinntech.clicksave.core.query.builder.QueryPullType;
+import com.altinntech.clicksave.core.query.page.Page;
+import com.altinntech.clicksave.core.query.page.PageQuery;
+import com.altinntech.clicksave.core.query.page.Pageable;
+import com.altinntech.clicksave.core.query.page.Slice;
 import com.altinntech.clicksave.core.query.parser.Part;
 import com.altinntech.clicksave.core.query.parser.PartParser;
 import com.altinntech.clicksave.core.query.preprocessor.QueryAnnotationPreprocessor;
 import com.altinntech.clicksave.core.query.preprocessor.QueryMethodNamePreprocessor;
 import com.altinntech.clicksave.exceptions.ClassCacheNotFoundException;
+import com.altinntech.clicksave.exceptions.WrongQueryMethodException;
+import com.altinntech.clicksave.interfaces.CloseableIterator;
 import com.altinntech.clicksave.interfaces.EnumId;
 import com.altinntech.clicksave.interfaces.QueryInfo;
 
@@ -23,6 +29,7 @@ import java.lang.reflect.Type;
 import java.sql.*;
 import java.time.Instant;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static com.altinntech.clicksave.core.ClicksaveInternalRepository.executePostLoadedMethods;
 
@@ -36,9 +43,8 @@ public class QueryExecutor {
 
     private final ConnectionManager connectionManager;
     private final ClassDataCacheService classDataCacheService;
-    private final BatchCollector batchCollector;
-    private final SyncManager syncManager;
-    private final ThreadPoolManager threadPoolManager;
+    private final ReadBarrier readBarrier;
+    private final int fetchSize;
     private final QueryMetadataCache queryMetadataCache = QueryMetadataCache.getInstance();
     private final ProjectionClassDataCache projectionClassDataCache = ProjectionClassDataCache.getInstance();
     private final QueryAnnotationPreprocessor annotationPreprocessor;
@@ -47,12 +53,11 @@ public class QueryExecutor {
     /**
      * Constructs a new QueryExecutor instance.
      */
-    public QueryExecutor(ConnectionManager connectionManager, ClassDataCacheService classDataCacheService, BatchCollector batchCollector, SyncManager syncManager, ThreadPoolManager threadPoolManager) {
+    public QueryExecutor(ConnectionManager connectionManager, ClassDataCacheService classDataCacheService, ReadBarrier readBarrier, int fetchSize) {
         this.connectionManager = connectionManager;
         this.classDataCacheService = classDataCacheService;
-        this.batchCollector = batchCollector;
-        this.syncManager = syncManager;
-        this.threadPoolManager = threadPoolManager;
+        this.readBarrier = readBarrier;
+        this.fetchSize = Math.max(0, fetchSize);
         this.annotationPreprocessor = new QueryAnnotationPreprocessor(queryMetadataCache);
         this.methodNamePreprocessor = new QueryMethodNamePreprocessor(queryMetadataCache, classDataCacheService);
     }
@@ -69,9 +74,7 @@ public class QueryExecutor {
      */
     public Object processQuery(QueryInfo queryInfo) throws ClassCacheNotFoundException, SQLException, IllegalAccessException, InvocationTargetException {
         ClassDataCache classDataCache = classDataCacheService.getClassDataCache(queryInfo.entityClass());
-        threadPoolManager.waitForCompletion();
-        syncManager.saveBatchRequest();
-        batchCollector.saveAndFlush(classDataCache);
+        readBarrier.beforeRead(classDataCache);
 
         List<Object> argumentsList = queryInfo.args();
 
@@ -88,35 +91,24 @@ public class QueryExecutor {
 
         CustomQueryMetadata query = (CustomQueryMetadata) queryMetadataCache.getFromCache(queryId);
 
+        if (query.getPullType() == QueryPullType.STREAM) {
+            return streamQuery(queryInfo, query, argumentsList, classDataCache);
+        }
+        if (query.getPullType() == QueryPullType.PAGE || query.getPullType() == QueryPullType.SLICE) {
+            return pageQuery(queryInfo, query, argumentsList, classDataCache);
+        }
+
         try (
                 Connection connection = connectionManager.getConnection();
                 PreparedStatement statement = connection.prepareStatement(query.getQueryBody())
         ) {
-            int paramCount = countParameters(query.getQueryBody(), argumentsList);
-            if (query.getIsQueryFromAnnotation()) {
-                for (int i = 0; i < paramCount; i++) {
-                    if (argumentsList.get(i) instanceof Array arr) {
-                        statement.setArray(i + 1, arr);
-                    } else {
-                        statement.setObject(i + 1, argumentsList.get(i));
-                    }
-                }
-            } else {
-                for (int i = 0; i < paramCount; i++) {
-                    setStatementArgument(argumentsList, query, statement, i);
-                }
-            }
+            setStatementArguments(argumentsList, query, statement);
 
             switch (query.getPullType()) {
                 case SINGLE -> {
                     try (ResultSet resultSet = statement.executeQuery()) {
                         if (resultSet.next()) {
-                            Object entity;
-                            if (!queryInfo.returnClass().equals(queryInfo.entityClass())) {
-                                entity = CSUtils.createDtoEntityFromResultSet(queryInfo.returnClass(), resultSet);
-                            } else {
-                                entity = CSUtils.createEntityFromResultSet(queryInfo.entityClass(), resultSet, classDataCache, classDataCacheService);
-                            }
+                            Object entity = rowMapping(queryInfo.returnClass(), resultSet, classDataCache).read(resultSet);
                             connectionManager.releaseConnection(connection);
                             executePostLoadedMethods(entity, classDataCache);
                             return Optional.ofNullable(entity);
@@ -129,13 +121,11 @@ public class QueryExecutor {
                 case MULTIPLE -> {
                     try (ResultSet resultSet = statement.executeQuery()) {
                         List<Object> entities = new ArrayList<>();
+                        boolean projection = !queryInfo.returnClass().equals(queryInfo.entityClass());
+                        RowMapping<?> rowMapping = rowMapping(queryInfo.returnClass(), resultSet, classDataCache);
                         while (resultSet.next()) {
-                            Object entity;
-                            if (!queryInfo.returnClass().equals(queryInfo.entityClass())) {
-                                entity = CSUtils.createDtoEntityFromResultSet(queryInfo.returnClass(), resultSet);
-                            }
-                            else {
-                                entity = CSUtils.createEntityFromResultSet(queryInfo.entityClass(), resultSet, classDataCache, classDataCacheService);
+                            Object entity = rowMapping.read(resultSet);
+                            if (!projection) {
                                 executePostLoadedMethods(entity, classDataCache);
                             }
                             entities.add(entity);
@@ -153,6 +143,157 @@ public class QueryExecutor {
         return null;
     }
 
+    /**
+     * Reads a page of all entities of the class, sorted by the sorting key of the table.
+     *
+     * @param entityClass the entity class
+     * @param pageable    the pageable
+     * @param counted     whether the rows of the whole table are counted
+     * @return the {@code Page} if counted, otherwise the {@code Slice}
+     *
+     * @throws ClassCacheNotFoundException if class cache is not found
+     * @throws SQLException                if an SQL exception occurs
+     */
+    public <T> Slice<T> findPage(Class<T> entityClass, Pageable pageable, boolean counted) throws ClassCacheNotFoundException, SQLException, IllegalAccessException, InvocationTargetException {
+        ClassDataCache classDataCache = classDataCacheService.getClassDataCache(entityClass);
+        readBarrier.beforeRead(classDataCache);
+
+        CustomQueryMetadata query = new CustomQueryMetadata();
+        query.setQueryBody("SELECT * FROM " + classDataCache.getTableName());
+        query.setFields(List.of());
+        PageQuery pageQuery = PageQuery.of(query.getQueryBody(), PageQuery.keyColumnsOf(classDataCache), pageable);
+        return readPage(entityClass, query, List.of(), pageQuery, pageable, counted, classDataCache);
+    }
+
+    /**
+     * Executes the query of a method returning a {@code Page} or a {@code Slice}. Generated queries are read by keyset
+     * pagination, queries from annotations by their offset.
+     */
+    private Slice<?> pageQuery(QueryInfo queryInfo, CustomQueryMetadata query, List<Object> argumentsList, ClassDataCache classDataCache) throws SQLException, ClassCacheNotFoundException, IllegalAccessException, InvocationTargetException {
+        Pageable pageable = null;
+        List<Object> arguments = new ArrayList<>(argumentsList.size());
+        for (Object argument : argumentsList) {
+            if (argument instanceof Pageable pageableArgument) {
+                pageable = pageableArgument;
+            } else {
+                arguments.add(argument);
+            }
+        }
+        if (pageable == null) {
+            throw new WrongQueryMethodException("Method " + queryInfo.methodName() + " returns a page, but has no Pageable parameter");
+        }
+        PageQuery pageQuery = query.getIsQueryFromAnnotation()
+                ? PageQuery.ofQuery(query.getQueryBody(), pageable)
+                : PageQuery.of(query.getQueryBody(), PageQuery.keyColumnsOf(classDataCache), pageable);
+        return readPage(queryInfo.returnClass(), query, arguments, pageQuery, pageable, query.getPullType() == QueryPullType.PAGE, classDataCache);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Slice<T> readPage(Class<?> returnClass, CustomQueryMetadata query, List<Object> arguments, PageQuery pageQuery, Pageable pageable, boolean counted, ClassDataCache classDataCache) throws SQLException, ClassCacheNotFoundException, IllegalAccessException, InvocationTargetException {
+        List<T> content = new ArrayList<>(pageable.getPageSize());
+        Pageable nextPageable = null;
+        try (
+                Connection connection = connectionManager.getConnection();
+                PreparedStatement statement = connection.prepareStatement(pageQuery.query())
+        ) {
+            int parameterIndex = setStatementArguments(arguments, query, statement);
+            for (Object keyArgument : pageQuery.keyArguments()) {
+                statement.setObject(++parameterIndex, keyArgument);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                RowMapping<?> rowMapping = rowMapping(returnClass, resultSet, classDataCache);
+                List<Object> keyset = null;
+                while (resultSet.next()) {
+                    if (content.size() == pageable.getPageSize()) {
+                        // the row after the page only tells that the next page exists
+                        nextPageable = pageable.next(keyset);
+                        break;
+                    }
+                    T entity = (T) rowMapping.read(resultSet);
+                    executePostLoadedMethods(entity, classDataCache);
+                    content.add(entity);
+                    if (content.size() == pageable.getPageSize()) {
+                        keyset = pageQuery.keysetOf(resultSet);
+                    }
+                }
+            }
+            if (!counted) {
+                connectionManager.releaseConnection(connection);
+                return new Slice<>(content, pageable, nextPageable);
+            }
+            long totalElements = pageable.getOffset() + content.size();
+            if (nextPageable != null) {
+                try (PreparedStatement countStatement = connection.prepareStatement(pageQuery.countQuery())) {
+                    setStatementArguments(arguments, query, countStatement);
+                    try (ResultSet resultSet = countStatement.executeQuery()) {
+                        resultSet.next();
+                        totalElements = resultSet.getLong(1);
+                    }
+                }
+            }
+            connectionManager.releaseConnection(connection);
+            return new Page<>(content, pageable, nextPageable, totalElements);
+        }
+    }
+
+    /**
+     * Executes the query and returns the lazy stream of its rows, or its {@link CloseableIterator} if the query method
+     * returns an iterator. The connection stays open until the stream or the iterator is closed or fully read.
+     */
+    private Object streamQuery(QueryInfo queryInfo, CustomQueryMetadata query, List<Object> argumentsList, ClassDataCache classDataCache) throws SQLException, ClassCacheNotFoundException {
+        Connection connection = connectionManager.getConnection();
+        PreparedStatement statement = null;
+        try {
+            statement = connection.prepareStatement(query.getQueryBody());
+            statement.setFetchSize(fetchSize);
+            setStatementArguments(argumentsList, query, statement);
+            ResultSet resultSet = statement.executeQuery();
+            RowCursor<?> cursor = RowCursor.of(connectionManager, connection, statement, resultSet,
+                    rowMapping(queryInfo.returnClass(), resultSet, classDataCache), classDataCache);
+            return queryInfo.containerClass() == Stream.class ? cursor.stream() : cursor.iterator();
+        } catch (SQLException | ClassCacheNotFoundException | RuntimeException e) {
+            if (statement != null) {
+                statement.close();
+            }
+            connectionManager.releaseConnection(connection);
+            throw e;
+        }
+    }
+
+    /**
+     * Resolves the mapping of the result set rows to the entity or to the projection the query returns.
+     */
+    private RowMapping<?> rowMapping(Class<?> returnClass, ResultSet resultSet, ClassDataCache classDataCache) throws SQLException, ClassCacheNotFoundException {
+        if (!returnClass.equals(classDataCache.getEntityClass())) {
+            ProjectionClassData projectionClassData = ProjectionClassDataCache.getInstance().get(returnClass);
+            return RowMapping.of(returnClass, resultSet, projectionClassData, classDataCacheService);
+        }
+        return RowMapping.of(classDataCache.getEntityClass(), resultSet, classDataCache, classDataCacheService);
+    }
+
+    /**
+     * Binds the arguments of the query.
+     *
+     * @return the number of bound parameters
+     */
+    private static int setStatementArguments(List<Object> arguments, CustomQueryMetadata query, PreparedStatement statement) throws SQLException {
+        int paramCount = countParameters(query.getQueryBody(), arguments);
+        if (query.getIsQueryFromAnnotation()) {
+            for (int i = 0; i < paramCount; i++) {
+                if (arguments.get(i) instanceof Array arr) {
+                    statement.setArray(i + 1, arr);
+                } else {
+                    statement.setObject(i + 1, arguments.get(i));
+                }
+            }
+        } else {
+            for (int i = 0; i < paramCount; i++) {
+                setStatementArgument(arguments, query, statement, i);
+            }
+        }
+        return paramCount;
+    }
+
     private static void setStatementArgument(List<Object> arguments, CustomQueryMetadata query, PreparedStatement statement, int i) throws SQLException {
         FieldDataCache currentFieldData = query.getFields().get(i);
         Optional<EnumColumn> enumColumnOptional = currentFieldData.getEnumColumnAnnotation();
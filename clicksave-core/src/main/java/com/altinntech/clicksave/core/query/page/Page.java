@@ -0,0 +1,44 @@
+package com.altinntech.clicksave.core.query.page;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * The {@code Page} class is a page of a query result with the number of rows of the whole result.
+ * Reading a page costs an additional {@code count()} query unless the page is the last one.
+ *
+ * @param <T> the entity or projection type
+ * @author Fyodor Plotnikov
+ */
+public class Page<T> extends Slice<T> {
+
+    /**
+     * The number of rows of the whole result.
+     */
+    @Getter
+    private final long totalElements;
+
+    /**
+     * Constructs a new Page instance.
+     *
+     * @param content       the rows of the page
+     * @param pageable      the pageable the page was read by
+     * @param nextPageable  the pageable of the next page, {@code null} if it is the last page
+     * @param totalElements the number of rows of the whole result
+     */
+    public Page(List<T> content, Pageable pageable, Pageable nextPageable, long totalElements) {
+        super(content, pageable, nextPageable);
+        this.totalElements = totalElements;
+    }
+
+    /**
+     * Returns the number of pages of the whole result.
+     *
+     * @return the number of pages
+     */
+    public long getTotalPages() {
+        int pageSize = getPageable().getPageSize();
+        return (totalElements + pageSize - 1) / pageSize;
+    }
+}
@@ -0,0 +1,214 @@
+package com.altinntech.clicksave.core.query.page;
+
+import com.altinntech.clicksave.annotations.OrderBy;
+import com.altinntech.clicksave.core.dto.ClassDataCache;
+import com.altinntech.clicksave.core.dto.FieldDataCache;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * The {@code PageQuery} record is the query of one page of a select query and the query counting its rows.
+ *
+ * <p>Pages of the generated queries are sorted by the sorting key of the table: the columns of {@link OrderBy},
+ * or the primary key columns if the sorting key is not a list of columns, followed by the id column. A keyset page
+ * seeks past the key of the last row of the previous page:</p>
+ * <pre>
+ * SELECT ... FROM person WHERE (age = ?) AND last_name &gt;= ? AND (last_name, id) &gt; (?, ?)
+ * ORDER BY last_name, id LIMIT 51
+ * </pre>
+ * <p>The condition on the first key column lets the server skip the granules before the page by the primary index.
+ * Pages of the queries written by hand are read by {@code LIMIT/OFFSET} over the query.</p>
+ *
+ * <p>One row more than the page size is read to know if a next page exists.</p>
+ *
+ * @param query        the page query
+ * @param keyArguments the arguments of the keyset condition, bound after the arguments of the query
+ * @param keyColumns   the sorting key columns the next page seeks by, empty if the next page is read by its offset
+ * @param countQuery   the query counting the rows of the whole result
+ * @author Fyodor Plotnikov
+ */
+public record PageQuery(String query, List<Object> keyArguments, List<String> keyColumns, String countQuery) {
+
+    private static final String FROM = " FROM ";
+    private static final String WHERE = " WHERE ";
+
+    /**
+     * Returns the page query of a generated select query.
+     *
+     * @param selectQuery the query in the form {@code SELECT <columns> FROM <table> [WHERE <condition>]}
+     * @param keyColumns  the sorting key columns of the table
+     * @param pageable    the pageable
+     * @return the page query
+     */
+    public static PageQuery of(String selectQuery, List<String> keyColumns, Pageable pageable) {
+        int fromIndex = selectQuery.indexOf(FROM);
+        int whereIndex = selectQuery.indexOf(WHERE, fromIndex);
+        String columns = selectQuery.substring(0, fromIndex);
+        String table = whereIndex < 0 ? selectQuery.substring(fromIndex) : selectQuery.substring(fromIndex, whereIndex);
+        String condition = whereIndex < 0 ? "" : selectQuery.substring(whereIndex + WHERE.length());
+
+        StringBuilder query = new StringBuilder(withColumns(columns, keyColumns)).append(table);
+        List<Object> keyArguments = new ArrayList<>();
+        List<Object> keyset = pageable.getKeyset();
+        boolean seek = pageable.isKeyset() && !keyset.isEmpty();
+        if (seek && keyset.size() != keyColumns.size()) {
+            throw new IllegalArgumentException("Keyset " + keyset + " doesn't match the sorting key " + keyColumns);
+        }
+        if (!condition.isEmpty() || seek) {
+            query.append(WHERE);
+        }
+        if (!condition.isEmpty()) {
+            query.append("(").append(condition).append(")");
+        }
+        if (seek) {
+            if (!condition.isEmpty()) {
+                query.append(" AND ");
+            }
+            appendSeek(query, keyColumns);
+            keyArguments.add(keyset.get(0));
+            if (keyColumns.size() > 1) {
+                keyArguments.addAll(keyset);
+            }
+        }
+        query.append(" ORDER BY ").append(String.join(", ", keyColumns));
+        query.append(" LIMIT ").append(pageable.getPageSize() + 1);
+        if (!pageable.isKeyset()) {
+            query.append(" OFFSET ").append(pageable.getOffset());
+        }
+        String countQuery = "SELECT count()" + table + (condition.isEmpty() ? "" : WHERE + condition);
+        return new PageQuery(query.toString(), keyArguments, pageable.isKeyset() ? keyColumns : List.of(), countQuery);
+    }
+
+    /**
+     * Returns the page query of a query written by hand, the page is read by its offset.
+     *
+     * @param query    the query
+     * @param pageable the pageable
+     * @return the page query
+     */
+    public static PageQuery ofQuery(String query, Pageable pageable) {
+        String pageQuery = "SELECT * FROM (" + query + ") LIMIT " + (pageable.getPageSize() + 1) + " OFFSET " + pageable.getOffset();
+        return new PageQuery(pageQuery, List.of(), List.of(), "SELECT count() FROM (" + query + ")");
+    }
+
+    /**
+     * Resolves the sorting key columns of the entity table the pages are sorted by.
+     *
+     * @param classDataCache the class data of the entity
+     * @return the key columns, the id column is always the last one
+     */
+    public static List<String> keyColumnsOf(ClassDataCache classDataCache) {
+        List<String> keyColumns = classDataCache.getOrderByAnnotationOptional()
+                .map(orderBy -> orderByColumns(orderBy.value(), classDataCache))
+                .orElse(Collections.emptyList());
+        if (keyColumns.isEmpty()) {
+            keyColumns = new ArrayList<>();
+            for (FieldDataCache fieldData : classDataCache.getFields()) {
+                if (fieldData.isPk() && isKeyField(fieldData)) {
+                    keyColumns.add(fieldData.getFieldInTableName());
+                }
+            }
+        }
+        String idColumn = classDataCache.getIdField().getFieldInTableName();
+        if (!keyColumns.contains(idColumn)) {
+            keyColumns.add(idColumn);
+        }
+        return keyColumns;
+    }
+
+    /**
+     * Reads the sorting key of the current row of the result set.
+     *
+     * @param resultSet the result set positioned on the last row of the page
+     * @return the keyset of the next page, {@code null} if the next page is read by its offset
+     * @throws SQLException if a key column can't be read
+     */
+    public List<Object> keysetOf(ResultSet resultSet) throws SQLException {
+        if (keyColumns.isEmpty()) {
+            return null;
+        }
+        List<Object> keyset = new ArrayList<>(keyColumns.size());
+        for (String keyColumn : keyColumns) {
+            keyset.add(resultSet.getObject(resultSet.findColumn(keyColumn)));
+        }
+        return keyset;
+    }
+
+    /**
+     * Splits the sorting key into its columns, for example {@code (name, created_at)}.
+     *
+     * @return the columns, empty if an element of the key is not a column of a field
+     */
+    private static List<String> orderByColumns(String orderBy, ClassDataCache classDataCache) {
+        String key = orderBy.trim();
+        if (key.startsWith("tuple(")) {
+            key = key.substring("tuple".length());
+        }
+        if (key.startsWith("(") && key.endsWith(")")) {
+            key = key.substring(1, key.length() - 1);
+        }
+        List<String> columns = new ArrayList<>();
+        for (String column : key.split(",")) {
+            String name = column.trim();
+            FieldDataCache fieldData = classDataCache.getFields().stream()
+                    .filter(field -> field.getFieldInTableName().equals(name))
+                    .findAny()
+                    .orElse(null);
+            if (fieldData == null || !isKeyField(fieldData)) {
+                // an expression of the sorting key, the pages are sorted by the primary key instead
+                return Collections.emptyList();
+            }
+            columns.add(name);
+        }
+        return columns;
+    }
+
+    private static boolean isKeyField(FieldDataCache fieldData) {
+        return !fieldData.isEmbedded() && !fieldData.isMaterialized() && !fieldData.isNullable()
+                && (fieldData.getFieldType() == null || !fieldData.getFieldType().isComposite());
+    }
+
+    /**
+     * Appends the key columns missing in the selected columns, the keyset of the next page is read from them.
+     */
+    private static String withColumns(String columns, List<String> keyColumns) {
+        if (columns.trim().endsWith("*")) {
+            return columns;
+        }
+        StringBuilder result = new StringBuilder(columns);
+        for (String keyColumn : keyColumns) {
+            if (!containsColumn(columns, keyColumn)) {
+                result.append(", ").append(keyColumn);
+            }
+        }
+        return result.toString();
+    }
+
+    private static boolean containsColumn(String columns, String column) {
+        for (String selected : columns.substring("SELECT ".length()).split(",")) {
+            if (selected.trim().equals(column)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void appendSeek(StringBuilder query, List<String> keyColumns) {
+        if (keyColumns.size() == 1) {
+            query.append(keyColumns.get(0)).append(" > ?");
+            return;
+        }
+        StringJoiner columns = new StringJoiner(", ", "(", ")");
+        StringJoiner placeholders = new StringJoiner(", ", "(", ")");
+        for (String keyColumn : keyColumns) {
+            columns.add(keyColumn);
+            placeholders.add("?");
+        }
+        query.append(keyColumns.get(0)).append(" >= ? AND ").append(columns).append(" > ").append(placeholders);
+    }
+}
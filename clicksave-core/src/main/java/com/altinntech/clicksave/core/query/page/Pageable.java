@@ -0,0 +1,117 @@
+package com.altinntech.clicksave.core.query.page;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The {@code Pageable} class describes the page of a query result to read.
+ *
+ * <p>A pageable created by {@link #ofSize(int)} reads the first page, the next pages are read by the
+ * {@link Slice#nextPageable()} of the previous page. They seek past the sorting key of the last row of the previous
+ * page (keyset pagination), so reading a deep page costs as much as reading the first one. A pageable created by
+ * {@link #of(long, int)} reads the page at its offset ({@code LIMIT/OFFSET}), it allows random access but the server
+ * reads and skips all the rows before the page.</p>
+ *
+ * @author Fyodor Plotnikov
+ */
+@Getter
+public final class Pageable {
+
+    /**
+     * The number of the page, starting from zero.
+     */
+    private final long pageNumber;
+
+    /**
+     * The maximum number of rows of the page.
+     */
+    private final int pageSize;
+
+    /**
+     * The sorting key of the last row of the previous page, empty for the first page,
+     * {@code null} if the page is read by its offset.
+     */
+    private final List<Object> keyset;
+
+    private Pageable(long pageNumber, int pageSize, List<?> keyset) {
+        if (pageNumber < 0) {
+            throw new IllegalArgumentException("Page number must not be negative: " + pageNumber);
+        }
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        this.pageNumber = pageNumber;
+        this.pageSize = pageSize;
+        this.keyset = keyset == null ? null : Collections.unmodifiableList(new ArrayList<>(keyset));
+    }
+
+    /**
+     * Returns the pageable of the first page, the next pages are read by keyset pagination.
+     *
+     * @param pageSize the page size
+     * @return the pageable
+     */
+    public static Pageable ofSize(int pageSize) {
+        return new Pageable(0, pageSize, List.of());
+    }
+
+    /**
+     * Returns the pageable of the page at its offset.
+     *
+     * @param pageNumber the page number, starting from zero
+     * @param pageSize   the page size
+     * @return the pageable
+     */
+    public static Pageable of(long pageNumber, int pageSize) {
+        return new Pageable(pageNumber, pageSize, null);
+    }
+
+    /**
+     * Returns the pageable of the page following the row with the sorting key, for example the key
+     * of a {@link Slice#nextPageable()} kept between requests.
+     *
+     * @param pageNumber the page number, starting from zero
+     * @param pageSize   the page size
+     * @param keyset     the sorting key of the last row of the previous page
+     * @return the pageable
+     */
+    public static Pageable after(long pageNumber, int pageSize, List<?> keyset) {
+        return new Pageable(pageNumber, pageSize, keyset);
+    }
+
+    /**
+     * Returns the pageable of the next page.
+     *
+     * @param keyset the sorting key of the last row of this page, {@code null} to read the next page by its offset
+     * @return the pageable
+     */
+    public Pageable next(List<?> keyset) {
+        return new Pageable(pageNumber + 1, pageSize, keyset);
+    }
+
+    /**
+     * Returns whether the page is read by keyset pagination.
+     *
+     * @return {@code true} if the page is read by its keyset
+     */
+    public boolean isKeyset() {
+        return keyset != null;
+    }
+
+    /**
+     * Returns the number of rows before the page.
+     *
+     * @return the offset
+     */
+    public long getOffset() {
+        return pageNumber * pageSize;
+    }
+
+    @Override
+    public String toString() {
+        return "Pageable{pageNumber=" + pageNumber + ", pageSize=" + pageSize + (keyset != null ? ", keyset=" + keyset : "") + "}";
+    }
+}
@@ -0,0 +1,90 @@
+package com.altinntech.clicksave.core.query.page;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * The {@code Slice} class is a page of a query result that knows whether a next page exists,
+ * without counting the rows of the whole result.
+ *
+ * @param <T> the entity or projection type
+ * @author Fyodor Plotnikov
+ */
+public class Slice<T> implements Iterable<T> {
+
+    /**
+     * The rows of the page.
+     */
+    @Getter
+    private final List<T> content;
+
+    /**
+     * The pageable the page was read by.
+     */
+    @Getter
+    private final Pageable pageable;
+
+    private final Pageable nextPageable;
+
+    /**
+     * Constructs a new Slice instance.
+     *
+     * @param content      the rows of the page
+     * @param pageable     the pageable the page was read by
+     * @param nextPageable the pageable of the next page, {@code null} if it is the last page
+     */
+    public Slice(List<T> content, Pageable pageable, Pageable nextPageable) {
+        this.content = Collections.unmodifiableList(content);
+        this.pageable = pageable;
+        this.nextPageable = nextPageable;
+    }
+
+    /**
+     * Returns the page number, starting from zero.
+     *
+     * @return the page number
+     */
+    public long getNumber() {
+        return pageable.getPageNumber();
+    }
+
+    /**
+     * Returns the number of the rows of the page.
+     *
+     * @return the number of rows
+     */
+    public int getNumberOfElements() {
+        return content.size();
+    }
+
+    /**
+     * Returns whether a next page exists.
+     *
+     * @return {@code true} if a next page exists
+     */
+    public boolean hasNext() {
+        return nextPageable != null;
+    }
+
+    /**
+     * Returns the pageable of the next page.
+     *
+     * @return the pageable of the next page
+     * @throws NoSuchElementException if it is the last page
+     */
+    public Pageable nextPageable() {
+        if (nextPageable == null) {
+            throw new NoSuchElementException("No next page");
+        }
+        return nextPageable;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return content.iterator();
+    }
+}
@@ -16,9 +16,11 @@ public class BatchSaveCommand implements Runnable {
     @Override
     public void run() {
         try {
-            if (batchCollector.isNotEmpty()) {
+            if (batchCollector.isCircuitOpen()) {
+                CSLogger.debug("Batch", "Circuit breaker is open, keeping batch buffered");
+            } else if (batchCollector.isNotEmpty()) {
                 CSLogger.debug("Batch", "Saving batch");
-                batchCollector.saveAndFlushAll();
+                batchCollector.saveAndFlushDue();
             }
         } catch (Exception e) {
             CSLogger.important("An exception has occurred when saving batch!");
@@ -32,8 +32,34 @@ public class DefaultProperties {
     private String rootPackageToScan;
     private String testEnv;
     private String batchSaveRate;
+    private String batchAsyncFlush;
+    private String batchFlushThreads;
+    private String batchMaxPendingFlushes;
+    private String batchMaxBytes;
+    private String batchOverflowPolicy;
+    private String batchBlockTimeout;
+    private String batchSpillDirectoryPath;
+    private String rowBinaryInsert;
+    private String asyncInsert;
+    private String saveAllChunkSize;
+    private String queryFetchSize;
+    private String readConsistency;
+    private String batchJournalEnabled;
+    private String batchJournalDirectoryPath;
+    private String batchJournalSegmentSize;
+    private String batchJournalSyncInterval;
+    private String batchRetryMaxAttempts;
+    private String batchRetryInitialDelay;
+    private String batchRetryMaxDelay;
+    private String batchCircuitBreakerFailureThreshold;
+    private String batchCircuitBreakerOpenDuration;
+    private String batchDeduplicationToken;
+    private String batchAdaptiveTargetLatency;
+    private String batchAdaptiveMaxFlushInterval;
+    private String batchTimingWheelTick;
     private String threadManagerMaxProcessors;
     private String threadManagerMaxQueueSize;
+    private String threadManagerWaitTimeout;
     @Getter
     private String useSyncFeatures;
     @Getter
@@ -47,6 +73,8 @@ public class DefaultProperties {
     @Getter
     private String failedBatchSavePath;
     @Getter
+    private String failedBatchRedriveInterval;
+    @Getter
     private String connectionCompressionEnabled;
 
     public Map<String, Object> toMap() {
@@ -59,14 +87,41 @@ public class DefaultProperties {
         map.put("rootPackageToScan", this.rootPackageToScan);
         map.put("testEnv", this.testEnv);
         map.put("batchSaveRate", this.batchSaveRate);
+        map.put("batchAsyncFlush", this.batchAsyncFlush);
+        map.put("batchFlushThreads", this.batchFlushThreads);
+        map.put("batchMaxPendingFlushes", this.batchMaxPendingFlushes);
+        map.put("batchMaxBytes", this.batchMaxBytes);
+        map.put("batchOverflowPolicy", this.batchOverflowPolicy);
+        map.put("batchBlockTimeout", this.batchBlockTimeout);
+        map.put("batchSpillDirectoryPath", this.batchSpillDirectoryPath);
+        map.put("rowBinaryInsert", this.rowBinaryInsert);
+        map.put("asyncInsert", this.asyncInsert);
+        map.put("saveAllChunkSize", this.saveAllChunkSize);
+        map.put("queryFetchSize", this.queryFetchSize);
+        map.put("readConsistency", this.readConsistency);
+        map.put("batchJournalEnabled", this.batchJournalEnabled);
+        map.put("batchJournalDirectoryPath", this.batchJournalDirectoryPath);
+        map.put("batchJournalSegmentSize", this.batchJournalSegmentSize);
+        map.put("batchJournalSyncInterval", this.batchJournalSyncInterval);
+        map.put("batchRetryMaxAttempts", this.batchRetryMaxAttempts);
+        map.put("batchRetryInitialDelay", this.batchRetryInitialDelay);
+        map.put("batchRetryMaxDelay", this.batchRetryMaxDelay);
+        map.put("batchCircuitBreakerFailureThreshold", this.batchCircuitBreakerFailureThreshold);
+        map.put("batchCircuitBreakerOpenDuration", this.batchCircuitBreakerOpenDuration);
+        map.put("batchDeduplicationToken", this.batchDeduplicationToken);
+        map.put("batchAdaptiveTargetLatency", this.batchAdaptiveTargetLatency);
+        map.put("batchAdaptiveMaxFlushInterval", this.batchAdaptiveMaxFlushInterval);
+        map.put("batchTimingWheelTick", this.batchTimingWheelTick);
         map.put("threadManagerMaxProcessors", this.threadManagerMaxProcessors);
         map.put("threadManagerMaxQueueSize", this.threadManagerMaxQueueSize);
+        map.put("threadManagerWaitTimeout", this.threadManagerWaitTimeout);
         map.put("syncHostPort", this.syncHostPort);
         map.put("syncRemoteHosts", this.syncRemoteHosts);
         map.put("useSyncFeatures", this.useSyncFeatures);
         map.put("syncConnectionRetryTimeout", this.syncConnectionRetryTimeout);
         map.put("migrationsDirectoryPath", this.migrationsDirectoryPath);
         map.put("failedBatchSavePath", this.failedBatchSavePath);
+        map.put("failedBatchRedriveInterval", this.failedBatchRedriveInterval);
         return map;
     }
 
@@ -87,14 +142,41 @@ public class DefaultProperties {
         defaultProperties.rootPackageToScan = propertyEnvironment.getProperty("clicksave.core.root-package", "");
         defaultProperties.testEnv = propertyEnvironment.getProperty("clicksave.test-env", "false");
         defaultProperties.batchSaveRate = propertyEnvironment.getProperty("clicksave.core.batch-save-rate", "1200");
+        defaultProperties.batchAsyncFlush = propertyEnvironment.getProperty("clicksave.core.batch.async-flush", "false");
+        defaultProperties.batchFlushThreads = propertyEnvironment.getProperty("clicksave.core.batch.flush-threads", "2");
+        defaultProperties.batchMaxPendingFlushes = propertyEnvironment.getProperty("clicksave.core.batch.max-pending-flushes", "2");
+        defaultProperties.batchMaxBytes = propertyEnvironment.getProperty("clicksave.core.batch.max-bytes", "-1");
+        defaultProperties.batchOverflowPolicy = propertyEnvironment.getProperty("clicksave.core.batch.overflow-policy", "FLUSH");
+        defaultProperties.batchBlockTimeout = propertyEnvironment.getProperty("clicksave.core.batch.block-timeout", "5000");
+        defaultProperties.batchSpillDirectoryPath = propertyEnvironment.getProperty("clicksave.core.batch.spill-directory-path", "");
+        defaultProperties.rowBinaryInsert = propertyEnvironment.getProperty("clicksave.core.row-binary-insert", "false");
+        defaultProperties.asyncInsert = propertyEnvironment.getProperty("clicksave.core.async-insert", "DISABLED");
+        defaultProperties.saveAllChunkSize = propertyEnvironment.getProperty("clicksave.core.save-all-chunk-size", "10000");
+        defaultProperties.queryFetchSize = propertyEnvironment.getProperty("clicksave.core.query.fetch-size", "1000");
+        defaultProperties.readConsistency = propertyEnvironment.getProperty("clicksave.core.read-consistency", "STRONG");
+        defaultProperties.batchJournalEnabled = propertyEnvironment.getProperty("clicksave.core.batch.journal.enabled", "false");
+        defaultProperties.batchJournalDirectoryPath = propertyEnvironment.getProperty("clicksave.core.batch.journal.directory-path", "clicksave-journal");
+        defaultProperties.batchJournalSegmentSize = propertyEnvironment.getProperty("clicksave.core.batch.journal.segment-size", "8388608");
+        defaultProperties.batchJournalSyncInterval = propertyEnvironment.getProperty("clicksave.core.batch.journal.sync-interval", "20");
+        defaultProperties.batchRetryMaxAttempts = propertyEnvironment.getProperty("clicksave.core.batch.retry.max-attempts", "3");
+        defaultProperties.batchRetryInitialDelay = propertyEnvironment.getProperty("clicksave.core.batch.retry.initial-delay", "1000");
+        defaultProperties.batchRetryMaxDelay = propertyEnvironment.getProperty("clicksave.core.batch.retry.max-delay", "30000");
+        defaultProperties.batchCircuitBreakerFailureThreshold = propertyEnvironment.getProperty("clicksave.core.batch.circuit-breaker.failure-threshold", "5");
+        defaultProperties.batchCircuitBreakerOpenDuration = propertyEnvironment.getProperty("clicksave.core.batch.circuit-breaker.open-duration", "30000");
+        defaultProperties.batchDeduplicationToken = propertyEnvironment.getProperty("clicksave.core.batch.deduplication-token", "true");
+        defaultProperties.batchAdaptiveTargetLatency = propertyEnvironment.getProperty("clicksave.core.batch.adaptive.target-latency", "1000");
+        defaultProperties.batchAdaptiveMaxFlushInterval = propertyEnvironment.getProperty("clicksave.core.batch.adaptive.max-flush-interval", "10000");
+        defaultProperties.batchTimingWheelTick = propertyEnvironment.getProperty("clicksave.core.batch.timing-wheel-tick", "10");
         defaultProperties.threadManagerMaxProcessors = propertyEnvironment.getProperty("clicksave.core.thread-manager.max-processors", "-1");
         defaultProperties.threadManagerMaxQueueSize = propertyEnvironment.getProperty("clicksave.core.core.thread-manager.max-queue-size", "1000");
+        defaultProperties.threadManagerWaitTimeout = propertyEnvironment.getProperty("clicksave.core.thread-manager.wait-timeout", "30000");
         defaultProperties.syncHostPort = propertyEnvironment.getProperty("clicksave.sync.host.port", "");
         defaultProperties.syncRemoteHosts = propertyEnvironment.getProperty("clicksave.sync.remote.hosts", "");
         defaultProperties.useSyncFeatures = propertyEnvironment.getProperty("clicksave.sync.use-sync-features", "false");
         defaultProperties.syncConnectionRetryTimeout = propertyEnvironment.getProperty("clicksave.sync.connection-retry-timeout", "0");
         defaultProperties.migrationsDirectoryPath = propertyEnvironment.getProperty("clicksave.utils.migrations-directory-path", "");
         defaultProperties.failedBatchSavePath = propertyEnvironment.getProperty("clicksave.utils.failed-batch-directory-path", "");
+        defaultProperties.failedBatchRedriveInterval = propertyEnvironment.getProperty("clicksave.utils.failed-batch-redrive-interval", "60000");
         defaultProperties.connectionCompressionEnabled = propertyEnvironment.getProperty("clicksave.connection.compress", "true");
         return defaultProperties;
     }
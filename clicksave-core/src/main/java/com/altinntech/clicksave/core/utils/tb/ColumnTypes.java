@@ -0,0 +1,181 @@
+package com.altinntech.clicksave.core.utils.tb;
+
+import com.altinntech.clicksave.annotations.Column;
+import com.altinntech.clicksave.core.dto.FieldDataCache;
+import com.altinntech.clicksave.enums.FieldType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * The {@code ColumnTypes} class renders the ClickHouse type and definition of the column of a field, for example
+ * {@code LowCardinality(Nullable(String))}, {@code Array(Int64)} or {@code Nested(name String, price Float64)},
+ * and compares the definition with the column of an existing table.
+ *
+ * @author Fyodor Plotnikov
+ */
+public final class ColumnTypes {
+
+    private ColumnTypes() {
+    }
+
+    /**
+     * Returns the ClickHouse type of the field column.
+     *
+     * @param fieldData the field data
+     * @return the column type
+     */
+    public static String typeOf(FieldDataCache fieldData) {
+        FieldType fieldType = fieldData.getFieldType();
+        String type = switch (fieldType) {
+            case ARRAY, MAP, TUPLE -> {
+                StringJoiner elements = new StringJoiner(", ", fieldType.getType() + "(", ")");
+                for (FieldType elementType : fieldData.getColumnAnnotation().map(Column::elementTypes).orElse(new FieldType[0])) {
+                    elements.add(elementType.getType());
+                }
+                yield elements.toString();
+            }
+            case NESTED -> {
+                StringJoiner columns = new StringJoiner(", ", fieldType.getType() + "(", ")");
+                for (FieldDataCache elementField : fieldData.getElementFields()) {
+                    columns.add(elementField.getFieldInTableName() + " " + typeOf(elementField));
+                }
+                yield columns.toString();
+            }
+            default -> fieldType.getType();
+        };
+        if (fieldData.isNullable()) {
+            type = "Nullable(" + type + ")";
+        }
+        if (fieldData.getColumnAnnotation().map(Column::lowCardinality).orElse(false)) {
+            type = "LowCardinality(" + type + ")";
+        }
+        return type;
+    }
+
+    /**
+     * Returns the column definition of the field without the column name: the type followed by
+     * the {@code DEFAULT} or {@code MATERIALIZED} expression and the {@code CODEC} of the column.
+     *
+     * @param fieldData the field data
+     * @return the column definition
+     */
+    public static String definitionOf(FieldDataCache fieldData) {
+        StringBuilder definition = new StringBuilder(typeOf(fieldData));
+        fieldData.getColumnAnnotation().ifPresent(column -> {
+            if (!column.defaultExpression().isEmpty()) {
+                definition.append(" DEFAULT ").append(column.defaultExpression());
+            } else if (!column.materialized().isEmpty()) {
+                definition.append(" MATERIALIZED ").append(column.materialized());
+            }
+            if (!column.codec().isEmpty()) {
+                definition.append(" CODEC(").append(column.codec()).append(")");
+            }
+        });
+        return definition.toString();
+    }
+
+    /**
+     * Returns the kind of the default value of the field, as reported by {@code system.columns}.
+     *
+     * @param fieldData the field data
+     * @return {@code DEFAULT}, {@code MATERIALIZED} or an empty string
+     */
+    public static String defaultKindOf(FieldDataCache fieldData) {
+        Column column = fieldData.getColumnAnnotation().orElse(null);
+        if (column == null) {
+            return "";
+        }
+        return !column.defaultExpression().isEmpty() ? "DEFAULT" : !column.materialized().isEmpty() ? "MATERIALIZED" : "";
+    }
+
+    /**
+     * Returns the default or materialized expression of the field.
+     *
+     * @param fieldData the field data
+     * @return the expression or an empty string
+     */
+    public static String defaultExpressionOf(FieldDataCache fieldData) {
+        return fieldData.getColumnAnnotation()
+                .map(column -> !column.defaultExpression().isEmpty() ? column.defaultExpression() : column.materialized())
+                .orElse("");
+    }
+
+    /**
+     * Compares two expressions ignoring the whitespaces, the server reformats the expressions it stores.
+     *
+     * @param declared the expression of the field
+     * @param actual   the expression of the table column
+     * @return {@code true} if the expressions match
+     */
+    public static boolean sameExpression(String declared, String actual) {
+        return stripSpaces(declared).equals(stripSpaces(actual));
+    }
+
+    /**
+     * Compares the codecs of the field with the codecs of the table column. The server stores the codecs with
+     * their default parameters, {@code ZSTD} is reported as {@code CODEC(ZSTD(1))}, so a codec declared without
+     * parameters matches any parameters.
+     *
+     * @param declared the codecs of the field, for example {@code Delta, ZSTD}
+     * @param actual   the codecs of the table column, for example {@code CODEC(Delta(8), ZSTD(1))}
+     * @return {@code true} if the codecs match
+     */
+    public static boolean sameCodec(String declared, String actual) {
+        String actualCodecs = stripSpaces(actual);
+        if (actualCodecs.startsWith("CODEC(") && actualCodecs.endsWith(")")) {
+            actualCodecs = actualCodecs.substring("CODEC(".length(), actualCodecs.length() - 1);
+        }
+        List<String> declaredList = splitCodecs(stripSpaces(declared));
+        List<String> actualList = splitCodecs(actualCodecs);
+        if (declaredList.size() != actualList.size()) {
+            return false;
+        }
+        for (int i = 0; i < declaredList.size(); i++) {
+            String codec = declaredList.get(i);
+            String actualCodec = actualList.get(i);
+            boolean same = codec.indexOf('(') < 0
+                    ? actualCodec.equalsIgnoreCase(codec) || actualCodec.regionMatches(true, 0, codec + "(", 0, codec.length() + 1)
+                    : actualCodec.equalsIgnoreCase(codec);
+            if (!same) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> splitCodecs(String codecs) {
+        List<String> result = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < codecs.length(); i++) {
+            char next = codecs.charAt(i);
+            if (next == '(') {
+                depth++;
+            } else if (next == ')') {
+                depth--;
+            } else if (next == ',' && depth == 0) {
+                result.add(codecs.substring(start, i));
+                start = i + 1;
+            }
+        }
+        if (start < codecs.length()) {
+            result.add(codecs.substring(start));
+        }
+        return result;
+    }
+
+    private static String stripSpaces(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isWhitespace(value.charAt(i))) {
+                result.append(value.charAt(i));
+            }
+        }
+        return result.toString();
+    }
+}
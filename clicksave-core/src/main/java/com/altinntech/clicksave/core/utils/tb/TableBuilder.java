@@ -1,13 +1,17 @@
 package com.altinntech.clicksave.core.utils.tb;
 
+import com.altinntech.clicksave.annotations.Column;
 import com.altinntech.clicksave.annotations.Embedded;
 import com.altinntech.clicksave.core.CSBootstrap;
 import com.altinntech.clicksave.core.dto.*;
 import com.altinntech.clicksave.enums.EngineType;
+import com.altinntech.clicksave.enums.FieldType;
 import com.altinntech.clicksave.exceptions.ClassCacheNotFoundException;
 import com.altinntech.clicksave.exceptions.FieldInitializationException;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import static com.altinntech.clicksave.core.utils.migration.MigrationWriter.createMigration;
@@ -85,12 +89,7 @@ public class TableBuilder {
     }
 
     private static void writeFieldToQuery(StringBuilder query, FieldDataCache fieldData) {
-        query.append(fieldData.getFieldInTableName()).append(" ");
-        if (fieldData.isNullable()) {
-            query.append("Nullable(").append(fieldData.getFieldType().getType()).append(")");
-        } else {
-            query.append(fieldData.getFieldType().getType());
-        }
+        query.append(fieldData.getFieldInTableName()).append(" ").append(ColumnTypes.definitionOf(fieldData));
     }
 
     public void updateTable(Class<?> clazz) throws FieldInitializationException, ClassCacheNotFoundException {
@@ -110,9 +109,11 @@ public class TableBuilder {
         for (FieldDataCache fieldData : fieldDataCaches) {
             String fieldName = fieldData.getFieldInTableName();
 
-            // check for existing
+            // check for existing, nested fields are stored as the arrays of their columns
+            boolean nested = fieldData.getFieldType() == FieldType.NESTED;
             boolean exists = fieldsFromDB.stream()
-                    .anyMatch(columnData -> columnData.getColumnName().equals(fieldName));
+                    .anyMatch(columnData -> columnData.getColumnName().equals(fieldName)
+                            || nested && columnData.getColumnName().startsWith(fieldName + "."));
             if (!exists && fieldData.getEmbeddedAnnotation().isEmpty()) {
                 addColumn(tableName, fieldData);
             } else if (fieldData.getEmbeddedAnnotation().isPresent()) {
@@ -122,14 +123,14 @@ public class TableBuilder {
                 }
             }
 
-            //check for types
-            if (fieldData.getEmbeddedAnnotation().isEmpty()) {
-                String fieldType = fieldData.getFieldType().getType();
-                boolean concurrence = fieldsFromDB.stream()
-                        .anyMatch(columnData -> columnData.getColumnName().equals(fieldName) &&
-                                columnData.getColumnType().equals(fieldType));
-                if (exists && !concurrence && fieldData.getRestrictedForUpdateAnnotationOptional().isEmpty()) {
-                    modifyColumn(tableName, fieldData);
+            //check for types, defaults and codecs
+            if (fieldData.getEmbeddedAnnotation().isEmpty() && !nested) {
+                ColumnData column = fieldsFromDB.stream()
+                        .filter(columnData -> columnData.getColumnName().equals(fieldName))
+                        .findFirst()
+                        .orElse(null);
+                if (column != null && fieldData.getRestrictedForUpdateAnnotationOptional().isEmpty() && isChanged(fieldData, column)) {
+                    modifyColumn(tableName, fieldData, column);
                 }
             }
         }
@@ -139,7 +140,7 @@ public class TableBuilder {
 
     private void addColumn(String tableName, FieldDataCache fieldData) {
         String fieldName = fieldData.getFieldInTableName();
-        String dataType = fieldData.getFieldType().getType();
+        String dataType = ColumnTypes.definitionOf(fieldData);
         String queryBuilder = "ALTER TABLE " + tableName + " ADD COLUMN" +
                 " " + fieldName + " " + dataType;
         bootstrap.executeQuery(queryBuilder);
@@ -147,13 +148,52 @@ public class TableBuilder {
         writeToMigration(queryBuilder);
     }
 
-    private void modifyColumn(String tableName, FieldDataCache fieldData) {
+    private void modifyColumn(String tableName, FieldDataCache fieldData, ColumnData column) {
+        for (String query : modifyColumnQueries(tableName, fieldData, column)) {
+            bootstrap.executeQuery(query);
+            writeToMigration(query);
+        }
+        info("Modify column '" + fieldData.getFieldInTableName() + "' into table '" + tableName + "'");
+    }
+
+    /**
+     * Checks if the table column differs from the field in its type, default expression or codecs.
+     *
+     * @param fieldData the field data
+     * @param column    the table column
+     * @return {@code true} if the column must be modified
+     */
+    static boolean isChanged(FieldDataCache fieldData, ColumnData column) {
+        boolean sameType = column.getColumnType().equals(ColumnTypes.typeOf(fieldData));
+        boolean sameDefault = Objects.equals(nullToEmpty(column.getDefaultKind()), ColumnTypes.defaultKindOf(fieldData))
+                && ColumnTypes.sameExpression(ColumnTypes.defaultExpressionOf(fieldData), column.getDefaultExpression());
+        boolean sameCodec = ColumnTypes.sameCodec(fieldData.getColumnAnnotation().map(Column::codec).orElse(""), column.getCompressionCodec());
+        return !sameType || !sameDefault || !sameCodec;
+    }
+
+    /**
+     * Builds the queries modifying the table column to the definition of the field. A modified column keeps
+     * the default and codec it doesn't declare, so they are removed by separate queries.
+     *
+     * @param tableName the table name
+     * @param fieldData the field data
+     * @param column    the table column
+     * @return the queries in the execution order
+     */
+    static List<String> modifyColumnQueries(String tableName, FieldDataCache fieldData, ColumnData column) {
         String fieldName = fieldData.getFieldInTableName();
-        String dataType = fieldData.getFieldType().getType();
-        String queryBuilder = "ALTER TABLE " + tableName + " MODIFY COLUMN" +
-                " " + fieldName + " " + dataType;
-        bootstrap.executeQuery(queryBuilder);
-        info("Modify column '" + fieldName + "' into table '" + tableName + "'");
-        writeToMigration(queryBuilder);
+        List<String> queries = new ArrayList<>();
+        queries.add("ALTER TABLE " + tableName + " MODIFY COLUMN " + fieldName + " " + ColumnTypes.definitionOf(fieldData));
+        if (ColumnTypes.defaultKindOf(fieldData).isEmpty() && !nullToEmpty(column.getDefaultKind()).isEmpty()) {
+            queries.add("ALTER TABLE " + tableName + " MODIFY COLUMN " + fieldName + " REMOVE DEFAULT");
+        }
+        if (fieldData.getColumnAnnotation().map(Column::codec).orElse("").isEmpty() && !nullToEmpty(column.getCompressionCodec()).isEmpty()) {
+            queries.add("ALTER TABLE " + tableName + " MODIFY COLUMN " + fieldName + " REMOVE CODEC");
+        }
+        return queries;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
     }
 }
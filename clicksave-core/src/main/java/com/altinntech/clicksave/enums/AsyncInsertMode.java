@@ -0,0 +1,31 @@
+package com.altinntech.clicksave.enums;
+
+/**
+ * The {@code AsyncInsertMode} enum defines how inserts of entities without batching are sent to ClickHouse.
+ * With the server-side {@code async_insert} the server buffers small inserts and writes them as one part.
+ *
+ * @author Fyodor Plotnikov
+ */
+public enum AsyncInsertMode {
+
+    /**
+     * Uses the mode set by the {@code clicksave.core.async-insert} property.
+     */
+    DEFAULT,
+
+    /**
+     * Every insert creates its own part.
+     */
+    DISABLED,
+
+    /**
+     * Sends inserts with {@code async_insert=1, wait_for_async_insert=1}: the save returns when the server has flushed its buffer.
+     */
+    WAIT,
+
+    /**
+     * Sends inserts with {@code async_insert=1, wait_for_async_insert=0}: the save returns as soon as the server has buffered the row.
+     * Rows are lost if the server fails before flushing its buffer, insert errors are not reported.
+     */
+    NO_WAIT,
+}
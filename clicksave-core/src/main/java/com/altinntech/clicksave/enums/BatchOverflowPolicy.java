@@ -0,0 +1,24 @@
+package com.altinntech.clicksave.enums;
+
+/**
+ * The {@code BatchOverflowPolicy} enum defines what happens when the global batch memory budget is exceeded.
+ *
+ * @author Fyodor Plotnikov
+ */
+public enum BatchOverflowPolicy {
+
+    /**
+     * Flushes the largest batch early.
+     */
+    FLUSH,
+
+    /**
+     * Blocks the producer until the flushers release memory, then flushes the largest batch.
+     */
+    BLOCK,
+
+    /**
+     * Spills new rows to a file in the spill directory until the next flush of the table.
+     */
+    SPILL,
+}
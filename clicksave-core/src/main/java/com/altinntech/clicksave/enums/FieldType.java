@@ -104,6 +104,30 @@ public enum FieldType {
      * Represents a JSON field type
      */
     JSON("JSON"),
+
+    /**
+     * Represents an {@code Array(T)} field type, the element type is set by {@code Column.elementTypes}.
+     * Stored from arrays and collections.
+     */
+    ARRAY("Array"),
+
+    /**
+     * Represents a {@code Map(K, V)} field type, the key and value types are set by {@code Column.elementTypes}.
+     * Stored from maps.
+     */
+    MAP("Map"),
+
+    /**
+     * Represents a {@code Tuple(T1, ..., Tn)} field type, the element types are set by {@code Column.elementTypes}.
+     * Stored from lists and object arrays, by position.
+     */
+    TUPLE("Tuple"),
+
+    /**
+     * Represents a {@code Nested} field type. Stored from a list of objects of a class with {@code Column} fields,
+     * every field of the class is a nested column.
+     */
+    NESTED("Nested"),
     ;
 
     private final String type;
@@ -125,4 +149,13 @@ public enum FieldType {
     public String getType() {
         return type;
     }
+
+    /**
+     * Checks if the type is composed of other types, its full ClickHouse type depends on the element types.
+     *
+     * @return {@code true} for arrays, maps, tuples and nested fields
+     */
+    public boolean isComposite() {
+        return this == ARRAY || this == MAP || this == TUPLE || this == NESTED;
+    }
 }
@@ -7,6 +7,22 @@ public enum Metrics {
     REPO_DELETE_COUNTER("repo_delete_counter"),
     BATCH_SUCCESS("batch_success"),
     BATCH_FAIL("batch_fail"),
+    BATCH_BYTES("batch_bytes"),
+    BATCH_SPILLED_ROWS("batch_spilled_rows"),
+    BATCH_TARGET_SIZE("batch_target_size"),
+    BATCH_FLUSH_INTERVAL("batch_flush_interval"),
+    BATCH_RETRY("batch_retry"),
+    BATCH_RETRY_PENDING("batch_retry_pending"),
+    BATCH_PENDING_ROWS("batch_pending_rows"),
+    PENDING_ROW_READS("pending_row_reads"),
+    ASYNC_SAVE_IN_FLIGHT("async_save_in_flight"),
+    ASYNC_SAVE_WAIT_MILLIS("async_save_wait_millis"),
+    ASYNC_SAVE_WAIT_TIMEOUT("async_save_wait_timeout"),
+    CIRCUIT_BREAKER_STATE("circuit_breaker_state"),
+    CIRCUIT_BREAKER_OPENED("circuit_breaker_opened"),
+    DLQ_DEPTH("dlq_depth"),
+    DLQ_REPLAYED_BATCHES("dlq_replayed_batches"),
+    DLQ_REPLAYED_ROWS("dlq_replayed_rows"),
     HEALTH_CHECK_FAILED("health_check_failed"),
     CONNECTIONS_COUNT("connections_count"),
     CONNECTIONS_POOL_SIZE("connections_pool_size"),
@@ -0,0 +1,26 @@
+package com.altinntech.clicksave.enums;
+
+/**
+ * The {@code ReadConsistency} enum defines which saved entities, still buffered in batches, are visible to reads.
+ *
+ * @author Fyodor Plotnikov
+ */
+public enum ReadConsistency {
+
+    /**
+     * Reads never flush batches, batched entities are visible once their batch is written.
+     * Lookups by id find entities of pending rows.
+     */
+    EVENTUAL,
+
+    /**
+     * Lookups by id find entities of pending rows without flushing the batch, other reads flush the batch of their
+     * table first. Pending rows of other instances are not flushed.
+     */
+    SESSION,
+
+    /**
+     * Every read flushes the batch of its table and asks the other instances to flush their batches first.
+     */
+    STRONG,
+}
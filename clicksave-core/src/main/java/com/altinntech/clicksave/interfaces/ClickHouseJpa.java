@@ -1,12 +1,16 @@
 package com.altinntech.clicksave.interfaces;
 
 import com.altinntech.clicksave.annotations.SettableQuery;
+import com.altinntech.clicksave.core.query.page.Page;
+import com.altinntech.clicksave.core.query.page.Pageable;
+import com.altinntech.clicksave.core.query.page.Slice;
 import lombok.SneakyThrows;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.Future;
+import java.util.stream.Stream;
 
 /**
  * The {@code ClickHouseJpa} interface defines common JPA-like methods for interacting with ClickHouse databases.
@@ -34,6 +38,21 @@ public interface ClickHouseJpa<T, ID> extends ClicksaveUtils {
      */
     <S extends T> Future<S> saveAsync(S entity);
 
+    /**
+     * Saves the given entities. New entities are inserted in chunks, the ids are allocated in one block per chunk.
+     *
+     * @param entities the entities to save
+     * @return the saved entities
+     */
+    <S extends T> List<S> saveAll(Iterable<S> entities);
+
+    /**
+     * Saves the entities of the stream in chunks, holding only one chunk in memory. The stream is closed afterwards.
+     *
+     * @param entities the entities to save
+     * @return the number of saved entities
+     */
+    <S extends T> long saveAll(Stream<S> entities);
 
     /**
      * Retrieves an entity by its ID.
@@ -57,6 +76,32 @@ public interface ClickHouseJpa<T, ID> extends ClicksaveUtils {
      */
     <S extends T> List<S>  findAll();
 
+    /**
+     * Streams all entities of type T. The entities are read from the database while the stream is consumed,
+     * so the result is never held in memory as a whole. The stream holds a connection until it is fully read
+     * or closed, use it in a try-with-resources block.
+     *
+     * @return a stream of all entities
+     */
+    <S extends T> Stream<S> streamAll();
+
+    /**
+     * Retrieves a page of entities of type T sorted by the sorting key of the table, with the number of all entities.
+     * Continue with {@link Page#nextPageable()} to read the next pages by keyset pagination.
+     *
+     * @param pageable the pageable, for example {@code Pageable.ofSize(50)}
+     * @return the page
+     */
+    <S extends T> Page<S> findAll(Pageable pageable);
+
+    /**
+     * Retrieves a page of entities of type T sorted by the sorting key of the table, without counting all entities.
+     *
+     * @param pageable the pageable, for example {@code Pageable.ofSize(50)}
+     * @return the slice
+     */
+    <S extends T> Slice<S> findSlice(Pageable pageable);
+
     /**
      * Deletes the given entity.
      *
@@ -0,0 +1,21 @@
+package com.altinntech.clicksave.interfaces;
+
+import java.util.Iterator;
+
+/**
+ * The {@code CloseableIterator} interface is the iterator returned by the query methods declaring an
+ * {@code Iterator} or a {@code CloseableIterator} result. It reads the rows from the open result set and holds
+ * the connection of the query until it is closed or fully read, so an iterator that is not read to the end
+ * must be closed, for example by a try-with-resources statement.
+ *
+ * @param <T> the entity or projection type
+ * @author Fyodor Plotnikov
+ */
+public interface CloseableIterator<T> extends Iterator<T>, AutoCloseable {
+
+    /**
+     * Releases the connection of the query. Closing a closed iterator has no effect.
+     */
+    @Override
+    void close();
+}
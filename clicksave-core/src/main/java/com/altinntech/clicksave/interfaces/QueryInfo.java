@@ -17,8 +17,9 @@ public interface QueryInfo {
 
     default String queryId() {
         return String.format(
-                "%s_%s_%s_%d",
+                "%s_%s_%s_%s_%d",
                 methodName(), entityClass().getSimpleName(), returnClass().getSimpleName(),
+                Optional.ofNullable(containerClass()).map(Class::getSimpleName).orElse(""),
                 Optional.ofNullable(queryString()).map(Object::hashCode).orElse(0)
         );
     }
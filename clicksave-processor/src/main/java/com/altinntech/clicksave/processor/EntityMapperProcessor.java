@@ -0,0 +1,80 @@
+package com.altinntech.clicksave.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The {@code EntityMapperProcessor} class generates a mapper for every {@code @ClickHouseEntity} class at compile time.
+ * The mapper binds the entity fields to insert columns and reads the entity from a result set without reflection,
+ * with the embedded entities flattened inline.
+ *
+ * <p>Entities the mapper can't be generated for, for example with private fields without accessors,
+ * are reported with a note and mapped by reflection at runtime.</p>
+ *
+ * @author Fyodor Plotnikov
+ */
+@SupportedAnnotationTypes({
+        Names.CLICK_HOUSE_ENTITY,
+        Names.EMBEDDABLE,
+        Names.COLUMN,
+        Names.ENUM_COLUMN,
+        Names.LOB
+})
+public class EntityMapperProcessor extends AbstractProcessor {
+
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement entityAnnotation = processingEnv.getElementUtils().getTypeElement(Names.CLICK_HOUSE_ENTITY);
+        if (entityAnnotation == null) {
+            return false;
+        }
+        EntityModelBuilder modelBuilder = new EntityModelBuilder(processingEnv);
+        for (Element element : roundEnv.getElementsAnnotatedWith(entityAnnotation)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                continue;
+            }
+            TypeElement entity = (TypeElement) element;
+            String entityName = processingEnv.getElementUtils().getBinaryName(entity).toString();
+            if (!generated.add(entityName)) {
+                continue;
+            }
+            try {
+                EntityModel model = modelBuilder.build(entity);
+                write(model);
+            } catch (UnsupportedEntityException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                        "ClickSave mapper is not generated, the entity is mapped by reflection: " + e.getMessage(), entity);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Can't write ClickSave mapper: " + e.getMessage(), entity);
+            }
+        }
+        return false;
+    }
+
+    private void write(EntityModel model) throws IOException {
+        String mapperName = model.getMapperQualifiedName();
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(mapperName, model.getOriginatingElements().toArray(new Element[0]));
+        try (Writer writer = file.openWriter()) {
+            writer.write(new MapperWriter(model).write());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.altinntech.clicksave.processor;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The {@code EntityModel} class describes the mapped fields of an entity.
+ *
+ * @author Fyodor Plotnikov
+ */
+final class EntityModel {
+
+    private final TypeElement entity;
+    private final String packageName;
+    private final String mapperSimpleName;
+    private final List<FieldModel> fields;
+    private final Set<Element> originatingElements;
+
+    EntityModel(TypeElement entity, String packageName, String mapperSimpleName, List<FieldModel> fields, Set<Element> originatingElements) {
+        this.entity = entity;
+        this.packageName = packageName;
+        this.mapperSimpleName = mapperSimpleName;
+        this.fields = fields;
+        this.originatingElements = originatingElements;
+    }
+
+    TypeElement getEntity() {
+        return entity;
+    }
+
+    String getPackageName() {
+        return packageName;
+    }
+
+    String getMapperSimpleName() {
+        return mapperSimpleName;
+    }
+
+    String getMapperQualifiedName() {
+        return packageName.isEmpty() ? mapperSimpleName : packageName + "." + mapperSimpleName;
+    }
+
+    List<FieldModel> getFields() {
+        return fields;
+    }
+
+    Set<Element> getOriginatingElements() {
+        return originatingElements;
+    }
+}
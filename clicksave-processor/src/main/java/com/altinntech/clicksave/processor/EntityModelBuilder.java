@@ -0,0 +1,310 @@
+package com.altinntech.clicksave.processor;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@code EntityModelBuilder} class collects the mapped fields of an entity the same way
+ * {@code CSUtils.getFieldsData} does at runtime and resolves how the generated mapper accesses them.
+ *
+ * <p>Fields are accessed directly when they are visible from the mapper package, otherwise through their
+ * getters and setters, declared explicitly or generated by Lombok.</p>
+ *
+ * @author Fyodor Plotnikov
+ */
+final class EntityModelBuilder {
+
+    private static final int MAX_EMBEDDED_FIELDS = 64;
+
+    private final Elements elements;
+    private final Types types;
+
+    EntityModelBuilder(ProcessingEnvironment processingEnv) {
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+    }
+
+    EntityModel build(TypeElement entity) throws UnsupportedEntityException {
+        String packageName = elements.getPackageOf(entity).getQualifiedName().toString();
+        String binaryName = elements.getBinaryName(entity).toString();
+        String simpleBinaryName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+        if (!entity.getTypeParameters().isEmpty()) {
+            throw new UnsupportedEntityException(entity + " is generic");
+        }
+        checkInstantiable(entity, packageName);
+
+        Set<Element> originatingElements = new LinkedHashSet<>();
+        originatingElements.add(entity);
+        List<FieldModel> fields = buildFields(entity, packageName, originatingElements);
+        if (countEmbedded(fields) > MAX_EMBEDDED_FIELDS) {
+            throw new UnsupportedEntityException(entity + " has more than " + MAX_EMBEDDED_FIELDS + " embedded fields");
+        }
+        String mapperSimpleName = simpleBinaryName + Names.MAPPER_SUFFIX;
+        return new EntityModel(entity, packageName, mapperSimpleName, fields, originatingElements);
+    }
+
+    private List<FieldModel> buildFields(TypeElement owner, String packageName, Set<Element> originatingElements) throws UnsupportedEntityException {
+        List<FieldModel> fields = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(owner.getEnclosedElements())) {
+            AnnotationMirror column = annotation(field, Names.COLUMN);
+            AnnotationMirror enumColumn = annotation(field, Names.ENUM_COLUMN);
+            AnnotationMirror embedded = annotation(field, Names.EMBEDDED);
+            AnnotationMirror lob = annotation(field, Names.LOB);
+            if (column == null && enumColumn == null && embedded == null && lob == null) {
+                continue;
+            }
+            if (field.getModifiers().contains(Modifier.STATIC)) {
+                throw new UnsupportedEntityException("field " + owner + "." + field + " is static");
+            }
+            String getter = getter(owner, field, packageName);
+            String setter = setter(owner, field, packageName);
+            TypeMirror type = field.asType();
+
+            if (embedded != null) {
+                TypeElement embeddedType = asTypeElement(type);
+                if (embeddedType == null || annotation(embeddedType, Names.EMBEDDABLE) == null) {
+                    throw new UnsupportedEntityException("embedded field " + owner + "." + field + " is not an @Embeddable class");
+                }
+                checkInstantiable(embeddedType, packageName);
+                originatingElements.add(embeddedType);
+                List<FieldModel> children = buildFields(embeddedType, packageName, originatingElements);
+                fields.add(new FieldModel(field, owner, FieldModel.Kind.EMBEDDED, null, null, null, getter, setter,
+                        null, false, embeddedType, children));
+                continue;
+            }
+
+            String fieldType = null;
+            String enumMode = null;
+            FieldModel.Kind kind = FieldModel.Kind.VALUE;
+            // the last annotation wins, as in CSUtils.getFieldsData
+            for (AnnotationMirror annotation : field.getAnnotationMirrors()) {
+                String name = ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+                switch (name) {
+                    case Names.COLUMN -> fieldType = enumValue(annotation, "value", null);
+                    case Names.ENUM_COLUMN -> {
+                        enumMode = enumValue(annotation, "value", "STRING");
+                        fieldType = switch (enumMode) {
+                            case "ORDINAL" -> "UINT16";
+                            case "BY_ID" -> "LONG";
+                            default -> "STRING";
+                        };
+                    }
+                    case Names.LOB -> fieldType = "STRING";
+                    default -> {
+                    }
+                }
+            }
+            if (fieldType == null) {
+                throw new UnsupportedEntityException("field " + owner + "." + field + " has no column type");
+            }
+            if (column != null && !enumValue(column, "materialized", "").isEmpty()) {
+                throw new UnsupportedEntityException("materialized column " + owner + "." + field + " is not supported");
+            }
+            if (fieldType.equals("NESTED")) {
+                throw new UnsupportedEntityException("nested column " + owner + "." + field + " is not supported");
+            }
+            if (lob != null) {
+                kind = FieldModel.Kind.LOB;
+            } else if (fieldType.equals("ARRAY") || fieldType.equals("MAP") || fieldType.equals("TUPLE")) {
+                kind = FieldModel.Kind.COMPOSITE;
+            } else if (enumMode != null) {
+                if (!isEnum(type)) {
+                    throw new UnsupportedEntityException("enum column " + owner + "." + field + " is not an enum");
+                }
+                kind = FieldModel.Kind.ENUM;
+            } else if ((fieldType.equals("DATE_TIME") || fieldType.equals("DATE_TIME6")) && !isClass(type, "java.time.LocalDateTime")) {
+                throw new UnsupportedEntityException("date time column " + owner + "." + field + " is not a LocalDateTime");
+            }
+
+            fields.add(new FieldModel(field, owner, kind, toSnakeCase(field.getSimpleName().toString()), fieldType, enumMode, getter, setter,
+                    valueClass(type), type.getKind().isPrimitive(), null, null));
+        }
+        return fields;
+    }
+
+    /**
+     * Converts the field name to the column name, the same way as {@code CSUtils.toSnakeCase}.
+     */
+    static String toSnakeCase(String input) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < input.length(); i++) {
+            char currentChar = input.charAt(i);
+            if (Character.isUpperCase(currentChar)) {
+                if (i > 0) {
+                    result.append("_");
+                }
+                result.append(Character.toLowerCase(currentChar));
+            } else {
+                result.append(currentChar);
+            }
+        }
+        return result.toString();
+    }
+
+    private static int countEmbedded(List<FieldModel> fields) {
+        int count = 0;
+        for (FieldModel field : fields) {
+            if (field.getKind() == FieldModel.Kind.EMBEDDED) {
+                count += 1 + countEmbedded(field.getChildren());
+            }
+        }
+        return count;
+    }
+
+    private String getter(TypeElement owner, VariableElement field, String packageName) throws UnsupportedEntityException {
+        String name = field.getSimpleName().toString();
+        if (isAccessible(field, packageName)) {
+            return "%1$s." + name;
+        }
+        String getterName = (field.asType().getKind() == TypeKind.BOOLEAN ? "is" : "get") + propertyName(field);
+        if (hasMethod(owner, getterName, 0, packageName) || hasLombok(owner, field, Names.LOMBOK_GETTER, Names.LOMBOK_DATA, Names.LOMBOK_VALUE)) {
+            return "%1$s." + getterName + "()";
+        }
+        throw new UnsupportedEntityException("field " + owner + "." + name + " is not accessible and has no getter");
+    }
+
+    private String setter(TypeElement owner, VariableElement field, String packageName) throws UnsupportedEntityException {
+        String name = field.getSimpleName().toString();
+        if (field.getModifiers().contains(Modifier.FINAL)) {
+            throw new UnsupportedEntityException("field " + owner + "." + name + " is final");
+        }
+        if (isAccessible(field, packageName)) {
+            return "%1$s." + name + " = %2$s";
+        }
+        String setterName = "set" + propertyName(field);
+        if (hasMethod(owner, setterName, 1, packageName) || hasLombok(owner, field, Names.LOMBOK_SETTER, Names.LOMBOK_DATA)) {
+            return "%1$s." + setterName + "(%2$s)";
+        }
+        throw new UnsupportedEntityException("field " + owner + "." + name + " is not accessible and has no setter");
+    }
+
+    /**
+     * Returns the capitalized property name of the field, Lombok drops the {@code is} prefix of boolean fields.
+     */
+    private static String propertyName(VariableElement field) {
+        String name = field.getSimpleName().toString();
+        if (field.asType().getKind() == TypeKind.BOOLEAN && isBooleanPrefixed(name)) {
+            return name.substring(2);
+        }
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static boolean isBooleanPrefixed(String name) {
+        return name.length() > 2 && name.startsWith("is") && Character.isUpperCase(name.charAt(2));
+    }
+
+    private boolean hasMethod(TypeElement owner, String name, int parameters, String packageName) {
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(owner))) {
+            if (method.getSimpleName().contentEquals(name) && method.getParameters().size() == parameters
+                    && !method.getModifiers().contains(Modifier.STATIC) && isAccessible(method, packageName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasLombok(TypeElement owner, VariableElement field, String... annotations) {
+        for (String annotation : annotations) {
+            if (annotation(field, annotation) != null || annotation(owner, annotation) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkInstantiable(TypeElement type, String packageName) throws UnsupportedEntityException {
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new UnsupportedEntityException(type + " is abstract");
+        }
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            Set<Modifier> modifiers = element.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE) || (!modifiers.contains(Modifier.PUBLIC) && !isInPackage(element, packageName))) {
+                throw new UnsupportedEntityException(element + " is not visible from package " + packageName);
+            }
+            if (element.getEnclosingElement() instanceof TypeElement && !modifiers.contains(Modifier.STATIC)) {
+                throw new UnsupportedEntityException(element + " is an inner class");
+            }
+        }
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+        for (ExecutableElement constructor : constructors) {
+            if (constructor.getParameters().isEmpty() && isAccessible(constructor, packageName)) {
+                return;
+            }
+        }
+        if (annotation(type, Names.LOMBOK_NO_ARGS_CONSTRUCTOR) != null) {
+            return;
+        }
+        boolean generatedConstructors = annotation(type, Names.LOMBOK_ALL_ARGS_CONSTRUCTOR) != null
+                || annotation(type, Names.LOMBOK_REQUIRED_ARGS_CONSTRUCTOR) != null;
+        if (constructors.isEmpty() && !generatedConstructors) {
+            return;
+        }
+        throw new UnsupportedEntityException(type + " has no accessible no-args constructor");
+    }
+
+    private boolean isAccessible(Element member, String packageName) {
+        Set<Modifier> modifiers = member.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        return modifiers.contains(Modifier.PUBLIC) || isInPackage(member, packageName);
+    }
+
+    private boolean isInPackage(Element element, String packageName) {
+        return elements.getPackageOf(element).getQualifiedName().contentEquals(packageName);
+    }
+
+    private String valueClass(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return types.boxedClass(types.getPrimitiveType(type.getKind())).getQualifiedName().toString();
+        }
+        return types.erasure(type).toString();
+    }
+
+    private boolean isEnum(TypeMirror type) {
+        TypeElement element = asTypeElement(type);
+        return element != null && element.getKind() == ElementKind.ENUM;
+    }
+
+    private boolean isClass(TypeMirror type, String qualifiedName) {
+        TypeElement element = asTypeElement(type);
+        return element != null && element.getQualifiedName().contentEquals(qualifiedName);
+    }
+
+    private static TypeElement asTypeElement(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        return (TypeElement) ((DeclaredType) type).asElement();
+    }
+
+    private static String enumValue(AnnotationMirror annotation, String name, String defaultValue) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                Object value = entry.getValue().getValue();
+                return value instanceof VariableElement ? ((VariableElement) value).getSimpleName().toString() : value.toString();
+            }
+        }
+        return defaultValue;
+    }
+
+    private static AnnotationMirror annotation(Element element, String qualifiedName) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(qualifiedName)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+}
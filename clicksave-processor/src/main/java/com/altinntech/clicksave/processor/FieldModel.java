@@ -0,0 +1,107 @@
+package com.altinntech.clicksave.processor;
+
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import java.util.List;
+
+/**
+ * The {@code FieldModel} class describes a mapped field: its column, conversions and the code templates
+ * reading and writing it. In the templates {@code %1$s} is the owner object and {@code %2$s} the value.
+ *
+ * @author Fyodor Plotnikov
+ */
+final class FieldModel {
+
+    enum Kind {
+        VALUE, LOB, ENUM, COMPOSITE, EMBEDDED
+    }
+
+    private final VariableElement field;
+    private final TypeElement owner;
+    private final Kind kind;
+    private final String column;
+    private final String fieldType;
+    private final String enumMode;
+    private final String getter;
+    private final String setter;
+    private final String valueClass;
+    private final boolean primitive;
+    private final TypeElement embeddedType;
+    private final List<FieldModel> children;
+
+    FieldModel(VariableElement field, TypeElement owner, Kind kind, String column, String fieldType, String enumMode,
+               String getter, String setter, String valueClass, boolean primitive, TypeElement embeddedType, List<FieldModel> children) {
+        this.field = field;
+        this.owner = owner;
+        this.kind = kind;
+        this.column = column;
+        this.fieldType = fieldType;
+        this.enumMode = enumMode;
+        this.getter = getter;
+        this.setter = setter;
+        this.valueClass = valueClass;
+        this.primitive = primitive;
+        this.embeddedType = embeddedType;
+        this.children = children;
+    }
+
+    VariableElement getField() {
+        return field;
+    }
+
+    TypeElement getOwner() {
+        return owner;
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the column name, {@code null} for embedded fields.
+     */
+    String getColumn() {
+        return column;
+    }
+
+    /**
+     * Returns the name of the {@code FieldType} constant of the column.
+     */
+    String getFieldType() {
+        return fieldType;
+    }
+
+    /**
+     * Returns the name of the {@code EnumType} constant of enum columns.
+     */
+    String getEnumMode() {
+        return enumMode;
+    }
+
+    String get(String owner) {
+        return String.format(getter, owner);
+    }
+
+    String set(String owner, String value) {
+        return String.format(setter, owner, value);
+    }
+
+    /**
+     * Returns the class the read value is converted to, boxed for primitive fields.
+     */
+    String getValueClass() {
+        return valueClass;
+    }
+
+    boolean isPrimitive() {
+        return primitive;
+    }
+
+    TypeElement getEmbeddedType() {
+        return embeddedType;
+    }
+
+    List<FieldModel> getChildren() {
+        return children;
+    }
+}
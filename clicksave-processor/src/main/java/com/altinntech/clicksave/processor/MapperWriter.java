@@ -0,0 +1,205 @@
+package com.altinntech.clicksave.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The {@code MapperWriter} class writes the source of the mapper of an entity model.
+ * The generated code refers to every type by its qualified name, so it needs no imports.
+ *
+ * @author Fyodor Plotnikov
+ */
+final class MapperWriter {
+
+    private static final String INDENT = "    ";
+
+    private final EntityModel model;
+    private final String entityName;
+    private final StringBuilder out = new StringBuilder();
+    private final List<FieldModel> lobFields = new ArrayList<>();
+    private final List<FieldModel> compositeFields = new ArrayList<>();
+    private int embeddedCount;
+    private int variableCount;
+
+    MapperWriter(EntityModel model) {
+        this.model = model;
+        this.entityName = model.getEntity().getQualifiedName().toString();
+    }
+
+    String write() {
+        List<String> columns = new ArrayList<>();
+        collect(model.getFields(), columns);
+
+        if (!model.getPackageName().isEmpty()) {
+            out.append("package ").append(model.getPackageName()).append(";\n\n");
+        }
+        out.append("@javax.annotation.processing.Generated(\"").append(EntityMapperProcessor.class.getName()).append("\")\n");
+        out.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        out.append("public final class ").append(model.getMapperSimpleName())
+                .append(" implements ").append(Names.ENTITY_MAPPER).append('<').append(entityName).append("> {\n\n");
+
+        line(1, "private static final java.util.List<String> COLUMNS = java.util.List.of(" + joinQuoted(columns) + ");");
+        for (int i = 0; i < lobFields.size(); i++) {
+            FieldModel lob = lobFields.get(i);
+            line(1, "private static final java.lang.reflect.Type TYPE_" + i + " = " + Names.MAPPER_SUPPORT + ".genericType("
+                    + lob.getOwner().getQualifiedName() + ".class, \"" + lob.getField().getSimpleName() + "\");");
+        }
+        for (int i = 0; i < compositeFields.size(); i++) {
+            FieldModel composite = compositeFields.get(i);
+            String arguments = "(" + composite.getOwner().getQualifiedName() + ".class, \"" + composite.getField().getSimpleName() + "\");";
+            line(1, "private static final " + Names.WRITE_CONVERTER + " WRITER_" + i + " = " + Names.MAPPER_SUPPORT + ".writer" + arguments);
+            line(1, "private static final " + Names.READ_CONVERTER + " READER_" + i + " = " + Names.MAPPER_SUPPORT + ".reader" + arguments);
+        }
+        out.append('\n');
+
+        line(1, "@Override");
+        line(1, "public java.util.List<String> columns() {");
+        line(2, "return COLUMNS;");
+        line(1, "}");
+        out.append('\n');
+
+        line(1, "@Override");
+        line(1, "public long bind(" + entityName + " entity, java.util.List<Object> columns) {");
+        line(2, "long missing = 0L;");
+        embeddedCount = 0;
+        variableCount = 0;
+        writeBind(model.getFields(), "entity", 2);
+        line(2, "return missing;");
+        line(1, "}");
+        out.append('\n');
+
+        line(1, "@Override");
+        line(1, "public " + entityName + " read(java.sql.ResultSet resultSet, " + Names.COLUMN_INDEX + " index) throws java.sql.SQLException {");
+        line(2, entityName + " entity = new " + entityName + "();");
+        line(2, "int column;");
+        variableCount = 0;
+        writeRead(model.getFields(), "entity", 2);
+        line(2, "return entity;");
+        line(1, "}");
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private void collect(List<FieldModel> fields, List<String> columns) {
+        for (FieldModel field : fields) {
+            if (field.getKind() == FieldModel.Kind.EMBEDDED) {
+                collect(field.getChildren(), columns);
+                continue;
+            }
+            columns.add(field.getColumn());
+            if (field.getKind() == FieldModel.Kind.LOB) {
+                lobFields.add(field);
+            } else if (field.getKind() == FieldModel.Kind.COMPOSITE) {
+                compositeFields.add(field);
+            }
+        }
+    }
+
+    private void writeBind(List<FieldModel> fields, String owner, int depth) {
+        for (FieldModel field : fields) {
+            if (field.getKind() == FieldModel.Kind.EMBEDDED) {
+                int bit = embeddedCount++;
+                String variable = "e" + variableCount++;
+                line(depth, field.getEmbeddedType().getQualifiedName() + " " + variable + " = " + field.get(owner) + ";");
+                line(depth, "if (" + variable + " == null) {");
+                line(depth + 1, "missing |= 1L << " + bit + ";");
+                line(depth, "} else {");
+                writeBind(field.getChildren(), variable, depth + 1);
+                line(depth, "}");
+                continue;
+            }
+            line(depth, "columns.add(" + bindValue(field, field.get(owner)) + ");");
+        }
+    }
+
+    private String bindValue(FieldModel field, String value) {
+        if (field.getKind() == FieldModel.Kind.LOB) {
+            return Names.MAPPER_SUPPORT + ".toJson(" + value + ")";
+        }
+        if (field.getKind() == FieldModel.Kind.COMPOSITE) {
+            return "WRITER_" + compositeFields.indexOf(field) + ".write(" + value + ")";
+        }
+        if (field.getKind() == FieldModel.Kind.ENUM) {
+            String variable = "v" + variableCount++;
+            String converted = switch (field.getEnumMode()) {
+                case "ORDINAL" -> "(Object) " + variable + ".ordinal()";
+                case "BY_ID" -> "((" + Names.ENUM_ID + ") " + variable + ").getId()";
+                default -> variable + ".toString()";
+            };
+            // a pattern variable keeps the getter call single
+            return "(Object) " + value + " instanceof " + field.getValueClass() + " " + variable + " ? " + converted + " : null";
+        }
+        return switch (field.getFieldType()) {
+            case "DATE_TIME" -> Names.MAPPER_SUPPORT + ".epochDateTime(" + value + ")";
+            case "DATE_TIME6" -> Names.MAPPER_SUPPORT + ".epochDateTime6(" + value + ")";
+            default -> value;
+        };
+    }
+
+    private void writeRead(List<FieldModel> fields, String owner, int depth) {
+        for (FieldModel field : fields) {
+            if (field.getKind() == FieldModel.Kind.EMBEDDED) {
+                String type = field.getEmbeddedType().getQualifiedName().toString();
+                String variable = "e" + variableCount++;
+                line(depth, "{");
+                line(depth + 1, type + " " + variable + " = new " + type + "();");
+                writeRead(field.getChildren(), variable, depth + 1);
+                line(depth + 1, field.set(owner, variable) + ";");
+                line(depth, "}");
+                continue;
+            }
+            line(depth, "if ((column = index.of(\"" + field.getColumn() + "\")) > 0) {");
+            // composite values are parsed from their text, the driver doesn't read maps and tuples
+            String value = readValue(field, field.getKind() == FieldModel.Kind.COMPOSITE ? "resultSet.getString(column)" : "resultSet.getObject(column)");
+            if (field.isPrimitive()) {
+                String variable = "v" + variableCount++;
+                line(depth + 1, field.getValueClass() + " " + variable + " = " + value + ";");
+                line(depth + 1, "if (" + variable + " != null) {");
+                line(depth + 2, field.set(owner, variable) + ";");
+                line(depth + 1, "}");
+            } else {
+                line(depth + 1, field.set(owner, value) + ";");
+            }
+            line(depth, "}");
+        }
+    }
+
+    private String readValue(FieldModel field, String value) {
+        String valueClass = field.getValueClass();
+        if (field.getKind() == FieldModel.Kind.LOB) {
+            return "(" + valueClass + ") " + Names.MAPPER_SUPPORT + ".fromJson(" + value + ", TYPE_" + lobFields.indexOf(field) + ")";
+        }
+        if (field.getKind() == FieldModel.Kind.COMPOSITE) {
+            return "(" + valueClass + ") READER_" + compositeFields.indexOf(field) + ".read(" + value + ")";
+        }
+        if (field.getKind() == FieldModel.Kind.ENUM) {
+            return Names.MAPPER_SUPPORT + ".asEnum(" + value + ", " + valueClass + ".class)";
+        }
+        String fieldType = field.getFieldType();
+        if ((fieldType.equals("DATE_TIME") || fieldType.equals("DATE_TIME6")) && valueClass.equals("java.time.LocalDateTime")) {
+            return Names.MAPPER_SUPPORT + ".asLocalDateTime(" + value + ")";
+        }
+        if (fieldType.equals("DATE") && valueClass.equals("java.time.LocalDate")) {
+            return Names.MAPPER_SUPPORT + ".asLocalDate(" + value + ")";
+        }
+        if ((fieldType.equals("BOOL") || fieldType.equals("BOOL8")) && valueClass.equals("java.lang.Boolean")) {
+            return Names.MAPPER_SUPPORT + ".asBoolean(" + value + ")";
+        }
+        return Names.MAPPER_SUPPORT + ".convert(" + value + ", " + valueClass + ".class)";
+    }
+
+    private static String joinQuoted(List<String> values) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                result.append(", ");
+            }
+            result.append('"').append(values.get(i)).append('"');
+        }
+        return result.toString();
+    }
+
+    private void line(int depth, String code) {
+        out.append(INDENT.repeat(depth)).append(code).append('\n');
+    }
+}
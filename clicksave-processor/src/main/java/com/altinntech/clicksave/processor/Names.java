@@ -0,0 +1,36 @@
+package com.altinntech.clicksave.processor;
+
+/**
+ * The qualified names of the ClickSave types referenced by the processor. The processor does not depend on the core
+ * module, the annotations are matched by name.
+ *
+ * @author Fyodor Plotnikov
+ */
+final class Names {
+
+    static final String CLICK_HOUSE_ENTITY = "com.altinntech.clicksave.annotations.ClickHouseEntity";
+    static final String EMBEDDABLE = "com.altinntech.clicksave.annotations.Embeddable";
+    static final String EMBEDDED = "com.altinntech.clicksave.annotations.Embedded";
+    static final String COLUMN = "com.altinntech.clicksave.annotations.Column";
+    static final String ENUM_COLUMN = "com.altinntech.clicksave.annotations.EnumColumn";
+    static final String LOB = "com.altinntech.clicksave.annotations.Lob";
+
+    static final String ENTITY_MAPPER = "com.altinntech.clicksave.core.mapper.EntityMapper";
+    static final String MAPPER_SUPPORT = "com.altinntech.clicksave.core.mapper.MapperSupport";
+    static final String COLUMN_INDEX = "com.altinntech.clicksave.core.mapper.ColumnIndex";
+    static final String ENUM_ID = "com.altinntech.clicksave.interfaces.EnumId";
+    static final String READ_CONVERTER = "com.altinntech.clicksave.core.converter.ReadConverter";
+    static final String WRITE_CONVERTER = "com.altinntech.clicksave.core.converter.WriteConverter";
+    static final String MAPPER_SUFFIX = "_ClicksaveMapper";
+
+    static final String LOMBOK_DATA = "lombok.Data";
+    static final String LOMBOK_VALUE = "lombok.Value";
+    static final String LOMBOK_GETTER = "lombok.Getter";
+    static final String LOMBOK_SETTER = "lombok.Setter";
+    static final String LOMBOK_NO_ARGS_CONSTRUCTOR = "lombok.NoArgsConstructor";
+    static final String LOMBOK_ALL_ARGS_CONSTRUCTOR = "lombok.AllArgsConstructor";
+    static final String LOMBOK_REQUIRED_ARGS_CONSTRUCTOR = "lombok.RequiredArgsConstructor";
+
+    private Names() {
+    }
+}
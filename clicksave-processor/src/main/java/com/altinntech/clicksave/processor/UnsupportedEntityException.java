@@ -0,0 +1,13 @@
+package com.altinntech.clicksave.processor;
+
+/**
+ * Thrown when the mapper of an entity can't be generated.
+ *
+ * @author Fyodor Plotnikov
+ */
+class UnsupportedEntityException extends Exception {
+
+    UnsupportedEntityException(String message) {
+        super(message);
+    }
+}
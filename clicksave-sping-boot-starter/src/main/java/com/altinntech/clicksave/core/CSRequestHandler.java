@@ -5,6 +5,7 @@ import com.altinntech.clicksave.annotations.SettableQuery;
 import com.altinntech.clicksave.core.dto.MethodMetadataQueryInfo;
 import com.altinntech.clicksave.core.dto.MethodMetadataSettableQueryInfo;
 import com.altinntech.clicksave.core.query.executor.QueryExecutor;
+import com.altinntech.clicksave.core.query.page.Pageable;
 import com.altinntech.clicksave.exceptions.*;
 import com.altinntech.clicksave.interfaces.ClickHouseJpa;
 import com.altinntech.clicksave.log.CSLogger;
@@ -21,6 +22,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.Future;
+import java.util.stream.Stream;
 
 import static com.altinntech.clicksave.log.CSLogger.error;
 
@@ -66,12 +68,24 @@ public class CSRequestHandler implements MethodHandler {
                 case "saveAsync" -> {
                     return handleSaveAsync(arguments, entityIdType);
                 }
+                case "saveAll" -> {
+                    return handleSaveAll(arguments, entityIdType);
+                }
                 case "findById" -> {
                     return handleFindById(entityType, arguments);
                 }
                 case "findAll" -> {
+                    if (arguments != null && arguments.length == 1 && arguments[0] instanceof Pageable pageable) {
+                        return queryExecutor.findPage(entityType, pageable, true);
+                    }
                     return handleFindAll(entityType);
                 }
+                case "findSlice" -> {
+                    return queryExecutor.findPage(entityType, (Pageable) arguments[0], false);
+                }
+                case "streamAll" -> {
+                    return handleStreamAll(entityType);
+                }
                 case "count" -> {
                     return handleCount(entityType);
                 }
@@ -143,6 +157,10 @@ public class CSRequestHandler implements MethodHandler {
         return repository.findAll(entityType);
     }
 
+    private Object handleStreamAll(Class<?> entityType) throws SQLException, ClassCacheNotFoundException, IllegalAccessException, InvocationTargetException {
+        return repository.streamAll(entityType);
+    }
+
     private long handleCount(Class<?> entityType) throws SQLException, ClassCacheNotFoundException, IllegalAccessException, InvocationTargetException {
         return repository.count(entityType);
     }
@@ -156,6 +174,13 @@ public class CSRequestHandler implements MethodHandler {
         return future;
     }
 
+    private Object handleSaveAll(Object[] arguments, Class<?> entityIdType) throws SQLException, ClassCacheNotFoundException, IllegalAccessException, InvocationTargetException {
+        if (arguments[0] instanceof Stream<?> stream) {
+            return repository.saveAll(stream, entityIdType);
+        }
+        return repository.saveAll((Iterable<?>) arguments[0], entityIdType);
+    }
+
     private Object handleFindById(Class<?> entityType, Object[] arguments) throws SQLException, ClassCacheNotFoundException, IllegalAccessException, InvocationTargetException {
         return Optional.ofNullable(repository.findById(entityType, arguments[0]));
     }
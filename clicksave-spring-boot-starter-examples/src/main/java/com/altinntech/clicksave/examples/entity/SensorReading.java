@@ -0,0 +1,41 @@
+package com.altinntech.clicksave.examples.entity;
+
+import com.altinntech.clicksave.annotations.Batching;
+import com.altinntech.clicksave.annotations.ClickHouseEntity;
+import com.altinntech.clicksave.annotations.Column;
+import com.altinntech.clicksave.annotations.OrderBy;
+import com.altinntech.clicksave.core.CSUtils;
+import com.altinntech.clicksave.enums.FieldType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@ClickHouseEntity(forTest = true)
+@OrderBy("id")
+@Batching(batchSize = 1000) // a second batched table, used to check that tables are flushed independently
+public class SensorReading {
+
+    public SensorReading() {
+    }
+
+    @Column(value = FieldType.UUID, id = true, primaryKey = true)
+    UUID id;
+    @Column(FieldType.STRING)
+    String sensor;
+    @Column(FieldType.DOUBLE)
+    Double value;
+    @Column(FieldType.DATE_TIME)
+    LocalDateTime timestamp;
+
+    public static SensorReading buildMockReading() {
+        SensorReading reading = new SensorReading();
+        reading.sensor = CSUtils.generateRandomString(8);
+        reading.value = (double) CSUtils.generateRandomNumber(0, 1000);
+        reading.timestamp = LocalDateTime.now();
+        return reading;
+    }
+}
@@ -0,0 +1,39 @@
+package com.altinntech.clicksave.examples.entity;
+
+import com.altinntech.clicksave.annotations.ClickHouseEntity;
+import com.altinntech.clicksave.annotations.Column;
+import com.altinntech.clicksave.annotations.OrderBy;
+import com.altinntech.clicksave.enums.FieldType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@ClickHouseEntity(forTest = true)
+@OrderBy("id")
+public class Shipment {
+
+    public Shipment() {
+    }
+
+    @Column(value = FieldType.UUID, id = true, primaryKey = true)
+    UUID id;
+    @Column(value = FieldType.ARRAY, elementTypes = FieldType.STRING)
+    List<String> labels;
+    @Column(value = FieldType.ARRAY, elementTypes = FieldType.STRING)
+    Set<Gender> recipients; // enums are stored by name in string arrays
+    @Column(value = FieldType.ARRAY, elementTypes = FieldType.DATE_TIME)
+    LocalDateTime[] checkpoints;
+    @Column(value = FieldType.MAP, elementTypes = {FieldType.STRING, FieldType.LONG})
+    Map<String, Long> weights;
+    @Column(value = FieldType.TUPLE, elementTypes = {FieldType.STRING, FieldType.INT, FieldType.DATE_TIME})
+    List<Object> route;
+    @Column(FieldType.NESTED)
+    List<ShipmentItem> items;
+}
@@ -0,0 +1,23 @@
+package com.altinntech.clicksave.examples.entity;
+
+import com.altinntech.clicksave.annotations.Column;
+import com.altinntech.clicksave.enums.FieldType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class ShipmentItem {
+
+    public ShipmentItem() {
+    }
+
+    @Column(FieldType.STRING)
+    String sku;
+    @Column(FieldType.INT)
+    Integer quantity;
+    @Column(FieldType.DATE_TIME)
+    LocalDateTime packedAt;
+}
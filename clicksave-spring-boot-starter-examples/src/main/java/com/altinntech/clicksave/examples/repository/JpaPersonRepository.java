@@ -3,16 +3,20 @@ package com.altinntech.clicksave.examples.repository;
 import com.altinntech.clicksave.annotations.ClickHouseRepository;
 import com.altinntech.clicksave.annotations.Query;
 import com.altinntech.clicksave.annotations.SettableQuery;
+import com.altinntech.clicksave.core.query.page.Page;
+import com.altinntech.clicksave.core.query.page.Pageable;
 import com.altinntech.clicksave.examples.dto.ExampleResponse;
 import com.altinntech.clicksave.examples.dto.PersonResponse;
 import com.altinntech.clicksave.examples.entity.Gender;
 import com.altinntech.clicksave.examples.entity.Job;
 import com.altinntech.clicksave.examples.entity.Person;
 import com.altinntech.clicksave.interfaces.ClickHouseJpa;
+import com.altinntech.clicksave.interfaces.CloseableIterator;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @ClickHouseRepository // repository interface must be marked with this annotation
 public interface JpaPersonRepository extends ClickHouseJpa<Person, Long> {
@@ -21,10 +25,16 @@ public interface JpaPersonRepository extends ClickHouseJpa<Person, Long> {
 
     List<Person> findAllByJob(Job job); // supports pulling by enumeration
 
+    Page<Person> findAllByJob(Job job, Pageable pageable); // supports pages, Slice skips counting the rows
+
     List<Person> findAllByGender(Gender gender); // another one enumeration
 
     List<Person> findAllByAge(int age);
 
+    Stream<Person> findAllByLastName(String lastName); // Stream reads the rows lazily, close it after use
+
+    CloseableIterator<Person> findAllByAddress(String address); // so does the iterator, close it if it is not read to the end
+
     Optional<Person> findByNameAndLastName(String name, String lastName); // supports "And" & "Or" operators
 
     Optional<Person> findByNameAndLastNameOrAddress(String name, String lastName, String address);
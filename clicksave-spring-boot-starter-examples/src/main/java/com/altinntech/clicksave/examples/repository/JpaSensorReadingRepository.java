@@ -0,0 +1,11 @@
+package com.altinntech.clicksave.examples.repository;
+
+import com.altinntech.clicksave.annotations.ClickHouseRepository;
+import com.altinntech.clicksave.examples.entity.SensorReading;
+import com.altinntech.clicksave.interfaces.ClickHouseJpa;
+
+import java.util.UUID;
+
+@ClickHouseRepository
+public interface JpaSensorReadingRepository extends ClickHouseJpa<SensorReading, UUID> {
+}
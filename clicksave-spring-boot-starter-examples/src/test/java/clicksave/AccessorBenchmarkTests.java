@@ -0,0 +1,122 @@
+package clicksave;
+
+import com.altinntech.clicksave.core.accessor.EntityInstantiator;
+import com.altinntech.clicksave.core.accessor.FieldAccessor;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+
+public class AccessorBenchmarkTests {
+
+    private static final int ITERATIONS = 5_000_000;
+    private static final int WARMUP_ITERATIONS = 500_000;
+
+    @Disabled
+    @Test
+    void reflectionVsAccessorsBenchmark() throws Exception {
+        Field[] fields = WideEntity.class.getDeclaredFields();
+        FieldAccessor[] accessors = new FieldAccessor[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            accessors[i] = FieldAccessor.of(fields[i]);
+        }
+        EntityInstantiator instantiator = EntityInstantiator.of(WideEntity.class);
+        WideEntity source = WideEntity.buildMock();
+
+        copyReflective(source, fields, WARMUP_ITERATIONS);
+        copyWithAccessors(source, accessors, instantiator, WARMUP_ITERATIONS);
+
+        long startTime = System.nanoTime();
+        long reflectiveChecksum = copyReflective(source, fields, ITERATIONS);
+        double reflectiveTime = (System.nanoTime() - startTime) / 1_000_000.0;
+
+        startTime = System.nanoTime();
+        long accessorChecksum = copyWithAccessors(source, accessors, instantiator, ITERATIONS);
+        double accessorTime = (System.nanoTime() - startTime) / 1_000_000.0;
+
+        System.out.println("Checksums: " + reflectiveChecksum + " / " + accessorChecksum);
+        System.out.println("Reflection time to mapping: " + reflectiveTime);
+        System.out.println("Reflection entities per second: " + Math.floor((ITERATIONS / (reflectiveTime / 1000.0))) + " e/s");
+        System.out.println("Accessors time to mapping: " + accessorTime);
+        System.out.println("Accessors entities per second: " + Math.floor((ITERATIONS / (accessorTime / 1000.0))) + " e/s");
+    }
+
+    /**
+     * Reads all fields of the entity and writes them to a new instance, as the mapping did before the accessors.
+     */
+    private static long copyReflective(WideEntity source, Field[] fields, int iterations) throws Exception {
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            WideEntity target = WideEntity.class.getDeclaredConstructor().newInstance();
+            for (Field field : fields) {
+                field.setAccessible(true);
+                field.set(target, field.get(source));
+            }
+            checksum += target.f20;
+        }
+        return checksum;
+    }
+
+    private static long copyWithAccessors(WideEntity source, FieldAccessor[] accessors, EntityInstantiator instantiator, int iterations) throws Exception {
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            WideEntity target = instantiator.newInstance();
+            for (FieldAccessor accessor : accessors) {
+                accessor.set(target, accessor.get(source));
+            }
+            checksum += target.f20;
+        }
+        return checksum;
+    }
+
+    private static class WideEntity {
+        private Long f1;
+        private String f2;
+        private String f3;
+        private Integer f4;
+        private Double f5;
+        private String f6;
+        private Long f7;
+        private Boolean f8;
+        private String f9;
+        private Integer f10;
+        private Long f11;
+        private String f12;
+        private Double f13;
+        private String f14;
+        private Integer f15;
+        private String f16;
+        private Long f17;
+        private String f18;
+        private Boolean f19;
+        private long f20;
+
+        private WideEntity() {
+        }
+
+        static WideEntity buildMock() {
+            WideEntity entity = new WideEntity();
+            entity.f1 = 1L;
+            entity.f2 = "John";
+            entity.f3 = "Doe";
+            entity.f4 = 30;
+            entity.f5 = 1.5;
+            entity.f6 = "some_address";
+            entity.f7 = 7L;
+            entity.f8 = true;
+            entity.f9 = "nine";
+            entity.f10 = 10;
+            entity.f11 = 11L;
+            entity.f12 = "twelve";
+            entity.f13 = 13.5;
+            entity.f14 = "fourteen";
+            entity.f15 = 15;
+            entity.f16 = "sixteen";
+            entity.f17 = 17L;
+            entity.f18 = "eighteen";
+            entity.f19 = false;
+            entity.f20 = 20L;
+            return entity;
+        }
+    }
+}
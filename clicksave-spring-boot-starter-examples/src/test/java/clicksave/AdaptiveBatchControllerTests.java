@@ -0,0 +1,126 @@
+package clicksave;
+
+import com.altinntech.clicksave.core.batch.AdaptiveBatchController;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveBatchControllerTests {
+
+    private static final long TARGET_LATENCY = 100;
+    private static final long MIN_FLUSH_INTERVAL = 10;
+    private static final long MAX_FLUSH_INTERVAL = 10000;
+
+    private static AdaptiveBatchController controller(int initialSize, int minSize, int maxSize) {
+        return new AdaptiveBatchController(initialSize, minSize, maxSize, TARGET_LATENCY, MIN_FLUSH_INTERVAL, MAX_FLUSH_INTERVAL);
+    }
+
+    @Test
+    void initialSize_ClampedToBounds() {
+        assertEquals(100, controller(100, 10, 1000).getTargetSize());
+        assertEquals(10, controller(5, 10, 1000).getTargetSize());
+        assertEquals(1000, controller(5000, 10, 1000).getTargetSize());
+        assertEquals(1, controller(0, 0, 1000).getTargetSize());
+    }
+
+    @Test
+    void fastFullBatch_GrowsAdditively() {
+        AdaptiveBatchController controller = controller(100, 10, 1000);
+
+        controller.onWriteSuccess(100, TARGET_LATENCY);
+        assertEquals(110, controller.getTargetSize());
+
+        controller.onWriteSuccess(110, 1);
+        assertEquals(120, controller.getTargetSize());
+    }
+
+    @Test
+    void fastPartialBatch_KeepsSize() {
+        AdaptiveBatchController controller = controller(100, 10, 1000);
+
+        controller.onWriteSuccess(99, 1);
+
+        assertEquals(100, controller.getTargetSize());
+    }
+
+    @Test
+    void growth_CappedAtMaxSize() {
+        AdaptiveBatchController controller = controller(100, 10, 125);
+
+        for (int i = 0; i < 10; i++) {
+            controller.onWriteSuccess(controller.getTargetSize(), 1);
+        }
+
+        assertEquals(125, controller.getTargetSize());
+        assertEquals(125, controller.getMaxSize());
+    }
+
+    @Test
+    void slowWrite_HalvesSize() {
+        AdaptiveBatchController controller = controller(100, 10, 1000);
+
+        controller.onWriteSuccess(100, TARGET_LATENCY + 1);
+        assertEquals(50, controller.getTargetSize());
+
+        // a slow write shrinks the batch even if it was not full
+        controller.onWriteSuccess(10, TARGET_LATENCY + 1);
+        assertEquals(25, controller.getTargetSize());
+    }
+
+    @Test
+    void writeFailure_HalvesSizeDownToMinSize() {
+        AdaptiveBatchController controller = controller(100, 30, 1000);
+
+        controller.onWriteFailure();
+        assertEquals(50, controller.getTargetSize());
+
+        controller.onWriteFailure();
+        assertEquals(30, controller.getTargetSize());
+
+        controller.onWriteFailure();
+        assertEquals(30, controller.getTargetSize());
+    }
+
+    @Test
+    void shrinkThenGrow_RecoversByStep() {
+        AdaptiveBatchController controller = controller(100, 10, 1000);
+
+        controller.onWriteFailure();
+        controller.onWriteSuccess(50, 1);
+
+        // the step is a tenth of the initial size, not of the current one
+        assertEquals(60, controller.getTargetSize());
+    }
+
+    @Test
+    void flushInterval_NoArrivals_IsMaxInterval() {
+        AdaptiveBatchController controller = controller(100, 10, 1000);
+        assertEquals(MIN_FLUSH_INTERVAL, controller.getFlushInterval());
+
+        controller.onWriteFailure();
+
+        assertEquals(MAX_FLUSH_INTERVAL, controller.getFlushInterval());
+    }
+
+    @Test
+    void flushInterval_FollowsArrivalRate() throws InterruptedException {
+        AdaptiveBatchController controller = controller(100, 10, 1000);
+
+        Thread.sleep(50);
+        for (int i = 0; i < 1000; i++) {
+            controller.onArrival();
+        }
+        controller.onFlush();
+
+        // 1000 rows in at least 50 ms, the batch of 100 rows fills in at least 5 ms
+        long interval = controller.getFlushInterval();
+        assertTrue(interval >= MIN_FLUSH_INTERVAL, "interval " + interval);
+        assertTrue(interval < MAX_FLUSH_INTERVAL, "interval " + interval);
+
+        controller.onWriteFailure();
+
+        // half of the batch fills in half of the time
+        long shrunkInterval = controller.getFlushInterval();
+        assertTrue(shrunkInterval <= interval, "interval " + shrunkInterval);
+    }
+}
@@ -1,35 +1,64 @@
 package clicksave;
 
 import com.altinntech.clicksave.ClickSaveConfiguration;
+import com.altinntech.clicksave.core.CSBootstrap;
+import com.altinntech.clicksave.core.ClicksaveInternalRepository;
+import com.altinntech.clicksave.core.batch.DeadLetterQueue;
+import com.altinntech.clicksave.core.dto.ColumnData;
+import com.altinntech.clicksave.core.query.page.Page;
+import com.altinntech.clicksave.core.query.page.Pageable;
+import com.altinntech.clicksave.core.query.page.Slice;
 import com.altinntech.clicksave.core.utils.DefaultProperties;
+import com.altinntech.clicksave.core.utils.SpringEnvironment;
+import com.altinntech.clicksave.core.utils.tb.TableBuilder;
 import com.altinntech.clicksave.examples.dto.DateResponse;
 import com.altinntech.clicksave.examples.dto.ExampleResponse;
 import com.altinntech.clicksave.examples.dto.PersonResponse;
 import com.altinntech.clicksave.examples.entity.Gender;
 import com.altinntech.clicksave.examples.entity.Job;
 import com.altinntech.clicksave.examples.entity.Person;
+import com.altinntech.clicksave.examples.entity.SensorReading;
+import com.altinntech.clicksave.examples.entity.Shipment;
+import com.altinntech.clicksave.examples.entity.ShipmentItem;
 import com.altinntech.clicksave.examples.repository.JpaPersonRepository;
+import com.altinntech.clicksave.enums.FieldType;
+import com.altinntech.clicksave.enums.ReadConsistency;
+import com.altinntech.clicksave.exceptions.ClassCacheNotFoundException;
+import com.altinntech.clicksave.interfaces.ClicksaveMetrics;
+import com.altinntech.clicksave.interfaces.CloseableIterator;
+import com.altinntech.clicksave.interfaces.PropertyEnvironment;
+import com.altinntech.clicksave.examples.repository.JpaSensorReadingRepository;
+import com.altinntech.clicksave.examples.repository.JpaShipmentRepository;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.attribute.BasicFileAttributes;
-import java.nio.file.attribute.FileTime;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -43,6 +72,18 @@ public class ClicksaveTests {
     @Autowired
     private JpaPersonRepository jpaPersonRepository;
 
+    @Autowired
+    private JpaSensorReadingRepository jpaSensorReadingRepository;
+
+    @Autowired
+    private JpaShipmentRepository jpaShipmentRepository;
+
+    @Autowired
+    private CSBootstrap bootstrap;
+
+    @Autowired
+    private Environment environment;
+
     private Person TEST_PERSON_1;
     private Person TEST_PERSON_2;
     private Person TEST_PERSON_3;
@@ -67,6 +108,7 @@ public class ClicksaveTests {
     @AfterEach
     void after() {
         jpaPersonRepository.deleteAll();
+        jpaShipmentRepository.deleteAll();
     }
 
     @Test
@@ -89,6 +131,42 @@ public class ClicksaveTests {
         //assertNotNull(personFuture.get().getId());
     }
 
+    @Test
+    void saveAll() {
+        List<Person> saved = jpaPersonRepository.saveAll(List.of(TEST_PERSON_1, TEST_PERSON_2, TEST_PERSON_3));
+        assertEquals(3, saved.size());
+        assertTrue(saved.stream().allMatch(person -> person.getId() != null));
+        assertEquals(3, jpaPersonRepository.findAll().size());
+    }
+
+    @Test
+    void saveAll_UpdatesExisting() {
+        jpaPersonRepository.save(TEST_PERSON_1);
+        jpaPersonRepository.findAll();
+        TEST_PERSON_1.setAge(40);
+        jpaPersonRepository.saveAll(List.of(TEST_PERSON_1, TEST_PERSON_2));
+        assertEquals(2, jpaPersonRepository.findAll().size());
+        assertEquals(40, jpaPersonRepository.findById(TEST_PERSON_1.getId()).orElseThrow().getAge());
+    }
+
+    @Test
+    void saveAll_PrePersist() {
+        jpaPersonRepository.save(TEST_PERSON_1);
+        TEST_PERSON_1.setAge(40);
+        List<Person> saved = jpaPersonRepository.saveAll(List.of(TEST_PERSON_1, TEST_PERSON_2, TEST_PERSON_3));
+
+        assertTrue(saved.stream().allMatch(Person::isTestFieldForPrePersist));
+        assertEquals(3, saved.stream().map(Person::getId).distinct().count());
+        assertEquals(3, jpaPersonRepository.findAll().size());
+    }
+
+    @Test
+    void saveAll_Stream() {
+        long saved = jpaPersonRepository.saveAll(Stream.generate(Person::buildMockPerson).limit(25));
+        assertEquals(25, saved);
+        assertEquals(25, jpaPersonRepository.count());
+    }
+
     @Test
     void update() throws InterruptedException {
         jpaPersonRepository.save(TEST_PERSON_1);
@@ -165,6 +243,54 @@ public class ClicksaveTests {
         assertEquals(3, fetched.size());
     }
 
+    @Test
+    void streamAll() {
+        jpaPersonRepository.saveAll(List.of(TEST_PERSON_1, TEST_PERSON_2, TEST_PERSON_3));
+        try (Stream<Person> persons = jpaPersonRepository.streamAll()) {
+            assertEquals(3, persons.count());
+        }
+        try (Stream<Person> persons = jpaPersonRepository.findAllByLastName(TEST_PERSON_1.getLastName())) {
+            assertTrue(persons.allMatch(person -> person.getLastName().equals(TEST_PERSON_1.getLastName())));
+        }
+    }
+
+    @Test
+    void streamQuery_PartlyConsumed_Closed() {
+        TEST_PERSON_2.setLastName(TEST_PERSON_1.getLastName());
+        TEST_PERSON_3.setAddress(TEST_PERSON_1.getAddress());
+        jpaPersonRepository.saveAll(List.of(TEST_PERSON_1, TEST_PERSON_2, TEST_PERSON_3));
+        // more partly read queries than the pool has connections, none of them may hold its connection after close
+        for (int i = 0; i < 60; i++) {
+            try (Stream<Person> persons = jpaPersonRepository.findAllByLastName(TEST_PERSON_1.getLastName())) {
+                assertTrue(persons.iterator().hasNext());
+            }
+            try (CloseableIterator<Person> persons = jpaPersonRepository.findAllByAddress(TEST_PERSON_1.getAddress())) {
+                assertEquals(TEST_PERSON_1.getAddress(), persons.next().getAddress());
+            }
+        }
+        assertEquals(3, jpaPersonRepository.findAll().size());
+    }
+
+    @Test
+    void findAllByPages() {
+        jpaPersonRepository.saveAll(Stream.generate(Person::buildMockPerson).limit(25));
+        Set<Long> ids = new HashSet<>();
+        Slice<Person> page = jpaPersonRepository.findSlice(Pageable.ofSize(10));
+        page.forEach(person -> ids.add(person.getId()));
+        while (page.hasNext()) {
+            page = jpaPersonRepository.findSlice(page.nextPageable());
+            page.forEach(person -> ids.add(person.getId()));
+        }
+        assertEquals(25, ids.size());
+        assertEquals(2, page.getNumber());
+        assertEquals(5, page.getNumberOfElements());
+
+        Page<Person> offsetPage = jpaPersonRepository.findAll(Pageable.of(1, 10));
+        assertEquals(10, offsetPage.getNumberOfElements());
+        assertEquals(25, offsetPage.getTotalElements());
+        assertEquals(3, offsetPage.getTotalPages());
+    }
+
     @Test
     void findAllByAge() {
         jpaPersonRepository.save(TEST_PERSON_1);
@@ -257,37 +383,42 @@ public class ClicksaveTests {
     @SneakyThrows
     void testBigDecimalOverflow_FailedBatchSave() {
         final String too_big_decimal = "1123000000000000000000000123124414320000" + Math.abs(new Random().nextInt());
+        Path directoryRoot = Paths.get(DefaultProperties.fromPropertyFile().getFailedBatchSavePath());
+        Set<Path> existingBatches = listDeadLetters(directoryRoot);
 
         TEST_PERSON_1.setBigDecimal(new BigDecimal(too_big_decimal));
         jpaPersonRepository.save(TEST_PERSON_1);
 
         assertEquals(0, jpaPersonRepository.findAll().size());
 
-        Thread.sleep(3000);
-
-        String failedBatchSavePath = DefaultProperties.fromPropertyFile().getFailedBatchSavePath();
-        Path directoryRoot = Paths.get(failedBatchSavePath);
-
-        Optional<Path> lastBatch = Arrays.stream(directoryRoot.toFile().listFiles())
-                .map(file -> Paths.get(file.getPath()))
-                .max(Comparator.comparing(p -> {
-                    try {
-                        BasicFileAttributes attr = Files.readAttributes(p, BasicFileAttributes.class);
-                        FileTime fileTime = attr.creationTime();
-                        return fileTime.toInstant().getEpochSecond();
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                        return -1L;
-                    }
-                }));
-
-        Thread.sleep(3000);
+        // the batch is dead-lettered after the retries with backoff, wait for the file of this batch only
+        Optional<Path> lastBatch = Optional.empty();
+        long deadline = System.currentTimeMillis() + 30000;
+        while (lastBatch.isEmpty() && System.currentTimeMillis() < deadline) {
+            lastBatch = listDeadLetters(directoryRoot).stream()
+                    .filter(path -> !existingBatches.contains(path))
+                    .findAny();
+            if (lastBatch.isEmpty()) {
+                Thread.sleep(100);
+            }
+        }
 
         assertTrue(lastBatch.isPresent());
-        try (BufferedReader reader = new BufferedReader(new FileReader(lastBatch.get().toString()))) {
-            String csvLine = reader.readLine();
-            assertTrue(csvLine.contains("0,John,Doe,30,some_address,MALE,1"));
-            assertTrue(csvLine.contains("true," + too_big_decimal));
+        DeadLetterQueue.DeadLetterBatch batch = DeadLetterQueue.read(lastBatch.get());
+        assertEquals(Person.class.getName(), batch.className());
+        assertEquals(1, batch.rows().size());
+        List<Object> row = batch.rows().get(0);
+        assertTrue(row.containsAll(List.of("John", "Doe", 30, "some_address", "MALE")));
+        assertTrue(row.contains(new BigDecimal(too_big_decimal)));
+        assertTrue(batch.columns().stream().anyMatch(column -> column.fieldType() == FieldType.BIG_DECIMAL));
+    }
+
+    private static Set<Path> listDeadLetters(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Set.of();
+        }
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.filter(path -> path.toString().endsWith(DeadLetterQueue.EXTENSION)).collect(Collectors.toSet());
         }
     }
 
@@ -682,6 +813,200 @@ public class ClicksaveTests {
         System.out.println("Entities per second: " + Math.floor((iterations / (executionTime / 1000.0))) + " e/s");
     }
 
+    @Disabled
+    @Test
+    void multiTableContentionStressTest() throws InterruptedException {
+        int iterationsPerThread = 20_000;
+        for (int threads = 1; threads <= 8; threads *= 2) {
+            jpaPersonRepository.deleteAll();
+            jpaSensorReadingRepository.deleteAll();
+            ExecutorService producers = Executors.newFixedThreadPool(threads);
+            long startTime = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                boolean savePersons = t % 2 == 1;
+                producers.submit(() -> {
+                    for (int i = 0; i < iterationsPerThread; i++) {
+                        if (savePersons) {
+                            jpaPersonRepository.save(Person.buildMockPerson());
+                        } else {
+                            jpaSensorReadingRepository.save(SensorReading.buildMockReading());
+                        }
+                    }
+                });
+            }
+            producers.shutdown();
+            assertTrue(producers.awaitTermination(10, TimeUnit.MINUTES));
+            long endTime = System.nanoTime();
+            double executionTime =  (endTime - startTime) / 1_000_000.0;
+            long total = (long) threads * iterationsPerThread;
+            System.out.println("Producer threads: " + threads + ", time to saving: " + executionTime);
+            System.out.println("Entities per second: " + (long) Math.floor((total / (executionTime / 1000.0))) + " e/s");
+        }
+        jpaSensorReadingRepository.deleteAll();
+    }
+
+    @Test
+    @SneakyThrows
+    void journalReplay_CommittedBufferIsNotDuplicated() {
+        Path journalDirectory = Files.createTempDirectory("clicksave-journal");
+        Path leftoverDirectory = Files.createTempDirectory("clicksave-journal-leftover");
+        DefaultProperties properties = DefaultProperties.getProperties(new SpringEnvironment(environment));
+        String tableName = "person";
+        // non-replicated tables deduplicate inserts by token only with a deduplication window
+        executeStatement(properties, "ALTER TABLE " + tableName + " MODIFY SETTING non_replicated_deduplication_window = 100");
+        CSBootstrap writerBootstrap = null;
+        CSBootstrap replayBootstrap = null;
+        try {
+            writerBootstrap = new CSBootstrap(journalProperties(journalDirectory), ClicksaveMetrics.noop());
+            ClicksaveInternalRepository writer = writerBootstrap.getRepository();
+            writer.save(TEST_PERSON_1, Long.class);
+            // the segments as a crash right after the insert was committed would leave them
+            try (Stream<Path> segments = Files.list(journalDirectory)) {
+                for (Path segment : segments.filter(path -> path.toString().endsWith(".journal")).toList()) {
+                    Files.copy(segment, leftoverDirectory.resolve(segment.getFileName()));
+                }
+            }
+            writer.saveBatch(Person.class);
+            assertEquals(1, jpaPersonRepository.count());
+
+            replayBootstrap = new CSBootstrap(journalProperties(leftoverDirectory), ClicksaveMetrics.noop());
+
+            assertEquals(1, jpaPersonRepository.count());
+            try (Stream<Path> segments = Files.list(leftoverDirectory)) {
+                assertTrue(segments.noneMatch(path -> path.toString().endsWith(".journal")));
+            }
+        } finally {
+            // releases the journal locks and stops the schedulers of both instances
+            if (replayBootstrap != null) {
+                replayBootstrap.close();
+            }
+            if (writerBootstrap != null) {
+                writerBootstrap.close();
+            }
+            executeStatement(properties, "ALTER TABLE " + tableName + " RESET SETTING non_replicated_deduplication_window");
+        }
+    }
+
+    private DefaultProperties journalProperties(Path journalDirectory) {
+        return properties(Map.of(
+                "clicksave.core.batch.journal.enabled", "true",
+                "clicksave.core.batch.journal.directory-path", journalDirectory.toString(),
+                "clicksave.connection.pool.initial-size", "2",
+                "clicksave.connection.pool.refill-threshold", "1"));
+    }
+
+    private DefaultProperties properties(Map<String, String> overrides) {
+        SpringEnvironment springEnvironment = new SpringEnvironment(environment);
+        return DefaultProperties.getProperties(new PropertyEnvironment() {
+            @Override
+            public String getProperty(String propertyName, String defaultValue) {
+                return overrides.getOrDefault(propertyName, springEnvironment.getProperty(propertyName, defaultValue));
+            }
+
+            @Override
+            public String getProperty(String propertyName) {
+                return overrides.getOrDefault(propertyName, springEnvironment.getProperty(propertyName));
+            }
+        });
+    }
+
+    @Test
+    @SneakyThrows
+    void findById_Strong_FlushesAndReadsTable() {
+        try (CSBootstrap bootstrap = readConsistencyBootstrap(ReadConsistency.STRONG)) {
+            ClicksaveInternalRepository repository = bootstrap.getRepository();
+            repository.save(TEST_PERSON_1, Long.class);
+            assertEquals(0, countRows("person"));
+
+            Person found = repository.findById(Person.class, TEST_PERSON_1.getId());
+
+            assertEquals(1, countRows("person"));
+            assertLoadedCopy(TEST_PERSON_1, found);
+            assertNull(repository.findById(Person.class, TEST_PERSON_1.getId() + 1));
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void findById_Session_ReadsPendingRowWithoutFlush() {
+        try (CSBootstrap bootstrap = readConsistencyBootstrap(ReadConsistency.SESSION)) {
+            ClicksaveInternalRepository repository = bootstrap.getRepository();
+            repository.save(TEST_PERSON_1, Long.class);
+
+            Person found = repository.findById(Person.class, TEST_PERSON_1.getId());
+
+            assertEquals(0, countRows("person"));
+            assertLoadedCopy(TEST_PERSON_1, found);
+            // a miss is read from the table, the pending row stays buffered
+            assertNull(repository.findById(Person.class, TEST_PERSON_1.getId() + 1));
+            assertEquals(0, countRows("person"));
+            repository.saveBatch(Person.class);
+            assertEquals(1, countRows("person"));
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void findById_Eventual_ReadsPendingRowWithoutFlush() {
+        try (CSBootstrap bootstrap = readConsistencyBootstrap(ReadConsistency.EVENTUAL)) {
+            ClicksaveInternalRepository repository = bootstrap.getRepository();
+            repository.save(TEST_PERSON_1, Long.class);
+
+            Person found = repository.findById(Person.class, TEST_PERSON_1.getId());
+
+            assertEquals(0, countRows("person"));
+            assertLoadedCopy(TEST_PERSON_1, found);
+            // changes of the returned copy don't reach the buffered row
+            found.setName("Changed");
+            assertEquals(TEST_PERSON_1.getName(), repository.findById(Person.class, TEST_PERSON_1.getId()).getName());
+            assertNull(repository.findById(Person.class, TEST_PERSON_1.getId() + 1));
+            assertEquals(0, countRows("person"));
+            repository.saveBatch(Person.class);
+            assertEquals(1, countRows("person"));
+        }
+    }
+
+    private static void assertLoadedCopy(Person saved, Person found) {
+        assertNotNull(found);
+        assertNotSame(saved, found);
+        assertEquals(saved.getId(), found.getId());
+        assertEquals(saved.getName(), found.getName());
+        assertEquals(saved.getLastName(), found.getLastName());
+        assertEquals(saved.getAge(), found.getAge());
+        assertEquals(saved.getGender(), found.getGender());
+        assertEquals(saved.getJob(), found.getJob());
+        assertEquals(saved.getEmployeeInfo(), found.getEmployeeInfo());
+        assertEquals(saved.getTimestamp().truncatedTo(ChronoUnit.MICROS), found.getTimestamp().truncatedTo(ChronoUnit.MICROS));
+        assertFalse(saved.isTestFieldForPostLoad());
+        assertTrue(found.isTestFieldForPostLoad());
+    }
+
+    private CSBootstrap readConsistencyBootstrap(ReadConsistency consistency) throws SQLException, ClassCacheNotFoundException {
+        // without the batch save scheduler only the test flushes the rows
+        return new CSBootstrap(properties(Map.of(
+                "clicksave.core.read-consistency", consistency.name(),
+                "clicksave.core.batch-save-rate", "0",
+                "clicksave.connection.pool.initial-size", "2",
+                "clicksave.connection.pool.refill-threshold", "1")), ClicksaveMetrics.noop());
+    }
+
+    private long countRows(String tableName) throws SQLException {
+        DefaultProperties properties = DefaultProperties.getProperties(new SpringEnvironment(environment));
+        try (Connection connection = DriverManager.getConnection(properties.getUrl(), properties.getUsername(), properties.getPassword());
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT count() FROM " + tableName)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static void executeStatement(DefaultProperties properties, String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(properties.getUrl(), properties.getUsername(), properties.getPassword());
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
     @Test
     void projectionMapping() {
         jpaPersonRepository.save(TEST_PERSON_1);
@@ -813,6 +1138,68 @@ public class ClicksaveTests {
         Assertions.assertNull(found.get().getGender());
     }
 
+    @Test
+    void compositeColumns_RoundTrip() {
+        LocalDateTime packedAt = LocalDateTime.of(2024, 3, 31, 2, 30, 15, 123456789);
+        LocalDateTime delivered = LocalDateTime.of(2024, 4, 1, 18, 0);
+        Shipment shipment = new Shipment(null,
+                List.of("it's", "back\\slash", "tab\there", "new\nline", "", "[a,b]", "{k:v}"),
+                new LinkedHashSet<>(List.of(Gender.FEMALE, Gender.MALE)),
+                new LocalDateTime[]{packedAt, delivered},
+                new LinkedHashMap<>(Map.of("o'clock", 1L, "a\\b", -2L)),
+                List.of("Ber'lin\t\\", 3, delivered),
+                List.of(new ShipmentItem("sku-'1'", 2, packedAt), new ShipmentItem("sku\n2\\", 0, delivered)));
+
+        jpaShipmentRepository.save(shipment);
+        Shipment found = jpaShipmentRepository.findById(shipment.getId()).orElseThrow();
+
+        assertEquals(shipment.getLabels(), found.getLabels());
+        assertEquals(shipment.getRecipients(), found.getRecipients());
+        assertArrayEquals(shipment.getCheckpoints(), found.getCheckpoints());
+        assertEquals(shipment.getWeights(), found.getWeights());
+        assertEquals(shipment.getRoute(), found.getRoute());
+        assertEquals(shipment.getItems(), found.getItems());
+    }
+
+    @Test
+    void compositeColumns_EmptyCollections() {
+        Shipment shipment = new Shipment(null, List.of(), Set.of(), new LocalDateTime[0], Map.of(),
+                List.of("", 0, LocalDateTime.of(2024, 1, 2, 3, 4, 5)), List.of());
+
+        jpaShipmentRepository.save(shipment);
+        Shipment found = jpaShipmentRepository.findById(shipment.getId()).orElseThrow();
+
+        assertEquals(List.of(), found.getLabels());
+        assertEquals(Set.of(), found.getRecipients());
+        assertEquals(0, found.getCheckpoints().length);
+        assertEquals(Map.of(), found.getWeights());
+        assertEquals(shipment.getRoute(), found.getRoute());
+        assertEquals(List.of(), found.getItems());
+    }
+
+    @Test
+    @SneakyThrows
+    void updateTable_RestoresChangedColumns() {
+        String tableName = bootstrap.getClassDataCacheService().getClassDataCache(SensorReading.class).getTableName();
+        bootstrap.executeQuery("ALTER TABLE " + tableName + " MODIFY COLUMN sensor String DEFAULT 'unknown' CODEC(ZSTD(3))");
+        bootstrap.executeQuery("ALTER TABLE " + tableName + " MODIFY COLUMN value Float32");
+
+        new TableBuilder(bootstrap).updateTable(SensorReading.class);
+
+        Map<String, ColumnData> columns = bootstrap.fetchTableColumns(tableName).stream()
+                .collect(Collectors.toMap(ColumnData::getColumnName, column -> column));
+        assertEquals("String", columns.get("sensor").getColumnType());
+        assertEquals("", columns.get("sensor").getDefaultKind());
+        assertEquals("", columns.get("sensor").getCompressionCodec());
+        assertEquals("Float64", columns.get("value").getColumnType());
+
+        SensorReading reading = SensorReading.buildMockReading();
+        jpaSensorReadingRepository.save(reading);
+        jpaSensorReadingRepository.saveBatch();
+        assertEquals(reading.getValue(), jpaSensorReadingRepository.findById(reading.getId()).orElseThrow().getValue());
+        jpaSensorReadingRepository.deleteAll();
+    }
+
     String calculatePerformanceStatus(double valueToTest, double epsilon, double maxTime) {
         double exmValue;
         String status = "";
@@ -0,0 +1,164 @@
+package clicksave;
+
+import com.altinntech.clicksave.annotations.Column;
+import com.altinntech.clicksave.core.CSUtils;
+import com.altinntech.clicksave.core.converter.ClickHouseLiteral;
+import com.altinntech.clicksave.core.converter.CompositeValues;
+import com.altinntech.clicksave.core.converter.TemporalValues;
+import com.altinntech.clicksave.core.dto.FieldDataCache;
+import com.altinntech.clicksave.enums.FieldType;
+import com.altinntech.clicksave.examples.entity.Gender;
+import com.altinntech.clicksave.examples.entity.ShipmentItem;
+import com.altinntech.clicksave.exceptions.FieldInitializationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompositeValuesTests {
+
+    private static final List<String> SPECIAL_STRINGS = List.of("it's", "a\\b", "tab\there", "new\nline", "cr\r", "zero\0", "", "[a,b]", "{k:v}");
+
+    private ZoneId previousZone;
+    private Map<String, FieldDataCache> fields;
+
+    @BeforeEach
+    void before() throws FieldInitializationException {
+        previousZone = TemporalValues.getZone();
+        TemporalValues.setZone(ZoneOffset.UTC);
+        fields = new HashMap<>();
+        for (FieldDataCache field : CSUtils.getFieldsData(Holder.class).getFields()) {
+            fields.put(field.getFieldName(), field);
+        }
+    }
+
+    @AfterEach
+    void after() {
+        TemporalValues.setZone(previousZone);
+    }
+
+    @Test
+    void quote_EscapesSpecialCharacters() {
+        assertEquals("['it\\'s','a\\\\b','tab\\there','new\\nline','cr\\r','zero\\0','','[a,b]','{k:v}']", write("strings", SPECIAL_STRINGS));
+    }
+
+    @Test
+    void quotedStrings_RoundTrip() {
+        assertEquals(SPECIAL_STRINGS, read("strings", write("strings", SPECIAL_STRINGS)));
+
+        Map<String, Long> map = new LinkedHashMap<>();
+        for (int i = 0; i < SPECIAL_STRINGS.size(); i++) {
+            map.put(SPECIAL_STRINGS.get(i), (long) i - 4);
+        }
+        assertEquals(map, read("map", write("map", map)));
+    }
+
+    @Test
+    void nullElements_WrittenAsDefaults() {
+        assertEquals("['a','']", write("strings", Arrays.asList("a", null)));
+        assertEquals("[1,0]", write("ints", Arrays.asList(1, null)));
+        assertNull(write("strings", null));
+    }
+
+    @Test
+    void enums_ByNameOrOrdinal() {
+        assertEquals("['FEMALE','MALE']", write("genders", List.of(Gender.FEMALE, Gender.MALE)));
+        assertEquals("[1,0]", write("genderOrdinals", List.of(Gender.FEMALE, Gender.MALE)));
+
+        assertEquals(List.of(Gender.FEMALE, Gender.MALE), read("genders", "['FEMALE','MALE']"));
+        assertEquals(List.of(Gender.FEMALE, Gender.MALE), read("genderOrdinals", "[1,0]"));
+    }
+
+    @Test
+    void dateTimes_WrittenAsEpochAndReadFromText() {
+        LocalDateTime value = LocalDateTime.of(2023, 11, 14, 22, 13, 20, 123456789);
+
+        assertEquals("[1700000000.123456789]", write("dateTimes", new LocalDateTime[]{value}));
+        assertArrayEquals(new LocalDateTime[]{value}, (LocalDateTime[]) read("dateTimes", "['2023-11-14 22:13:20.123456789']"));
+    }
+
+    @Test
+    void numbersAndBooleans() {
+        assertEquals("[1,0]", write("flags", List.of(true, false)));
+        assertEquals(List.of(true, false), read("flags", "[1,0]"));
+        assertEquals("{'pi':3.14159265358979323846}", write("decimals", Map.of("pi", new BigDecimal("3.14159265358979323846"))));
+    }
+
+    @Test
+    void emptyCollections() {
+        assertEquals("[]", write("strings", List.of()));
+        assertEquals("{}", write("map", Map.of()));
+        assertEquals(List.of(), read("strings", "[]"));
+        assertEquals(Map.of(), read("map", "{}"));
+        assertEquals(Set.of(), read("genderSet", "[]"));
+        assertEquals(0, ((LocalDateTime[]) read("dateTimes", "[]")).length);
+    }
+
+    @Test
+    void tuple_ByPosition() {
+        LocalDateTime value = LocalDateTime.of(2024, 1, 2, 3, 4, 5);
+
+        assertEquals("('x\\'y',7,1704164645.000000000)", write("tuple", List.of("x'y", 7, value)));
+        assertEquals(List.of("x'y", 7, value), read("tuple", "('x\\'y',7,'2024-01-02 03:04:05')"));
+        assertThrows(IllegalArgumentException.class, () -> write("tuple", List.of("x", 7)));
+        assertThrows(IllegalArgumentException.class, () -> read("tuple", "('x',7)"));
+    }
+
+    @Test
+    void nestedColumns_OneArrayPerField() throws FieldInitializationException {
+        LocalDateTime value = LocalDateTime.of(2024, 1, 2, 3, 4, 5);
+        List<ShipmentItem> items = List.of(new ShipmentItem("a'b", 2, value), new ShipmentItem("c\\d", 0, null));
+        List<String> columns = new ArrayList<>();
+        for (FieldDataCache column : CSUtils.getFieldsData(ShipmentItem.class).getFields()) {
+            columns.add(CompositeValues.nestedWriterOf(column).write(items).toString());
+        }
+
+        assertEquals(List.of("['a\\'b','c\\\\d']", "[2,0]", "[1704164645.000000000,0]"), columns);
+        assertEquals("[]", CompositeValues.nestedWriterOf(CSUtils.getFieldsData(ShipmentItem.class).getFields().get(0)).write(List.of()).toString());
+        assertEquals(List.of("a'b", "c\\d"), CompositeValues.nestedElements("['a\\'b','c\\\\d']"));
+        assertEquals(List.of(), CompositeValues.nestedElements(null));
+    }
+
+    private String write(String field, Object value) {
+        Object written = fields.get(field).getWriteConverter().write(value);
+        if (written == null) {
+            return null;
+        }
+        assertInstanceOf(ClickHouseLiteral.class, written);
+        return written.toString();
+    }
+
+    private Object read(String field, String text) {
+        return fields.get(field).getReadConverter().read(text);
+    }
+
+    static class Holder {
+        @Column(value = FieldType.ARRAY, elementTypes = FieldType.STRING)
+        List<String> strings;
+        @Column(value = FieldType.ARRAY, elementTypes = FieldType.INT)
+        List<Integer> ints;
+        @Column(value = FieldType.ARRAY, elementTypes = FieldType.STRING)
+        List<Gender> genders;
+        @Column(value = FieldType.ARRAY, elementTypes = FieldType.INT)
+        List<Gender> genderOrdinals;
+        @Column(value = FieldType.ARRAY, elementTypes = FieldType.STRING)
+        Set<Gender> genderSet;
+        @Column(value = FieldType.ARRAY, elementTypes = FieldType.DATE_TIME)
+        LocalDateTime[] dateTimes;
+        @Column(value = FieldType.ARRAY, elementTypes = FieldType.BOOL8)
+        List<Boolean> flags;
+        @Column(value = FieldType.MAP, elementTypes = {FieldType.STRING, FieldType.LONG})
+        Map<String, Long> map;
+        @Column(value = FieldType.MAP, elementTypes = {FieldType.STRING, FieldType.BIG_DECIMAL})
+        Map<String, BigDecimal> decimals;
+        @Column(value = FieldType.TUPLE, elementTypes = {FieldType.STRING, FieldType.INT, FieldType.DATE_TIME})
+        List<Object> tuple;
+    }
+}
@@ -0,0 +1,232 @@
+package clicksave;
+
+import com.altinntech.clicksave.processor.EntityMapperProcessor;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.*;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntityMapperProcessorTests {
+
+    private static final String IMPORTS = """
+            package sample;
+
+            import com.altinntech.clicksave.annotations.*;
+            import com.altinntech.clicksave.enums.FieldType;
+
+            """;
+
+    @Test
+    void accessibleFields_MapperGenerated() throws IOException {
+        Result result = process("Plain", """
+                @ClickHouseEntity
+                public class Plain {
+                    @Column(value = FieldType.LONG, id = true)
+                    Long id;
+                    @Column(FieldType.STRING)
+                    public String name;
+                }
+                """);
+
+        assertEquals(List.of(), result.notes);
+        assertTrue(result.mapper.contains("columns.add(entity.id);"), result.mapper);
+        assertTrue(result.mapper.contains("entity.name = "), result.mapper);
+    }
+
+    @Test
+    void privateFieldWithoutAccessors_FallsBackToReflection() throws IOException {
+        Result result = process("PrivateField", """
+                @ClickHouseEntity
+                public class PrivateField {
+                    @Column(value = FieldType.LONG, id = true)
+                    Long id;
+                    @Column(FieldType.STRING)
+                    private String name;
+                }
+                """);
+
+        assertNull(result.mapper);
+        assertFallback(result, "field sample.PrivateField.name is not accessible and has no getter");
+    }
+
+    @Test
+    void finalField_FallsBackToReflection() throws IOException {
+        Result result = process("FinalField", """
+                @ClickHouseEntity
+                public class FinalField {
+                    @Column(value = FieldType.LONG, id = true)
+                    Long id;
+                    @Column(FieldType.STRING)
+                    final String name = "constant";
+                }
+                """);
+
+        assertNull(result.mapper);
+        assertFallback(result, "field sample.FinalField.name is final");
+    }
+
+    @Test
+    void noArgsConstructorMissing_FallsBackToReflection() throws IOException {
+        Result result = process("NoDefaultConstructor", """
+                @ClickHouseEntity
+                public class NoDefaultConstructor {
+                    @Column(value = FieldType.LONG, id = true)
+                    Long id;
+
+                    public NoDefaultConstructor(Long id) {
+                        this.id = id;
+                    }
+                }
+                """);
+
+        assertNull(result.mapper);
+        assertFallback(result, "sample.NoDefaultConstructor has no accessible no-args constructor");
+    }
+
+    @Test
+    void lombokAccessors_UsedForPrivateFields() throws IOException {
+        Result result = process("LombokEntity", """
+                @lombok.Getter
+                @lombok.Setter
+                @lombok.NoArgsConstructor
+                @lombok.AllArgsConstructor
+                @ClickHouseEntity
+                public class LombokEntity {
+                    @Column(value = FieldType.LONG, id = true)
+                    private Long id;
+                    @Column(FieldType.BOOL)
+                    private boolean isActive;
+                    @Column(FieldType.BOOL)
+                    private Boolean enabled;
+                }
+                """);
+
+        assertEquals(List.of(), result.notes);
+        assertTrue(result.mapper.contains("entity.getId()"), result.mapper);
+        assertTrue(result.mapper.contains("entity.setId("), result.mapper);
+        // Lombok drops the is prefix of primitive boolean fields, but not of boxed ones
+        assertTrue(result.mapper.contains("entity.isActive()"), result.mapper);
+        assertTrue(result.mapper.contains("entity.setActive("), result.mapper);
+        assertTrue(result.mapper.contains("entity.getEnabled()"), result.mapper);
+    }
+
+    @Test
+    void lombokGetterWithoutSetter_FallsBackToReflection() throws IOException {
+        Result result = process("GetterOnly", """
+                @lombok.Getter
+                @ClickHouseEntity
+                public class GetterOnly {
+                    @Column(value = FieldType.LONG, id = true)
+                    private Long id;
+                }
+                """);
+
+        assertNull(result.mapper);
+        assertFallback(result, "field sample.GetterOnly.id is not accessible and has no setter");
+    }
+
+    @Test
+    void embeddedFields_BitsInDeclarationOrder() throws IOException {
+        Result result = process("Embedding", """
+                @ClickHouseEntity
+                public class Embedding {
+                    @Column(value = FieldType.LONG, id = true)
+                    Long id;
+                    @Embedded
+                    Outer outer;
+                    @Embedded
+                    Inner second;
+
+                    @Embeddable
+                    public static class Outer {
+                        @Column(FieldType.STRING)
+                        String code;
+                        @Embedded
+                        Inner inner;
+                    }
+
+                    @Embeddable
+                    public static class Inner {
+                        @Column(FieldType.INT)
+                        Integer value;
+                    }
+                }
+                """);
+
+        assertEquals(List.of(), result.notes);
+        // the bits are assigned depth-first like in InsertPlan, so the nested field comes before the second one
+        int outer = result.mapper.indexOf("missing |= 1L << 0;");
+        int inner = result.mapper.indexOf("missing |= 1L << 1;");
+        int second = result.mapper.indexOf("missing |= 1L << 2;");
+        assertTrue(outer >= 0 && inner > outer && second > inner, result.mapper);
+        assertFalse(result.mapper.contains("1L << 3"), result.mapper);
+    }
+
+    @Test
+    void tooManyEmbeddedFields_FallsBackToReflection() throws IOException {
+        StringBuilder fields = new StringBuilder();
+        for (int i = 0; i < 65; i++) {
+            fields.append("    @Embedded\n    Part part").append(i).append(";\n");
+        }
+        Result result = process("ManyParts", """
+                @ClickHouseEntity
+                public class ManyParts {
+                    @Column(value = FieldType.LONG, id = true)
+                    Long id;
+                %s
+                    @Embeddable
+                    public static class Part {
+                        @Column(FieldType.INT)
+                        Integer value;
+                    }
+                }
+                """.formatted(fields));
+
+        assertNull(result.mapper);
+        assertFallback(result, "sample.ManyParts has more than 64 embedded fields");
+    }
+
+    private static void assertFallback(Result result, String reason) {
+        assertEquals(List.of("ClickSave mapper is not generated, the entity is mapped by reflection: " + reason), result.notes);
+    }
+
+    /**
+     * Runs the processor on the source without compiling it and returns the notes and the generated mapper.
+     */
+    private static Result process(String className, String source) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        Path generated = Files.createTempDirectory("clicksave-processor");
+        JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///sample/" + className + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return IMPORTS + source;
+            }
+        };
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        List<String> options = List.of("-proc:only", "-s", generated.toString(),
+                "-classpath", System.getProperty("java.class.path"),
+                "-processor", EntityMapperProcessor.class.getName());
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null, List.of(file));
+        assertTrue(task.call(), diagnostics.getDiagnostics().toString());
+
+        List<String> notes = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.NOTE && diagnostic.getMessage(Locale.ROOT).startsWith("ClickSave")) {
+                notes.add(diagnostic.getMessage(Locale.ROOT));
+            }
+        }
+        Path mapper = generated.resolve("sample").resolve(className + "_ClicksaveMapper.java");
+        return new Result(notes, Files.exists(mapper) ? Files.readString(mapper) : null);
+    }
+
+    private record Result(List<String> notes, String mapper) {
+    }
+}
@@ -0,0 +1,127 @@
+package clicksave;
+
+import com.altinntech.clicksave.core.batch.HashedTimingWheel;
+import com.altinntech.clicksave.core.batch.TableBatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HashedTimingWheelTests {
+
+    private HashedTimingWheel wheel;
+
+    @AfterEach
+    void after() {
+        if (wheel != null) {
+            wheel.dispose();
+        }
+    }
+
+    @Test
+    void expiresInDeadlineOrder() throws InterruptedException {
+        wheel = new HashedTimingWheel(1, 64, Runnable::run);
+        List<Long> expired = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(4);
+
+        for (long delay : new long[]{50, 10, 30, 0}) {
+            wheel.schedule(() -> {
+                expired.add(delay);
+                latch.countDown();
+            }, delay);
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(0L, 10L, 30L, 50L), expired);
+    }
+
+    @Test
+    void neverExpiresBeforeDeadline() throws InterruptedException {
+        wheel = new HashedTimingWheel(5, 64, Runnable::run);
+        CountDownLatch latch = new CountDownLatch(1);
+        long[] elapsed = new long[1];
+        long start = System.nanoTime();
+
+        wheel.schedule(() -> {
+            elapsed[0] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            latch.countDown();
+        }, 60);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        // the precision is one tick
+        assertTrue(elapsed[0] >= 55, "expired after " + elapsed[0] + " ms");
+    }
+
+    @Test
+    void deadlineBeyondOneRevolution_WaitsForItsRound() throws InterruptedException {
+        // 8 buckets of 5 ms, one revolution takes 40 ms
+        wheel = new HashedTimingWheel(5, 8, Runnable::run);
+        List<Long> expired = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(3);
+        long start = System.nanoTime();
+        long[] elapsed = new long[1];
+
+        wheel.schedule(() -> {
+            elapsed[0] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            expired.add(110L);
+            latch.countDown();
+        }, 110);
+        wheel.schedule(() -> {
+            expired.add(30L);
+            latch.countDown();
+        }, 30);
+        // lands in the same bucket as the 110 ms deadline, one round earlier
+        wheel.schedule(() -> {
+            expired.add(70L);
+            latch.countDown();
+        }, 70);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(30L, 70L, 110L), expired);
+        assertTrue(elapsed[0] >= 105, "expired after " + elapsed[0] + " ms");
+    }
+
+    @Test
+    void staleGeneration_IsSkipped() throws InterruptedException {
+        wheel = new HashedTimingWheel(1, 64, Runnable::run);
+        TableBatch batch = new TableBatch(null);
+        List<Long> flushed = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(2);
+
+        long staleGeneration = batch.getGeneration();
+        wheel.schedule(() -> {
+            if (batch.getGeneration() == staleGeneration) {
+                flushed.add(staleGeneration);
+            }
+            latch.countDown();
+        }, 20);
+        // the buffer is swapped by a size flush before its deadline
+        batch.swap();
+        long currentGeneration = batch.getGeneration();
+        wheel.schedule(() -> {
+            if (batch.getGeneration() == currentGeneration) {
+                flushed.add(currentGeneration);
+            }
+            latch.countDown();
+        }, 20);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(currentGeneration), flushed);
+    }
+
+    @Test
+    void dispose_StopsExpiring() throws InterruptedException {
+        wheel = new HashedTimingWheel(1, 64, Runnable::run);
+        CountDownLatch latch = new CountDownLatch(1);
+
+        wheel.schedule(latch::countDown, 50);
+        wheel.dispose();
+
+        assertFalse(latch.await(200, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,104 @@
+package clicksave;
+
+import com.altinntech.clicksave.annotations.ClickHouseEntity;
+import com.altinntech.clicksave.core.ClassDataCacheService;
+import com.altinntech.clicksave.core.CSUtils;
+import com.altinntech.clicksave.core.dto.ClassDataCache;
+import com.altinntech.clicksave.core.dto.EmbeddableClassData;
+import com.altinntech.clicksave.core.dto.PreparedFieldsData;
+import com.altinntech.clicksave.core.pipelines.insert.InsertPlan;
+import com.altinntech.clicksave.examples.entity.*;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InsertPlanTests {
+
+    @Test
+    void read_RoundTripsExtractedRow() throws Exception {
+        InsertPlan plan = plan(Person.class, EmployeeInfo.class, WorkInfo.class);
+        Person person = new Person(42L, "John", "Doe", 30, "some_address", Gender.MALE, Job.THREE_D_ARTIST, "not saved");
+        person.setTimestamp(LocalDateTime.of(2024, 1, 2, 3, 4, 5, 123456789));
+        person.setBigDecimal(new BigDecimal("123.456"));
+        person.setMatrix(new int[][][]{{{1, 2}, {3}}});
+        List<Object> values = new ArrayList<>();
+        long missing = plan.extract(person, values);
+
+        Person read = (Person) plan.read(missing, values);
+
+        assertNotSame(person, read);
+        assertNotSame(person.getEmployeeInfo(), read.getEmployeeInfo());
+        assertEquals(person.getId(), read.getId());
+        assertEquals(person.getName(), read.getName());
+        assertEquals(person.getAge(), read.getAge());
+        assertEquals(person.getGender(), read.getGender());
+        assertEquals(person.getJob(), read.getJob());
+        assertEquals(person.getEmployeeInfo(), read.getEmployeeInfo());
+        assertEquals(person.getCompanyMetadata(), read.getCompanyMetadata());
+        assertArrayEquals(person.getMatrix(), read.getMatrix());
+        assertEquals(person.getTimestamp(), read.getTimestamp());
+        assertEquals(person.getBigDecimal(), read.getBigDecimal());
+        assertNull(read.getNoSaveField());
+        // the callbacks are left to the caller
+        assertFalse(read.isTestFieldForPostLoad());
+    }
+
+    @Test
+    void read_MissingEmbeddedStaysNull() throws Exception {
+        InsertPlan plan = plan(Person.class, EmployeeInfo.class, WorkInfo.class);
+        Person person = new Person(42L, "John", "Doe", 30, "some_address", null, null, null);
+        person.setEmployeeInfo(null);
+        List<Object> values = new ArrayList<>();
+        long missing = plan.extract(person, values);
+
+        Person read = (Person) plan.read(missing, values);
+
+        assertNotEquals(0L, missing);
+        assertNull(read.getEmployeeInfo());
+        assertNull(read.getGender());
+        assertEquals(person.getAddress(), read.getAddress());
+        assertEquals(person.getTimestamp(), read.getTimestamp());
+    }
+
+    @Test
+    void read_CompositeAndNestedColumns() throws Exception {
+        InsertPlan plan = plan(Shipment.class);
+        LocalDateTime packedAt = LocalDateTime.of(2024, 5, 6, 7, 8, 9);
+        Shipment shipment = new Shipment(UUID.randomUUID(), List.of("fragile", "it's"), Set.of(Gender.FEMALE),
+                new LocalDateTime[]{packedAt}, Map.of("box", 12L), List.of("depot", 3, packedAt),
+                List.of(new ShipmentItem("sku-1", 2, packedAt), new ShipmentItem("sku-2", 0, packedAt.plusDays(1))));
+        List<Object> values = new ArrayList<>();
+        long missing = plan.extract(shipment, values);
+
+        Shipment read = (Shipment) plan.read(missing, values);
+
+        assertEquals(shipment.getId(), read.getId());
+        assertEquals(shipment.getLabels(), read.getLabels());
+        assertEquals(shipment.getRecipients(), read.getRecipients());
+        assertArrayEquals(shipment.getCheckpoints(), read.getCheckpoints());
+        assertEquals(shipment.getWeights(), read.getWeights());
+        assertEquals(shipment.getRoute(), read.getRoute());
+        assertEquals(shipment.getItems(), read.getItems());
+        assertNotSame(shipment.getItems().get(0), read.getItems().get(0));
+    }
+
+    private static InsertPlan plan(Class<?> entityClass, Class<?>... embeddableClasses) throws Exception {
+        ClassDataCacheService service = new ClassDataCacheService();
+        for (Class<?> embeddableClass : embeddableClasses) {
+            EmbeddableClassData embeddableClassData = new EmbeddableClassData();
+            embeddableClassData.setFields(CSUtils.getFieldsData(embeddableClass).getFields());
+            service.putEmbeddableClassDataCache(embeddableClass, embeddableClassData);
+        }
+        ClassDataCache classDataCache = new ClassDataCache();
+        classDataCache.setEntityClass(entityClass);
+        classDataCache.setCHEAnnotation(entityClass.getAnnotation(ClickHouseEntity.class));
+        PreparedFieldsData fieldsData = CSUtils.getFieldsData(entityClass);
+        classDataCache.setFields(fieldsData.getFields());
+        classDataCache.setIdField(fieldsData.getIdField());
+        return InsertPlan.compile(classDataCache, service);
+    }
+}
@@ -0,0 +1,92 @@
+package clicksave;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stubs of the JDBC objects read by the row mapping and the cursor, they record which of them were closed.
+ */
+final class JdbcStubs {
+
+    private final Set<Object> closed = ConcurrentHashMap.newKeySet();
+
+    boolean isClosed(Object stub) {
+        return closed.contains(stub);
+    }
+
+    Connection connection() {
+        return (Connection) Proxy.newProxyInstance(JdbcStubs.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> method.getName().equals("close") ? close(proxy) : switch (method.getName()) {
+            case "isClosed" -> closed.contains(proxy);
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    Statement statement() {
+        return (Statement) Proxy.newProxyInstance(JdbcStubs.class.getClassLoader(), new Class<?>[]{Statement.class}, (proxy, method, args) -> method.getName().equals("close") ? close(proxy) : switch (method.getName()) {
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private Object close(Object stub) {
+        closed.add(stub);
+        return null;
+    }
+
+    /**
+     * A forward-only result set of the rows, the values are read by index or label.
+     */
+    ResultSet resultSet(List<Map<String, Object>> rows) {
+        List<String> names = rows.isEmpty() ? List.of() : new ArrayList<>(rows.get(0).keySet());
+        int[] position = {0};
+        boolean[] wasNull = {false};
+        ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(JdbcStubs.class.getClassLoader(),
+                new Class<?>[]{ResultSetMetaData.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getColumnCount" -> names.size();
+                    case "getColumnName", "getColumnLabel" -> names.get((Integer) args[0] - 1);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        return (ResultSet) Proxy.newProxyInstance(JdbcStubs.class.getClassLoader(), new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getMetaData":
+                    return metaData;
+                case "next":
+                    if (closed.contains(proxy)) {
+                        throw new IllegalStateException("result set is closed");
+                    }
+                    return position[0]++ < rows.size();
+                case "close":
+                    return close(proxy);
+                case "wasNull":
+                    return wasNull[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+            }
+            Map<String, Object> row = rows.get(position[0] - 1);
+            Object value = args[0] instanceof Integer index ? row.get(names.get(index - 1)) : row.get((String) args[0]);
+            wasNull[0] = value == null;
+            return switch (method.getName()) {
+                case "getObject" -> value;
+                case "getString" -> value == null ? null : value.toString();
+                case "getLong" -> value == null ? 0L : ((Number) value).longValue();
+                case "getInt" -> value == null ? 0 : ((Number) value).intValue();
+                case "getDouble" -> value == null ? 0D : ((Number) value).doubleValue();
+                default -> throw new UnsupportedOperationException(method.getName());
+            };
+        });
+    }
+}
@@ -0,0 +1,105 @@
+package clicksave;
+
+import com.altinntech.clicksave.ClickSaveConfiguration;
+import com.altinntech.clicksave.examples.entity.Gender;
+import com.altinntech.clicksave.examples.entity.Job;
+import com.altinntech.clicksave.examples.entity.Person;
+import com.altinntech.clicksave.examples.repository.JpaPersonRepository;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@AutoConfigureObservability
+@SpringBootTest
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = ClickSaveConfiguration.class)
+@TestPropertySource(locations = "classpath:application-test.properties", properties = "clicksave.core.row-binary-insert=true")
+public class RowBinaryInsertTests {
+
+    @Autowired
+    private JpaPersonRepository jpaPersonRepository;
+
+    private Person TEST_PERSON_1;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        jpaPersonRepository.deleteAll();
+        TEST_PERSON_1 = new Person(null, "John", "Doe", 30, "some_address", Gender.MALE, Job.THREE_D_ARTIST, null);
+        TEST_PERSON_1.setBigDecimal(new BigDecimal("123.456"));
+        TEST_PERSON_1.setLongBigDecimal(new BigDecimal("-98765.4321"));
+    }
+
+    @AfterEach
+    void after() {
+        jpaPersonRepository.deleteAll();
+    }
+
+    @Test
+    void saveAndFind() {
+        Person saved = jpaPersonRepository.save(TEST_PERSON_1);
+
+        Optional<Person> found = jpaPersonRepository.findById(saved.getId());
+        assertTrue(found.isPresent());
+        Person person = found.get();
+        assertEquals(TEST_PERSON_1.getName(), person.getName());
+        assertEquals(TEST_PERSON_1.getAge(), person.getAge());
+        assertEquals(TEST_PERSON_1.getGender(), person.getGender());
+        assertEquals(TEST_PERSON_1.getJob(), person.getJob());
+        assertEquals(TEST_PERSON_1.getEmployeeInfo(), person.getEmployeeInfo());
+        assertEquals(0, TEST_PERSON_1.getBigDecimal().compareTo(person.getBigDecimal()));
+        assertEquals(0, TEST_PERSON_1.getLongBigDecimal().compareTo(person.getLongBigDecimal()));
+        assertEquals(TEST_PERSON_1.getTimestamp().truncatedTo(ChronoUnit.MICROS), person.getTimestamp().truncatedTo(ChronoUnit.MICROS));
+    }
+
+    @Test
+    void saveNullableValues() {
+        TEST_PERSON_1.setName(null);
+        TEST_PERSON_1.setGender(null);
+        TEST_PERSON_1.setJob(null);
+        TEST_PERSON_1.setTimestamp(null);
+        Person saved = jpaPersonRepository.save(TEST_PERSON_1);
+
+        Person person = jpaPersonRepository.findById(saved.getId()).orElseThrow();
+        assertNull(person.getName());
+        assertNull(person.getGender());
+        assertNull(person.getJob());
+        assertNull(person.getTimestamp());
+    }
+
+    @Test
+    void saveBatch() {
+        for (int i = 0; i < 25; i++) {
+            jpaPersonRepository.save(Person.buildMockPerson());
+        }
+        List<Person> persons = jpaPersonRepository.findAll();
+        assertEquals(25, persons.size());
+    }
+
+    @Disabled
+    @Test
+    void saveStressTest() {
+        int iterations = 100_000;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            Person person = Person.buildMockPerson();
+            jpaPersonRepository.saveAsync(person);
+        }
+        long endTime = System.nanoTime();
+        double executionTime =  (endTime - startTime) / 1_000_000.0;
+        System.out.println("RowBinary time to saving: " + executionTime);
+        System.out.println("RowBinary entities per second: " + Math.floor((iterations / (executionTime / 1000.0))) + " e/s");
+    }
+}
@@ -0,0 +1,127 @@
+package clicksave;
+
+import com.altinntech.clicksave.core.ConnectionManager;
+import com.altinntech.clicksave.core.RowCursor;
+import com.altinntech.clicksave.core.RowMapping;
+import com.altinntech.clicksave.core.caches.ProjectionClassDataCache;
+import com.altinntech.clicksave.core.dto.ClassDataCache;
+import com.altinntech.clicksave.core.utils.DefaultProperties;
+import com.altinntech.clicksave.examples.dto.PersonResponse;
+import com.altinntech.clicksave.interfaces.CloseableIterator;
+import com.altinntech.clicksave.interfaces.PropertyEnvironment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RowCursorTests {
+
+    private JdbcStubs jdbc;
+    private RecordingConnectionManager connectionManager;
+    private Connection connection;
+    private Statement statement;
+    private ResultSet resultSet;
+
+    @BeforeEach
+    void before() throws SQLException {
+        jdbc = new JdbcStubs();
+        connectionManager = new RecordingConnectionManager();
+        connection = jdbc.connection();
+        statement = jdbc.statement();
+        resultSet = jdbc.resultSet(List.of(Map.of("name", "John"), Map.of("name", "Kent"), Map.of("name", "Zachary")));
+    }
+
+    @Test
+    void stream_PartlyConsumed_ReleasedOnClose() throws Exception {
+        try (Stream<PersonResponse> rows = cursor().stream()) {
+            assertEquals("John", rows.iterator().next().getSome_name());
+            assertReleased(false);
+        }
+
+        assertReleased(true);
+    }
+
+    @Test
+    void stream_FullyRead_ReleasedWithoutClose() throws Exception {
+        Stream<PersonResponse> rows = cursor().stream();
+
+        assertEquals(List.of("John", "Kent", "Zachary"), rows.map(PersonResponse::getSome_name).collect(Collectors.toList()));
+
+        assertReleased(true);
+        rows.close();
+        assertEquals(1, connectionManager.released.size());
+    }
+
+    @Test
+    void iterator_PartlyConsumed_ReleasedOnClose() throws Exception {
+        try (CloseableIterator<PersonResponse> rows = cursor().iterator()) {
+            assertTrue(rows.hasNext());
+            assertEquals("John", rows.next().getSome_name());
+            assertReleased(false);
+        }
+
+        assertReleased(true);
+    }
+
+    @Test
+    void iterator_FullyRead_Released() throws Exception {
+        CloseableIterator<PersonResponse> rows = cursor().iterator();
+        List<String> names = new ArrayList<>();
+        rows.forEachRemaining(row -> names.add(row.getSome_name()));
+
+        assertEquals(List.of("John", "Kent", "Zachary"), names);
+        assertReleased(true);
+        rows.close();
+        assertEquals(1, connectionManager.released.size());
+    }
+
+    private RowCursor<PersonResponse> cursor() throws Exception {
+        RowMapping<PersonResponse> mapping = RowMapping.of(PersonResponse.class, resultSet,
+                ProjectionClassDataCache.getInstance().get(PersonResponse.class), null);
+        return RowCursor.of(connectionManager, connection, statement, resultSet, mapping, new ClassDataCache());
+    }
+
+    private void assertReleased(boolean released) {
+        assertEquals(released, jdbc.isClosed(resultSet), "result set closed");
+        assertEquals(released, jdbc.isClosed(statement), "statement closed");
+        assertEquals(released ? List.of(connection) : List.of(), connectionManager.released);
+    }
+
+    /**
+     * A connection manager without a data source, it records the released connections.
+     */
+    private static class RecordingConnectionManager extends ConnectionManager {
+
+        final List<Connection> released = new ArrayList<>();
+
+        RecordingConnectionManager() throws SQLException {
+            super(DefaultProperties.getProperties(new PropertyEnvironment() {
+                @Override
+                public String getProperty(String propertyName, String defaultValue) {
+                    return defaultValue;
+                }
+
+                @Override
+                public String getProperty(String propertyName) {
+                    return null;
+                }
+            }));
+        }
+
+        @Override
+        public synchronized void releaseConnection(Connection connection) throws SQLException {
+            released.add(connection);
+            super.releaseConnection(connection);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package clicksave;
+
+import com.altinntech.clicksave.core.RowMapping;
+import com.altinntech.clicksave.core.caches.ProjectionClassDataCache;
+import com.altinntech.clicksave.examples.dto.PersonResponse;
+import com.altinntech.clicksave.examples.entity.Job;
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RowMappingTests {
+
+    private final JdbcStubs jdbc = new JdbcStubs();
+
+    @Test
+    void projection_ReferenceColumns() throws Exception {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 1L);
+        row.put("name", "John");
+        row.put("last_name", "Doe");
+        row.put("job", Job.HR.getId());
+        row.put("description", "about");
+        ResultSet resultSet = jdbc.resultSet(List.of(row));
+
+        resultSet.next();
+        PersonResponse response = RowMapping.of(PersonResponse.class, resultSet,
+                ProjectionClassDataCache.getInstance().get(PersonResponse.class), null).read(resultSet);
+
+        assertEquals("John", response.getSome_name());
+        assertEquals("Doe", response.getLastName());
+        assertEquals(Job.HR, response.getJob());
+        assertEquals("about", response.getDescription());
+    }
+
+    @Test
+    void projection_NotAllColumns() throws Exception {
+        // the plan of the full layout above must not be reused for a layout with fewer columns
+        ResultSet full = jdbc.resultSet(List.of(Map.of("name", "Kent", "last_name", "Martinez")));
+        full.next();
+        RowMapping.of(PersonResponse.class, full, ProjectionClassDataCache.getInstance().get(PersonResponse.class), null).read(full);
+        ResultSet resultSet = jdbc.resultSet(List.of(Map.of("name", "John")));
+
+        resultSet.next();
+        PersonResponse response = RowMapping.of(PersonResponse.class, resultSet,
+                ProjectionClassDataCache.getInstance().get(PersonResponse.class), null).read(resultSet);
+
+        PersonResponse expected = new PersonResponse();
+        expected.setSome_name("John");
+        assertEquals(expected, response);
+    }
+}
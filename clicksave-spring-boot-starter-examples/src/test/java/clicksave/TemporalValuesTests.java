@@ -0,0 +1,155 @@
+package clicksave;
+
+import com.altinntech.clicksave.core.converter.TemporalValues;
+import com.altinntech.clicksave.enums.FieldType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TemporalValuesTests {
+
+    private static final ZoneId BERLIN = ZoneId.of("Europe/Berlin");
+
+    @Test
+    void parse_DateTime() {
+        assertEquals(LocalDateTime.of(2024, 1, 2, 3, 4, 5), TemporalValues.parse("2024-01-02 03:04:05"));
+    }
+
+    @Test
+    void parse_TSeparator() {
+        assertEquals(LocalDateTime.of(2024, 1, 2, 3, 4, 5), TemporalValues.parse("2024-01-02T03:04:05"));
+    }
+
+    @Test
+    void parse_DateOnly_IsMidnight() {
+        assertEquals(LocalDateTime.of(2024, 1, 2, 0, 0), TemporalValues.parse("2024-01-02"));
+    }
+
+    @Test
+    void parse_FractionOfEveryLength() {
+        String fraction = "123456789";
+        for (int digits = 1; digits <= 9; digits++) {
+            LocalDateTime parsed = TemporalValues.parse("2024-01-02 03:04:05." + fraction.substring(0, digits));
+            int expectedNanos = Integer.parseInt((fraction.substring(0, digits) + "000000000").substring(0, 9));
+            assertEquals(LocalDateTime.of(2024, 1, 2, 3, 4, 5, expectedNanos), parsed, digits + " digits");
+        }
+        assertEquals(1000, TemporalValues.parse("2024-01-02 03:04:05.000001").getNano());
+    }
+
+    @Test
+    void parse_BadInput_Throws() {
+        for (String text : new String[]{
+                "",
+                "2024-01",
+                "2024-01-02 03",
+                "2024-01-02 03:04",
+                "2024/01/02",
+                "2024-01-02 03:04:05.",
+                "2024-01-02 03:04:05.1234567890",
+                "2024-01-02 03:04:05,123",
+                "2024-01-02x03:04:05",
+                "2024-01-02 03-04-05",
+                "2024-0a-02 03:04:05",
+                "2024-01-02 03:04:5x"
+        }) {
+            assertThrows(DateTimeParseException.class, () -> TemporalValues.parse(text), text);
+        }
+    }
+
+    @Test
+    void parse_OutOfRangeFields_Throws() {
+        assertThrows(DateTimeException.class, () -> TemporalValues.parse("2024-13-02 03:04:05"));
+        assertThrows(DateTimeException.class, () -> TemporalValues.parse("2023-02-29"));
+        assertThrows(DateTimeException.class, () -> TemporalValues.parse("2024-01-02 24:00:00"));
+    }
+
+    @Test
+    void toEpochTicks_Precision() {
+        LocalDateTime value = LocalDateTime.of(2023, 11, 14, 22, 13, 20, 123456789);
+
+        assertEquals(1700000000L, TemporalValues.toEpochTicks(value, ZoneOffset.UTC, 0));
+        assertEquals(1700000000123L, TemporalValues.toEpochTicks(value, ZoneOffset.UTC, 3));
+        assertEquals(1700000000123456L, TemporalValues.toEpochTicks(value, ZoneOffset.UTC, 6));
+        assertEquals(1700000000123456789L, TemporalValues.toEpochTicks(value, ZoneOffset.UTC, 9));
+        assertEquals(1699992800L, TemporalValues.toEpochTicks(value, ZoneOffset.ofHours(2), 0));
+    }
+
+    @Test
+    void toEpochTicks_BeforeEpoch() {
+        LocalDateTime value = LocalDateTime.of(1969, 12, 31, 23, 59, 59, 500_000_000);
+
+        assertEquals(-500L, TemporalValues.toEpochTicks(value, ZoneOffset.UTC, 3));
+    }
+
+    @Test
+    void toEpochTicks_DstGap_ShiftsLikeZonedDateTime() {
+        // 02:30 doesn't exist in Berlin on 2024-03-31, the clocks jump from 02:00 to 03:00
+        LocalDateTime inGap = LocalDateTime.of(2024, 3, 31, 2, 30);
+
+        long expected = ZonedDateTime.of(inGap, BERLIN).toEpochSecond();
+        assertEquals(expected, TemporalValues.toEpochTicks(inGap, BERLIN, 0));
+        assertEquals(LocalDateTime.of(2024, 3, 31, 1, 30).toEpochSecond(ZoneOffset.UTC), expected);
+    }
+
+    @Test
+    void toEpochTicks_DstOverlap_TakesEarlierOffset() {
+        // 02:30 happens twice in Berlin on 2024-10-27, first at +02:00 and then at +01:00
+        LocalDateTime inOverlap = LocalDateTime.of(2024, 10, 27, 2, 30);
+
+        assertEquals(ZonedDateTime.of(inOverlap, BERLIN).toEpochSecond(), TemporalValues.toEpochTicks(inOverlap, BERLIN, 0));
+        assertEquals(inOverlap.toEpochSecond(ZoneOffset.ofHours(2)), TemporalValues.toEpochTicks(inOverlap, BERLIN, 0));
+    }
+
+    @Test
+    void toEpochTicks_FromNumbers() {
+        assertEquals(1700000000123456L, TemporalValues.toEpochTicks(new BigDecimal("1700000000.123456"), 6));
+        assertEquals(1700000000123000L, TemporalValues.toEpochTicks(new BigDecimal("1700000000.123"), 6));
+        assertEquals(1700000000123456L, TemporalValues.toEpochTicks(new BigDecimal("1700000000.123456789"), 6));
+        assertEquals(1700000000123456L, TemporalValues.toEpochTicks(1700000000123456L, 6));
+    }
+
+    @Test
+    void toEpoch_RoundTrip() {
+        ZoneId previous = TemporalValues.getZone();
+        TemporalValues.setZone(BERLIN);
+        try {
+            LocalDateTime value = LocalDateTime.of(2024, 7, 1, 12, 0, 0, 123456789);
+
+            BigDecimal epoch = TemporalValues.toEpoch(value, TemporalValues.precisionOf(FieldType.DATE_TIME));
+            assertEquals(new BigDecimal("1719828000.123456789"), epoch);
+            assertEquals(value, TemporalValues.fromEpoch(epoch));
+
+            BigDecimal epoch6 = TemporalValues.toEpoch(value, TemporalValues.precisionOf(FieldType.DATE_TIME6));
+            assertEquals(new BigDecimal("1719828000.123456"), epoch6);
+            assertEquals(value.withNano(123456000), TemporalValues.fromEpoch(epoch6));
+
+            assertEquals(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 500_000_000).atZone(ZoneOffset.UTC).withZoneSameInstant(BERLIN).toLocalDateTime(),
+                    TemporalValues.fromEpoch(new BigDecimal("-0.5")));
+            assertNull(TemporalValues.toEpoch(null, 9));
+        } finally {
+            TemporalValues.setZone(previous);
+        }
+    }
+
+    @Test
+    void resolveZone_KeepsFirstResolvedZone() {
+        ZoneId previous = TemporalValues.getZone();
+        try {
+            ZoneId resolved = TemporalValues.resolveZone(BERLIN);
+
+            // a second bootstrap connected to a server in another zone doesn't change the bound values
+            assertEquals(resolved, TemporalValues.resolveZone(ZoneId.of("Asia/Tokyo")));
+            assertEquals(resolved, TemporalValues.resolveZone(resolved));
+        } finally {
+            TemporalValues.setZone(previous);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.altinntech.clicksave.core;
+
+import cc.blynk.clickhouse.ClickHouseConnection;
+import cc.blynk.clickhouse.ClickHouseStatement;
+import cc.blynk.clickhouse.settings.ClickHouseProperties;
+import cc.blynk.clickhouse.util.ClickHouseRowBinaryStream;
+import cc.blynk.clickhouse.util.ClickHouseStreamCallback;
+import com.altinntech.clicksave.annotations.Batching;
+import com.altinntech.clicksave.annotations.ClickHouseEntity;
+import com.altinntech.clicksave.core.batch.PendingRow;
+import com.altinntech.clicksave.core.batch.RowBinaryInserter;
+import com.altinntech.clicksave.core.dto.BatchedQueryData;
+import com.altinntech.clicksave.core.dto.ClassDataCache;
+import com.altinntech.clicksave.core.dto.PreparedFieldsData;
+import com.altinntech.clicksave.core.utils.DefaultProperties;
+import com.altinntech.clicksave.enums.Metrics;
+import com.altinntech.clicksave.examples.entity.SensorReading;
+import com.altinntech.clicksave.interfaces.ClicksaveMetrics;
+import com.altinntech.clicksave.interfaces.PropertyEnvironment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// in the core package, the ids manager is created with its package-private constructor
+public class BatchCollectorTests {
+
+    private static final long OPEN_DURATION = 50;
+    private static final String QUERY = "INSERT INTO sensor_reading (id, sensor, value, timestamp) VALUES (?, ?, ?, ?)";
+
+    private final RecordingMetrics metrics = new RecordingMetrics();
+    private final List<Integer> sentBytes = new ArrayList<>();
+    private Path deadLetterDirectory;
+    private ClassDataCache classDataCache;
+    private BatchCollector batchCollector;
+
+    @BeforeEach
+    void before() throws Exception {
+        deadLetterDirectory = Files.createTempDirectory("clicksave-dlq");
+        DefaultProperties properties = properties(deadLetterDirectory);
+        ClassDataCacheService classDataCacheService = new ClassDataCacheService();
+        classDataCache = classDataCache();
+        classDataCacheService.putClassDataCache(SensorReading.class, classDataCache);
+        StubConnectionManager connectionManager = new StubConnectionManager(properties);
+        IdsManager idsManager = new IdsManager(connectionManager);
+        idsManager.setRepository(null);
+        batchCollector = BatchCollector.create(idsManager, connectionManager, properties, metrics,
+                new RowBinaryInserter(classDataCacheService, true), classDataCacheService);
+    }
+
+    @AfterEach
+    void after() throws IOException {
+        batchCollector.dispose();
+        try (var paths = Files.walk(deadLetterDirectory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void unencodableRows_DeadLetteredAndReleased() throws Exception {
+        UUID id = UUID.randomUUID();
+        put(id, "not a timestamp");
+
+        batchCollector.saveAndFlushAll();
+
+        assertEquals(0L, gauge(Metrics.BATCH_BYTES));
+        assertEquals(0, gauge(Metrics.BATCH_PENDING_ROWS));
+        assertNull(batchCollector.findPending(classDataCache, id));
+        assertEquals(1, gauge(Metrics.DLQ_DEPTH));
+        assertEquals(1, metrics.counters.get(Metrics.BATCH_FAIL.getMetricsName()));
+        assertNull(metrics.counters.get(Metrics.BATCH_RETRY.getMetricsName()));
+        assertTrue(sentBytes.isEmpty());
+    }
+
+    @Test
+    void unencodableProbe_BreakerRecovers() throws Exception {
+        put(UUID.randomUUID(), "not a timestamp");
+        batchCollector.saveAndFlushAll();
+        assertTrue(batchCollector.isCircuitOpen());
+
+        Thread.sleep(OPEN_DURATION * 2);
+        put(UUID.randomUUID(), "not a timestamp");
+        batchCollector.saveAndFlushAll();
+        // the failed probe opens the breaker again instead of leaving it half-open
+        assertTrue(batchCollector.isCircuitOpen());
+
+        Thread.sleep(OPEN_DURATION * 2);
+        put(UUID.randomUUID(), LocalDateTime.now());
+        batchCollector.saveAndFlushAll();
+
+        assertFalse(batchCollector.isCircuitOpen());
+        assertEquals(0, gauge(Metrics.CIRCUIT_BREAKER_STATE));
+        assertEquals(1, sentBytes.size());
+        assertEquals(0L, gauge(Metrics.BATCH_BYTES));
+        assertEquals(0, gauge(Metrics.BATCH_PENDING_ROWS));
+        assertEquals(2, gauge(Metrics.DLQ_DEPTH));
+    }
+
+    private void put(UUID id, Object timestamp) throws Exception {
+        List<Object> values = Arrays.asList(id, "sensor", 1.5, timestamp);
+        batchCollector.put(new BatchedQueryData(QUERY, classDataCache), values, new PendingRow(id, 0L, new ArrayList<>(values)));
+    }
+
+    private long gauge(Metrics metric) {
+        return metrics.gauges.get(metric.getMetricsName()).get().longValue();
+    }
+
+    private static ClassDataCache classDataCache() {
+        ClassDataCache classDataCache = new ClassDataCache();
+        classDataCache.setEntityClass(SensorReading.class);
+        classDataCache.setCHEAnnotation(SensorReading.class.getAnnotation(ClickHouseEntity.class));
+        classDataCache.setBatchingAnnotation(SensorReading.class.getAnnotation(Batching.class));
+        classDataCache.setTableName("sensor_reading");
+        PreparedFieldsData fieldsData = CSUtils.getFieldsData(SensorReading.class);
+        classDataCache.setFields(fieldsData.getFields());
+        classDataCache.setIdField(fieldsData.getIdField());
+        return classDataCache;
+    }
+
+    private static DefaultProperties properties(Path deadLetterDirectory) {
+        return DefaultProperties.getProperties(new PropertyEnvironment() {
+            @Override
+            public String getProperty(String propertyName, String defaultValue) {
+                return switch (propertyName) {
+                    case "clicksave.core.batch-save-rate", "clicksave.utils.failed-batch-redrive-interval" -> "0";
+                    case "clicksave.core.batch.circuit-breaker.failure-threshold" -> "1";
+                    case "clicksave.core.batch.circuit-breaker.open-duration" -> String.valueOf(OPEN_DURATION);
+                    case "clicksave.utils.failed-batch-directory-path" -> deadLetterDirectory.toString();
+                    default -> defaultValue;
+                };
+            }
+
+            @Override
+            public String getProperty(String propertyName) {
+                return null;
+            }
+        });
+    }
+
+    /**
+     * A connection manager without a data source, its connections stream the RowBinary rows to memory.
+     */
+    private class StubConnectionManager extends ConnectionManager {
+
+        StubConnectionManager(DefaultProperties properties) throws SQLException {
+            super(properties);
+        }
+
+        @Override
+        public synchronized Connection getConnection() {
+            ClickHouseStatement statement = (ClickHouseStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ClickHouseStatement.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "sendRowBinaryStream" -> {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    ((ClickHouseStreamCallback) args[args.length - 1]).writeTo(new ClickHouseRowBinaryStream(out, TimeZone.getTimeZone("UTC"), new ClickHouseProperties()));
+                    sentBytes.add(out.size());
+                    yield null;
+                }
+                case "close" -> null;
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+            boolean[] closed = {false};
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ClickHouseConnection.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "unwrap" -> proxy;
+                case "getTimeZone" -> TimeZone.getTimeZone("UTC");
+                case "createStatement" -> statement;
+                case "isClosed" -> closed[0];
+                case "close" -> {
+                    closed[0] = true;
+                    yield null;
+                }
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+        }
+    }
+
+    /**
+     * Sums the counters and keeps the gauges by name.
+     */
+    private static class RecordingMetrics implements ClicksaveMetrics {
+
+        final Map<String, Integer> counters = new ConcurrentHashMap<>();
+        final Map<String, Supplier<Number>> gauges = new ConcurrentHashMap<>();
+
+        @Override
+        public void incrementCounter(String name) {
+            incrementCounter(name, 1);
+        }
+
+        @Override
+        public void incrementCounter(String name, int value) {
+            counters.merge(name, value, Integer::sum);
+        }
+
+        @Override
+        public void registerNumValueCheck(String name, Supplier<Number> source) {
+            gauges.put(name, source);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.altinntech.clicksave.core;
+
+import com.altinntech.clicksave.core.utils.DefaultProperties;
+import com.altinntech.clicksave.enums.Metrics;
+import com.altinntech.clicksave.interfaces.ClicksaveMetrics;
+import com.altinntech.clicksave.interfaces.PropertyEnvironment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// in the core package, saves are submitted with the package-private ThreadPoolManager.submit
+public class ThreadPoolManagerTests {
+
+    private static final long WAIT_TIMEOUT = 100;
+
+    private final RecordingMetrics metrics = new RecordingMetrics();
+    private final ThreadPoolManager threadPoolManager = new ThreadPoolManager(properties(), metrics);
+
+    @AfterEach
+    void after() {
+        threadPoolManager.shutdown();
+    }
+
+    @Test
+    void waitForCompletion_NoSaves_ReturnsAtOnce() {
+        threadPoolManager.waitForCompletion(String.class);
+
+        assertEquals(Map.of(), metrics.counters);
+    }
+
+    @Test
+    void waitForCompletion_WaitsForSubmittedSave() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Boolean> save = threadPoolManager.submit(String.class, () -> release.await(5, TimeUnit.SECONDS));
+
+        Thread releaser = new Thread(() -> {
+            sleep(20);
+            release.countDown();
+        });
+        releaser.start();
+        threadPoolManager.waitForCompletion(String.class);
+
+        assertTrue(save.isDone());
+        assertNull(metrics.counters.get(Metrics.ASYNC_SAVE_WAIT_TIMEOUT.getMetricsName()));
+        releaser.join();
+    }
+
+    @Test
+    void waitForCompletion_Timeout_CountsMetric() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        threadPoolManager.submit(String.class, () -> release.await(5, TimeUnit.SECONDS));
+        assertEquals(1, metrics.gauges.get(Metrics.ASYNC_SAVE_IN_FLIGHT.getMetricsName()).get().intValue());
+
+        long start = System.nanoTime();
+        threadPoolManager.waitForCompletion(String.class);
+        long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+
+        assertTrue(waited >= WAIT_TIMEOUT, "waited " + waited + " ms");
+        assertEquals(1, metrics.counters.get(Metrics.ASYNC_SAVE_WAIT_TIMEOUT.getMetricsName()));
+        assertTrue(metrics.counters.get(Metrics.ASYNC_SAVE_WAIT_MILLIS.getMetricsName()) >= WAIT_TIMEOUT);
+    }
+
+    @Test
+    void waitForCompletion_IgnoresSavesSubmittedWhileWaiting() throws Exception {
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        CountDownLatch releaseSecond = new CountDownLatch(1);
+        threadPoolManager.submit(String.class, () -> releaseFirst.await(5, TimeUnit.SECONDS));
+        Thread reader = new Thread(() -> threadPoolManager.waitForCompletion(String.class));
+        reader.start();
+        while (reader.isAlive() && reader.getState() != Thread.State.TIMED_WAITING) {
+            Thread.onSpinWait();
+        }
+
+        threadPoolManager.submit(String.class, () -> releaseSecond.await(5, TimeUnit.SECONDS));
+        releaseFirst.countDown();
+        reader.join(TimeUnit.SECONDS.toMillis(5));
+        releaseSecond.countDown();
+
+        assertFalse(reader.isAlive());
+        assertNull(metrics.counters.get(Metrics.ASYNC_SAVE_WAIT_TIMEOUT.getMetricsName()));
+    }
+
+    @Test
+    void waitForCompletion_OtherEntityClass_NotWaited() {
+        CountDownLatch release = new CountDownLatch(1);
+        threadPoolManager.submit(Integer.class, () -> release.await(5, TimeUnit.SECONDS));
+        threadPoolManager.submit(String.class, () -> true);
+        threadPoolManager.waitForCompletion(String.class);
+        release.countDown();
+
+        assertNull(metrics.counters.get(Metrics.ASYNC_SAVE_WAIT_TIMEOUT.getMetricsName()));
+    }
+
+    private static DefaultProperties properties() {
+        return DefaultProperties.getProperties(new PropertyEnvironment() {
+            @Override
+            public String getProperty(String propertyName, String defaultValue) {
+                return switch (propertyName) {
+                    case "clicksave.core.thread-manager.wait-timeout" -> String.valueOf(WAIT_TIMEOUT);
+                    // a blocked save of one entity must not hold the only thread
+                    case "clicksave.core.thread-manager.max-processors" -> "2";
+                    default -> defaultValue;
+                };
+            }
+
+            @Override
+            public String getProperty(String propertyName) {
+                return null;
+            }
+        });
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sums the counters and keeps the gauges by name.
+     */
+    private static class RecordingMetrics implements ClicksaveMetrics {
+
+        final Map<String, Integer> counters = new ConcurrentHashMap<>();
+        final Map<String, Supplier<Number>> gauges = new ConcurrentHashMap<>();
+
+        @Override
+        public void incrementCounter(String name) {
+            incrementCounter(name, 1);
+        }
+
+        @Override
+        public void incrementCounter(String name, int value) {
+            counters.merge(name, value, Integer::sum);
+        }
+
+        @Override
+        public void registerNumValueCheck(String name, Supplier<Number> source) {
+            gauges.put(name, source);
+        }
+    }
+}
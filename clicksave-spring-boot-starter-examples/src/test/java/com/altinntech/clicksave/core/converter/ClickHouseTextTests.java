@@ -0,0 +1,87 @@
+package com.altinntech.clicksave.core.converter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// in the converter package, ClickHouseText is package-private
+public class ClickHouseTextTests {
+
+    @Test
+    void parse_Scalars() {
+        assertEquals(42L, ClickHouseText.parse("42"));
+        assertEquals(-7L, ClickHouseText.parse(" -7 "));
+        assertEquals("1.5", ClickHouseText.parse("1.5"));
+        assertEquals("true", ClickHouseText.parse("true"));
+        assertNull(ClickHouseText.parse("NULL"));
+        assertNull(ClickHouseText.parse("null"));
+        assertEquals("text", ClickHouseText.parse("'text'"));
+    }
+
+    @Test
+    void parse_LongerIntegersKeptAsText() {
+        assertEquals(999999999999999999L, ClickHouseText.parse("999999999999999999"));
+        assertEquals("18446744073709551615", ClickHouseText.parse("18446744073709551615"));
+        assertEquals("-", ClickHouseText.parse("-"));
+    }
+
+    @Test
+    void parse_Escapes() {
+        assertEquals("it's", ClickHouseText.parse("'it\\'s'"));
+        assertEquals("it's", ClickHouseText.parse("'it''s'"));
+        assertEquals("a\\b", ClickHouseText.parse("'a\\\\b'"));
+        assertEquals("t\tn\nr\rb\bf\f0\0", ClickHouseText.parse("'t\\tn\\nr\\rb\\bf\\f0\\0'"));
+        // unknown escapes keep the escaped character
+        assertEquals("x", ClickHouseText.parse("'\\x'"));
+        assertEquals("", ClickHouseText.parse("''"));
+    }
+
+    @Test
+    void parse_Sequences() {
+        assertEquals(List.of(), ClickHouseText.parse("[]"));
+        assertEquals(List.of(), ClickHouseText.parse("[ ]"));
+        assertEquals(List.of(1L, 2L, 3L), ClickHouseText.parse("[1,2,3]"));
+        assertEquals(List.of("a,b", "]", "c"), ClickHouseText.parse("[ 'a,b' , ']' ,'c' ]"));
+        assertEquals(Arrays.asList("x", 1L, null), ClickHouseText.parse("('x',1,NULL)"));
+        assertEquals(List.of(List.of(1L), List.of(), List.of("a", List.of(2L))), ClickHouseText.parse("[[1],[],('a',[2])]"));
+    }
+
+    @Test
+    void parse_Maps() {
+        Map<Object, Object> expected = new LinkedHashMap<>();
+        expected.put("b", 1L);
+        expected.put("a:b", List.of(2L, 3L));
+        expected.put(4L, "{}");
+
+        Object parsed = ClickHouseText.parse("{'b':1, 'a:b' : [2,3],4:'{}'}");
+
+        assertEquals(expected, parsed);
+        assertEquals(List.of("b", "a:b", 4L), List.copyOf(((Map<?, ?>) parsed).keySet()));
+        assertEquals(Map.of(), ClickHouseText.parse("{}"));
+    }
+
+    @Test
+    void parse_Invalid_Throws() {
+        for (String text : new String[]{
+                "",
+                "   ",
+                "[1,2",
+                "[1 2]",
+                "[1,]",
+                "(1]",
+                "{'a' 1}",
+                "{'a':}",
+                "'unclosed",
+                "'trailing\\",
+                "[1] x",
+                "]"
+        }) {
+            assertThrows(IllegalArgumentException.class, () -> ClickHouseText.parse(text), text);
+        }
+    }
+}
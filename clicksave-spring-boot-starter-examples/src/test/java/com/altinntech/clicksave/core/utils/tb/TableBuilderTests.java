@@ -0,0 +1,147 @@
+package com.altinntech.clicksave.core.utils.tb;
+
+import com.altinntech.clicksave.annotations.Column;
+import com.altinntech.clicksave.core.CSUtils;
+import com.altinntech.clicksave.core.dto.ColumnData;
+import com.altinntech.clicksave.core.dto.FieldDataCache;
+import com.altinntech.clicksave.enums.FieldType;
+import com.altinntech.clicksave.exceptions.FieldInitializationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// in the tb package, the column diff of TableBuilder is package-private
+public class TableBuilderTests {
+
+    private Map<String, FieldDataCache> fields;
+
+    @BeforeEach
+    void before() throws FieldInitializationException {
+        fields = new HashMap<>();
+        for (FieldDataCache field : CSUtils.getFieldsData(Holder.class).getFields()) {
+            fields.put(field.getFieldName(), field);
+        }
+    }
+
+    @Test
+    void sameCodec_DeclaredWithoutParameters_MatchesDefaults() {
+        assertTrue(ColumnTypes.sameCodec("ZSTD", "CODEC(ZSTD(1))"));
+        assertTrue(ColumnTypes.sameCodec("zstd", "CODEC(ZSTD(1))"));
+        assertTrue(ColumnTypes.sameCodec("ZSTD(1)", "CODEC(ZSTD(1))"));
+        assertTrue(ColumnTypes.sameCodec("ZSTD", "ZSTD(1)"));
+        assertFalse(ColumnTypes.sameCodec("ZSTD(3)", "CODEC(ZSTD(1))"));
+        assertFalse(ColumnTypes.sameCodec("ZSTD", "CODEC(LZ4)"));
+        // a prefix of another codec name is not the same codec
+        assertFalse(ColumnTypes.sameCodec("LZ4", "CODEC(LZ4HC(9))"));
+    }
+
+    @Test
+    void sameCodec_MultipleCodecs() {
+        assertTrue(ColumnTypes.sameCodec("Delta, ZSTD", "CODEC(Delta(8), ZSTD(1))"));
+        assertTrue(ColumnTypes.sameCodec("Delta(8),ZSTD(3)", "CODEC(Delta(8), ZSTD(3))"));
+        assertFalse(ColumnTypes.sameCodec("ZSTD, Delta", "CODEC(Delta(8), ZSTD(1))"));
+        assertFalse(ColumnTypes.sameCodec("Delta", "CODEC(Delta(8), ZSTD(1))"));
+        assertFalse(ColumnTypes.sameCodec("Delta, ZSTD, LZ4", "CODEC(Delta(8), ZSTD(1))"));
+    }
+
+    @Test
+    void sameCodec_NoCodec() {
+        assertTrue(ColumnTypes.sameCodec("", ""));
+        assertTrue(ColumnTypes.sameCodec("", null));
+        assertFalse(ColumnTypes.sameCodec("", "CODEC(ZSTD(1))"));
+        assertFalse(ColumnTypes.sameCodec("ZSTD", ""));
+    }
+
+    @Test
+    void sameExpression_IgnoresWhitespaces() {
+        assertTrue(ColumnTypes.sameExpression("now()", "now()"));
+        assertTrue(ColumnTypes.sameExpression("toYYYYMM( timestamp )", "toYYYYMM(timestamp)"));
+        assertTrue(ColumnTypes.sameExpression("a +\n1", "a + 1"));
+        assertTrue(ColumnTypes.sameExpression("", null));
+        assertFalse(ColumnTypes.sameExpression("now()", "now64()"));
+        assertFalse(ColumnTypes.sameExpression("", "now()"));
+    }
+
+    @Test
+    void definitionOf_TypeDefaultAndCodec() {
+        assertEquals("LowCardinality(Nullable(String)) DEFAULT 'none' CODEC(ZSTD(3))", ColumnTypes.definitionOf(fields.get("label")));
+        assertEquals("DateTime64(9) MATERIALIZED now64(9)", ColumnTypes.definitionOf(fields.get("created")));
+        assertEquals("Int64 CODEC(Delta, ZSTD)", ColumnTypes.definitionOf(fields.get("counter")));
+        assertEquals("String", ColumnTypes.definitionOf(fields.get("plain")));
+    }
+
+    @Test
+    void isChanged_ComparesTypeDefaultAndCodec() {
+        FieldDataCache label = fields.get("label");
+        FieldDataCache counter = fields.get("counter");
+        FieldDataCache plain = fields.get("plain");
+
+        assertFalse(TableBuilder.isChanged(label, new ColumnData("label", "LowCardinality(Nullable(String))", "DEFAULT", "'none'", "CODEC(ZSTD(3))")));
+        assertFalse(TableBuilder.isChanged(counter, new ColumnData("counter", "Int64", "", "", "CODEC(Delta(8), ZSTD(1))")));
+        assertFalse(TableBuilder.isChanged(plain, new ColumnData("plain", "String")));
+
+        assertTrue(TableBuilder.isChanged(plain, new ColumnData("plain", "Nullable(String)")));
+        assertTrue(TableBuilder.isChanged(label, new ColumnData("label", "LowCardinality(Nullable(String))", "DEFAULT", "'other'", "CODEC(ZSTD(3))")));
+        assertTrue(TableBuilder.isChanged(label, new ColumnData("label", "LowCardinality(Nullable(String))", "MATERIALIZED", "'none'", "CODEC(ZSTD(3))")));
+        assertTrue(TableBuilder.isChanged(label, new ColumnData("label", "LowCardinality(Nullable(String))", "DEFAULT", "'none'", "CODEC(ZSTD(1))")));
+        assertTrue(TableBuilder.isChanged(plain, new ColumnData("plain", "String", "DEFAULT", "'x'", "")));
+        assertTrue(TableBuilder.isChanged(plain, new ColumnData("plain", "String", "", "", "CODEC(LZ4)")));
+    }
+
+    @Test
+    void modifyColumn_TypeOnly() {
+        assertEquals(List.of("ALTER TABLE t MODIFY COLUMN plain String"),
+                TableBuilder.modifyColumnQueries("t", fields.get("plain"), new ColumnData("plain", "Nullable(String)")));
+    }
+
+    @Test
+    void modifyColumn_RemovesUndeclaredDefaultAndCodec() {
+        ColumnData column = new ColumnData("plain", "String", "DEFAULT", "'x'", "CODEC(ZSTD(1))");
+
+        assertEquals(List.of(
+                        "ALTER TABLE t MODIFY COLUMN plain String",
+                        "ALTER TABLE t MODIFY COLUMN plain REMOVE DEFAULT",
+                        "ALTER TABLE t MODIFY COLUMN plain REMOVE CODEC"),
+                TableBuilder.modifyColumnQueries("t", fields.get("plain"), column));
+    }
+
+    @Test
+    void modifyColumn_RemovesOnlyWhatIsNotDeclared() {
+        // the default is declared, the codec is not
+        ColumnData withCodec = new ColumnData("label", "LowCardinality(Nullable(String))", "DEFAULT", "'old'", "CODEC(LZ4)");
+        FieldDataCache withoutCodec = fields.get("defaultOnly");
+        assertEquals(List.of(
+                        "ALTER TABLE t MODIFY COLUMN default_only String DEFAULT 'none'",
+                        "ALTER TABLE t MODIFY COLUMN default_only REMOVE CODEC"),
+                TableBuilder.modifyColumnQueries("t", withoutCodec, withCodec));
+
+        // both are declared, the definition replaces them
+        assertEquals(List.of("ALTER TABLE t MODIFY COLUMN label LowCardinality(Nullable(String)) DEFAULT 'none' CODEC(ZSTD(3))"),
+                TableBuilder.modifyColumnQueries("t", fields.get("label"), withCodec));
+
+        // the codec is declared, the default is not
+        assertEquals(List.of(
+                        "ALTER TABLE t MODIFY COLUMN counter Int64 CODEC(Delta, ZSTD)",
+                        "ALTER TABLE t MODIFY COLUMN counter REMOVE DEFAULT"),
+                TableBuilder.modifyColumnQueries("t", fields.get("counter"), new ColumnData("counter", "Int64", "DEFAULT", "0", "")));
+    }
+
+    static class Holder {
+        @Column(value = FieldType.STRING, nullable = true, lowCardinality = true, defaultExpression = "'none'", codec = "ZSTD(3)")
+        String label;
+        @Column(value = FieldType.DATE_TIME, materialized = "now64(9)")
+        LocalDateTime created;
+        @Column(value = FieldType.LONG, codec = "Delta, ZSTD")
+        Long counter;
+        @Column(FieldType.STRING)
+        String plain;
+        @Column(value = FieldType.STRING, defaultExpression = "'none'")
+        String defaultOnly;
+    }
+}